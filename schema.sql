@@ -5,6 +5,15 @@
 
 -- Extensions
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Search form of names and emails: lower case, umlauts and sharp s spelled out, common accents
+-- dropped. Must stay in step with Suchtext.normalize in the application.
+CREATE OR REPLACE FUNCTION suchtext(wert TEXT) RETURNS TEXT AS $$
+    SELECT translate(
+        replace(replace(replace(replace(lower(wert), 'ä', 'ae'), 'ö', 'oe'), 'ü', 'ue'), 'ß', 'ss'),
+        'áàâãåéèêëíìîïóòôõúùûçñ', 'aaaaaeeeeiiiiooooouuucn')
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
 
 -- =============================================================================
 -- CORE TABLES
@@ -73,7 +82,9 @@ CREATE TABLE teilnehmer (
     anmeldedatum DATE DEFAULT CURRENT_DATE,
     aktiv BOOLEAN DEFAULT TRUE,
     erstellt_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    geaendert_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    geaendert_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    such_name TEXT GENERATED ALWAYS AS (suchtext(vorname || ' ' || nachname)) STORED,
+    such_email TEXT GENERATED ALWAYS AS (suchtext(email)) STORED
 );
 
 -- Courses
@@ -128,8 +139,10 @@ CREATE TABLE stundenplan (
 );
 
 -- Attendance (simplified)
+-- Range-partitioned by month of datum; partitions are created ahead by anwesenheit_partitionen_anlegen
+-- and moved to anwesenheit_archiv once every course in them has been finished for a few years
 CREATE TABLE anwesenheit (
-    anwesenheit_id SERIAL PRIMARY KEY,
+    anwesenheit_id SERIAL,
     teilnehmer_id INTEGER NOT NULL,
     kurs_id INTEGER NOT NULL,
     datum DATE NOT NULL,
@@ -137,9 +150,40 @@ CREATE TABLE anwesenheit (
     entschuldigt BOOLEAN DEFAULT FALSE,
     bemerkung TEXT,
     erfasst_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    geaendert_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- set on insert and update, read by the early-warning job
     FOREIGN KEY (teilnehmer_id) REFERENCES teilnehmer(teilnehmer_id),
     FOREIGN KEY (kurs_id) REFERENCES kurse(kurs_id) ON DELETE CASCADE,
+    PRIMARY KEY (anwesenheit_id, datum), -- the partition key must be part of every unique constraint
     UNIQUE (teilnehmer_id, kurs_id, datum)
+) PARTITION BY RANGE (datum);
+
+-- Archived month partitions of anwesenheit (same columns, attached on archival)
+CREATE TABLE anwesenheit_archiv (
+    anwesenheit_id INTEGER NOT NULL,
+    teilnehmer_id INTEGER NOT NULL,
+    kurs_id INTEGER NOT NULL,
+    datum DATE NOT NULL,
+    anwesend BOOLEAN DEFAULT TRUE,
+    entschuldigt BOOLEAN DEFAULT FALSE,
+    bemerkung TEXT,
+    erfasst_am TIMESTAMP,
+    geaendert_am TIMESTAMP
+) PARTITION BY RANGE (datum);
+
+-- Attendance counters per student and course, kept in step with anwesenheit by delta updates
+-- in the writing transaction and repaired by a nightly reconciliation job
+CREATE TABLE anwesenheit_summary (
+    kurs_id INTEGER NOT NULL,
+    teilnehmer_id INTEGER NOT NULL,
+    total INTEGER NOT NULL DEFAULT 0,
+    present INTEGER NOT NULL DEFAULT 0,
+    excused INTEGER NOT NULL DEFAULT 0,
+    unexcused INTEGER NOT NULL DEFAULT 0,
+    last_datum DATE,
+    aktualisiert_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (kurs_id, teilnehmer_id),
+    FOREIGN KEY (teilnehmer_id) REFERENCES teilnehmer(teilnehmer_id),
+    FOREIGN KEY (kurs_id) REFERENCES kurse(kurs_id) ON DELETE CASCADE
 );
 
 -- Basic Tests/Evaluations
@@ -159,6 +203,77 @@ CREATE TABLE bewertungen (
     FOREIGN KEY (kurs_id) REFERENCES kurse(kurs_id)
 );
 
+-- Rolling dropout-risk features per enrollment, updated incrementally by the early-warning job
+CREATE TABLE fruehwarnungen (
+    kurs_id INTEGER NOT NULL,
+    teilnehmer_id INTEGER NOT NULL,
+    letzte_datum DATE,
+    fehlserie INTEGER NOT NULL DEFAULT 0,
+    sitzungen INTEGER NOT NULL DEFAULT 0,
+    unentschuldigt_quote DECIMAL(5,2) NOT NULL DEFAULT 0,
+    bewertungen INTEGER NOT NULL DEFAULT 0,
+    nicht_bestanden_serie INTEGER NOT NULL DEFAULT 0,
+    letzte_punkte_quote DECIMAL(5,2),
+    punkte_trend DECIMAL(6,2) NOT NULL DEFAULT 0, -- smoothed change of the score percentage between tests
+    gefaehrdet BOOLEAN NOT NULL DEFAULT FALSE,
+    gruende VARCHAR(200),
+    gefaehrdet_seit TIMESTAMP,
+    aktualisiert_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (kurs_id, teilnehmer_id),
+    FOREIGN KEY (teilnehmer_id) REFERENCES teilnehmer(teilnehmer_id),
+    FOREIGN KEY (kurs_id) REFERENCES kurse(kurs_id) ON DELETE CASCADE
+);
+
+-- Progress of incremental jobs: last processed (timestamp, id) per source
+CREATE TABLE job_watermarks (
+    name VARCHAR(50) PRIMARY KEY,
+    zeitpunkt TIMESTAMP NOT NULL,
+    letzte_id INTEGER NOT NULL DEFAULT 0
+);
+
+-- Waitlist for full courses (filled by the registration-day enrollment queue)
+CREATE TABLE warteliste (
+    warteliste_id SERIAL PRIMARY KEY,
+    teilnehmer_id INTEGER NOT NULL,
+    kurs_id INTEGER NOT NULL,
+    status VARCHAR(20) DEFAULT 'wartend', -- wartend, nachgerueckt, storniert
+    eingetragen_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    nachgerueckt_am TIMESTAMP,
+    FOREIGN KEY (teilnehmer_id) REFERENCES teilnehmer(teilnehmer_id),
+    FOREIGN KEY (kurs_id) REFERENCES kurse(kurs_id) ON DELETE CASCADE
+);
+
+-- Rotating refresh tokens; only the SHA-256 hash of a token is stored.
+-- user_id refers to users(user_id), which is managed outside this script.
+CREATE TABLE refresh_tokens (
+    refresh_token_id BIGSERIAL PRIMARY KEY,
+    user_id INTEGER NOT NULL,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    family_id VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    revoked_at TIMESTAMP
+);
+
+-- Dated sessions expanded from stundenplan between kurse.startdatum and kurse.enddatum.
+-- Room and trainer are copied from the course so calendar views are range scans on this table.
+CREATE TABLE kurs_termine (
+    termin_id SERIAL PRIMARY KEY,
+    stundenplan_id INTEGER NOT NULL,
+    kurs_id INTEGER NOT NULL,
+    kursraum_id INTEGER NOT NULL,
+    trainer_id INTEGER NOT NULL,
+    datum DATE NOT NULL,
+    startzeit TIME NOT NULL,
+    endzeit TIME NOT NULL,
+    erstellt_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (stundenplan_id) REFERENCES stundenplan(stundenplan_id) ON DELETE CASCADE,
+    FOREIGN KEY (kurs_id) REFERENCES kurse(kurs_id) ON DELETE CASCADE,
+    FOREIGN KEY (kursraum_id) REFERENCES kursraeume(kursraum_id),
+    FOREIGN KEY (trainer_id) REFERENCES trainer(trainer_id),
+    UNIQUE (stundenplan_id, datum)
+);
+
 -- =============================================================================
 -- HELPER FUNCTIONS AND TRIGGERS
 -- =============================================================================
@@ -193,38 +308,46 @@ CREATE TRIGGER update_teilnehmer_kurse_modified
     FOR EACH ROW
     EXECUTE FUNCTION update_modified_time();
 
--- Function to update current student count in courses
-CREATE OR REPLACE FUNCTION update_teilnehmer_anzahl()
-RETURNS TRIGGER AS $$
+-- Monthly partitions of anwesenheit from the month of von through the month of bis; months that
+-- already have a partition (also archived ones) are skipped. Records of the month that went to the
+-- default partition are moved into the new partition. Returns the number of partitions created.
+CREATE OR REPLACE FUNCTION anwesenheit_partitionen_anlegen(von DATE, bis DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    monat DATE := date_trunc('month', von)::date;
+    partition TEXT;
+    angelegt INTEGER := 0;
 BEGIN
-    IF TG_OP = 'DELETE' THEN
-        UPDATE kurse 
-        SET aktuelle_teilnehmer = (
-            SELECT COUNT(*) 
-            FROM teilnehmer_kurse 
-            WHERE kurs_id = OLD.kurs_id 
-            AND status IN ('angemeldet', 'aktiv')
-        )
-        WHERE kurs_id = OLD.kurs_id;
-        RETURN OLD;
-    ELSE
-        UPDATE kurse 
-        SET aktuelle_teilnehmer = (
-            SELECT COUNT(*) 
-            FROM teilnehmer_kurse 
-            WHERE kurs_id = NEW.kurs_id 
-            AND status IN ('angemeldet', 'aktiv')
-        )
-        WHERE kurs_id = NEW.kurs_id;
-        RETURN NEW;
-    END IF;
+    WHILE monat <= bis LOOP
+        partition := 'anwesenheit_p' || to_char(monat, 'YYYY_MM');
+        IF to_regclass(partition) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE anwesenheit INCLUDING DEFAULTS)', partition);
+            EXECUTE format('WITH verschoben AS (DELETE FROM anwesenheit_default WHERE datum >= %L AND datum < %L '
+                           'RETURNING *) INSERT INTO %I SELECT * FROM verschoben',
+                           monat, (monat + INTERVAL '1 month')::date, partition);
+            EXECUTE format('ALTER TABLE anwesenheit ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           partition, monat, (monat + INTERVAL '1 month')::date);
+            angelegt := angelegt + 1;
+        END IF;
+        monat := (monat + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN angelegt;
 END;
 $$ LANGUAGE plpgsql;
 
-CREATE TRIGGER update_teilnehmer_anzahl_trigger
-    AFTER INSERT OR UPDATE OR DELETE ON teilnehmer_kurse
-    FOR EACH ROW
-    EXECUTE FUNCTION update_teilnehmer_anzahl();
+-- Catches dates without a month partition (before 2020, beyond the partitions created ahead, or in
+-- an archived month), so such records are stored instead of failing the insert
+CREATE TABLE anwesenheit_default PARTITION OF anwesenheit DEFAULT;
+
+-- Initial partitions; AnwesenheitPartitionService keeps creating them ahead
+SELECT anwesenheit_partitionen_anlegen(DATE '2020-01-01', (CURRENT_DATE + INTERVAL '12 months')::date);
+
+-- kurse.aktuelle_teilnehmer is maintained by the application with a conditional
+-- UPDATE (... SET aktuelle_teilnehmer = aktuelle_teilnehmer + 1 WHERE aktuelle_teilnehmer < max_teilnehmer),
+-- which enforces capacity under concurrency. The former recount trigger raced with it
+-- and is removed on existing installations.
+DROP TRIGGER IF EXISTS update_teilnehmer_anzahl_trigger ON teilnehmer_kurse;
+DROP FUNCTION IF EXISTS update_teilnehmer_anzahl();
 
 -- =============================================================================
 -- INDEXES FOR PERFORMANCE
@@ -236,10 +359,26 @@ CREATE INDEX idx_kurse_raum ON kurse(kursraum_id);
 CREATE INDEX idx_kurse_trainer ON kurse(trainer_id);
 CREATE INDEX idx_kurse_status ON kurse(status);
 CREATE INDEX idx_kurse_datum ON kurse(startdatum, enddatum);
+CREATE INDEX idx_teilnehmer_such_name ON teilnehmer USING gin (such_name gin_trgm_ops);
+CREATE INDEX idx_teilnehmer_such_email ON teilnehmer USING gin (such_email gin_trgm_ops);
 CREATE INDEX idx_teilnehmer_kurse_teilnehmer ON teilnehmer_kurse(teilnehmer_id);
 CREATE INDEX idx_teilnehmer_kurse_kurs ON teilnehmer_kurse(kurs_id);
 CREATE INDEX idx_anwesenheit_teilnehmer_datum ON anwesenheit(teilnehmer_id, datum);
 CREATE INDEX idx_anwesenheit_kurs_datum ON anwesenheit(kurs_id, datum);
+CREATE INDEX idx_anwesenheit_datum_id ON anwesenheit(datum, anwesenheit_id); -- keyset pagination
+CREATE INDEX idx_anwesenheit_geaendert ON anwesenheit(geaendert_am, anwesenheit_id);
+CREATE INDEX idx_anwesenheit_archiv_teilnehmer_kurs ON anwesenheit_archiv(teilnehmer_id, kurs_id, datum);
+CREATE INDEX idx_bewertungen_erstellt ON bewertungen(erstellt_am, bewertung_id);
+CREATE INDEX idx_fruehwarnungen_gefaehrdet ON fruehwarnungen(kurs_id) WHERE gefaehrdet;
+CREATE INDEX idx_warteliste_kurs_wartend ON warteliste(kurs_id, warteliste_id) WHERE status = 'wartend';
+CREATE UNIQUE INDEX idx_warteliste_eindeutig ON warteliste(kurs_id, teilnehmer_id) WHERE status = 'wartend';
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens(user_id) WHERE revoked_at IS NULL;
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens(family_id);
+CREATE INDEX idx_refresh_tokens_expires ON refresh_tokens(expires_at);
+CREATE INDEX idx_kurs_termine_datum ON kurs_termine(datum, startzeit);
+CREATE INDEX idx_kurs_termine_raum_datum ON kurs_termine(kursraum_id, datum);
+CREATE INDEX idx_kurs_termine_trainer_datum ON kurs_termine(trainer_id, datum);
+CREATE INDEX idx_kurs_termine_kurs_datum ON kurs_termine(kurs_id, datum);
 
 -- =============================================================================
 -- USEFUL VIEWS
@@ -304,16 +443,14 @@ SELECT
     t.teilnehmer_id,
     t.vorname || ' ' || t.nachname AS teilnehmer_name,
     k.kurs_name,
-    COUNT(a.anwesenheit_id) as tage_gesamt,
-    SUM(CASE WHEN a.anwesend THEN 1 ELSE 0 END) as tage_anwesend,
-    ROUND(AVG(CASE WHEN a.anwesend THEN 1 ELSE 0 END) * 100, 1) as anwesenheitsquote
-FROM teilnehmer t
-JOIN teilnehmer_kurse tk ON t.teilnehmer_id = tk.teilnehmer_id
-JOIN kurse k ON tk.kurs_id = k.kurs_id
-LEFT JOIN anwesenheit a ON t.teilnehmer_id = a.teilnehmer_id AND k.kurs_id = a.kurs_id
-WHERE t.aktiv = TRUE AND tk.status IN ('angemeldet', 'aktiv')
-GROUP BY t.teilnehmer_id, t.vorname, t.nachname, k.kurs_name
-HAVING COUNT(a.anwesenheit_id) > 0;
+    s.total as tage_gesamt,
+    s.present as tage_anwesend,
+    ROUND(s.present * 100.0 / s.total, 1) as anwesenheitsquote
+FROM anwesenheit_summary s
+JOIN teilnehmer t ON t.teilnehmer_id = s.teilnehmer_id
+JOIN teilnehmer_kurse tk ON tk.teilnehmer_id = s.teilnehmer_id AND tk.kurs_id = s.kurs_id
+JOIN kurse k ON k.kurs_id = s.kurs_id
+WHERE t.aktiv = TRUE AND tk.status IN ('angemeldet', 'aktiv') AND s.total > 0;
 
 -- =============================================================================
 -- SAMPLE DATA
@@ -361,24 +498,29 @@ CREATE OR REPLACE FUNCTION teilnehmer_anmelden(
     p_kurs_id INTEGER
 )
 RETURNS BOOLEAN AS $$
-DECLARE
-    v_max_teilnehmer INTEGER;
-    v_aktuelle_teilnehmer INTEGER;
 BEGIN
-    -- Check course capacity
-    SELECT max_teilnehmer, aktuelle_teilnehmer 
-    INTO v_max_teilnehmer, v_aktuelle_teilnehmer
-    FROM kurse WHERE kurs_id = p_kurs_id;
-    
-    IF v_aktuelle_teilnehmer >= v_max_teilnehmer THEN
+    -- Take a seat atomically; the row lock serializes concurrent enrollments
+    UPDATE kurse
+    SET aktuelle_teilnehmer = aktuelle_teilnehmer + 1
+    WHERE kurs_id = p_kurs_id
+    AND aktuelle_teilnehmer < max_teilnehmer;
+
+    IF NOT FOUND THEN
         RETURN FALSE; -- Course is full
     END IF;
-    
+
     -- Enroll student
     INSERT INTO teilnehmer_kurse (teilnehmer_id, kurs_id, status)
     VALUES (p_teilnehmer_id, p_kurs_id, 'angemeldet')
     ON CONFLICT (teilnehmer_id, kurs_id) DO NOTHING;
-    
+
+    IF NOT FOUND THEN
+        -- Already enrolled: give the seat back
+        UPDATE kurse
+        SET aktuelle_teilnehmer = aktuelle_teilnehmer - 1
+        WHERE kurs_id = p_kurs_id;
+    END IF;
+
     RETURN TRUE;
 END;
 $$ LANGUAGE plpgsql;
@@ -423,8 +565,15 @@ COMMENT ON TABLE teilnehmer IS 'Students enrolled in the institute';
 COMMENT ON TABLE kurse IS 'Courses offered';
 COMMENT ON TABLE teilnehmer_kurse IS 'Student-course assignments';
 COMMENT ON TABLE stundenplan IS 'Weekly schedule for courses';
-COMMENT ON TABLE anwesenheit IS 'Daily attendance records';
+COMMENT ON TABLE anwesenheit IS 'Daily attendance records (partitioned by month)';
+COMMENT ON TABLE anwesenheit_summary IS 'Attendance counters per student and course (delta-maintained)';
+COMMENT ON TABLE anwesenheit_archiv IS 'Archived monthly attendance partitions of finished courses';
+COMMENT ON TABLE fruehwarnungen IS 'Dropout-risk features and flags per enrollment';
+COMMENT ON TABLE job_watermarks IS 'Watermarks of incremental jobs';
 COMMENT ON TABLE bewertungen IS 'Test results and evaluations';
+COMMENT ON TABLE warteliste IS 'Waitlist for full courses';
+COMMENT ON TABLE refresh_tokens IS 'Rotating refresh tokens (hashed)';
+COMMENT ON TABLE kurs_termine IS 'Dated course sessions generated from the weekly schedule';
 
 -- Schema version
 CREATE TABLE schema_version (
@@ -1,11 +1,15 @@
 package com.bildungsinsitut.deutschkurse.config;
 
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     @Bean
@@ -15,5 +19,60 @@ public class AppConfig {
         return new RestTemplate();
     }
 
+    /**
+     * Drains the per-course enrollment queues. Each course is drained by at most one
+     * thread at a time, so the pool size bounds how many courses are processed in parallel.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor enrollmentExecutor(@Value("${app.enrollment.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("enrollment-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Runs the parallel searches of the timetable solver
+     */
+    @Bean
+    public ThreadPoolTaskExecutor timetableExecutor(@Value("${app.timetable.threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("timetable-");
+        return executor;
+    }
+
+    /**
+     * Runs CSV import jobs. A single thread by default, so two imports never race on the same
+     * email; further jobs wait in the queue.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(@Value("${app.import.threads:1}") int threads,
+                                                 @Value("${app.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-");
+        return executor;
+    }
+
+    /**
+     * Rebuilds the available-courses catalog; one thread, so rebuilds never overlap
+     */
+    @Bean
+    public ThreadPoolTaskExecutor katalogExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("katalog-");
+        return executor;
+    }
+
     // You can define other beans here
-}
\ No newline at end of file
+}
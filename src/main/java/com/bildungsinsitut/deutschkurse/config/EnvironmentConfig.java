@@ -32,6 +32,10 @@ public class EnvironmentConfig {
     @Value("${JWT_EXPIRATION:86400000}")
     private Long jwtExpiration;
 
+    // Calendar feed tokens
+    @Value("${KALENDER_FEED_SECRET:#{null}}")
+    private String kalenderFeedSecret;
+
     // Application Configuration
     @Value("${SERVER_PORT:8080}")
     private Integer serverPort;
@@ -50,6 +54,10 @@ public class EnvironmentConfig {
         // Validate required environment variables
         validateRequiredVariable("DB_PASSWORD", databasePassword);
         validateRequiredVariable("JWT_SECRET", jwtSecret);
+        validateRequiredVariable("KALENDER_FEED_SECRET", kalenderFeedSecret);
+        if (kalenderFeedSecret.equals(jwtSecret)) {
+            throw new IllegalStateException("KALENDER_FEED_SECRET must differ from JWT_SECRET");
+        }
 
         // Validate JWT secret strength
         if (jwtSecret != null && jwtSecret.length() < 32) {
@@ -1,7 +1,12 @@
 package com.bildungsinsitut.deutschkurse.config;
 
+import com.bildungsinsitut.deutschkurse.dto.auth.AuthenticatedUser;
+import com.bildungsinsitut.deutschkurse.model.User;
+import com.bildungsinsitut.deutschkurse.service.AuthUserCache;
 import com.bildungsinsitut.deutschkurse.service.CustomUserDetailsService;
+import com.bildungsinsitut.deutschkurse.service.TokenDenyList;
 import com.bildungsinsitut.deutschkurse.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -18,6 +23,8 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -26,6 +33,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final AuthUserCache authUserCache;
+    private final TokenDenyList tokenDenyList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -35,18 +44,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
+            if (StringUtils.hasText(jwt)) {
+                // One signature/expiry check per request; role and account state come from the user cache
+                Optional<AuthenticatedUser> user = jwtUtil.parseValidToken(jwt)
+                        .filter(claims -> !tokenDenyList.isDenied(claims.getId()))
+                        .flatMap(this::resolveUser)
+                        .filter(AuthenticatedUser::active);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                if (user.isPresent()) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            user.get(), null, List.of(user.get().role()));
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("Authentication set for user: {}", username);
+                    log.debug("Authentication set for user: {}", user.get().username());
                 }
             }
         } catch (JwtException e) {
@@ -58,6 +69,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Optional<AuthenticatedUser> resolveUser(Claims claims) {
+        Integer userId = claims.get("userId", Integer.class);
+        if (userId != null) {
+            return authUserCache.get(userId);
+        }
+
+        // Tokens issued without a userId claim fall back to a lookup by subject
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        return userDetails instanceof User u ? Optional.of(AuthenticatedUser.from(u)) : Optional.empty();
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
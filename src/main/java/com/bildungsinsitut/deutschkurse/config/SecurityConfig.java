@@ -2,6 +2,7 @@ package com.bildungsinsitut.deutschkurse.config;
 
 import com.bildungsinsitut.deutschkurse.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,6 +34,18 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.password-hash-threads:0}")
+    private int passwordHashThreads;
+
+    @Value("${app.security.password-hash-queue-capacity:64}")
+    private int passwordHashQueueCapacity;
+
+    @Value("${app.security.password-hash-timeout-ms:5000}")
+    private long passwordHashTimeoutMs;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -44,7 +57,7 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
                         // Public endpoints
-                        .requestMatchers("/api/v1/auth/login", "/api/v1/auth/register", "/api/v1/auth/health").permitAll()
+                        .requestMatchers("/api/v1/auth/login", "/api/v1/auth/register", "/api/v1/auth/refresh", "/api/v1/auth/health").permitAll()
                         .requestMatchers("/api/v1/public/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll() // For testing
 
@@ -78,9 +91,16 @@ public class SecurityConfig {
         return source;
     }
 
-    @Bean
+    /**
+     * BCrypt on a bounded pool (half the cores by default), so login bursts leave CPU for the rest of the API
+     */
+    @Bean(destroyMethod = "shutdown")
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = passwordHashThreads > 0
+                ? passwordHashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength),
+                threads, passwordHashQueueCapacity, passwordHashTimeoutMs);
     }
 
     @Bean
@@ -88,6 +108,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Re-hashes passwords stored with a lower BCrypt strength on the next successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -1,13 +1,20 @@
 package com.bildungsinsitut.deutschkurse.controller;
 
 import com.bildungsinsitut.deutschkurse.dto.AnwesenheitDto;
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitFilter;
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitStatistikDto;
 import com.bildungsinsitut.deutschkurse.dto.BulkAnwesenheitDto;
+import com.bildungsinsitut.deutschkurse.dto.BulkAnwesenheitResultDto;
+import com.bildungsinsitut.deutschkurse.dto.CursorPage;
 import com.bildungsinsitut.deutschkurse.service.AnwesenheitService;
+import com.bildungsinsitut.deutschkurse.service.AttendanceMatrixService;
+import com.bildungsinsitut.deutschkurse.util.AttendanceMatrix;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -21,6 +28,7 @@ import java.util.Map;
 public class AnwesenheitController {
 
     private final AnwesenheitService anwesenheitService;
+    private final AttendanceMatrixService attendanceMatrixService;
 
     /**
      * Get all attendance records
@@ -62,6 +70,40 @@ public class AnwesenheitController {
         return ResponseEntity.ok(anwesenheitService.getAnwesenheitByTeilnehmerAndKurs(teilnehmerId, kursId));
     }
 
+    /**
+     * Attendance grid of a course: one row per student, one character per session day
+     * (A present, E excused, F absent, . no record)
+     * GET /api/v1/anwesenheit/kurs/{kursId}/raster?von=2025-03-01&bis=2025-03-31
+     */
+    @GetMapping("/kurs/{kursId}/raster")
+    public ResponseEntity<AttendanceMatrix.Raster> getRaster(
+            @PathVariable Integer kursId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate von,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bis) {
+        return ResponseEntity.ok(attendanceMatrixService.getRaster(kursId, von, bis));
+    }
+
+    /**
+     * Current attendance streaks of a course's students, e.g. everyone who missed the last 3 sessions
+     * GET /api/v1/anwesenheit/kurs/{kursId}/serien?minFehlend=3
+     */
+    @GetMapping("/kurs/{kursId}/serien")
+    public ResponseEntity<List<AttendanceMatrix.Serie>> getSerien(
+            @PathVariable Integer kursId,
+            @RequestParam(defaultValue = "0") int minFehlend) {
+        return ResponseEntity.ok(attendanceMatrixService.getSerien(kursId, minFehlend));
+    }
+
+    /**
+     * Memory used by the cached attendance matrices per course (admin only)
+     * GET /api/v1/anwesenheit/matrix/speicher
+     */
+    @GetMapping("/matrix/speicher")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AttendanceMatrixService.Speicherbedarf>> getMatrixSpeicher() {
+        return ResponseEntity.ok(attendanceMatrixService.getSpeicherbedarf());
+    }
+
     /**
      * Get attendance statistics for a student in a course
      * GET /api/v1/anwesenheit/statistik/teilnehmer/{teilnehmerId}/kurs/{kursId}
@@ -73,6 +115,24 @@ public class AnwesenheitController {
         return ResponseEntity.ok(anwesenheitService.getAnwesenheitStatistik(teilnehmerId, kursId));
     }
 
+    /**
+     * Get attendance statistics of all students of a course
+     * GET /api/v1/anwesenheit/statistik/kurs/{kursId}
+     */
+    @GetMapping("/statistik/kurs/{kursId}")
+    public ResponseEntity<List<AnwesenheitStatistikDto>> getKursStatistik(@PathVariable Integer kursId) {
+        return ResponseEntity.ok(anwesenheitService.getKursStatistik(List.of(kursId)));
+    }
+
+    /**
+     * Get attendance statistics of all students of several courses
+     * GET /api/v1/anwesenheit/statistik?kursIds=1,2,3
+     */
+    @GetMapping("/statistik")
+    public ResponseEntity<List<AnwesenheitStatistikDto>> getKurseStatistik(@RequestParam List<Integer> kursIds) {
+        return ResponseEntity.ok(anwesenheitService.getKursStatistik(kursIds));
+    }
+
     /**
      * Get attendance for date range
      * GET /api/v1/anwesenheit/zeitraum?startDate=2024-01-01&endDate=2024-12-31
@@ -84,6 +144,17 @@ public class AnwesenheitController {
         return ResponseEntity.ok(anwesenheitService.getAnwesenheitByDateRange(startDate, endDate));
     }
 
+    /**
+     * Get attendance page by page, ordered by date (keyset pagination, optional filters)
+     * GET /api/v1/anwesenheit/page?kursId=1&von=2024-01-01&bis=2024-12-31&size=100&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<AnwesenheitDto>> getAnwesenheitPage(AnwesenheitFilter filter,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(anwesenheitService.getAnwesenheitPage(filter, cursor, size));
+    }
+
     /**
      * Create or update attendance for a single student
      * POST /api/v1/anwesenheit
@@ -99,9 +170,9 @@ public class AnwesenheitController {
      * POST /api/v1/anwesenheit/bulk
      */
     @PostMapping("/bulk")
-    public ResponseEntity<List<AnwesenheitDto>> createBulkAnwesenheit(@Valid @RequestBody BulkAnwesenheitDto bulkDto) {
-        List<AnwesenheitDto> results = anwesenheitService.createBulkAnwesenheit(bulkDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(results);
+    public ResponseEntity<BulkAnwesenheitResultDto> createBulkAnwesenheit(@Valid @RequestBody BulkAnwesenheitDto bulkDto) {
+        BulkAnwesenheitResultDto result = anwesenheitService.createBulkAnwesenheit(bulkDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
     }
 
     /**
@@ -2,7 +2,9 @@ package com.bildungsinsitut.deutschkurse.controller;
 
 import com.bildungsinsitut.deutschkurse.dto.auth.*;
 import com.bildungsinsitut.deutschkurse.enums.Role;
+import com.bildungsinsitut.deutschkurse.exception.TooManyRequestsException;
 import com.bildungsinsitut.deutschkurse.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,13 +28,17 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
             log.info("Login request received for user: {}", loginRequest.getUsername());
-            AuthResponse response = authService.login(loginRequest);
+            AuthResponse response = authService.login(loginRequest, request.getRemoteAddr());
             log.info("Login successful for user: {}", loginRequest.getUsername());
             return ResponseEntity.ok(response);
 
+        } catch (TooManyRequestsException e) {
+            // Answered with Retry-After by GlobalExceptionHandler
+            throw e;
+
         } catch (BadCredentialsException e) {
             log.warn("Login failed for user: {} - Invalid credentials", loginRequest.getUsername());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -129,8 +135,36 @@ public class AuthController {
         }
     }
 
+    /**
+     * Exchange a refresh token for a new token pair
+     * POST /api/v1/auth/refresh
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request.get("refreshToken")));
+
+        } catch (BadCredentialsException e) {
+            log.warn("Token refresh rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of(
+                            "error", "Unauthorized",
+                            "message", "Invalid or expired refresh token"
+                    ));
+        }
+    }
+
+    /**
+     * Revoke the current access token and, if sent, the refresh token
+     * POST /api/v1/auth/logout
+     */
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout() {
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.get("refreshToken") : null);
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
@@ -0,0 +1,42 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.dto.MergeRequest;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepositoryCustom;
+import com.bildungsinsitut.deutschkurse.service.DublettenService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/dubletten")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DublettenController {
+
+    private final DublettenService dublettenService;
+
+    /**
+     * Pairs of students that are probably registered twice, best first (admin only)
+     * GET /api/v1/dubletten?minScore=70&limit=100
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<DublettenService.Kandidat>> getKandidaten(@RequestParam(required = false) Integer minScore,
+                                                                         @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(dublettenService.findKandidaten(minScore, limit));
+    }
+
+    /**
+     * Move everything of the duplicate to the target student and deactivate the duplicate (admin only)
+     * POST /api/v1/dubletten/merge
+     */
+    @PostMapping("/merge")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TeilnehmerRepositoryCustom.MergeErgebnis> merge(@Valid @RequestBody MergeRequest request) {
+        return ResponseEntity.ok(dublettenService.merge(request.getDuplikatId(), request.getZielId()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.enums.ExportFormat;
+import com.bildungsinsitut.deutschkurse.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * Stream attendance records of a date range as CSV or NDJSON, optionally gzip-compressed
+     * GET /api/v1/export/anwesenheit?von=2025-01-01&bis=2025-03-31&kursId=3&format=csv&gzip=true
+     */
+    @GetMapping("/anwesenheit")
+    public void exportAnwesenheit(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate von,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bis,
+            @RequestParam(required = false) Integer kursId,
+            @RequestParam(defaultValue = "csv") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        exportService.validateAnwesenheitExport(von, bis);
+        try (OutputStream out = open(response, "anwesenheit_" + von + "_" + bis, format, gzip)) {
+            exportService.exportAnwesenheit(kursId, von, bis, format, out);
+        }
+    }
+
+    /**
+     * Stream enrollments as CSV or NDJSON, optionally gzip-compressed
+     * GET /api/v1/export/einschreibungen?kursId=3&format=ndjson
+     */
+    @GetMapping("/einschreibungen")
+    public void exportEinschreibungen(
+            @RequestParam(required = false) Integer kursId,
+            @RequestParam(defaultValue = "csv") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        try (OutputStream out = open(response, "einschreibungen" + (kursId != null ? "_" + kursId : ""), format, gzip)) {
+            exportService.exportEinschreibungen(kursId, format, out);
+        }
+    }
+
+    private static OutputStream open(HttpServletResponse response, String name, ExportFormat format,
+                                     boolean gzip) throws IOException {
+        String filename = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString());
+        OutputStream out = response.getOutputStream();
+        return gzip ? new GZIPOutputStream(out, 8192) : out;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.dto.FruehwarnungDto;
+import com.bildungsinsitut.deutschkurse.service.FruehwarnungService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/fruehwarnungen")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class FruehwarnungController {
+
+    private final FruehwarnungService fruehwarnungService;
+
+    /**
+     * Enrollments flagged as at risk of dropping out, optionally for one course
+     * GET /api/v1/fruehwarnungen?kursId=3
+     */
+    @GetMapping
+    public ResponseEntity<List<FruehwarnungDto>> getGefaehrdete(@RequestParam(required = false) Integer kursId) {
+        return ResponseEntity.ok(fruehwarnungService.getGefaehrdete(kursId));
+    }
+
+    /**
+     * Process pending attendance and test changes now instead of waiting for the schedule (admin only)
+     * POST /api/v1/fruehwarnungen/run
+     */
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FruehwarnungService.Lauf> run() {
+        return ResponseEntity.ok(fruehwarnungService.run());
+    }
+}
@@ -0,0 +1,39 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.dto.ImportJobDto;
+import com.bildungsinsitut.deutschkurse.service.ImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/api/v1/import")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ImportController {
+
+    private final ImportService importService;
+
+    /**
+     * Start a background import of students from a CSV file (header row with vorname, nachname and
+     * optionally email, telefon, geburtsdatum, geschlecht, staatsangehoerigkeit, muttersprache,
+     * anmeldedatum, kurs_id); rows with kurs_id are enrolled in that course
+     * POST /api/v1/import/teilnehmer (multipart, part "file")
+     */
+    @PostMapping(value = "/teilnehmer", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobDto> importTeilnehmer(@RequestParam("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.submit(file));
+    }
+
+    /**
+     * Progress and per-row error report of an import job
+     * GET /api/v1/import/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobDto> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(importService.getJob(jobId));
+    }
+}
@@ -0,0 +1,60 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.enums.KalenderTyp;
+import com.bildungsinsitut.deutschkurse.service.KalenderFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class KalenderController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final KalenderFeedService kalenderFeedService;
+
+    /**
+     * Subscription URL of a trainer, room or student calendar
+     * GET /api/v1/kalender/{typ}/{id}/link
+     */
+    @GetMapping("/kalender/{typ}/{id}/link")
+    public ResponseEntity<Map<String, String>> getFeedLink(@PathVariable KalenderTyp typ, @PathVariable Integer id) {
+        kalenderFeedService.requireSubject(typ, id);
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/v1/public/kalender/{typ}/{id}.ics")
+                .queryParam("token", kalenderFeedService.feedToken(typ, id))
+                .buildAndExpand(typ.name(), id)
+                .toUriString();
+        return ResponseEntity.ok(Map.of("url", url));
+    }
+
+    /**
+     * iCalendar feed for calendar apps; authenticated by the token in the URL, answers 304 when
+     * If-None-Match carries the current ETag
+     * GET /api/v1/public/kalender/{typ}/{id}.ics?token=...
+     */
+    @GetMapping("/public/kalender/{typ}/{id}.ics")
+    public ResponseEntity<String> getFeed(@PathVariable KalenderTyp typ, @PathVariable Integer id,
+                                          @RequestParam(required = false) String token, WebRequest request) {
+        KalenderFeedService.Feed feed = kalenderFeedService.getFeed(typ, id, token);
+        if (request.checkNotModified(feed.etag(), feed.lastModified().toEpochMilli())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(feed.etag())
+                .lastModified(feed.lastModified())
+                .body(feed.body());
+    }
+}
@@ -4,7 +4,9 @@ import com.bildungsinsitut.deutschkurse.dto.*;
 import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
 import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
 import com.bildungsinsitut.deutschkurse.model.TeilnehmerKurs;
+import com.bildungsinsitut.deutschkurse.service.EnrollmentQueueService;
 import com.bildungsinsitut.deutschkurse.service.KursService;
+import com.bildungsinsitut.deutschkurse.service.KurskatalogService;
 import com.bildungsinsitut.deutschkurse.service.TeilnehmerKursService;
 import com.bildungsinsitut.deutschkurse.validation.groups.OnCreate;
 import com.bildungsinsitut.deutschkurse.validation.groups.OnUpdate;
@@ -12,9 +14,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -29,6 +33,8 @@ public class KursController {
 
     private final KursService kursService;
     private final TeilnehmerKursService teilnehmerKursService;
+    private final EnrollmentQueueService enrollmentQueueService;
+    private final KurskatalogService kurskatalogService;
 
     /**
      * Get all courses
@@ -39,6 +45,17 @@ public class KursController {
         return ResponseEntity.ok(kursService.getAllKurse());
     }
 
+    /**
+     * Get courses page by page (keyset pagination, optional filters)
+     * GET /api/v1/kurse/page?status=geplant&trainerId=1&size=50&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<KursDto>> getKursePage(KursFilter filter,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(kursService.getKursePage(filter, cursor, size));
+    }
+
     /**
      * Get course by ID
      * GET /api/v1/kurse/{id}
@@ -67,12 +84,20 @@ public class KursController {
     }
 
     /**
-     * Get available courses (with available spots)
+     * Get available courses (with available spots) from the precomputed catalog; answers 304
+     * when If-None-Match carries the current ETag
      * GET /api/v1/kurse/verfuegbar
      */
     @GetMapping("/verfuegbar")
-    public ResponseEntity<List<KursDto>> getVerfuegbareKurse() {
-        return ResponseEntity.ok(kursService.getVerfuegbareKurse());
+    public ResponseEntity<byte[]> getVerfuegbareKurse(WebRequest request) {
+        KurskatalogService.Snapshot katalog = kurskatalogService.get();
+        if (request.checkNotModified(katalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(katalog.etag())
+                .body(katalog.json());
     }
 
     /**
@@ -166,6 +191,25 @@ public class KursController {
         ));
     }
 
+    /**
+     * Queue an enrollment for batch processing (registration day); full courses overflow to the waitlist
+     * POST /api/v1/kurse/enroll/async
+     */
+    @PostMapping("/enroll/async")
+    public ResponseEntity<EnrollmentTicketDto> enrollTeilnehmerAsync(@Valid @RequestBody EnrollmentRequest request) {
+        EnrollmentTicketDto ticket = enrollmentQueueService.submit(request.getTeilnehmerId(), request.getKursId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ticket);
+    }
+
+    /**
+     * Poll the outcome of a queued enrollment
+     * GET /api/v1/kurse/enroll/tickets/{ticketId}
+     */
+    @GetMapping("/enroll/tickets/{ticketId}")
+    public ResponseEntity<EnrollmentTicketDto> getEnrollmentTicket(@PathVariable String ticketId) {
+        return ResponseEntity.ok(enrollmentQueueService.getTicket(ticketId));
+    }
+
     /**
      * Remove a student from a course
      * DELETE /api/v1/kurse/{kursId}/teilnehmer/{teilnehmerId}
@@ -0,0 +1,63 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.dto.KursTerminDto;
+import com.bildungsinsitut.deutschkurse.dto.KursTerminFilter;
+import com.bildungsinsitut.deutschkurse.service.KursTerminService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/termine")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class KursTerminController {
+
+    private final KursTerminService kursTerminService;
+
+    /**
+     * Get sessions in a date range, filterable by course, room and trainer
+     * GET /api/v1/termine?von=2025-03-03&bis=2025-03-09&kursraumId=2
+     */
+    @GetMapping
+    public ResponseEntity<List<KursTerminDto>> getTermine(KursTerminFilter filter) {
+        return ResponseEntity.ok(kursTerminService.getTermine(filter));
+    }
+
+    /**
+     * Get sessions of one day
+     * GET /api/v1/termine/tag/{datum}
+     */
+    @GetMapping("/tag/{datum}")
+    public ResponseEntity<List<KursTerminDto>> getTag(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate datum,
+            KursTerminFilter filter) {
+        return ResponseEntity.ok(kursTerminService.getTag(datum, filter));
+    }
+
+    /**
+     * Get sessions of the week (Monday to Sunday) containing the given date
+     * GET /api/v1/termine/woche/{datum}
+     */
+    @GetMapping("/woche/{datum}")
+    public ResponseEntity<List<KursTerminDto>> getWoche(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate datum,
+            KursTerminFilter filter) {
+        return ResponseEntity.ok(kursTerminService.getWoche(datum, filter));
+    }
+
+    /**
+     * Regenerate all future sessions from the weekly schedule (admin only)
+     * POST /api/v1/termine/regenerate
+     */
+    @PostMapping("/regenerate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<KursTerminService.Aenderungen> regenerate() {
+        return ResponseEntity.ok(kursTerminService.regenerateAll());
+    }
+}
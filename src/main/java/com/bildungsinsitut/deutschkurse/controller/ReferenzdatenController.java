@@ -0,0 +1,43 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.service.KalenderFeedService;
+import com.bildungsinsitut.deutschkurse.service.ReferenzdatenCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/referenzdaten")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReferenzdatenController {
+
+    private final ReferenzdatenCache referenzdatenCache;
+    private final KalenderFeedService kalenderFeedService;
+
+    /**
+     * Size and hit/miss counters of the reference-data cache per table (admin only)
+     * GET /api/v1/referenzdaten/cache/statistik
+     */
+    @GetMapping("/cache/statistik")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ReferenzdatenCache.Statistik>> getStatistik() {
+        return ResponseEntity.ok(referenzdatenCache.getStatistik());
+    }
+
+    /**
+     * Drop all cached reference data, e.g. after course types or rooms were edited in the database (admin only).
+     * Calendar feeds print room names, so they are dropped as well.
+     * DELETE /api/v1/referenzdaten/cache
+     */
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> invalidateAll() {
+        referenzdatenCache.invalidateAll();
+        kalenderFeedService.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.bildungsinsitut.deutschkurse.controller;
+
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.service.SuggestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    private final SuggestService suggestService;
+
+    /**
+     * Typeahead suggestions across students, trainers and courses; typ restricts the kinds
+     * GET /api/v1/search/suggest?q=mül&limit=10&typ=teilnehmer,trainer
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestService.Vorschlag>> suggest(@RequestParam String q,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) Set<SuchTyp> typ) {
+        return ResponseEntity.ok(suggestService.suggest(q, limit, typ));
+    }
+
+    /**
+     * Size of the typeahead index
+     * GET /api/v1/search/suggest/statistik
+     */
+    @GetMapping("/suggest/statistik")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SuggestService.Statistik> getStatistik() {
+        return ResponseEntity.ok(suggestService.getStatistik());
+    }
+}
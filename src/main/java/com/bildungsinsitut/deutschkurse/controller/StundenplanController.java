@@ -1,7 +1,11 @@
 package com.bildungsinsitut.deutschkurse.controller;
 
+import com.bildungsinsitut.deutschkurse.dto.ScheduleConflictDto;
 import com.bildungsinsitut.deutschkurse.dto.StundenplanDto;
+import com.bildungsinsitut.deutschkurse.dto.TimetableProposalDto;
+import com.bildungsinsitut.deutschkurse.dto.TimetableRequest;
 import com.bildungsinsitut.deutschkurse.service.StundenplanService;
+import com.bildungsinsitut.deutschkurse.service.TimetableService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,6 +21,7 @@ import java.util.List;
 public class StundenplanController {
 
     private final StundenplanService stundenplanService;
+    private final TimetableService timetableService;
 
     /**
      * Get all active schedules
@@ -54,6 +59,24 @@ public class StundenplanController {
         return ResponseEntity.ok(stundenplanService.getStundenplaeneByWochentag(wochentag));
     }
 
+    /**
+     * Check a planned slot for course, room and trainer conflicts without saving it
+     * POST /api/v1/stundenplan/conflicts
+     */
+    @PostMapping("/conflicts")
+    public ResponseEntity<List<ScheduleConflictDto>> findConflicts(@Valid @RequestBody StundenplanDto stundenplanDto) {
+        return ResponseEntity.ok(stundenplanService.findConflicts(stundenplanDto));
+    }
+
+    /**
+     * Propose a conflict-free weekly schedule for the given courses (nothing is saved)
+     * POST /api/v1/stundenplan/proposal
+     */
+    @PostMapping("/proposal")
+    public ResponseEntity<TimetableProposalDto> proposeTimetable(@Valid @RequestBody TimetableRequest request) {
+        return ResponseEntity.ok(timetableService.propose(request));
+    }
+
     /**
      * Create a new schedule entry
      * POST /api/v1/stundenplan
@@ -29,6 +29,17 @@ public class TeilnehmerController {
         return ResponseEntity.ok(teilnehmerService.getAllTeilnehmer());
     }
 
+    /**
+     * Get students page by page (keyset pagination, optional filters)
+     * GET /api/v1/teilnehmer/page?aktiv=true&name=muster&size=50&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<TeilnehmerDto>> getTeilnehmerPage(TeilnehmerFilter filter,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(teilnehmerService.getTeilnehmerPage(filter, cursor, size));
+    }
+
     /**
      * Get student by ID
      * GET /api/v1/teilnehmer/{id}
@@ -69,12 +80,20 @@ public class TeilnehmerController {
     }
 
     /**
-     * Search students by name
-     * GET /api/v1/teilnehmer/search?name=John
+     * Search students by name or email, best match first (typo-tolerant)
+     * GET /api/v1/teilnehmer/search?name=Mueler&limit=20
+     * GET /api/v1/teilnehmer/search?email=anna@
      */
     @GetMapping("/search")
-    public ResponseEntity<List<TeilnehmerDto>> searchTeilnehmerByName(@RequestParam String name) {
-        return ResponseEntity.ok(teilnehmerService.searchTeilnehmerByName(name));
+    public ResponseEntity<List<TeilnehmerDto>> searchTeilnehmer(@RequestParam(required = false) String name,
+                                                                @RequestParam(required = false) String email,
+                                                                @RequestParam(required = false) Integer limit) {
+        if (name == null && email == null) {
+            throw new IllegalArgumentException("Either name or email is required");
+        }
+        return ResponseEntity.ok(name != null
+                ? teilnehmerService.searchTeilnehmerByName(name, limit)
+                : teilnehmerService.searchTeilnehmerByEmail(email, limit));
     }
 
     // ========================= ENROLLMENT ENDPOINTS =========================
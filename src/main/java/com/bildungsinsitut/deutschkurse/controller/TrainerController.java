@@ -1,6 +1,8 @@
 package com.bildungsinsitut.deutschkurse.controller;
 
+import com.bildungsinsitut.deutschkurse.dto.CursorPage;
 import com.bildungsinsitut.deutschkurse.dto.TrainerDto;
+import com.bildungsinsitut.deutschkurse.dto.TrainerFilter;
 import com.bildungsinsitut.deutschkurse.service.TrainerService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -24,6 +26,17 @@ public class TrainerController {
         return ResponseEntity.ok(trainerService.getAllTrainer());
     }
 
+    /**
+     * Get trainers page by page (keyset pagination, optional filters)
+     * GET /api/v1/trainer/page?aktiv=true&status=verfuegbar&size=50&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<TrainerDto>> getTrainerPage(TrainerFilter filter,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(trainerService.getTrainerPage(filter, cursor, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TrainerDto> getTrainerById(@PathVariable Integer id) {
         return ResponseEntity.ok(trainerService.getTrainerById(id));
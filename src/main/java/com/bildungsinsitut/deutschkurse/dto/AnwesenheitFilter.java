@@ -0,0 +1,26 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional, combinable filters for the paginated attendance list (bound from query parameters)
+ */
+@Getter
+@Setter
+public class AnwesenheitFilter {
+    private Integer kursId;
+
+    private Integer teilnehmerId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate von;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate bis;
+
+    private Boolean anwesend;
+}
@@ -0,0 +1,37 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Attendance figures of one student in one course; rates are percentages rounded to two decimals
+ */
+@Getter
+@Setter
+public class AnwesenheitStatistikDto {
+    private Integer kursId;
+
+    private Integer teilnehmerId;
+
+    private String teilnehmerName;
+
+    private TeilnehmerKursStatus status;
+
+    private long totalDays;
+
+    private long presentDays;
+
+    private long excusedDays;
+
+    private long unexcusedDays;
+
+    private double attendanceRate;
+
+    // Present or excused, the basis of the pass threshold
+    private double attendanceRateInclExcused;
+
+    private double mindestquote;
+
+    private boolean mindestquoteErreicht;
+}
@@ -0,0 +1,38 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkAnwesenheitResultDto {
+
+    private Integer kursId;
+
+    private LocalDate datum;
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<AnwesenheitDto> records = new ArrayList<>();
+
+    private List<RecordFailure> failures = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class RecordFailure {
+        private Integer teilnehmerId;
+
+        private String message;
+
+        public RecordFailure(Integer teilnehmerId, String message) {
+            this.teilnehmerId = teilnehmerId;
+            this.message = message;
+        }
+    }
+}
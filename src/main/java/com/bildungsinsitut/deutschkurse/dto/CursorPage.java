@@ -0,0 +1,52 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back as {@code cursor} to get the next page.
+ */
+@Getter
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private final List<T> items;
+
+    private final String nextCursor;
+
+    private final boolean hasMore;
+
+    public CursorPage(List<T> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Requested page size, defaulted and capped at {@link #MAX_SIZE}
+     */
+    public static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Build a page from rows fetched with limit {@code size + 1}; the extra row only signals that more data exists.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<List<E>, List<T>> mapper,
+                                          Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+        return new CursorPage<>(mapper.apply(pageRows), nextCursor, hasMore);
+    }
+}
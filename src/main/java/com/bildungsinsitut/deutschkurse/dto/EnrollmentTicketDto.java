@@ -0,0 +1,30 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import com.bildungsinsitut.deutschkurse.enums.AnmeldungStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class EnrollmentTicketDto {
+
+    private String ticketId;
+
+    private Integer teilnehmerId;
+
+    private Integer kursId;
+
+    private AnmeldungStatus status;
+
+    private Integer enrollmentId;
+
+    private Integer wartelistePosition;
+
+    private String message;
+
+    private LocalDateTime eingereichtAm;
+
+    private LocalDateTime bearbeitetAm;
+}
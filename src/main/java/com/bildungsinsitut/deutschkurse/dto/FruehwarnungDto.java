@@ -0,0 +1,47 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import com.bildungsinsitut.deutschkurse.enums.RisikoGrund;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An enrollment flagged as at risk of dropping out, with the features behind the flag;
+ * quotes are percentages
+ */
+@Getter
+@Setter
+public class FruehwarnungDto {
+    private Integer kursId;
+
+    private String kursName;
+
+    private Integer teilnehmerId;
+
+    private String teilnehmerName;
+
+    private List<RisikoGrund> gruende;
+
+    private LocalDateTime gefaehrdetSeit;
+
+    private int fehlserie;
+
+    private LocalDate letzteDatum;
+
+    private int sitzungen;
+
+    private BigDecimal unentschuldigtQuote;
+
+    private int bewertungen;
+
+    private int nichtBestandenSerie;
+
+    private BigDecimal letztePunkteQuote;
+
+    // Smoothed change of the score percentage from one test to the next; negative means falling
+    private BigDecimal punkteTrend;
+}
@@ -0,0 +1,51 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import com.bildungsinsitut.deutschkurse.enums.ImportStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+public class ImportJobDto {
+
+    /** Error of one CSV row; zeile is the spreadsheet row number (header = 1) */
+    public record Zeilenfehler(long zeile, String email, String meldung) {
+    }
+
+    private String jobId;
+
+    private String dateiname;
+
+    private ImportStatus status;
+
+    private String message;
+
+    private int zeilen;
+
+    private int angelegt;
+
+    /** Rows matched to an existing student by email */
+    private int vorhanden;
+
+    /** Rows repeating the email of an earlier row; they add enrollments only */
+    private int doppelt;
+
+    private int einschreibungenGesamt;
+
+    private int einschreibungenVerarbeitet;
+
+    private int eingeschrieben;
+
+    private int warteliste;
+
+    private int fehlerAnzahl;
+
+    private List<Zeilenfehler> fehler;
+
+    private LocalDateTime eingereichtAm;
+
+    private LocalDateTime abgeschlossenAm;
+}
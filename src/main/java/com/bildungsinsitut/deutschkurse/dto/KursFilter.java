@@ -0,0 +1,31 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional, combinable filters for the paginated course list (bound from query parameters)
+ */
+@Getter
+@Setter
+public class KursFilter {
+    private KursStatusType status;
+
+    private Integer trainerId;
+
+    private Integer kurstypId;
+
+    private Integer kursraumId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startVon;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startBis;
+
+    private String name;
+}
@@ -0,0 +1,33 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Getter
+@Setter
+public class KursTerminDto {
+    private Integer id;
+
+    private Integer stundenplanId;
+
+    private Integer kursId;
+
+    private String kursName;
+
+    private Integer kursraumId;
+
+    private String raumName;
+
+    private Integer trainerId;
+
+    private String trainerName;
+
+    private LocalDate datum;
+
+    private LocalTime startzeit;
+
+    private LocalTime endzeit;
+}
@@ -0,0 +1,26 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Date range plus optional course, room and trainer filters for the session calendar (bound from query parameters)
+ */
+@Getter
+@Setter
+public class KursTerminFilter {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate von;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate bis;
+
+    private Integer kursId;
+
+    private Integer kursraumId;
+
+    private Integer trainerId;
+}
@@ -0,0 +1,18 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class MergeRequest {
+    @NotNull(message = "Duplikat ID is required")
+    @Positive(message = "Duplikat ID must be positive")
+    private Integer duplikatId;
+
+    @NotNull(message = "Ziel ID is required")
+    @Positive(message = "Ziel ID must be positive")
+    private Integer zielId;
+}
@@ -0,0 +1,26 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import com.bildungsinsitut.deutschkurse.enums.RessourceTyp;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalTime;
+
+@Getter
+@Setter
+public class ScheduleConflictDto {
+
+    private RessourceTyp ressource;
+
+    private Integer ressourceId;
+
+    private Integer stundenplanId;
+
+    private Integer kursId;
+
+    private String wochentag;
+
+    private LocalTime startzeit;
+
+    private LocalTime endzeit;
+}
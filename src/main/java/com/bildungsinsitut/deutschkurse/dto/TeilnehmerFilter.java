@@ -0,0 +1,17 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Optional, combinable filters for the paginated student list (bound from query parameters)
+ */
+@Getter
+@Setter
+public class TeilnehmerFilter {
+    private Boolean aktiv;
+
+    private String name;
+
+    private String email;
+}
@@ -0,0 +1,58 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class TimetableProposalDto {
+
+    private boolean feasible;
+
+    private int hardConflicts;
+
+    private int softPenalty;
+
+    private long durationMs;
+
+    private List<Assignment> assignments = new ArrayList<>();
+
+    private List<Unassigned> unassigned = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Assignment {
+        private Integer kursId;
+
+        private String kursName;
+
+        private Integer kursraumId;
+
+        private boolean kursraumGeaendert;
+
+        private Integer trainerId;
+
+        private String wochentag;
+
+        private LocalTime startzeit;
+
+        private LocalTime endzeit;
+    }
+
+    @Getter
+    @Setter
+    public static class Unassigned {
+        private Integer kursId;
+
+        private String message;
+
+        public Unassigned(Integer kursId, String message) {
+            this.kursId = kursId;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalTime;
+import java.util.List;
+
+@Getter
+@Setter
+public class TimetableRequest {
+
+    @NotEmpty(message = "At least one course is required")
+    @Valid
+    private List<KursBedarf> kurse;
+
+    private List<String> wochentage = List.of("Montag", "Dienstag", "Mittwoch", "Donnerstag", "Freitag");
+
+    private LocalTime tagesbeginn = LocalTime.of(8, 0);
+
+    private LocalTime tagesende = LocalTime.of(20, 0);
+
+    @Positive(message = "Block length must be positive")
+    private Integer blockMinuten = 90;
+
+    @Positive(message = "Grid must be positive")
+    private Integer rasterMinuten = 30;
+
+    @Positive(message = "Time limit must be positive")
+    @Max(value = 60, message = "Time limit must not exceed 60 seconds")
+    private Integer timeLimitSeconds;
+
+    @Getter
+    @Setter
+    public static class KursBedarf {
+        @NotNull(message = "Kurs ID is required")
+        private Integer kursId;
+
+        @NotNull(message = "Weekly hours are required")
+        @Positive(message = "Weekly hours must be positive")
+        @Max(value = 40, message = "Weekly hours must not exceed 40")
+        private Integer wochenstunden;
+    }
+}
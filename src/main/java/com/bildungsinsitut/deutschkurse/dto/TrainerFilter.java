@@ -0,0 +1,18 @@
+package com.bildungsinsitut.deutschkurse.dto;
+
+import com.bildungsinsitut.deutschkurse.enums.TrainerStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Optional, combinable filters for the paginated trainer list (bound from query parameters)
+ */
+@Getter
+@Setter
+public class TrainerFilter {
+    private Boolean aktiv;
+
+    private TrainerStatus status;
+
+    private Integer abteilungId;
+}
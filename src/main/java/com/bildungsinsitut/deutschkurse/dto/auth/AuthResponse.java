@@ -11,7 +11,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
+    private Long expiresIn;
     private Integer userId;
     private String username;
     private String email;
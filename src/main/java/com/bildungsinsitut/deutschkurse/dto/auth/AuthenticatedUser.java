@@ -0,0 +1,25 @@
+package com.bildungsinsitut.deutschkurse.dto.auth;
+
+import com.bildungsinsitut.deutschkurse.enums.Role;
+import com.bildungsinsitut.deutschkurse.model.User;
+
+import java.security.Principal;
+
+/**
+ * Lightweight principal for JWT-authenticated requests; {@link #getName()} is the current username
+ */
+public record AuthenticatedUser(Integer id, String username, Role role, boolean active) implements Principal {
+
+    public static AuthenticatedUser from(User user) {
+        boolean active = !Boolean.FALSE.equals(user.getEnabled())
+                && !Boolean.FALSE.equals(user.getAccountNonLocked())
+                && !Boolean.FALSE.equals(user.getAccountNonExpired())
+                && !Boolean.FALSE.equals(user.getCredentialsNonExpired());
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(), active);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+/**
+ * Outcome of a queued enrollment request
+ */
+public enum AnmeldungStatus {
+    eingereiht("Eingereiht"),
+    angemeldet("Angemeldet"),
+    warteliste("Warteliste"),
+    abgelehnt("Abgelehnt");
+
+    private final String displayName;
+
+    AnmeldungStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
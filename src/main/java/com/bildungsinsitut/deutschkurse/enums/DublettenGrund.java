@@ -0,0 +1,20 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+public enum DublettenGrund {
+    name_gleich("Gleicher Name"),
+    name_aehnlich("Ähnlich geschriebener oder klingender Name"),
+    name_vertauscht("Vor- und Nachname vertauscht"),
+    geburtsdatum("Gleiches Geburtsdatum"),
+    email("Gleiche E-Mail-Adresse"),
+    telefon("Gleiche Telefonnummer");
+
+    private final String displayName;
+
+    DublettenGrund(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
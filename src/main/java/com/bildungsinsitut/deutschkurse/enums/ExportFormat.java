@@ -0,0 +1,22 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+public enum ExportFormat {
+    csv("text/csv", "csv"),
+    ndjson("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,22 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+/**
+ * Phase of a CSV import job
+ */
+public enum ImportStatus {
+    eingereiht("Eingereiht"),
+    teilnehmer("Teilnehmer werden angelegt"),
+    einschreibungen("Einschreibungen laufen"),
+    abgeschlossen("Abgeschlossen"),
+    fehlgeschlagen("Fehlgeschlagen");
+
+    private final String displayName;
+
+    ImportStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
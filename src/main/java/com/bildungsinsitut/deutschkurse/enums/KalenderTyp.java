@@ -0,0 +1,17 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+public enum KalenderTyp {
+    trainer("Trainer"),
+    kursraum("Kursraum"),
+    teilnehmer("Teilnehmer");
+
+    private final String displayName;
+
+    KalenderTyp(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
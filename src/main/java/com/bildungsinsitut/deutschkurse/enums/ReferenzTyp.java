@@ -0,0 +1,21 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+/**
+ * Kind of reference data held by the reference-data cache
+ */
+public enum ReferenzTyp {
+    kurstyp("Kurstyp"),
+    kursraum("Kursraum"),
+    abteilung("Abteilung"),
+    trainer("Trainer");
+
+    private final String displayName;
+
+    ReferenzTyp(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+public enum RessourceTyp {
+    kurs("Kurs"),
+    kursraum("Kursraum"),
+    trainer("Trainer");
+
+    private final String displayName;
+
+    RessourceTyp(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+public enum RisikoGrund {
+    fehlserie("Mehrere Fehltage in Folge"),
+    unentschuldigt("Hohe unentschuldigte Fehlquote"),
+    nicht_bestanden("Nicht bestandene Tests in Folge"),
+    punkte_trend("Fallende Testergebnisse");
+
+    private final String displayName;
+
+    RisikoGrund(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
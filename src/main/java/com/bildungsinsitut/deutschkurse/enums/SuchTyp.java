@@ -0,0 +1,20 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+/**
+ * Kind of entry in the global search box
+ */
+public enum SuchTyp {
+    teilnehmer("Teilnehmer"),
+    trainer("Trainer"),
+    kurs("Kurs");
+
+    private final String displayName;
+
+    SuchTyp(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,17 @@
+package com.bildungsinsitut.deutschkurse.enums;
+
+public enum WartelisteStatus {
+    wartend("Wartend"),
+    nachgerueckt("Nachgerückt"),
+    storniert("Storniert");
+
+    private final String displayName;
+
+    WartelisteStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bildungsinsitut.deutschkurse.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when the number of seats taken in courses may have changed: enrollments,
+ * withdrawals, enrollment status changes and merged students.
+ */
+public record KursBelegungGeaendertEvent(Collection<Integer> kursIds) {
+
+    public static KursBelegungGeaendertEvent of(Integer kursId) {
+        return new KursBelegungGeaendertEvent(List.of(kursId));
+    }
+}
@@ -0,0 +1,17 @@
+package com.bildungsinsitut.deutschkurse.event;
+
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when students, trainers or courses were created, changed or deleted. Listeners
+ * reload the given ids; an id that no longer exists (or is inactive) was removed.
+ */
+public record StammdatenGeaendertEvent(SuchTyp typ, Collection<Integer> ids) {
+
+    public static StammdatenGeaendertEvent of(SuchTyp typ, Integer id) {
+        return new StammdatenGeaendertEvent(typ, List.of(id));
+    }
+}
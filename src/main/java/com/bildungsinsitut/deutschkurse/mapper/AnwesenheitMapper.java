@@ -2,6 +2,7 @@ package com.bildungsinsitut.deutschkurse.mapper;
 
 import com.bildungsinsitut.deutschkurse.dto.AnwesenheitDto;
 import com.bildungsinsitut.deutschkurse.model.Anwesenheit;
+import com.bildungsinsitut.deutschkurse.model.AnwesenheitArchiv;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -22,10 +23,19 @@ public interface AnwesenheitMapper {
     @Mapping(target = "teilnehmer", ignore = true) // Will be set by service
     @Mapping(target = "kurs", ignore = true) // Will be set by service
     @Mapping(target = "erfasstAm", ignore = true)
+    @Mapping(target = "geaendertAm", ignore = true)
     Anwesenheit toEntity(AnwesenheitDto anwesenheitDto);
 
     List<AnwesenheitDto> toDtoList(List<Anwesenheit> anwesenheitList);
 
+    @Mapping(source = "teilnehmer.id", target = "teilnehmerId")
+    @Mapping(source = "teilnehmer", target = "teilnehmerName", qualifiedByName = "teilnehmerToFullName")
+    @Mapping(source = "kurs.id", target = "kursId")
+    @Mapping(source = "kurs.kursName", target = "kursName")
+    AnwesenheitDto archivToDto(AnwesenheitArchiv anwesenheit);
+
+    List<AnwesenheitDto> archivToDtoList(List<AnwesenheitArchiv> anwesenheitList);
+
     @Named("teilnehmerToFullName")
     default String teilnehmerToFullName(com.bildungsinsitut.deutschkurse.model.Teilnehmer teilnehmer) {
         if (teilnehmer == null) {
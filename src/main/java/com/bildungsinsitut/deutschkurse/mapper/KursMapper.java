@@ -4,19 +4,18 @@ import com.bildungsinsitut.deutschkurse.dto.KursDto;
 import com.bildungsinsitut.deutschkurse.model.Kurs;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.mapstruct.Named;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = ReferenzNamenMapper.class)
 public interface KursMapper {
 
     @Mapping(source = "kurstyp.id", target = "kurstypId")
-    @Mapping(source = "kurstyp.kurstypName", target = "kurstypName")
+    @Mapping(source = "kurstyp", target = "kurstypName", qualifiedByName = "kurstypName")
     @Mapping(source = "kursraum.id", target = "kursraumId")
-    @Mapping(source = "kursraum.raumName", target = "kursraumName")
+    @Mapping(source = "kursraum", target = "kursraumName", qualifiedByName = "kursraumName")
     @Mapping(source = "trainer.id", target = "trainerId")
-    @Mapping(source = "trainer", target = "trainerName", qualifiedByName = "trainerToFullName")
+    @Mapping(source = "trainer", target = "trainerName", qualifiedByName = "trainerName")
     KursDto toDto(Kurs kurs);
 
     @Mapping(source = "kurstypId", target = "kurstyp.id")
@@ -33,12 +32,4 @@ public interface KursMapper {
     Kurs toEntity(KursDto kursDto);
 
     List<KursDto> toDtoList(List<Kurs> kurse);
-
-    @Named("trainerToFullName")
-    default String trainerToFullName(com.bildungsinsitut.deutschkurse.model.Trainer trainer) {
-        if (trainer == null) {
-            return null;
-        }
-        return trainer.getVorname() + " " + trainer.getNachname();
-    }
 }
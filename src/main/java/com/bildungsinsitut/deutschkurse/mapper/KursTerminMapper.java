@@ -0,0 +1,32 @@
+package com.bildungsinsitut.deutschkurse.mapper;
+
+import com.bildungsinsitut.deutschkurse.dto.KursTerminDto;
+import com.bildungsinsitut.deutschkurse.model.KursTermin;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface KursTerminMapper {
+
+    @Mapping(source = "stundenplan.id", target = "stundenplanId")
+    @Mapping(source = "kurs.id", target = "kursId")
+    @Mapping(source = "kurs.kursName", target = "kursName")
+    @Mapping(source = "kursraum.id", target = "kursraumId")
+    @Mapping(source = "kursraum.raumName", target = "raumName")
+    @Mapping(source = "trainer.id", target = "trainerId")
+    @Mapping(source = "trainer", target = "trainerName", qualifiedByName = "trainerToFullName")
+    KursTerminDto toDto(KursTermin termin);
+
+    List<KursTerminDto> toDtoList(List<KursTermin> termine);
+
+    @Named("trainerToFullName")
+    default String trainerToFullName(com.bildungsinsitut.deutschkurse.model.Trainer trainer) {
+        if (trainer == null) {
+            return null;
+        }
+        return trainer.getVorname() + " " + trainer.getNachname();
+    }
+}
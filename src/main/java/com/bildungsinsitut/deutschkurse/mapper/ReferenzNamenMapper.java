@@ -0,0 +1,55 @@
+package com.bildungsinsitut.deutschkurse.mapper;
+
+import com.bildungsinsitut.deutschkurse.model.Kursraum;
+import com.bildungsinsitut.deutschkurse.model.Kurstyp;
+import com.bildungsinsitut.deutschkurse.model.Trainer;
+import com.bildungsinsitut.deutschkurse.service.ReferenzdatenCache;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+/**
+ * Display names of reference data for the mappers. Associations that are already loaded are
+ * read directly; lazy ones are resolved from the {@link ReferenzdatenCache} instead of being
+ * initialized, which would cost a query each.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenzNamenMapper {
+
+    private final ReferenzdatenCache referenzdatenCache;
+
+    @Named("kurstypName")
+    public String kurstypName(Kurstyp kurstyp) {
+        if (kurstyp == null) {
+            return null;
+        }
+        if (Hibernate.isInitialized(kurstyp)) {
+            return kurstyp.getKurstypName();
+        }
+        return referenzdatenCache.getKurstyp(kurstyp.getId()).map(ReferenzdatenCache.KurstypInfo::name).orElse(null);
+    }
+
+    @Named("kursraumName")
+    public String kursraumName(Kursraum kursraum) {
+        if (kursraum == null) {
+            return null;
+        }
+        if (Hibernate.isInitialized(kursraum)) {
+            return kursraum.getRaumName();
+        }
+        return referenzdatenCache.getKursraum(kursraum.getId()).map(ReferenzdatenCache.KursraumInfo::name).orElse(null);
+    }
+
+    @Named("trainerName")
+    public String trainerName(Trainer trainer) {
+        if (trainer == null) {
+            return null;
+        }
+        if (Hibernate.isInitialized(trainer)) {
+            return trainer.getVorname() + " " + trainer.getNachname();
+        }
+        return referenzdatenCache.getTrainer(trainer.getId()).map(ReferenzdatenCache.TrainerInfo::name).orElse(null);
+    }
+}
@@ -10,6 +10,10 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "anwesenheit")
+@NamedEntityGraph(name = "Anwesenheit.dto", attributeNodes = {
+        @NamedAttributeNode("teilnehmer"),
+        @NamedAttributeNode("kurs")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -44,8 +48,17 @@ public class Anwesenheit {
     @Column(name = "erfasst_am", updatable = false)
     private LocalDateTime erfasstAm;
 
+    @Column(name = "geaendert_am")
+    private LocalDateTime geaendertAm;
+
     @PrePersist
     protected void onCreate() {
         erfasstAm = LocalDateTime.now();
+        geaendertAm = erfasstAm;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        geaendertAm = LocalDateTime.now();
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.bildungsinsitut.deutschkurse.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Attendance record of a finished course whose month partition was moved to anwesenheit_archiv
+ */
+@Entity
+@Immutable
+@Table(name = "anwesenheit_archiv")
+@NamedEntityGraph(name = "AnwesenheitArchiv.dto", attributeNodes = {
+        @NamedAttributeNode("teilnehmer"),
+        @NamedAttributeNode("kurs")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class AnwesenheitArchiv {
+
+    @Id
+    @Column(name = "anwesenheit_id")
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teilnehmer_id", nullable = false)
+    private Teilnehmer teilnehmer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kurs_id", nullable = false)
+    private Kurs kurs;
+
+    @Column(name = "datum", nullable = false)
+    private LocalDate datum;
+
+    @Column(name = "anwesend")
+    private Boolean anwesend;
+
+    @Column(name = "entschuldigt")
+    private Boolean entschuldigt;
+
+    @Column(name = "bemerkung", columnDefinition = "TEXT")
+    private String bemerkung;
+
+    @Column(name = "erfasst_am")
+    private LocalDateTime erfasstAm;
+}
@@ -0,0 +1,63 @@
+package com.bildungsinsitut.deutschkurse.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Attendance counters per student and course, maintained as deltas by AnwesenheitSummaryService.
+ * Read-only for JPA: all writes go through AnwesenheitSummaryRepositoryCustom.
+ */
+@Entity
+@Immutable
+@Table(name = "anwesenheit_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnwesenheitSummary {
+
+    @EmbeddedId
+    private Id id;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    @Column(name = "present", nullable = false)
+    private long present;
+
+    @Column(name = "excused", nullable = false)
+    private long excused;
+
+    @Column(name = "unexcused", nullable = false)
+    private long unexcused;
+
+    @Column(name = "last_datum")
+    private LocalDate lastDatum;
+
+    @Column(name = "aktualisiert_am")
+    private LocalDateTime aktualisiertAm;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Id implements Serializable {
+
+        @Column(name = "kurs_id")
+        private Integer kursId;
+
+        @Column(name = "teilnehmer_id")
+        private Integer teilnehmerId;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bildungsinsitut.deutschkurse.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Rolling dropout-risk features of one enrollment, maintained by FruehwarnungService
+ */
+@Entity
+@Table(name = "fruehwarnungen")
+@Getter
+@Setter
+@NoArgsConstructor
+public class Fruehwarnung {
+
+    @EmbeddedId
+    private Id id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teilnehmer_id", insertable = false, updatable = false)
+    private Teilnehmer teilnehmer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kurs_id", insertable = false, updatable = false)
+    private Kurs kurs;
+
+    // Date of the latest attendance record and the absences (excused or not) leading up to it
+    @Column(name = "letzte_datum")
+    private LocalDate letzteDatum;
+
+    @Column(name = "fehlserie", nullable = false)
+    private int fehlserie;
+
+    @Column(name = "sitzungen", nullable = false)
+    private int sitzungen;
+
+    @Column(name = "unentschuldigt_quote", nullable = false, precision = 5, scale = 2)
+    private BigDecimal unentschuldigtQuote = BigDecimal.ZERO;
+
+    @Column(name = "bewertungen", nullable = false)
+    private int bewertungen;
+
+    @Column(name = "nicht_bestanden_serie", nullable = false)
+    private int nichtBestandenSerie;
+
+    @Column(name = "letzte_punkte_quote", precision = 5, scale = 2)
+    private BigDecimal letztePunkteQuote;
+
+    @Column(name = "punkte_trend", nullable = false, precision = 6, scale = 2)
+    private BigDecimal punkteTrend = BigDecimal.ZERO;
+
+    @Column(name = "gefaehrdet", nullable = false)
+    private boolean gefaehrdet;
+
+    // Comma-separated RisikoGrund names
+    @Column(name = "gruende", length = 200)
+    private String gruende;
+
+    @Column(name = "gefaehrdet_seit")
+    private LocalDateTime gefaehrdetSeit;
+
+    @Column(name = "aktualisiert_am")
+    private LocalDateTime aktualisiertAm;
+
+    public Fruehwarnung(Id id) {
+        this.id = id;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        aktualisiertAm = LocalDateTime.now();
+    }
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Id implements Serializable {
+
+        @Column(name = "kurs_id")
+        private Integer kursId;
+
+        @Column(name = "teilnehmer_id")
+        private Integer teilnehmerId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bildungsinsitut.deutschkurse.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last (timestamp, id) an incremental job has processed from one source table
+ */
+@Entity
+@Table(name = "job_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobWatermark {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "zeitpunkt", nullable = false)
+    private LocalDateTime zeitpunkt;
+
+    @Column(name = "letzte_id", nullable = false)
+    private Integer letzteId;
+}
@@ -13,6 +13,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "kurse")
+// Everything KursMapper.toDto reads, loaded in the same query as the courses
+@NamedEntityGraph(name = "Kurs.dto", attributeNodes = {
+        @NamedAttributeNode("kurstyp"),
+        @NamedAttributeNode("kursraum"),
+        @NamedAttributeNode("trainer")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -51,7 +57,9 @@ public class Kurs {
     @Column(name = "max_teilnehmer")
     private Integer maxTeilnehmer = 12;
 
-    @Column(name = "aktuelle_teilnehmer")
+    // Maintained only through KursRepository.reserveSeat/releaseSeat so that saving a
+    // stale Kurs can never overwrite a concurrent enrollment
+    @Column(name = "aktuelle_teilnehmer", updatable = false)
     private Integer aktuelleTeilnehmer = 0;
 
     @Enumerated(EnumType.STRING)
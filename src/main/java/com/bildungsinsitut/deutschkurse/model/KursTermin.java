@@ -0,0 +1,66 @@
+package com.bildungsinsitut.deutschkurse.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.LocalDateTime;
+
+/**
+ * One dated session of a course, generated from a weekly {@link Stundenplan} entry.
+ * Room and trainer are copied from the course so day and week views filter on this table alone.
+ */
+@Entity
+@Table(name = "kurs_termine")
+@NamedEntityGraph(name = "KursTermin.dto", attributeNodes = {
+        @NamedAttributeNode("kurs"),
+        @NamedAttributeNode("kursraum"),
+        @NamedAttributeNode("trainer")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class KursTermin {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "termin_id")
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stundenplan_id", nullable = false)
+    private Stundenplan stundenplan;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kurs_id", nullable = false)
+    private Kurs kurs;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kursraum_id", nullable = false)
+    private Kursraum kursraum;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "trainer_id", nullable = false)
+    private Trainer trainer;
+
+    @Column(name = "datum", nullable = false)
+    private LocalDate datum;
+
+    @Column(name = "startzeit", nullable = false)
+    private LocalTime startzeit;
+
+    @Column(name = "endzeit", nullable = false)
+    private LocalTime endzeit;
+
+    @Column(name = "erstellt_am", updatable = false)
+    private LocalDateTime erstelltAm;
+
+    @PrePersist
+    protected void onCreate() {
+        erstelltAm = LocalDateTime.now();
+    }
+}
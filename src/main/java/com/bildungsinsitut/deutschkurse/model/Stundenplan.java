@@ -10,6 +10,14 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "stundenplan")
+@NamedEntityGraph(name = "Stundenplan.dto", attributeNodes = @NamedAttributeNode("kurs"))
+// Calendar feeds also print the course's room and trainer
+@NamedEntityGraph(name = "Stundenplan.kalender",
+        attributeNodes = @NamedAttributeNode(value = "kurs", subgraph = "kurs"),
+        subgraphs = @NamedSubgraph(name = "kurs", attributeNodes = {
+                @NamedAttributeNode("kursraum"),
+                @NamedAttributeNode("trainer")
+        }))
 @Getter
 @Setter
 @NoArgsConstructor
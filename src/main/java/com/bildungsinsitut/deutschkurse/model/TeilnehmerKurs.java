@@ -14,6 +14,15 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "teilnehmer_kurse",
         uniqueConstraints = {@UniqueConstraint(columnNames = {"teilnehmer_id", "kurs_id"})})
+@NamedEntityGraph(name = "TeilnehmerKurs.teilnehmer", attributeNodes = @NamedAttributeNode("teilnehmer"))
+// Courses of a student, including what KursMapper.toDto reads
+@NamedEntityGraph(name = "TeilnehmerKurs.kurs",
+        attributeNodes = @NamedAttributeNode(value = "kurs", subgraph = "kurs"),
+        subgraphs = @NamedSubgraph(name = "kurs", attributeNodes = {
+                @NamedAttributeNode("kurstyp"),
+                @NamedAttributeNode("kursraum"),
+                @NamedAttributeNode("trainer")
+        }))
 @Getter
 @Setter
 @NoArgsConstructor
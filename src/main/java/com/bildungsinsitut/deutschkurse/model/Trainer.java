@@ -12,6 +12,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "trainer")
+@NamedEntityGraph(name = "Trainer.dto", attributeNodes = @NamedAttributeNode("abteilung"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,46 @@
+package com.bildungsinsitut.deutschkurse.model;
+
+import com.bildungsinsitut.deutschkurse.enums.WartelisteStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "warteliste")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Warteliste {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "warteliste_id")
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teilnehmer_id", nullable = false)
+    private Teilnehmer teilnehmer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kurs_id", nullable = false)
+    private Kurs kurs;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private WartelisteStatus status = WartelisteStatus.wartend;
+
+    @Column(name = "eingetragen_am", updatable = false)
+    private LocalDateTime eingetragenAm;
+
+    @Column(name = "nachgerueckt_am")
+    private LocalDateTime nachgeruecktAm;
+
+    @PrePersist
+    protected void onCreate() {
+        eingetragenAm = LocalDateTime.now();
+    }
+}
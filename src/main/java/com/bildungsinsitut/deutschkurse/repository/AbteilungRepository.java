@@ -2,12 +2,26 @@ package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.Abteilung;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AbteilungRepository extends JpaRepository<Abteilung, Integer> {
     List<Abteilung> findByAktivTrue();
     Abteilung findByAbteilungName(String abteilungName);
-}
\ No newline at end of file
+
+    interface ReferenzEintrag {
+        Integer getId();
+
+        String getAbteilungName();
+
+        Boolean getAktiv();
+    }
+
+    @Query("SELECT a.id AS id, a.abteilungName AS abteilungName, a.aktiv AS aktiv FROM Abteilung a WHERE a.id = :id")
+    Optional<ReferenzEintrag> findReferenzEintrag(@Param("id") Integer id);
+}
@@ -0,0 +1,38 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.model.AnwesenheitArchiv;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface AnwesenheitArchivRepository extends JpaRepository<AnwesenheitArchiv, Integer> {
+
+    @EntityGraph("AnwesenheitArchiv.dto")
+    List<AnwesenheitArchiv> findByTeilnehmerIdAndKursIdOrderByDatum(Integer teilnehmerId, Integer kursId);
+
+    /**
+     * Archived counterpart of {@link AnwesenheitRepository#streamExport}, in the same order
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AnwesenheitRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.id AS id, k.id AS kursId, k.kursName AS kursName, t.id AS teilnehmerId, " +
+            "t.vorname AS vorname, t.nachname AS nachname, a.datum AS datum, a.anwesend AS anwesend, " +
+            "a.entschuldigt AS entschuldigt, a.bemerkung AS bemerkung " +
+            "FROM AnwesenheitArchiv a JOIN a.kurs k JOIN a.teilnehmer t " +
+            "WHERE a.datum BETWEEN :von AND :bis AND (:kursId IS NULL OR k.id = :kursId) " +
+            "ORDER BY a.datum, a.id")
+    Stream<AnwesenheitRepository.ExportZeile> streamExport(@Param("kursId") Integer kursId,
+                                                           @Param("von") LocalDate von, @Param("bis") LocalDate bis);
+}
@@ -1,19 +1,182 @@
 package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.Anwesenheit;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface AnwesenheitRepository extends JpaRepository<Anwesenheit, Integer> {
-    List<Anwesenheit> findByTeilnehmerIdAndKursId(Integer teilnehmerId, Integer kursId);
+public interface AnwesenheitRepository extends JpaRepository<Anwesenheit, Integer>, JpaSpecificationExecutor<Anwesenheit>,
+        AnwesenheitRepositoryCustom {
+    // List finders fetch what AnwesenheitMapper.toDto reads in the same query (see Anwesenheit.dto)
+    @Override
+    @EntityGraph("Anwesenheit.dto")
+    List<Anwesenheit> findAll();
+
+    // The table is partitioned by month of datum. Lookups by student or course are bounded by the
+    // course period, so only the course's partitions are scanned (see kursBeginn/kursEnde).
+    LocalDate FRUEHESTES_DATUM = LocalDate.of(2000, 1, 1);
+    LocalDate SPAETESTES_DATUM = LocalDate.of(2999, 12, 31);
+
+    static LocalDate kursBeginn(Kurs kurs) {
+        return kurs.getStartdatum() != null ? kurs.getStartdatum() : FRUEHESTES_DATUM;
+    }
+
+    static LocalDate kursEnde(Kurs kurs) {
+        return kurs.getEnddatum() != null ? kurs.getEnddatum() : SPAETESTES_DATUM;
+    }
+
+    @EntityGraph("Anwesenheit.dto")
+    List<Anwesenheit> findByTeilnehmerIdAndKursIdAndDatumBetween(Integer teilnehmerId, Integer kursId,
+                                                                  LocalDate von, LocalDate bis);
+
+    default List<Anwesenheit> findByTeilnehmerIdAndKurs(Integer teilnehmerId, Kurs kurs) {
+        return findByTeilnehmerIdAndKursIdAndDatumBetween(teilnehmerId, kurs.getId(), kursBeginn(kurs), kursEnde(kurs));
+    }
+
+    @EntityGraph("Anwesenheit.dto")
     List<Anwesenheit> findByKursIdAndDatum(Integer kursId, LocalDate datum);
+
+    @EntityGraph("Anwesenheit.dto")
     List<Anwesenheit> findByDatumBetween(LocalDate startDate, LocalDate endDate);
 
+    /**
+     * The record of a student on one day with a row lock held until the end of the transaction, so
+     * the previous state a summary delta is computed from cannot change until the write commits
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Anwesenheit> findByTeilnehmerIdAndKursIdAndDatum(Integer teilnehmerId, Integer kursId, LocalDate datum);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Anwesenheit a WHERE a.id = :id")
+    Optional<Anwesenheit> findByIdForUpdate(@Param("id") Integer id);
+
+    @Query("SELECT a FROM Anwesenheit a JOIN FETCH a.teilnehmer JOIN FETCH a.kurs " +
+            "WHERE a.kurs.id = :kursId AND a.datum = :datum AND a.teilnehmer.id IN :teilnehmerIds")
+    List<Anwesenheit> findForBulkResult(@Param("kursId") Integer kursId,
+                                        @Param("datum") LocalDate datum,
+                                        @Param("teilnehmerIds") Collection<Integer> teilnehmerIds);
+
+    /**
+     * One attendance record reduced to what the attendance matrix stores
+     */
+    interface MatrixEintrag {
+        Integer getTeilnehmerId();
+
+        LocalDate getDatum();
+
+        Boolean getAnwesend();
+
+        Boolean getEntschuldigt();
+    }
+
+    @Query("SELECT a.teilnehmer.id AS teilnehmerId, a.datum AS datum, a.anwesend AS anwesend, " +
+            "a.entschuldigt AS entschuldigt FROM Anwesenheit a " +
+            "WHERE a.kurs.id = :kursId AND a.datum BETWEEN :von AND :bis")
+    List<MatrixEintrag> findMatrixEintraege(@Param("kursId") Integer kursId,
+                                            @Param("von") LocalDate von, @Param("bis") LocalDate bis);
+
+    default List<MatrixEintrag> findMatrixEintraege(Kurs kurs) {
+        return findMatrixEintraege(kurs.getId(), kursBeginn(kurs), kursEnde(kurs));
+    }
+
+    /**
+     * Attendance history of one enrollment, latest first
+     */
+    @Query("SELECT a.teilnehmer.id AS teilnehmerId, a.datum AS datum, a.anwesend AS anwesend, " +
+            "a.entschuldigt AS entschuldigt FROM Anwesenheit a " +
+            "WHERE a.teilnehmer.id = :teilnehmerId AND a.kurs.id = :kursId ORDER BY a.datum DESC")
+    List<MatrixEintrag> findVerlauf(@Param("teilnehmerId") Integer teilnehmerId, @Param("kursId") Integer kursId);
+
+    /**
+     * An inserted or updated attendance record as read by the early-warning job
+     */
+    interface Aenderung {
+        Integer getId();
+
+        Integer getTeilnehmerId();
+
+        Integer getKursId();
+
+        LocalDate getDatum();
+
+        Boolean getAnwesend();
+
+        LocalDateTime getGeaendertAm();
+    }
+
+    /**
+     * Records changed after the (seit, nachId) watermark and not later than bis, in watermark order
+     */
+    @Query("SELECT a.id AS id, a.teilnehmer.id AS teilnehmerId, a.kurs.id AS kursId, a.datum AS datum, " +
+            "a.anwesend AS anwesend, a.geaendertAm AS geaendertAm FROM Anwesenheit a " +
+            "WHERE a.geaendertAm <= :bis " +
+            "AND (a.geaendertAm > :seit OR (a.geaendertAm = :seit AND a.id > :nachId)) " +
+            "ORDER BY a.geaendertAm, a.id")
+    List<Aenderung> findGeaendertSeit(@Param("seit") LocalDateTime seit, @Param("nachId") Integer nachId,
+                                      @Param("bis") LocalDateTime bis, Limit limit);
+
+    /**
+     * One attendance record flattened for export
+     */
+    interface ExportZeile {
+        Integer getId();
+
+        Integer getKursId();
+
+        String getKursName();
+
+        Integer getTeilnehmerId();
+
+        String getVorname();
+
+        String getNachname();
+
+        LocalDate getDatum();
+
+        Boolean getAnwesend();
+
+        Boolean getEntschuldigt();
+
+        String getBemerkung();
+    }
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Forward-only cursor over the records of a date range; the caller must close the stream
+     * inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.id AS id, k.id AS kursId, k.kursName AS kursName, t.id AS teilnehmerId, " +
+            "t.vorname AS vorname, t.nachname AS nachname, a.datum AS datum, a.anwesend AS anwesend, " +
+            "a.entschuldigt AS entschuldigt, a.bemerkung AS bemerkung " +
+            "FROM Anwesenheit a JOIN a.kurs k JOIN a.teilnehmer t " +
+            "WHERE a.datum BETWEEN :von AND :bis AND (:kursId IS NULL OR k.id = :kursId) " +
+            "ORDER BY a.datum, a.id")
+    Stream<ExportZeile> streamExport(@Param("kursId") Integer kursId,
+                                     @Param("von") LocalDate von, @Param("bis") LocalDate bis);
+
     @Query("SELECT COUNT(a) FROM Anwesenheit a WHERE a.teilnehmer.id = ?1 AND a.kurs.id = ?2 AND a.anwesend = true")
     Long countAnwesenheitByTeilnehmerAndKurs(Integer teilnehmerId, Integer kursId);
-}
\ No newline at end of file
+}
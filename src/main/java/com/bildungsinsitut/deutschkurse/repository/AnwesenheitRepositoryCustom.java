@@ -0,0 +1,59 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based write operations for attendance that bypass the per-entity JPA path, and maintenance
+ * of the table's monthly partitions (PostgreSQL only)
+ */
+public interface AnwesenheitRepositoryCustom {
+
+    /**
+     * Insert or update the rows of one course day, keyed by the (teilnehmer_id, kurs_id, datum)
+     * unique constraint. New rows are inserted in one statement; rows that already exist are locked
+     * (SELECT ... FOR UPDATE) before they are updated in one batch, so the returned previous state
+     * is exact even when two roll calls for the same day overlap. Returns the previous state by
+     * student id; students missing from the result were inserted by this call.
+     */
+    Map<Integer, Vorzustand> upsertAll(List<AnwesenheitUpsert> rows);
+
+    /**
+     * Create the missing monthly partitions from the month of von through the month of bis;
+     * returns how many were created
+     */
+    int createPartitions(LocalDate von, LocalDate bis);
+
+    /**
+     * Month partitions currently attached to anwesenheit, oldest first
+     */
+    List<Partition> findPartitions();
+
+    /**
+     * True if no course with records in the partition ended on or after the given date
+     */
+    boolean isArchivable(Partition partition, LocalDate beendetVor);
+
+    /**
+     * Detach the partition from anwesenheit and attach it to anwesenheit_archiv
+     */
+    void archive(Partition partition);
+
+    /**
+     * One month partition; bis is exclusive
+     */
+    record Partition(String name, LocalDate von, LocalDate bis) {
+    }
+
+    record Vorzustand(Boolean anwesend, Boolean entschuldigt) {
+    }
+
+    record AnwesenheitUpsert(Integer teilnehmerId,
+                             Integer kursId,
+                             LocalDate datum,
+                             Boolean anwesend,
+                             Boolean entschuldigt,
+                             String bemerkung) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class AnwesenheitRepositoryCustomImpl implements AnwesenheitRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+
+    // Inserts only the rows that do not exist yet and reports which ones; a row inserted concurrently
+    // by another transaction is waited for and then skipped
+    private static final String INSERT_NEW_SQL = """
+            INSERT INTO anwesenheit (teilnehmer_id, kurs_id, datum, anwesend, entschuldigt, bemerkung, erfasst_am, geaendert_am)
+            SELECT e.teilnehmer_id, ?, ?, e.anwesend, e.entschuldigt, e.bemerkung, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM unnest(?, ?, ?, ?) AS e(teilnehmer_id, anwesend, entschuldigt, bemerkung)
+            ORDER BY e.teilnehmer_id
+            ON CONFLICT (teilnehmer_id, kurs_id, datum) DO NOTHING
+            RETURNING teilnehmer_id
+            """;
+
+    // Ordered, so overlapping roll calls lock the same rows in the same order
+    private static final String LOCK_EXISTING_SQL = """
+            SELECT teilnehmer_id, anwesend, entschuldigt FROM anwesenheit
+            WHERE kurs_id = ? AND datum = ? AND teilnehmer_id = ANY (?)
+            ORDER BY teilnehmer_id
+            FOR UPDATE
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO anwesenheit (teilnehmer_id, kurs_id, datum, anwesend, entschuldigt, bemerkung, erfasst_am, geaendert_am)
+            VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            ON CONFLICT (teilnehmer_id, kurs_id, datum) DO UPDATE
+            SET anwesend = EXCLUDED.anwesend,
+                entschuldigt = EXCLUDED.entschuldigt,
+                bemerkung = EXCLUDED.bemerkung,
+                geaendert_am = CURRENT_TIMESTAMP
+            """;
+
+    // Names given by anwesenheit_partitionen_anlegen (schema.sql); other partitions are left alone
+    private static final Pattern PARTITION_NAME = Pattern.compile("anwesenheit_p(\\d{4})_(\\d{2})");
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'anwesenheit'::regclass
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<Integer, Vorzustand> upsertAll(List<AnwesenheitUpsert> rows) {
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        Integer kursId = rows.get(0).kursId();
+        LocalDate datum = rows.get(0).datum();
+        if (rows.stream().anyMatch(row -> !row.kursId().equals(kursId) || !row.datum().equals(datum))) {
+            throw new IllegalArgumentException("All rows must belong to the same course and date");
+        }
+
+        Set<Integer> inserted = new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_NEW_SQL);
+            ps.setInt(1, kursId);
+            ps.setDate(2, Date.valueOf(datum));
+            ps.setArray(3, con.createArrayOf("integer", rows.stream().map(AnwesenheitUpsert::teilnehmerId).toArray()));
+            ps.setArray(4, con.createArrayOf("boolean", rows.stream().map(AnwesenheitUpsert::anwesend).toArray()));
+            ps.setArray(5, con.createArrayOf("boolean", rows.stream().map(AnwesenheitUpsert::entschuldigt).toArray()));
+            ps.setArray(6, con.createArrayOf("text", rows.stream().map(AnwesenheitUpsert::bemerkung).toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1)));
+
+        List<AnwesenheitUpsert> existing = rows.stream()
+                .filter(row -> !inserted.contains(row.teilnehmerId()))
+                .sorted(Comparator.comparing(AnwesenheitUpsert::teilnehmerId))
+                .toList();
+        if (existing.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Integer, Vorzustand> vorher = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_EXISTING_SQL);
+            ps.setInt(1, kursId);
+            ps.setDate(2, Date.valueOf(datum));
+            ps.setArray(3, con.createArrayOf("integer", existing.stream().map(AnwesenheitUpsert::teilnehmerId).toArray()));
+            return ps;
+        }, rs -> {
+            vorher.put(rs.getInt("teilnehmer_id"), new Vorzustand(
+                    rs.getObject("anwesend", Boolean.class), rs.getObject("entschuldigt", Boolean.class)));
+        });
+
+        // A row deleted since the insert attempt is inserted again and reported as new
+        jdbcTemplate.batchUpdate(UPSERT_SQL, existing, BATCH_SIZE, (ps, row) -> {
+            ps.setInt(1, row.teilnehmerId());
+            ps.setInt(2, row.kursId());
+            ps.setDate(3, Date.valueOf(row.datum()));
+            ps.setBoolean(4, row.anwesend());
+            ps.setBoolean(5, row.entschuldigt());
+            ps.setString(6, row.bemerkung());
+        });
+        return vorher;
+    }
+
+    @Override
+    public int createPartitions(LocalDate von, LocalDate bis) {
+        Integer created = jdbcTemplate.queryForObject("SELECT anwesenheit_partitionen_anlegen(?, ?)", Integer.class,
+                Date.valueOf(von), Date.valueOf(bis));
+        return created != null ? created : 0;
+    }
+
+    @Override
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class).stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> {
+                    YearMonth monat = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+                    return new Partition(m.group(), monat.atDay(1), monat.plusMonths(1).atDay(1));
+                })
+                .toList();
+    }
+
+    @Override
+    public boolean isArchivable(Partition partition, LocalDate beendetVor) {
+        // Table names cannot be bound; the name has matched PARTITION_NAME
+        Boolean archivable = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM " + checked(partition) + " a JOIN kurse k ON k.kurs_id = a.kurs_id "
+                        + "WHERE k.enddatum IS NULL OR k.enddatum >= ?)",
+                Boolean.class, Date.valueOf(beendetVor));
+        return Boolean.TRUE.equals(archivable);
+    }
+
+    @Override
+    public void archive(Partition partition) {
+        String name = checked(partition);
+        jdbcTemplate.execute("ALTER TABLE anwesenheit DETACH PARTITION " + name);
+        jdbcTemplate.execute("ALTER TABLE anwesenheit_archiv ATTACH PARTITION " + name + " FOR VALUES FROM ('"
+                + partition.von().format(DateTimeFormatter.ISO_LOCAL_DATE) + "') TO ('"
+                + partition.bis().format(DateTimeFormatter.ISO_LOCAL_DATE) + "')");
+    }
+
+    private static String checked(Partition partition) {
+        if (!PARTITION_NAME.matcher(partition.name()).matches()) {
+            throw new IllegalArgumentException("Not an attendance partition: " + partition.name());
+        }
+        return partition.name();
+    }
+}
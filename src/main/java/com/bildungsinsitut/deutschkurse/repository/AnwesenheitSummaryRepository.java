@@ -0,0 +1,16 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.model.AnwesenheitSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AnwesenheitSummaryRepository extends JpaRepository<AnwesenheitSummary, AnwesenheitSummary.Id>,
+        AnwesenheitSummaryRepositoryCustom {
+
+    // Prefix range scan of the (kurs_id, teilnehmer_id) primary key
+    List<AnwesenheitSummary> findByIdKursIdIn(Collection<Integer> kursIds);
+}
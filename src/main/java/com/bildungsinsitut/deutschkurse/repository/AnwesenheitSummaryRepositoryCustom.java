@@ -0,0 +1,43 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delta updates and reconciliation of the anwesenheit_summary counters
+ */
+public interface AnwesenheitSummaryRepositoryCustom {
+
+    /**
+     * Add the deltas to the counters in JDBC batches; only deltas of new records create missing rows,
+     * counters never go below zero and last_datum only moves forward
+     */
+    void applyDeltas(List<SummaryDelta> deltas);
+
+    /**
+     * Recompute last_datum of one row from the attendance records, after the latest one was removed
+     */
+    void refreshLastDatum(Integer teilnehmerId, Integer kursId);
+
+    /**
+     * Overwrite every row that differs from the attendance records and delete rows without records;
+     * returns the number of repaired rows
+     */
+    int reconcile();
+
+    /**
+     * Rebuild all rows of the given students from the attendance records, e.g. after their
+     * records were moved to another student
+     */
+    void rebuildForTeilnehmer(Collection<Integer> teilnehmerIds);
+
+    record SummaryDelta(Integer teilnehmerId,
+                        Integer kursId,
+                        int total,
+                        int present,
+                        int excused,
+                        int unexcused,
+                        LocalDate datum) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class AnwesenheitSummaryRepositoryCustomImpl implements AnwesenheitSummaryRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String APPLY_SQL = """
+            INSERT INTO anwesenheit_summary (kurs_id, teilnehmer_id, total, present, excused, unexcused, last_datum, aktualisiert_am)
+            VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (kurs_id, teilnehmer_id) DO UPDATE
+            SET total = anwesenheit_summary.total + EXCLUDED.total,
+                present = anwesenheit_summary.present + EXCLUDED.present,
+                excused = anwesenheit_summary.excused + EXCLUDED.excused,
+                unexcused = anwesenheit_summary.unexcused + EXCLUDED.unexcused,
+                last_datum = GREATEST(anwesenheit_summary.last_datum, EXCLUDED.last_datum),
+                aktualisiert_am = CURRENT_TIMESTAMP
+            """;
+
+    // Changes and removals of existing records never create a row: without one there is nothing
+    // to correct, and the reconciliation job rebuilds it. Counters do not go below zero.
+    private static final String ADJUST_SQL = """
+            UPDATE anwesenheit_summary
+            SET total = GREATEST(total + ?, 0),
+                present = GREATEST(present + ?, 0),
+                excused = GREATEST(excused + ?, 0),
+                unexcused = GREATEST(unexcused + ?, 0),
+                aktualisiert_am = CURRENT_TIMESTAMP
+            WHERE kurs_id = ? AND teilnehmer_id = ?
+            """;
+
+    private static final String REFRESH_LAST_DATUM_SQL = """
+            UPDATE anwesenheit_summary s
+            SET last_datum = (SELECT MAX(a.datum) FROM anwesenheit a
+                              WHERE a.kurs_id = s.kurs_id AND a.teilnehmer_id = s.teilnehmer_id)
+            WHERE s.kurs_id = ? AND s.teilnehmer_id = ?
+            """;
+
+    // Same classification as AnwesenheitSummaryService: present, else excused, else unexcused.
+    // Archived partitions count too, so statistics of finished courses survive archival.
+    private static final String REPAIR_SQL = """
+            INSERT INTO anwesenheit_summary (kurs_id, teilnehmer_id, total, present, excused, unexcused, last_datum, aktualisiert_am)
+            SELECT ist.kurs_id, ist.teilnehmer_id, ist.total, ist.present, ist.excused, ist.unexcused, ist.last_datum, CURRENT_TIMESTAMP
+            FROM (SELECT kurs_id, teilnehmer_id,
+                         COUNT(*) AS total,
+                         COUNT(*) FILTER (WHERE anwesend IS TRUE) AS present,
+                         COUNT(*) FILTER (WHERE anwesend IS NOT TRUE AND entschuldigt IS TRUE) AS excused,
+                         COUNT(*) FILTER (WHERE anwesend IS NOT TRUE AND entschuldigt IS NOT TRUE) AS unexcused,
+                         MAX(datum) AS last_datum
+                  FROM (SELECT kurs_id, teilnehmer_id, datum, anwesend, entschuldigt FROM anwesenheit
+                        UNION ALL
+                        SELECT kurs_id, teilnehmer_id, datum, anwesend, entschuldigt FROM anwesenheit_archiv) a
+                  GROUP BY kurs_id, teilnehmer_id) ist
+            LEFT JOIN anwesenheit_summary s ON s.kurs_id = ist.kurs_id AND s.teilnehmer_id = ist.teilnehmer_id
+            WHERE (s.total, s.present, s.excused, s.unexcused, s.last_datum)
+                  IS DISTINCT FROM (ist.total, ist.present, ist.excused, ist.unexcused, ist.last_datum)
+            ON CONFLICT (kurs_id, teilnehmer_id) DO UPDATE
+            SET total = EXCLUDED.total,
+                present = EXCLUDED.present,
+                excused = EXCLUDED.excused,
+                unexcused = EXCLUDED.unexcused,
+                last_datum = EXCLUDED.last_datum,
+                aktualisiert_am = CURRENT_TIMESTAMP
+            """;
+
+    private static final String DELETE_ORPHANS_SQL = """
+            DELETE FROM anwesenheit_summary s
+            WHERE NOT EXISTS (SELECT 1 FROM anwesenheit a
+                              WHERE a.kurs_id = s.kurs_id AND a.teilnehmer_id = s.teilnehmer_id)
+            AND NOT EXISTS (SELECT 1 FROM anwesenheit_archiv a
+                            WHERE a.kurs_id = s.kurs_id AND a.teilnehmer_id = s.teilnehmer_id)
+            """;
+
+    private static final String DELETE_TEILNEHMER_SQL = "DELETE FROM anwesenheit_summary WHERE teilnehmer_id = ?";
+
+    private static final String REBUILD_TEILNEHMER_SQL = """
+            INSERT INTO anwesenheit_summary (kurs_id, teilnehmer_id, total, present, excused, unexcused, last_datum, aktualisiert_am)
+            SELECT kurs_id, teilnehmer_id,
+                   COUNT(*),
+                   COUNT(*) FILTER (WHERE anwesend IS TRUE),
+                   COUNT(*) FILTER (WHERE anwesend IS NOT TRUE AND entschuldigt IS TRUE),
+                   COUNT(*) FILTER (WHERE anwesend IS NOT TRUE AND entschuldigt IS NOT TRUE),
+                   MAX(datum), CURRENT_TIMESTAMP
+            FROM (SELECT kurs_id, teilnehmer_id, datum, anwesend, entschuldigt FROM anwesenheit WHERE teilnehmer_id = ?
+                  UNION ALL
+                  SELECT kurs_id, teilnehmer_id, datum, anwesend, entschuldigt FROM anwesenheit_archiv WHERE teilnehmer_id = ?) a
+            GROUP BY kurs_id, teilnehmer_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyDeltas(List<SummaryDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Boolean, List<SummaryDelta>> byNew = deltas.stream()
+                .collect(Collectors.partitioningBy(delta -> delta.total() > 0));
+        jdbcTemplate.batchUpdate(APPLY_SQL, byNew.get(true), BATCH_SIZE, (ps, delta) -> {
+            ps.setInt(1, delta.kursId());
+            ps.setInt(2, delta.teilnehmerId());
+            ps.setInt(3, delta.total());
+            ps.setInt(4, delta.present());
+            ps.setInt(5, delta.excused());
+            ps.setInt(6, delta.unexcused());
+            if (delta.datum() != null) {
+                ps.setDate(7, Date.valueOf(delta.datum()));
+            } else {
+                ps.setNull(7, Types.DATE);
+            }
+        });
+        jdbcTemplate.batchUpdate(ADJUST_SQL, byNew.get(false), BATCH_SIZE, (ps, delta) -> {
+            ps.setInt(1, delta.total());
+            ps.setInt(2, delta.present());
+            ps.setInt(3, delta.excused());
+            ps.setInt(4, delta.unexcused());
+            ps.setInt(5, delta.kursId());
+            ps.setInt(6, delta.teilnehmerId());
+        });
+    }
+
+    @Override
+    public void refreshLastDatum(Integer teilnehmerId, Integer kursId) {
+        jdbcTemplate.update(REFRESH_LAST_DATUM_SQL, kursId, teilnehmerId);
+    }
+
+    @Override
+    public int reconcile() {
+        return jdbcTemplate.update(REPAIR_SQL) + jdbcTemplate.update(DELETE_ORPHANS_SQL);
+    }
+
+    @Override
+    public void rebuildForTeilnehmer(Collection<Integer> teilnehmerIds) {
+        for (Integer teilnehmerId : teilnehmerIds) {
+            jdbcTemplate.update(DELETE_TEILNEHMER_SQL, teilnehmerId);
+            jdbcTemplate.update(REBUILD_TEILNEHMER_SQL, teilnehmerId, teilnehmerId);
+        }
+    }
+}
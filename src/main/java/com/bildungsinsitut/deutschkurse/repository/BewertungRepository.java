@@ -1,10 +1,16 @@
 package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.Bewertung;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +20,49 @@ public interface BewertungRepository extends JpaRepository<Bewertung, Integer> {
     List<Bewertung> findByTeilnehmerIdAndKursId(Integer teilnehmerId, Integer kursId);
     List<Bewertung> findByTestDatumBetween(LocalDate startDate, LocalDate endDate);
     List<Bewertung> findByBestandenFalse();
-}
\ No newline at end of file
+
+    /**
+     * A new test result as read by the early-warning job
+     */
+    interface Neu {
+        Integer getId();
+
+        Integer getTeilnehmerId();
+
+        Integer getKursId();
+
+        BigDecimal getPunkteErreicht();
+
+        BigDecimal getPunkteMaximal();
+
+        Boolean getBestanden();
+
+        LocalDateTime getErstelltAm();
+    }
+
+    /**
+     * Results created after the (seit, nachId) watermark and not later than bis, in watermark order
+     */
+    @Query("SELECT b.id AS id, b.teilnehmer.id AS teilnehmerId, b.kurs.id AS kursId, " +
+            "b.punkteErreicht AS punkteErreicht, b.punkteMaximal AS punkteMaximal, b.bestanden AS bestanden, " +
+            "b.erstelltAm AS erstelltAm FROM Bewertung b " +
+            "WHERE b.erstelltAm <= :bis " +
+            "AND (b.erstelltAm > :seit OR (b.erstelltAm = :seit AND b.id > :nachId)) " +
+            "ORDER BY b.erstelltAm, b.id")
+    List<Neu> findErstelltSeit(@Param("seit") LocalDateTime seit, @Param("nachId") Integer nachId,
+                               @Param("bis") LocalDateTime bis, Limit limit);
+
+    /**
+     * Results of one student in the given courses up to and including the (bis, bisId) watermark,
+     * in watermark order
+     */
+    @Query("SELECT b.id AS id, b.teilnehmer.id AS teilnehmerId, b.kurs.id AS kursId, " +
+            "b.punkteErreicht AS punkteErreicht, b.punkteMaximal AS punkteMaximal, b.bestanden AS bestanden, " +
+            "b.erstelltAm AS erstelltAm FROM Bewertung b " +
+            "WHERE b.teilnehmer.id = :teilnehmerId AND b.kurs.id IN :kursIds " +
+            "AND (b.erstelltAm < :bis OR (b.erstelltAm = :bis AND b.id <= :bisId)) " +
+            "ORDER BY b.erstelltAm, b.id")
+    List<Neu> findVerlaufBis(@Param("teilnehmerId") Integer teilnehmerId,
+                             @Param("kursIds") Collection<Integer> kursIds,
+                             @Param("bis") LocalDateTime bis, @Param("bisId") Integer bisId);
+}
@@ -0,0 +1,26 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import com.bildungsinsitut.deutschkurse.model.Fruehwarnung;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FruehwarnungRepository extends JpaRepository<Fruehwarnung, Fruehwarnung.Id> {
+
+    /**
+     * Flagged enrollments that are still open, optionally limited to one course
+     */
+    @Query("SELECT f FROM Fruehwarnung f JOIN FETCH f.teilnehmer JOIN FETCH f.kurs " +
+            "WHERE f.gefaehrdet = true AND (:kursId IS NULL OR f.id.kursId = :kursId) " +
+            "AND EXISTS (SELECT tk.id FROM TeilnehmerKurs tk WHERE tk.teilnehmer.id = f.id.teilnehmerId " +
+            "AND tk.kurs.id = f.id.kursId AND tk.status IN :status) " +
+            "ORDER BY f.gefaehrdetSeit, f.id.kursId, f.id.teilnehmerId")
+    List<Fruehwarnung> findGefaehrdet(@Param("kursId") Integer kursId,
+                                      @Param("status") Collection<TeilnehmerKursStatus> status);
+}
@@ -0,0 +1,36 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.model.JobWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+    /**
+     * Create the watermark on a job's first run; concurrent first runs wait for each other
+     * instead of failing on the primary key
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO job_watermarks (name, zeitpunkt, letzte_id) VALUES (:name, :zeitpunkt, 0)
+            ON CONFLICT (name) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("zeitpunkt") LocalDateTime zeitpunkt);
+
+    /**
+     * Load a watermark with a row lock (SELECT ... FOR UPDATE), so two runs of the same job
+     * (scheduler, manual trigger, second instance) cannot process the same batch
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM JobWatermark w WHERE w.name = :name")
+    Optional<JobWatermark> findByNameForUpdate(@Param("name") String name);
+}
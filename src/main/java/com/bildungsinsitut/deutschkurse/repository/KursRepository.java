@@ -2,20 +2,96 @@ package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
 import com.bildungsinsitut.deutschkurse.model.Kurs;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface KursRepository extends JpaRepository<Kurs, Integer> {
+public interface KursRepository extends JpaRepository<Kurs, Integer>, JpaSpecificationExecutor<Kurs> {
+    // List finders fetch what KursMapper.toDto reads in the same query (see Kurs.dto)
+    @Override
+    @EntityGraph("Kurs.dto")
+    List<Kurs> findAll();
+
+    @EntityGraph("Kurs.dto")
     List<Kurs> findByStatus(KursStatusType status);
+
+    @EntityGraph("Kurs.dto")
     List<Kurs> findByStatusIn(List<KursStatusType> statuses);
+
+    @EntityGraph("Kurs.dto")
     List<Kurs> findByTrainerId(Integer trainerId);
+
+    @EntityGraph("Kurs.dto")
+    List<Kurs> findByIdIn(Collection<Integer> ids);
+
+    @EntityGraph("Kurs.dto")
     List<Kurs> findByStartdatumBetween(LocalDate start, LocalDate end);
 
+    @EntityGraph("Kurs.dto")
     @Query("SELECT k FROM Kurs k WHERE k.aktuelleTeilnehmer < k.maxTeilnehmer AND k.status = 'geplant'")
     List<Kurs> findVerfuegbareKurse();
-}
\ No newline at end of file
+
+    /**
+     * Atomically take one seat. Returns 0 when the course is full (or does not exist).
+     * The row lock taken by the UPDATE serializes concurrent enrollments for the same course.
+     */
+    @Modifying
+    @Query("UPDATE Kurs k SET k.aktuelleTeilnehmer = k.aktuelleTeilnehmer + 1 " +
+            "WHERE k.id = :kursId AND k.aktuelleTeilnehmer < k.maxTeilnehmer")
+    int reserveSeat(@Param("kursId") Integer kursId);
+
+    /**
+     * Take several seats at once, all or nothing. Used by batch enrollment under the course row lock.
+     */
+    @Modifying
+    @Query("UPDATE Kurs k SET k.aktuelleTeilnehmer = k.aktuelleTeilnehmer + :anzahl " +
+            "WHERE k.id = :kursId AND k.aktuelleTeilnehmer + :anzahl <= k.maxTeilnehmer")
+    int reserveSeats(@Param("kursId") Integer kursId, @Param("anzahl") int anzahl);
+
+    /**
+     * Load a course with a row lock held until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT k FROM Kurs k WHERE k.id = :kursId")
+    Optional<Kurs> findByIdForUpdate(@Param("kursId") Integer kursId);
+
+    /**
+     * Atomically give one seat back. Returns 0 when the counter is already at zero.
+     */
+    @Modifying
+    @Query("UPDATE Kurs k SET k.aktuelleTeilnehmer = k.aktuelleTeilnehmer - 1 " +
+            "WHERE k.id = :kursId AND k.aktuelleTeilnehmer > 0")
+    int releaseSeat(@Param("kursId") Integer kursId);
+
+    interface SuchEintrag {
+        Integer getId();
+
+        String getKursName();
+
+        String getKurstypCode();
+
+        KursStatusType getStatus();
+
+        LocalDate getStartdatum();
+    }
+
+    @Query("SELECT k.id AS id, k.kursName AS kursName, kt.kurstypCode AS kurstypCode, k.status AS status, " +
+            "k.startdatum AS startdatum FROM Kurs k LEFT JOIN k.kurstyp kt")
+    List<SuchEintrag> findSuchEintraege();
+
+    @Query("SELECT k.id AS id, k.kursName AS kursName, kt.kurstypCode AS kurstypCode, k.status AS status, " +
+            "k.startdatum AS startdatum FROM Kurs k LEFT JOIN k.kurstyp kt WHERE k.id IN :ids")
+    List<SuchEintrag> findSuchEintraege(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,15 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.model.KursTermin;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface KursTerminRepository extends JpaRepository<KursTermin, Integer>, JpaSpecificationExecutor<KursTermin> {
+
+    List<KursTermin> findByStundenplanIdAndDatumGreaterThanEqual(Integer stundenplanId, LocalDate datum);
+}
@@ -2,12 +2,31 @@ package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.Kursraum;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface KursraumRepository extends JpaRepository<Kursraum, Integer> {
     List<Kursraum> findByVerfuegbarTrue();
     List<Kursraum> findByAbteilungId(Integer abteilungId);
-}
\ No newline at end of file
+
+    interface ReferenzEintrag {
+        Integer getId();
+
+        Integer getAbteilungId();
+
+        String getRaumName();
+
+        Integer getKapazitaet();
+
+        Boolean getVerfuegbar();
+    }
+
+    @Query("SELECT r.id AS id, r.abteilung.id AS abteilungId, r.raumName AS raumName, " +
+            "r.kapazitaet AS kapazitaet, r.verfuegbar AS verfuegbar FROM Kursraum r WHERE r.id = :id")
+    Optional<ReferenzEintrag> findReferenzEintrag(@Param("id") Integer id);
+}
@@ -2,12 +2,31 @@ package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.Kurstyp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface KurstypRepository extends JpaRepository<Kurstyp, Integer> {
     List<Kurstyp> findByAktivTrueOrderByLevelOrder();
     Kurstyp findByKurstypCode(String code);
+
+    interface ReferenzEintrag {
+        Integer getId();
+
+        String getKurstypCode();
+
+        String getKurstypName();
+
+        Integer getLevelOrder();
+
+        Boolean getAktiv();
+    }
+
+    @Query("SELECT k.id AS id, k.kurstypCode AS kurstypCode, k.kurstypName AS kurstypName, " +
+            "k.levelOrder AS levelOrder, k.aktiv AS aktiv FROM Kurstyp k WHERE k.id = :id")
+    Optional<ReferenzEintrag> findReferenzEintrag(@Param("id") Integer id);
 }
@@ -0,0 +1,133 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitFilter;
+import com.bildungsinsitut.deutschkurse.dto.KursFilter;
+import com.bildungsinsitut.deutschkurse.dto.KursTerminFilter;
+import com.bildungsinsitut.deutschkurse.dto.TeilnehmerFilter;
+import com.bildungsinsitut.deutschkurse.dto.TrainerFilter;
+import com.bildungsinsitut.deutschkurse.model.Anwesenheit;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.KursTermin;
+import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
+import com.bildungsinsitut.deutschkurse.model.Trainer;
+import com.bildungsinsitut.deutschkurse.util.CursorCodec;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Filter and keyset predicates for the paginated list endpoints. A null filter value means "no restriction".
+ */
+public final class ListSpecifications {
+
+    private ListSpecifications() {
+    }
+
+    public static Specification<Kurs> kurse(KursFilter filter) {
+        return Specification.allOf(
+                equal("status", filter.getStatus()),
+                equal("trainer.id", filter.getTrainerId()),
+                equal("kurstyp.id", filter.getKurstypId()),
+                equal("kursraum.id", filter.getKursraumId()),
+                from("startdatum", filter.getStartVon()),
+                until("startdatum", filter.getStartBis()),
+                contains("kursName", filter.getName()));
+    }
+
+    public static Specification<Teilnehmer> teilnehmer(TeilnehmerFilter filter) {
+        Specification<Teilnehmer> name = filter.getName() == null ? null
+                : Specification.anyOf(contains("vorname", filter.getName()), contains("nachname", filter.getName()));
+        return Specification.allOf(
+                equal("aktiv", filter.getAktiv()),
+                name,
+                contains("email", filter.getEmail()));
+    }
+
+    public static Specification<Trainer> trainer(TrainerFilter filter) {
+        return Specification.allOf(
+                equal("aktiv", filter.getAktiv()),
+                equal("status", filter.getStatus()),
+                equal("abteilung.id", filter.getAbteilungId()));
+    }
+
+    public static Specification<Anwesenheit> anwesenheiten(AnwesenheitFilter filter) {
+        return Specification.allOf(
+                equal("kurs.id", filter.getKursId()),
+                equal("teilnehmer.id", filter.getTeilnehmerId()),
+                from("datum", filter.getVon()),
+                until("datum", filter.getBis()),
+                equal("anwesend", filter.getAnwesend()));
+    }
+
+    public static Specification<KursTermin> termine(KursTerminFilter filter) {
+        return Specification.allOf(
+                from("datum", filter.getVon()),
+                until("datum", filter.getBis()),
+                equal("kurs.id", filter.getKursId()),
+                equal("kursraum.id", filter.getKursraumId()),
+                equal("trainer.id", filter.getTrainerId()));
+    }
+
+    /**
+     * Seek predicate for lists ordered by id
+     */
+    public static <T> Specification<T> idAfter(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Seek predicate for lists ordered by (datum, id): {@code datum > d OR (datum = d AND id > i)}
+     */
+    public static <T> Specification<T> datumIdAfter(CursorCodec.DatumId position) {
+        if (position == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("datum"), position.datum()),
+                cb.and(cb.equal(root.get("datum"), position.datum()),
+                        cb.greaterThan(root.get("id"), position.id())));
+    }
+
+    private static <T> Specification<T> equal(String attribute, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(path(root, attribute), value);
+    }
+
+    private static <T> Specification<T> contains(String attribute, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + value.trim().toLowerCase()
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(path(root, attribute)), pattern, '\\');
+    }
+
+    private static <T> Specification<T> from(String attribute, LocalDate value) {
+        if (value == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(path(root, attribute), value);
+    }
+
+    private static <T> Specification<T> until(String attribute, LocalDate value) {
+        if (value == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(path(root, attribute), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Y> Path<Y> path(Path<?> root, String attribute) {
+        Path<?> path = root;
+        for (String part : attribute.split("\\.")) {
+            path = path.get(part);
+        }
+        return (Path<Y>) path;
+    }
+}
@@ -1,14 +1,30 @@
 package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.Stundenplan;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface StundenplanRepository extends JpaRepository<Stundenplan, Integer> {
+    @EntityGraph("Stundenplan.dto")
     List<Stundenplan> findByKursId(Integer kursId);
+
+    @EntityGraph("Stundenplan.dto")
     List<Stundenplan> findByWochentag(String wochentag);
+
+    @EntityGraph("Stundenplan.dto")
     List<Stundenplan> findByAktivTrue();
+
+    @EntityGraph("Stundenplan.kalender")
+    List<Stundenplan> findByAktivTrueAndKursTrainerId(Integer trainerId);
+
+    @EntityGraph("Stundenplan.kalender")
+    List<Stundenplan> findByAktivTrueAndKursKursraumId(Integer kursraumId);
+
+    @EntityGraph("Stundenplan.kalender")
+    List<Stundenplan> findByAktivTrueAndKursIdIn(Collection<Integer> kursIds);
 }
\ No newline at end of file
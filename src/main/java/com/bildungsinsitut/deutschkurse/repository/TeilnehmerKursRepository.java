@@ -2,16 +2,90 @@ package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.TeilnehmerKurs;
 import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TeilnehmerKursRepository extends JpaRepository<TeilnehmerKurs, Integer> {
+    @EntityGraph("TeilnehmerKurs.kurs")
     List<TeilnehmerKurs> findByTeilnehmerId(Integer teilnehmerId);
+
+    @EntityGraph("TeilnehmerKurs.teilnehmer")
     List<TeilnehmerKurs> findByKursId(Integer kursId);
+
+    @EntityGraph("TeilnehmerKurs.teilnehmer")
+    List<TeilnehmerKurs> findByKursIdIn(Collection<Integer> kursIds);
+
     Optional<TeilnehmerKurs> findByTeilnehmerIdAndKursId(Integer teilnehmerId, Integer kursId);
     List<TeilnehmerKurs> findByStatus(TeilnehmerKursStatus status);
-}
\ No newline at end of file
+
+    @Query("SELECT tk.teilnehmer.id FROM TeilnehmerKurs tk " +
+            "WHERE tk.kurs.id = :kursId AND tk.teilnehmer.id IN :teilnehmerIds")
+    List<Integer> findEnrolledTeilnehmerIds(@Param("kursId") Integer kursId,
+                                            @Param("teilnehmerIds") Collection<Integer> teilnehmerIds);
+
+    @Query("SELECT tk.kurs.id FROM TeilnehmerKurs tk " +
+            "WHERE tk.teilnehmer.id = :teilnehmerId AND tk.status IN :status")
+    List<Integer> findKursIdsByTeilnehmerIdAndStatusIn(@Param("teilnehmerId") Integer teilnehmerId,
+                                                       @Param("status") Collection<TeilnehmerKursStatus> status);
+
+    @Query("SELECT tk.teilnehmer.id FROM TeilnehmerKurs tk " +
+            "WHERE tk.kurs.id = :kursId AND tk.status IN :status")
+    List<Integer> findTeilnehmerIdsByKursIdAndStatusIn(@Param("kursId") Integer kursId,
+                                                       @Param("status") Collection<TeilnehmerKursStatus> status);
+
+    /**
+     * One enrollment flattened for export
+     */
+    interface ExportZeile {
+        Integer getId();
+
+        Integer getKursId();
+
+        String getKursName();
+
+        Integer getTeilnehmerId();
+
+        String getVorname();
+
+        String getNachname();
+
+        String getEmail();
+
+        TeilnehmerKursStatus getStatus();
+
+        LocalDate getAnmeldedatum();
+
+        LocalDate getAbmeldedatum();
+
+        BigDecimal getAbschlussnote();
+    }
+
+    /**
+     * Forward-only cursor over enrollments, optionally of one course; the caller must close the
+     * stream inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AnwesenheitRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT tk.id AS id, k.id AS kursId, k.kursName AS kursName, t.id AS teilnehmerId, " +
+            "t.vorname AS vorname, t.nachname AS nachname, t.email AS email, tk.status AS status, " +
+            "tk.anmeldedatum AS anmeldedatum, tk.abmeldedatum AS abmeldedatum, tk.abschlussnote AS abschlussnote " +
+            "FROM TeilnehmerKurs tk JOIN tk.kurs k JOIN tk.teilnehmer t " +
+            "WHERE (:kursId IS NULL OR k.id = :kursId) ORDER BY k.id, tk.id")
+    Stream<ExportZeile> streamExport(@Param("kursId") Integer kursId);
+}
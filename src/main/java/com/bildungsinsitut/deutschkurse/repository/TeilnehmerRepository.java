@@ -2,14 +2,66 @@ package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface TeilnehmerRepository extends JpaRepository<Teilnehmer, Integer> {
+public interface TeilnehmerRepository extends JpaRepository<Teilnehmer, Integer>, JpaSpecificationExecutor<Teilnehmer>,
+        TeilnehmerRepositoryCustom {
     List<Teilnehmer> findByAktivTrue();
-    List<Teilnehmer> findByEmailContainingIgnoreCase(String email);
-    List<Teilnehmer> findByVornameContainingIgnoreCaseOrNachnameContainingIgnoreCase(
-            String vorname, String nachname);
-}
\ No newline at end of file
+
+    interface EmailTreffer {
+        String getEmail();
+
+        Integer getId();
+    }
+
+    /**
+     * Lowest student id per lower-cased email, for the given lower-cased emails
+     */
+    @Query("SELECT lower(t.email) AS email, min(t.id) AS id FROM Teilnehmer t " +
+            "WHERE lower(t.email) IN :emails GROUP BY lower(t.email)")
+    List<EmailTreffer> findIdsByEmailIn(@Param("emails") Collection<String> emails);
+
+    interface SuchEintrag {
+        Integer getId();
+
+        String getVorname();
+
+        String getNachname();
+
+        String getEmail();
+    }
+
+    @Query("SELECT t.id AS id, t.vorname AS vorname, t.nachname AS nachname, t.email AS email " +
+            "FROM Teilnehmer t WHERE t.aktiv = true")
+    List<SuchEintrag> findSuchEintraege();
+
+    @Query("SELECT t.id AS id, t.vorname AS vorname, t.nachname AS nachname, t.email AS email " +
+            "FROM Teilnehmer t WHERE t.aktiv = true AND t.id IN :ids")
+    List<SuchEintrag> findSuchEintraege(@Param("ids") Collection<Integer> ids);
+
+    interface DublettenEintrag {
+        Integer getId();
+
+        String getVorname();
+
+        String getNachname();
+
+        LocalDate getGeburtsdatum();
+
+        String getEmail();
+
+        String getTelefon();
+    }
+
+    @Query("SELECT t.id AS id, t.vorname AS vorname, t.nachname AS nachname, t.geburtsdatum AS geburtsdatum, " +
+            "t.email AS email, t.telefon AS telefon FROM Teilnehmer t WHERE t.aktiv = true")
+    List<DublettenEintrag> findDublettenEintraege();
+}
@@ -0,0 +1,48 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batched write operations on students that bypass the per-entity JPA path
+ */
+public interface TeilnehmerRepositoryCustom {
+
+    /**
+     * Insert all students in JDBC batches and return their new ids in input order. The ids are
+     * drawn from the table's sequence up front, so no per-row IDENTITY round trip is needed.
+     */
+    List<Integer> insertBatch(List<Teilnehmer> teilnehmer);
+
+    /**
+     * Ids of the students whose name best matches the search text, best first. Uses the trigram
+     * index on teilnehmer.such_name, so typos and partial words still match; the search text
+     * must already be in search form (see Suchtext).
+     */
+    List<Integer> searchByName(String suchtext, int limit);
+
+    /**
+     * Like {@link #searchByName}, on teilnehmer.such_email
+     */
+    List<Integer> searchByEmail(String suchtext, int limit);
+
+    /**
+     * Merge a duplicate student into the target student: enrollments, attendance (including the
+     * archive), test results and waitlist entries are moved to the target, missing contact data
+     * is copied over and the duplicate is deactivated. Where both have a row for the same course
+     * or day, the rows are combined into the target's. Both students must exist.
+     */
+    MergeErgebnis mergeInto(Integer duplikatId, Integer zielId);
+
+    /**
+     * Rows moved or combined per table, and the courses the duplicate had any rows in
+     */
+    record MergeErgebnis(int einschreibungen,
+                         int anwesenheiten,
+                         int bewertungen,
+                         int wartelisten,
+                         Set<Integer> kursIds) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@RequiredArgsConstructor
+public class TeilnehmerRepositoryCustomImpl implements TeilnehmerRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String NEXT_IDS_SQL = """
+            SELECT nextval(pg_get_serial_sequence('teilnehmer', 'teilnehmer_id'))
+            FROM generate_series(1, ?)
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO teilnehmer (teilnehmer_id, vorname, nachname, email, telefon, geburtsdatum, geschlecht,
+                                    staatsangehoerigkeit, muttersprache, anmeldedatum, aktiv)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /** Minimum word similarity of a match; pg_trgm's default of 0.6 rejects most typos in short names */
+    private static final String WORD_SIMILARITY_THRESHOLD = "0.4";
+
+    // <% and LIKE are both answered by the GIN trigram index; only the matches are ranked
+    private static final String SEARCH_SQL = """
+            SELECT teilnehmer_id FROM teilnehmer
+            WHERE ? <%% %1$s OR %1$s LIKE '%%' || ? || '%%'
+            ORDER BY word_similarity(?, %1$s) DESC, similarity(?, %1$s) DESC, teilnehmer_id
+            LIMIT ?
+            """;
+
+    private static final String SEARCH_NAME_SQL = SEARCH_SQL.formatted("such_name");
+    private static final String SEARCH_EMAIL_SQL = SEARCH_SQL.formatted("such_email");
+
+    // Merge statements take (duplicate, target) or (target, duplicate) as noted. The duplicate is
+    // locked FOR UPDATE, which waits for and then blocks the KEY SHARE locks of concurrent writes
+    // referencing it, so nothing can be added to it during the merge. The target only needs
+    // FOR NO KEY UPDATE; enrollments of it may go on.
+    private static final String LOCK_SQL = "SELECT teilnehmer_id FROM teilnehmer WHERE teilnehmer_id = ? %s";
+
+    private static final String MERGE_KURS_IDS_SQL = """
+            SELECT kurs_id FROM teilnehmer_kurse WHERE teilnehmer_id = ?
+            UNION SELECT kurs_id FROM anwesenheit WHERE teilnehmer_id = ?
+            UNION SELECT kurs_id FROM anwesenheit_archiv WHERE teilnehmer_id = ?
+            UNION SELECT kurs_id FROM bewertungen WHERE teilnehmer_id = ?
+            UNION SELECT kurs_id FROM warteliste WHERE teilnehmer_id = ?
+            """;
+
+    private static final String SITZPLATZ = "('angemeldet', 'aktiv')";
+
+    /** Which of two enrollments of the same course wins: a running one over a finished one over a cancelled one */
+    private static final String RANG = "CASE %s.status WHEN 'aktiv' THEN 4 WHEN 'angemeldet' THEN 3 WHEN 'abgeschlossen' THEN 2 ELSE 1 END";
+
+    // (target, duplicate): both held a seat in the course, one of them is given back
+    private static final String MERGE_RELEASE_SEATS_SQL = """
+            UPDATE kurse k SET aktuelle_teilnehmer = GREATEST(k.aktuelle_teilnehmer - 1, 0)
+            FROM teilnehmer_kurse z
+            JOIN teilnehmer_kurse d ON d.kurs_id = z.kurs_id
+            WHERE z.teilnehmer_id = ? AND d.teilnehmer_id = ? AND k.kurs_id = z.kurs_id
+            AND z.status IN %1$s AND d.status IN %1$s
+            """.formatted(SITZPLATZ);
+
+    // (target, duplicate)
+    private static final String MERGE_COMBINE_ENROLLMENTS_SQL = """
+            UPDATE teilnehmer_kurse z
+            SET status = CASE WHEN %1$s > %2$s THEN d.status ELSE z.status END,
+                abmeldedatum = CASE WHEN %1$s > %2$s THEN d.abmeldedatum ELSE z.abmeldedatum END,
+                anmeldedatum = LEAST(z.anmeldedatum, d.anmeldedatum),
+                abschlussnote = COALESCE(z.abschlussnote, d.abschlussnote),
+                bemerkungen = COALESCE(z.bemerkungen, d.bemerkungen),
+                geaendert_am = CURRENT_TIMESTAMP
+            FROM teilnehmer_kurse d
+            WHERE z.teilnehmer_id = ? AND d.teilnehmer_id = ? AND d.kurs_id = z.kurs_id
+            """.formatted(RANG.formatted("d"), RANG.formatted("z"));
+
+    // (duplicate, target)
+    private static final String MERGE_DELETE_ENROLLMENTS_SQL = """
+            DELETE FROM teilnehmer_kurse d USING teilnehmer_kurse z
+            WHERE d.teilnehmer_id = ? AND z.teilnehmer_id = ? AND z.kurs_id = d.kurs_id
+            """;
+
+    // (target, duplicate) on anwesenheit or anwesenheit_archiv: present on either record means present
+    private static final String MERGE_COMBINE_ANWESENHEIT_SQL = """
+            UPDATE %1$s z
+            SET anwesend = COALESCE(z.anwesend, FALSE) OR COALESCE(d.anwesend, FALSE),
+                entschuldigt = COALESCE(z.entschuldigt, FALSE) OR COALESCE(d.entschuldigt, FALSE),
+                bemerkung = COALESCE(z.bemerkung, d.bemerkung),
+                geaendert_am = CURRENT_TIMESTAMP
+            FROM %1$s d
+            WHERE z.teilnehmer_id = ? AND d.teilnehmer_id = ? AND d.kurs_id = z.kurs_id AND d.datum = z.datum
+            """;
+
+    // (duplicate, target)
+    private static final String MERGE_DELETE_ANWESENHEIT_SQL = """
+            DELETE FROM %1$s d USING %1$s z
+            WHERE d.teilnehmer_id = ? AND z.teilnehmer_id = ? AND z.kurs_id = d.kurs_id AND z.datum = d.datum
+            """;
+
+    // (target, duplicate); geaendert_am is bumped so the early-warning job picks the records up
+    private static final String MERGE_MOVE_ANWESENHEIT_SQL = """
+            UPDATE %s SET teilnehmer_id = ?, geaendert_am = CURRENT_TIMESTAMP WHERE teilnehmer_id = ?
+            """;
+
+    // (target, duplicate)
+    private static final String MERGE_MOVE_SQL = "UPDATE %s SET teilnehmer_id = ? WHERE teilnehmer_id = ?";
+
+    // (duplicate, target, target, duplicate, target): waiting twice for a course, or waiting for a course one is enrolled in
+    private static final String MERGE_CANCEL_WAITLIST_SQL = """
+            UPDATE warteliste w SET status = 'storniert'
+            WHERE w.teilnehmer_id IN (?, ?) AND w.status = 'wartend'
+            AND (EXISTS (SELECT 1 FROM teilnehmer_kurse tk
+                         WHERE tk.teilnehmer_id = ? AND tk.kurs_id = w.kurs_id AND tk.status IN %s)
+                 OR (w.teilnehmer_id = ? AND EXISTS (SELECT 1 FROM warteliste z
+                         WHERE z.teilnehmer_id = ? AND z.kurs_id = w.kurs_id AND z.status = 'wartend')))
+            """.formatted(SITZPLATZ);
+
+    // (target, duplicate)
+    private static final String MERGE_STAMMDATEN_SQL = """
+            UPDATE teilnehmer z
+            SET email = COALESCE(z.email, d.email),
+                telefon = COALESCE(z.telefon, d.telefon),
+                geburtsdatum = COALESCE(z.geburtsdatum, d.geburtsdatum),
+                geschlecht = COALESCE(z.geschlecht, d.geschlecht),
+                staatsangehoerigkeit = COALESCE(z.staatsangehoerigkeit, d.staatsangehoerigkeit),
+                muttersprache = COALESCE(z.muttersprache, d.muttersprache),
+                anmeldedatum = LEAST(z.anmeldedatum, d.anmeldedatum),
+                geaendert_am = CURRENT_TIMESTAMP
+            FROM teilnehmer d
+            WHERE z.teilnehmer_id = ? AND d.teilnehmer_id = ?
+            """;
+
+    private static final String MERGE_DEACTIVATE_SQL = """
+            UPDATE teilnehmer SET aktiv = FALSE, geaendert_am = CURRENT_TIMESTAMP WHERE teilnehmer_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Integer> insertBatch(List<Teilnehmer> teilnehmer) {
+        if (teilnehmer.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Integer.class, teilnehmer.size());
+        for (int i = 0; i < teilnehmer.size(); i++) {
+            teilnehmer.get(i).setId(ids.get(i));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, teilnehmer, BATCH_SIZE, (ps, t) -> {
+            ps.setInt(1, t.getId());
+            ps.setString(2, t.getVorname());
+            ps.setString(3, t.getNachname());
+            ps.setString(4, t.getEmail());
+            ps.setString(5, t.getTelefon());
+            ps.setObject(6, t.getGeburtsdatum() != null ? Date.valueOf(t.getGeburtsdatum()) : null, Types.DATE);
+            ps.setString(7, t.getGeschlecht() != null ? t.getGeschlecht().name() : null);
+            ps.setString(8, t.getStaatsangehoerigkeit());
+            ps.setString(9, t.getMuttersprache());
+            ps.setDate(10, Date.valueOf(t.getAnmeldedatum() != null ? t.getAnmeldedatum() : LocalDate.now()));
+            ps.setBoolean(11, t.getAktiv() == null || t.getAktiv());
+        });
+        return ids;
+    }
+
+    @Override
+    public List<Integer> searchByName(String suchtext, int limit) {
+        return search(SEARCH_NAME_SQL, suchtext, limit);
+    }
+
+    @Override
+    public List<Integer> searchByEmail(String suchtext, int limit) {
+        return search(SEARCH_EMAIL_SQL, suchtext, limit);
+    }
+
+    private List<Integer> search(String sql, String suchtext, int limit) {
+        // Transaction-local, so pooled connections keep the server default
+        jdbcTemplate.queryForObject("SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)",
+                String.class, WORD_SIMILARITY_THRESHOLD);
+        String like = suchtext.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return jdbcTemplate.queryForList(sql, Integer.class, suchtext, like, suchtext, suchtext, limit);
+    }
+
+    @Override
+    public MergeErgebnis mergeInto(Integer duplikatId, Integer zielId) {
+        // In id order, so two merges of the same pair cannot deadlock
+        for (Integer id : new TreeSet<>(List.of(duplikatId, zielId))) {
+            String sql = LOCK_SQL.formatted(id.equals(duplikatId) ? "FOR UPDATE" : "FOR NO KEY UPDATE");
+            if (jdbcTemplate.queryForList(sql, Integer.class, id).isEmpty()) {
+                throw new IllegalStateException("Both students must exist to be merged");
+            }
+        }
+        Set<Integer> kursIds = new HashSet<>(jdbcTemplate.queryForList(MERGE_KURS_IDS_SQL, Integer.class,
+                duplikatId, duplikatId, duplikatId, duplikatId, duplikatId));
+
+        jdbcTemplate.update(MERGE_RELEASE_SEATS_SQL, zielId, duplikatId);
+        jdbcTemplate.update(MERGE_COMBINE_ENROLLMENTS_SQL, zielId, duplikatId);
+        int einschreibungen = jdbcTemplate.update(MERGE_DELETE_ENROLLMENTS_SQL, duplikatId, zielId)
+                + jdbcTemplate.update(MERGE_MOVE_SQL.formatted("teilnehmer_kurse"), zielId, duplikatId);
+
+        int anwesenheiten = 0;
+        for (String tabelle : List.of("anwesenheit", "anwesenheit_archiv")) {
+            jdbcTemplate.update(MERGE_COMBINE_ANWESENHEIT_SQL.formatted(tabelle), zielId, duplikatId);
+            anwesenheiten += jdbcTemplate.update(MERGE_DELETE_ANWESENHEIT_SQL.formatted(tabelle), duplikatId, zielId)
+                    + jdbcTemplate.update(MERGE_MOVE_ANWESENHEIT_SQL.formatted(tabelle), zielId, duplikatId);
+        }
+
+        int bewertungen = jdbcTemplate.update(MERGE_MOVE_SQL.formatted("bewertungen"), zielId, duplikatId);
+
+        // Enrollments are moved already, so entries of either student for a course the target is now in are cancelled
+        jdbcTemplate.update(MERGE_CANCEL_WAITLIST_SQL, duplikatId, zielId, zielId, duplikatId, zielId);
+        int wartelisten = jdbcTemplate.update(MERGE_MOVE_SQL.formatted("warteliste"), zielId, duplikatId);
+
+        // The caller recomputes the target's features from the merged history
+        jdbcTemplate.update("DELETE FROM fruehwarnungen WHERE teilnehmer_id = ?", duplikatId);
+        jdbcTemplate.update(MERGE_STAMMDATEN_SQL, zielId, duplikatId);
+        jdbcTemplate.update(MERGE_DEACTIVATE_SQL, duplikatId);
+        return new MergeErgebnis(einschreibungen, anwesenheiten, bewertungen, wartelisten, kursIds);
+    }
+}
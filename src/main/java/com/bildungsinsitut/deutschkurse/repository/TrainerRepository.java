@@ -2,18 +2,58 @@ package com.bildungsinsitut.deutschkurse.repository;
 
 import com.bildungsinsitut.deutschkurse.enums.TrainerStatus;
 import com.bildungsinsitut.deutschkurse.model.Trainer;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TrainerRepository extends JpaRepository<Trainer, Integer > {
+public interface TrainerRepository extends JpaRepository<Trainer, Integer >, JpaSpecificationExecutor<Trainer> {
+    @EntityGraph("Trainer.dto")
     List<Trainer> findByAktivTrue();
+
+    @EntityGraph("Trainer.dto")
     List<Trainer> findByStatusAndAktivTrue(TrainerStatus status);
+
+    @EntityGraph("Trainer.dto")
     List<Trainer> findByAbteilungIdAndAktivTrue(Integer abteilungId);
 
+    interface SuchEintrag {
+        Integer getId();
+
+        String getVorname();
+
+        String getNachname();
+
+        String getEmail();
+    }
+
+    @Query("SELECT t.id AS id, t.vorname AS vorname, t.nachname AS nachname, t.email AS email " +
+            "FROM Trainer t WHERE t.aktiv = true")
+    List<SuchEintrag> findSuchEintraege();
+
+    @Query("SELECT t.id AS id, t.vorname AS vorname, t.nachname AS nachname, t.email AS email " +
+            "FROM Trainer t WHERE t.aktiv = true AND t.id IN :ids")
+    List<SuchEintrag> findSuchEintraege(@Param("ids") Collection<Integer> ids);
+
+    interface ReferenzEintrag {
+        Integer getId();
+
+        String getVorname();
+
+        String getNachname();
+    }
 
+    /**
+     * Name of a trainer, active or not, since courses keep showing their former trainers
+     */
+    @Query("SELECT t.id AS id, t.vorname AS vorname, t.nachname AS nachname FROM Trainer t WHERE t.id = :id")
+    Optional<ReferenzEintrag> findReferenzEintrag(@Param("id") Integer id);
 }
@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, UserRepositoryCustom {
 
     Optional<User> findByUsername(String username);
 
@@ -35,6 +35,10 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("UPDATE User u SET u.lastLogin = :loginTime WHERE u.id = :userId")
     void updateLastLogin(Integer userId, LocalDateTime loginTime);
 
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :userId")
+    void updatePassword(Integer userId, String password);
+
     @Modifying
     @Query("UPDATE User u SET u.enabled = :enabled WHERE u.id = :userId")
     void updateUserStatus(Integer userId, Boolean enabled);
@@ -0,0 +1,15 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Batched write operations on users that bypass the per-entity JPA path
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Set last_login for all given users in one JDBC batch; a newer stored value is never overwritten
+     */
+    void updateLastLogins(Map<Integer, LocalDateTime> lastLogins);
+}
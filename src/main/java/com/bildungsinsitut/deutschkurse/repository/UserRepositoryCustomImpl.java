@@ -0,0 +1,36 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String UPDATE_LAST_LOGIN_SQL = """
+            UPDATE users SET last_login = ?
+            WHERE user_id = ? AND (last_login IS NULL OR last_login < ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void updateLastLogins(Map<Integer, LocalDateTime> lastLogins) {
+        if (lastLogins.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, LocalDateTime>> rows = List.copyOf(lastLogins.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            Timestamp loginTime = Timestamp.valueOf(row.getValue());
+            ps.setTimestamp(1, loginTime);
+            ps.setInt(2, row.getKey());
+            ps.setTimestamp(3, loginTime);
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.bildungsinsitut.deutschkurse.repository;
+
+import com.bildungsinsitut.deutschkurse.enums.WartelisteStatus;
+import com.bildungsinsitut.deutschkurse.model.Warteliste;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WartelisteRepository extends JpaRepository<Warteliste, Integer> {
+    List<Warteliste> findByKursIdAndStatusOrderByIdAsc(Integer kursId, WartelisteStatus status);
+    long countByKursIdAndStatus(Integer kursId, WartelisteStatus status);
+
+    /**
+     * Next student in line, locked; callers serialize on the course row first, since a locked
+     * head taken by a concurrent withdrawal would make this come back empty
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Warteliste> findFirstByKursIdAndStatusOrderByIdAsc(Integer kursId, WartelisteStatus status);
+
+    @Query("SELECT w.teilnehmer.id FROM Warteliste w " +
+            "WHERE w.kurs.id = :kursId AND w.status = 'wartend' AND w.teilnehmer.id IN :teilnehmerIds")
+    List<Integer> findWartendeTeilnehmerIds(@Param("kursId") Integer kursId,
+                                            @Param("teilnehmerIds") Collection<Integer> teilnehmerIds);
+}
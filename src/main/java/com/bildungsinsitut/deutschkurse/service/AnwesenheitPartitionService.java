@@ -0,0 +1,69 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepository;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepositoryCustom.Partition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of the anwesenheit table: creates partitions ahead of time
+ * and moves months in which every course ended more than the retention period ago to
+ * anwesenheit_archiv. Archived records still count in anwesenheit_summary and are read by the
+ * attendance history of their course.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnwesenheitPartitionService {
+
+    private final AnwesenheitRepository anwesenheitRepository;
+
+    @Value("${app.anwesenheit.partitionierung.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.anwesenheit.partitionierung.vorlauf-monate:12}")
+    private int vorlaufMonate;
+
+    @Value("${app.anwesenheit.partitionierung.archiv-nach-jahren:3}")
+    private int archivNachJahren;
+
+    public record Wartung(int angelegt, List<String> archiviert) {
+    }
+
+    @Scheduled(cron = "${app.anwesenheit.partitionierung.cron:0 30 1 * * *}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Wartung maintain() {
+        if (!enabled) {
+            return new Wartung(0, List.of());
+        }
+        LocalDate heute = LocalDate.now();
+        int angelegt = anwesenheitRepository.createPartitions(heute.withDayOfMonth(1), heute.plusMonths(vorlaufMonate));
+
+        LocalDate grenze = heute.minusYears(archivNachJahren);
+        List<String> archiviert = new ArrayList<>();
+        for (Partition partition : anwesenheitRepository.findPartitions()) {
+            if (partition.bis().isAfter(grenze)) {
+                break;
+            }
+            // A month stays hot while any course with records in it ended after the cutoff
+            if (anwesenheitRepository.isArchivable(partition, grenze)) {
+                anwesenheitRepository.archive(partition);
+                archiviert.add(partition.name());
+            }
+        }
+
+        if (angelegt > 0 || !archiviert.isEmpty()) {
+            log.info("Attendance partitions: {} created, archived {}", angelegt, archiviert);
+        }
+        return new Wartung(angelegt, archiviert);
+    }
+}
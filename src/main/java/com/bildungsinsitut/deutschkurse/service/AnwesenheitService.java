@@ -1,13 +1,24 @@
 package com.bildungsinsitut.deutschkurse.service;
 
 import com.bildungsinsitut.deutschkurse.dto.AnwesenheitDto;
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitFilter;
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitStatistikDto;
 import com.bildungsinsitut.deutschkurse.dto.BulkAnwesenheitDto;
+import com.bildungsinsitut.deutschkurse.dto.BulkAnwesenheitResultDto;
+import com.bildungsinsitut.deutschkurse.dto.CursorPage;
+import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.mapper.AnwesenheitMapper;
 import com.bildungsinsitut.deutschkurse.model.*;
 import com.bildungsinsitut.deutschkurse.repository.*;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepositoryCustom.AnwesenheitUpsert;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepositoryCustom.Vorzustand;
+import com.bildungsinsitut.deutschkurse.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +36,16 @@ public class AnwesenheitService {
     private final KursRepository kursRepository;
     private final TeilnehmerKursRepository teilnehmerKursRepository;
     private final AnwesenheitMapper anwesenheitMapper;
+    private final AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+    private final AnwesenheitSummaryService anwesenheitSummaryService;
+    private final AttendanceMatrixService attendanceMatrixService;
+    private final AnwesenheitArchivRepository anwesenheitArchivRepository;
+
+    @Value("${app.anwesenheit.mindestquote:80}")
+    private double mindestquote;
+
+    @Value("${app.anwesenheit.max-statistik-kurse:50}")
+    private int maxStatistikKurse;
 
     /**
      * Get all attendance records
@@ -34,6 +55,23 @@ public class AnwesenheitService {
         return anwesenheitMapper.toDtoList(anwesenheitRepository.findAll());
     }
 
+    /**
+     * Keyset-paginated, filterable attendance list ordered by (datum, id)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AnwesenheitDto> getAnwesenheitPage(AnwesenheitFilter filter, String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<Anwesenheit> rows = anwesenheitRepository.findBy(
+                ListSpecifications.anwesenheiten(filter)
+                        .and(ListSpecifications.datumIdAfter(CursorCodec.decodeDatumId(cursor))),
+                q -> q.project("teilnehmer", "kurs")
+                        .sortBy(Sort.by("datum", "id"))
+                        .limit(pageSize + 1)
+                        .all());
+        return CursorPage.of(rows, pageSize, anwesenheitMapper::toDtoList,
+                a -> CursorCodec.encodeDatumId(a.getDatum(), a.getId()));
+    }
+
     /**
      * Get attendance by ID
      */
@@ -53,11 +91,19 @@ public class AnwesenheitService {
     }
 
     /**
-     * Get attendance history for a specific student in a specific course
+     * Get attendance history for a specific student in a specific course, including records whose
+     * month has been moved to anwesenheit_archiv; a course can span hot and archived months
      */
     @Transactional(readOnly = true)
     public List<AnwesenheitDto> getAnwesenheitByTeilnehmerAndKurs(Integer teilnehmerId, Integer kursId) {
-        return anwesenheitMapper.toDtoList(anwesenheitRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId));
+        Kurs kurs = kursRepository.findById(kursId)
+                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + kursId));
+        List<AnwesenheitDto> anwesenheiten = new ArrayList<>(anwesenheitMapper.archivToDtoList(
+                anwesenheitArchivRepository.findByTeilnehmerIdAndKursIdOrderByDatum(teilnehmerId, kursId)));
+        anwesenheiten.addAll(anwesenheitMapper.toDtoList(
+                anwesenheitRepository.findByTeilnehmerIdAndKurs(teilnehmerId, kurs)));
+        anwesenheiten.sort(Comparator.comparing(AnwesenheitDto::getDatum));
+        return anwesenheiten;
     }
 
     /**
@@ -65,25 +111,86 @@ public class AnwesenheitService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> getAnwesenheitStatistik(Integer teilnehmerId, Integer kursId) {
-        List<Anwesenheit> attendanceList = anwesenheitRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId);
-
-        long totalDays = attendanceList.size();
-        long presentDays = attendanceList.stream().filter(Anwesenheit::getAnwesend).count();
-        long excusedDays = attendanceList.stream().filter(a -> !a.getAnwesend() && a.getEntschuldigt()).count();
-        long unexcusedDays = attendanceList.stream().filter(a -> !a.getAnwesend() && !a.getEntschuldigt()).count();
-
-        double attendanceRate = totalDays > 0 ? (double) presentDays / totalDays * 100 : 0.0;
+        AnwesenheitStatistikDto statistik = new AnwesenheitStatistikDto();
+        anwesenheitSummaryRepository.findById(new AnwesenheitSummary.Id(kursId, teilnehmerId))
+                .ifPresent(summary -> fill(statistik, summary));
 
         Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalDays", totalDays);
-        statistics.put("presentDays", presentDays);
-        statistics.put("excusedDays", excusedDays);
-        statistics.put("unexcusedDays", unexcusedDays);
-        statistics.put("attendanceRate", Math.round(attendanceRate * 100.0) / 100.0);
+        statistics.put("totalDays", statistik.getTotalDays());
+        statistics.put("presentDays", statistik.getPresentDays());
+        statistics.put("excusedDays", statistik.getExcusedDays());
+        statistics.put("unexcusedDays", statistik.getUnexcusedDays());
+        statistics.put("attendanceRate", statistik.getAttendanceRate());
 
         return statistics;
     }
 
+    /**
+     * Attendance statistics of every student enrolled in the given courses, read from the
+     * anwesenheit_summary counters plus one query for the enrollments. Enrolled students without
+     * records are reported with zeros.
+     */
+    @Transactional(readOnly = true)
+    public List<AnwesenheitStatistikDto> getKursStatistik(Collection<Integer> kursIds) {
+        Set<Integer> ids = new TreeSet<>(kursIds);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one course is required");
+        }
+        if (ids.size() > maxStatistikKurse) {
+            throw new IllegalArgumentException("At most " + maxStatistikKurse + " courses per request");
+        }
+
+        Map<AnwesenheitSummary.Id, AnwesenheitSummary> summaries = new HashMap<>();
+        for (AnwesenheitSummary summary : anwesenheitSummaryRepository.findByIdKursIdIn(ids)) {
+            summaries.put(summary.getId(), summary);
+        }
+
+        List<AnwesenheitStatistikDto> result = new ArrayList<>();
+        for (TeilnehmerKurs teilnehmerKurs : teilnehmerKursRepository.findByKursIdIn(ids)) {
+            Integer kursId = teilnehmerKurs.getKurs().getId();
+            Teilnehmer teilnehmer = teilnehmerKurs.getTeilnehmer();
+            AnwesenheitSummary summary = summaries.get(new AnwesenheitSummary.Id(kursId, teilnehmer.getId()));
+            // Dropped-out students only appear if they have attendance records
+            if (summary == null && teilnehmerKurs.getStatus() == TeilnehmerKursStatus.abgebrochen) {
+                continue;
+            }
+
+            AnwesenheitStatistikDto statistik = new AnwesenheitStatistikDto();
+            statistik.setKursId(kursId);
+            statistik.setTeilnehmerId(teilnehmer.getId());
+            statistik.setTeilnehmerName(teilnehmer.getVorname() + " " + teilnehmer.getNachname());
+            statistik.setStatus(teilnehmerKurs.getStatus());
+            if (summary != null) {
+                fill(statistik, summary);
+            }
+            statistik.setMindestquote(mindestquote);
+            statistik.setMindestquoteErreicht(statistik.getTotalDays() > 0
+                    && statistik.getAttendanceRateInclExcused() >= mindestquote);
+            result.add(statistik);
+        }
+
+        result.sort(Comparator.comparing(AnwesenheitStatistikDto::getKursId)
+                .thenComparing(AnwesenheitStatistikDto::getTeilnehmerName, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    private static void fill(AnwesenheitStatistikDto statistik, AnwesenheitSummary summary) {
+        long total = summary.getTotal();
+        long present = summary.getPresent();
+        long excused = summary.getExcused();
+        statistik.setTotalDays(total);
+        statistik.setPresentDays(present);
+        statistik.setExcusedDays(excused);
+        statistik.setUnexcusedDays(summary.getUnexcused());
+        statistik.setAttendanceRate(rate(present, total));
+        statistik.setAttendanceRateInclExcused(rate(present + excused, total));
+    }
+
+    private static double rate(long count, long total) {
+        double rate = total > 0 ? (double) count / total * 100 : 0.0;
+        return Math.round(rate * 100.0) / 100.0;
+    }
+
     /**
      * Create or update attendance for a single student
      */
@@ -96,20 +203,24 @@ public class AnwesenheitService {
         Kurs kurs = kursRepository.findById(anwesenheitDto.getKursId())
                 .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + anwesenheitDto.getKursId()));
 
+        requireKurszeitraum(kurs, anwesenheitDto.getDatum());
+
         // Verify student is enrolled in the course
         teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmer.getId(), kurs.getId())
                 .orElseThrow(() -> new IllegalStateException("Student is not enrolled in this course"));
 
-        // Check if attendance already exists for this student, course, and date
-        Optional<Anwesenheit> existingAnwesenheit = anwesenheitRepository.findByTeilnehmerIdAndKursId(
-                        teilnehmer.getId(), kurs.getId()).stream()
-                .filter(a -> a.getDatum().equals(anwesenheitDto.getDatum()))
-                .findFirst();
+        // Check if attendance already exists for this student, course, and date; a concurrent edit of
+        // the record waits here, so both summary deltas start from the committed state
+        Optional<Anwesenheit> existingAnwesenheit = anwesenheitRepository.findByTeilnehmerIdAndKursIdAndDatum(
+                teilnehmer.getId(), kurs.getId(), anwesenheitDto.getDatum());
 
         Anwesenheit anwesenheit;
+        AnwesenheitSummaryService.Aenderung aenderung;
         if (existingAnwesenheit.isPresent()) {
             // Update existing attendance
             anwesenheit = existingAnwesenheit.get();
+            aenderung = AnwesenheitSummaryService.Aenderung.geaendert(anwesenheit,
+                    anwesenheitDto.getAnwesend(), anwesenheitDto.getEntschuldigt());
             anwesenheit.setAnwesend(anwesenheitDto.getAnwesend());
             anwesenheit.setEntschuldigt(anwesenheitDto.getEntschuldigt());
             anwesenheit.setBemerkung(anwesenheitDto.getBemerkung());
@@ -120,55 +231,126 @@ public class AnwesenheitService {
             anwesenheit = anwesenheitMapper.toEntity(anwesenheitDto);
             anwesenheit.setTeilnehmer(teilnehmer);
             anwesenheit.setKurs(kurs);
+            aenderung = AnwesenheitSummaryService.Aenderung.neu(teilnehmer.getId(), kurs.getId(),
+                    anwesenheit.getDatum(), anwesenheit.getAnwesend(), anwesenheit.getEntschuldigt());
             log.info("Created new attendance for Teilnehmer {} in Kurs {} on {}",
                     teilnehmer.getId(), kurs.getId(), anwesenheitDto.getDatum());
         }
 
-        anwesenheit = anwesenheitRepository.save(anwesenheit);
+        // A concurrent insert of the same record fails on the unique key instead of counting twice
+        try {
+            anwesenheit = anwesenheitRepository.save(anwesenheit);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Attendance for this date was recorded concurrently, please retry");
+        }
+        anwesenheitSummaryService.recordChange(aenderung);
+        attendanceMatrixService.recordAnwesenheit(teilnehmer.getId(), kurs.getId(), anwesenheit.getDatum(),
+                anwesenheit.getAnwesend(), anwesenheit.getEntschuldigt());
         return anwesenheitMapper.toDto(anwesenheit);
     }
 
     /**
-     * Bulk create/update attendance for multiple students
+     * Bulk create/update attendance for multiple students.
+     * Enrollment is validated with one query and all rows are upserted in one batch;
+     * records that cannot be saved are reported individually instead of aborting the roll call.
      */
-    public List<AnwesenheitDto> createBulkAnwesenheit(BulkAnwesenheitDto bulkDto) {
+    public BulkAnwesenheitResultDto createBulkAnwesenheit(BulkAnwesenheitDto bulkDto) {
+        Integer kursId = bulkDto.getKursId();
+        LocalDate datum = bulkDto.getDatum();
+
         // Verify course exists
-        Kurs kurs = kursRepository.findById(bulkDto.getKursId())
-                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + bulkDto.getKursId()));
+        Kurs kurs = kursRepository.findById(kursId)
+                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + kursId));
+        requireKurszeitraum(kurs, datum);
 
-        List<AnwesenheitDto> results = new ArrayList<>();
+        BulkAnwesenheitResultDto result = new BulkAnwesenheitResultDto();
+        result.setKursId(kursId);
+        result.setDatum(datum);
 
+        // One record per student; later duplicates are rejected rather than silently overwriting
+        Map<Integer, BulkAnwesenheitDto.AttendanceRecord> recordsByTeilnehmer = new LinkedHashMap<>();
         for (BulkAnwesenheitDto.AttendanceRecord record : bulkDto.getAttendanceRecords()) {
-            AnwesenheitDto dto = new AnwesenheitDto();
-            dto.setTeilnehmerId(record.getTeilnehmerId());
-            dto.setKursId(bulkDto.getKursId());
-            dto.setDatum(bulkDto.getDatum());
-            dto.setAnwesend(record.getAnwesend());
-            dto.setEntschuldigt(record.getEntschuldigt());
-            dto.setBemerkung(record.getBemerkung());
-
-            try {
-                results.add(createOrUpdateAnwesenheit(dto));
-            } catch (Exception e) {
-                log.error("Failed to create attendance for Teilnehmer {}: {}",
-                        record.getTeilnehmerId(), e.getMessage());
+            if (record.getTeilnehmerId() == null) {
+                result.getFailures().add(new BulkAnwesenheitResultDto.RecordFailure(null, "Teilnehmer ID is required"));
+            } else if (recordsByTeilnehmer.putIfAbsent(record.getTeilnehmerId(), record) != null) {
+                result.getFailures().add(new BulkAnwesenheitResultDto.RecordFailure(
+                        record.getTeilnehmerId(), "Duplicate attendance record in request"));
+            }
+        }
+
+        Set<Integer> enrolled = recordsByTeilnehmer.isEmpty()
+                ? Set.of()
+                : new HashSet<>(teilnehmerKursRepository.findEnrolledTeilnehmerIds(kursId, recordsByTeilnehmer.keySet()));
+
+        List<AnwesenheitUpsert> upserts = new ArrayList<>();
+        for (BulkAnwesenheitDto.AttendanceRecord record : recordsByTeilnehmer.values()) {
+            if (!enrolled.contains(record.getTeilnehmerId())) {
+                result.getFailures().add(new BulkAnwesenheitResultDto.RecordFailure(
+                        record.getTeilnehmerId(), "Student is not enrolled in this course"));
+                continue;
             }
+            upserts.add(new AnwesenheitUpsert(
+                    record.getTeilnehmerId(),
+                    kursId,
+                    datum,
+                    record.getAnwesend() != null ? record.getAnwesend() : Boolean.TRUE,
+                    record.getEntschuldigt() != null ? record.getEntschuldigt() : Boolean.FALSE,
+                    record.getBemerkung()));
+        }
+
+        if (!upserts.isEmpty()) {
+            // Previous state of the records that already existed, read under a row lock, for the summary deltas
+            Map<Integer, Vorzustand> vorher = anwesenheitRepository.upsertAll(upserts);
+            anwesenheitSummaryService.recordChanges(upserts.stream()
+                    .map(upsert -> aenderung(upsert, vorher.get(upsert.teilnehmerId())))
+                    .toList());
+            upserts.forEach(upsert -> attendanceMatrixService.recordAnwesenheit(upsert.teilnehmerId(), kursId,
+                    datum, upsert.anwesend(), upsert.entschuldigt()));
+            List<Integer> savedIds = upserts.stream().map(AnwesenheitUpsert::teilnehmerId).toList();
+            result.setRecords(anwesenheitMapper.toDtoList(
+                    anwesenheitRepository.findForBulkResult(kursId, datum, savedIds)));
         }
 
-        log.info("Bulk attendance created/updated for {} students in Kurs {} on {}",
-                results.size(), kurs.getId(), bulkDto.getDatum());
+        result.setSucceeded(result.getRecords().size());
+        result.setFailed(result.getFailures().size());
+
+        log.info("Bulk attendance created/updated for {} students in Kurs {} on {} ({} failed)",
+                result.getSucceeded(), kursId, datum, result.getFailed());
+
+        return result;
+    }
+
+    /**
+     * Attendance can only be recorded within the course period; reads rely on this to touch only
+     * the course's month partitions
+     */
+    private static void requireKurszeitraum(Kurs kurs, LocalDate datum) {
+        if (datum.isBefore(AnwesenheitRepository.kursBeginn(kurs)) || datum.isAfter(AnwesenheitRepository.kursEnde(kurs))) {
+            throw new IllegalArgumentException("Date " + datum + " is outside the course period");
+        }
+    }
 
-        return results;
+    private static AnwesenheitSummaryService.Aenderung aenderung(AnwesenheitUpsert upsert, Vorzustand vorher) {
+        if (vorher == null) {
+            return AnwesenheitSummaryService.Aenderung.neu(upsert.teilnehmerId(), upsert.kursId(), upsert.datum(),
+                    upsert.anwesend(), upsert.entschuldigt());
+        }
+        return new AnwesenheitSummaryService.Aenderung(upsert.teilnehmerId(), upsert.kursId(), upsert.datum(), false,
+                vorher.anwesend(), vorher.entschuldigt(), upsert.anwesend(), upsert.entschuldigt());
     }
 
     /**
      * Delete attendance record
      */
     public void deleteAnwesenheit(Integer id) {
-        if (!anwesenheitRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Anwesenheit not found with id: " + id);
-        }
-        anwesenheitRepository.deleteById(id);
+        Anwesenheit anwesenheit = anwesenheitRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Anwesenheit not found with id: " + id));
+        anwesenheitRepository.delete(anwesenheit);
+        // The summary is updated with plain SQL, which must see the row gone
+        anwesenheitRepository.flush();
+        anwesenheitSummaryService.recordRemoval(anwesenheit);
+        attendanceMatrixService.recordRemoval(anwesenheit.getTeilnehmer().getId(), anwesenheit.getKurs().getId(),
+                anwesenheit.getDatum());
         log.info("Deleted Anwesenheit with id: {}", id);
     }
 
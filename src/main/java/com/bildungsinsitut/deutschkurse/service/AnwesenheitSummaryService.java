@@ -0,0 +1,116 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.model.Anwesenheit;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitSummaryRepository;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitSummaryRepositoryCustom.SummaryDelta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps anwesenheit_summary in step with the attendance records. Every attendance write passes
+ * the old and new state of its row, and the difference is added to the counters in the caller's
+ * transaction. A reconciliation job repairs drift, e.g. from writes that bypass the service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class AnwesenheitSummaryService {
+
+    private final AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+
+    private enum Art { PRESENT, EXCUSED, UNEXCUSED }
+
+    /**
+     * Old and new state of one attendance record; the old state is captured before the record is modified
+     */
+    public record Aenderung(Integer teilnehmerId, Integer kursId, LocalDate datum, boolean neu,
+                            Boolean vorherAnwesend, Boolean vorherEntschuldigt,
+                            Boolean anwesend, Boolean entschuldigt) {
+
+        public static Aenderung neu(Integer teilnehmerId, Integer kursId, LocalDate datum,
+                                    Boolean anwesend, Boolean entschuldigt) {
+            return new Aenderung(teilnehmerId, kursId, datum, true, null, null, anwesend, entschuldigt);
+        }
+
+        public static Aenderung geaendert(Anwesenheit vorher, Boolean anwesend, Boolean entschuldigt) {
+            return new Aenderung(vorher.getTeilnehmer().getId(), vorher.getKurs().getId(), vorher.getDatum(), false,
+                    vorher.getAnwesend(), vorher.getEntschuldigt(), anwesend, entschuldigt);
+        }
+    }
+
+    public void recordChanges(List<Aenderung> aenderungen) {
+        List<SummaryDelta> deltas = new ArrayList<>();
+        for (Aenderung aenderung : aenderungen) {
+            Art neu = art(aenderung.anwesend(), aenderung.entschuldigt());
+            if (aenderung.neu()) {
+                deltas.add(delta(aenderung.teilnehmerId(), aenderung.kursId(), aenderung.datum(), 1, null, neu));
+                continue;
+            }
+            Art alt = art(aenderung.vorherAnwesend(), aenderung.vorherEntschuldigt());
+            if (alt != neu) {
+                deltas.add(delta(aenderung.teilnehmerId(), aenderung.kursId(), null, 0, alt, neu));
+            }
+        }
+        anwesenheitSummaryRepository.applyDeltas(deltas);
+    }
+
+    public void recordChange(Aenderung aenderung) {
+        recordChanges(List.of(aenderung));
+    }
+
+    public void recordRemoval(Anwesenheit anwesenheit) {
+        Integer teilnehmerId = anwesenheit.getTeilnehmer().getId();
+        Integer kursId = anwesenheit.getKurs().getId();
+        anwesenheitSummaryRepository.applyDeltas(List.of(delta(teilnehmerId, kursId, null, -1,
+                art(anwesenheit.getAnwesend(), anwesenheit.getEntschuldigt()), null)));
+        // last_datum only moves forward on insert; removing a record may move it back
+        anwesenheitSummaryRepository.refreshLastDatum(teilnehmerId, kursId);
+    }
+
+    /**
+     * Repair counters that drifted from the attendance records. Runs under REPEATABLE READ, so a
+     * concurrent delta on a repaired row fails this run instead of being overwritten; the next
+     * run picks the row up again.
+     */
+    @Scheduled(cron = "${app.anwesenheit.summary-reconcile-cron:0 45 3 * * *}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.REPEATABLE_READ)
+    public int reconcile() {
+        int repaired = anwesenheitSummaryRepository.reconcile();
+        if (repaired > 0) {
+            log.warn("Repaired {} drifted attendance summary rows", repaired);
+        } else {
+            log.info("Attendance summary is consistent");
+        }
+        return repaired;
+    }
+
+    private static SummaryDelta delta(Integer teilnehmerId, Integer kursId, LocalDate datum,
+                                      int total, Art weg, Art dazu) {
+        int[] counts = new int[Art.values().length];
+        if (weg != null) {
+            counts[weg.ordinal()]--;
+        }
+        if (dazu != null) {
+            counts[dazu.ordinal()]++;
+        }
+        return new SummaryDelta(teilnehmerId, kursId, total,
+                counts[Art.PRESENT.ordinal()], counts[Art.EXCUSED.ordinal()], counts[Art.UNEXCUSED.ordinal()], datum);
+    }
+
+    private static Art art(Boolean anwesend, Boolean entschuldigt) {
+        if (Boolean.TRUE.equals(anwesend)) {
+            return Art.PRESENT;
+        }
+        return Boolean.TRUE.equals(entschuldigt) ? Art.EXCUSED : Art.UNEXCUSED;
+    }
+}
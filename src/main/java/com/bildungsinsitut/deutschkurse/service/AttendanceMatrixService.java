@@ -0,0 +1,171 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepository;
+import com.bildungsinsitut.deutschkurse.repository.KursRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerKursRepository;
+import com.bildungsinsitut.deutschkurse.util.AttendanceMatrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an {@link AttendanceMatrix} per running course, loaded with one query on first use and
+ * updated by attendance writes after they commit. Matrices of other courses are built per request
+ * and not kept.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceMatrixService {
+
+    private static final Set<TeilnehmerKursStatus> ROSTER =
+            EnumSet.of(TeilnehmerKursStatus.angemeldet, TeilnehmerKursStatus.aktiv);
+
+    private final AnwesenheitRepository anwesenheitRepository;
+    private final TeilnehmerKursRepository teilnehmerKursRepository;
+    private final KursRepository kursRepository;
+
+    public record Speicherbedarf(Integer kursId, int teilnehmer, int sitzungen, long bytes) {
+    }
+
+    private final Map<Integer, AttendanceMatrix> matrizen = new ConcurrentHashMap<>();
+
+    /**
+     * Students by session days of a course; von and bis are optional bounds
+     */
+    @Transactional(readOnly = true)
+    public AttendanceMatrix.Raster getRaster(Integer kursId, LocalDate von, LocalDate bis) {
+        if (von != null && bis != null && von.isAfter(bis)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        return matrix(kursId).raster(von != null ? von : LocalDate.MIN, bis != null ? bis : LocalDate.MAX);
+    }
+
+    /**
+     * Current present/absent streaks of a course's students, limited to absence streaks of at least minFehlend
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceMatrix.Serie> getSerien(Integer kursId, int minFehlend) {
+        if (minFehlend < 0) {
+            throw new IllegalArgumentException("minFehlend must not be negative");
+        }
+        return matrix(kursId).serien(minFehlend);
+    }
+
+    /**
+     * Approximate heap usage of the cached matrices, largest first
+     */
+    public List<Speicherbedarf> getSpeicherbedarf() {
+        List<Speicherbedarf> result = new ArrayList<>();
+        matrizen.forEach((kursId, matrix) -> result.add(new Speicherbedarf(kursId,
+                matrix.getTeilnehmerAnzahl(), matrix.getSitzungsAnzahl(), matrix.footprintBytes())));
+        result.sort(Comparator.comparingLong(Speicherbedarf::bytes).reversed());
+        return result;
+    }
+
+    /**
+     * Apply a saved attendance record once the surrounding transaction commits
+     */
+    public void recordAnwesenheit(Integer teilnehmerId, Integer kursId, LocalDate datum,
+                                  Boolean anwesend, Boolean entschuldigt) {
+        afterCommit(() -> matrizen.computeIfPresent(kursId, (id, matrix) ->
+                // A day before the base date cannot be stored; drop the matrix so it is reloaded
+                matrix.set(teilnehmerId, datum, Boolean.TRUE.equals(anwesend), Boolean.TRUE.equals(entschuldigt))
+                        ? matrix : null));
+    }
+
+    public void recordRemoval(Integer teilnehmerId, Integer kursId, LocalDate datum) {
+        afterCommit(() -> matrizen.computeIfPresent(kursId, (id, matrix) -> {
+            matrix.clear(teilnehmerId, datum);
+            return matrix;
+        }));
+    }
+
+    /**
+     * Drop the matrix of a course once the surrounding transaction commits, e.g. after its
+     * records were moved between students; it is reloaded on next use
+     */
+    public void invalidateKurs(Integer kursId) {
+        afterCommit(() -> matrizen.remove(kursId));
+    }
+
+    /**
+     * Drop matrices of courses that are no longer running
+     */
+    @Scheduled(cron = "${app.anwesenheit.matrix-evict-cron:0 0 4 * * *}")
+    @Transactional(readOnly = true)
+    public void evictInactive() {
+        Set<Integer> laufend = new HashSet<>();
+        kursRepository.findByStatus(KursStatusType.laufend).forEach(kurs -> laufend.add(kurs.getId()));
+        int before = matrizen.size();
+        matrizen.keySet().retainAll(laufend);
+        log.info("Attendance matrices: {} cached, {} evicted", matrizen.size(), before - matrizen.size());
+    }
+
+    private AttendanceMatrix matrix(Integer kursId) {
+        Kurs kurs = kursRepository.findById(kursId)
+                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + kursId));
+        if (kurs.getStatus() != KursStatusType.laufend) {
+            matrizen.remove(kursId);
+            return load(kurs);
+        }
+        // Loaded under the map's bin lock, so a write committing meanwhile is applied after the load
+        return matrizen.computeIfAbsent(kursId, id -> load(kurs));
+    }
+
+    private AttendanceMatrix load(Kurs kurs) {
+        List<AnwesenheitRepository.MatrixEintrag> eintraege = anwesenheitRepository.findMatrixEintraege(kurs);
+        LocalDate basis = kurs.getStartdatum();
+        LocalDate ende = kurs.getEnddatum() != null ? kurs.getEnddatum() : basis;
+        for (AnwesenheitRepository.MatrixEintrag eintrag : eintraege) {
+            if (basis == null || eintrag.getDatum().isBefore(basis)) {
+                basis = eintrag.getDatum();
+            }
+            if (ende == null || eintrag.getDatum().isAfter(ende)) {
+                ende = eintrag.getDatum();
+            }
+        }
+        if (basis == null) {
+            basis = LocalDate.now();
+            ende = basis;
+        }
+
+        AttendanceMatrix matrix = new AttendanceMatrix(basis, (int) ChronoUnit.DAYS.between(basis, ende) + 1);
+        teilnehmerKursRepository.findTeilnehmerIdsByKursIdAndStatusIn(kurs.getId(), ROSTER).stream()
+                .sorted()
+                .forEach(matrix::addTeilnehmer);
+        for (AnwesenheitRepository.MatrixEintrag eintrag : eintraege) {
+            matrix.set(eintrag.getTeilnehmerId(), eintrag.getDatum(),
+                    Boolean.TRUE.equals(eintrag.getAnwesend()), Boolean.TRUE.equals(eintrag.getEntschuldigt()));
+        }
+        log.debug("Loaded attendance matrix for Kurs {}: {} students, {} sessions, ~{} bytes", kurs.getId(),
+                matrix.getTeilnehmerAnzahl(), matrix.getSitzungsAnzahl(), matrix.footprintBytes());
+        return matrix;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
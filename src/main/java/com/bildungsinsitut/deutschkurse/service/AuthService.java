@@ -3,6 +3,7 @@ package com.bildungsinsitut.deutschkurse.service;
 import com.bildungsinsitut.deutschkurse.dto.auth.*;
 import com.bildungsinsitut.deutschkurse.enums.Role;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import com.bildungsinsitut.deutschkurse.exception.TooManyRequestsException;
 import com.bildungsinsitut.deutschkurse.model.User;
 import com.bildungsinsitut.deutschkurse.repository.UserRepository;
 import com.bildungsinsitut.deutschkurse.util.JwtUtil;
@@ -15,6 +16,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
@@ -35,8 +37,22 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final AuthUserCache authUserCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenDenyList tokenDenyList;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final LoginRateLimiter loginRateLimiter;
+
+    /**
+     * Authenticate after passing the per-IP throttle and the per-username limit on failed attempts.
+     * Runs without a transaction, so a request waiting for the password hash holds no database
+     * connection; the user lookup and the refresh token each run in their own short transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponse login(LoginRequest loginRequest, String clientIp) {
+        // Throttled attempts are rejected before any password hashing
+        loginRateLimiter.acquire(loginRequest.getUsername(), clientIp);
 
-    public AuthResponse login(LoginRequest loginRequest) {
         try {
             log.info("Attempting login for user: {}", loginRequest.getUsername());
 
@@ -50,31 +66,23 @@ public class AuthService {
 
             User user = (User) authentication.getPrincipal();
 
-            // Update last login time
-            userRepository.updateLastLogin(user.getId(), LocalDateTime.now());
-
-            // Generate JWT token with additional claims
-            Map<String, Object> claims = new HashMap<>();
-            claims.put("userId", user.getId());
-            claims.put("role", user.getRole().name());
-            claims.put("email", user.getEmail());
-
-            String token = jwtUtil.generateToken(user, claims);
+            // Written behind in batches, off the login path
+            lastLoginRecorder.record(user.getId(), LocalDateTime.now());
 
             log.info("User {} logged in successfully", user.getUsername());
 
-            return new AuthResponse(
-                    token,
-                    user.getId(),
-                    user.getUsername(),
-                    user.getEmail(),
-                    user.getFullName(),
-                    user.getRole()
-            );
+            return createAuthResponse(user, refreshTokenService.issue(user.getId()));
 
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (AuthenticationException e) {
+            if (e.getCause() instanceof TooManyRequestsException tooManyRequests) {
+                // Hashing queue full while checking an unknown user
+                throw tooManyRequests;
+            }
             // This catches both BadCredentialsException and other auth failures
             log.error("Login failed for user: {} - {}", loginRequest.getUsername(), e.getMessage());
+            loginRateLimiter.recordFailure(loginRequest.getUsername());
             throw new BadCredentialsException("Invalid username or password");
         } catch (Exception e) {
             // Catch any other unexpected errors
@@ -111,24 +119,44 @@ public class AuthService {
 
         user = userRepository.save(user);
 
-        // Generate JWT token
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getId());
-        claims.put("role", user.getRole().name());
-        claims.put("email", user.getEmail());
+        log.info("User {} registered successfully", user.getUsername());
 
-        String token = jwtUtil.generateToken(user, claims);
+        return createAuthResponse(user, refreshTokenService.issue(user.getId()));
+    }
 
-        log.info("User {} registered successfully", user.getUsername());
+    /**
+     * Exchange a refresh token for a new access token and a rotated refresh token
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public AuthResponse refresh(String refreshToken) {
+        if (!StringUtils.hasText(refreshToken)) {
+            throw new BadCredentialsException("Refresh token is required");
+        }
 
-        return new AuthResponse(
-                token,
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                user.getFullName(),
-                user.getRole()
-        );
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(rotation.userId())
+                .filter(User::isEnabled)
+                .orElse(null);
+        if (user == null) {
+            refreshTokenService.revokeAllForUser(rotation.userId());
+            throw new BadCredentialsException("User is disabled");
+        }
+
+        log.debug("Issued new access token for user {}", user.getUsername());
+        return createAuthResponse(user, rotation.refreshToken());
+    }
+
+    /**
+     * Revoke the presented access token until it expires and, if given, the refresh token family
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (StringUtils.hasText(accessToken)) {
+            jwtUtil.parseValidToken(accessToken)
+                    .ifPresent(claims -> tokenDenyList.deny(claims.getId(), claims.getExpiration().getTime()));
+        }
+        if (StringUtils.hasText(refreshToken)) {
+            refreshTokenService.revoke(refreshToken);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -191,6 +219,11 @@ public class AuthService {
 
         // Save updated user
         user = userRepository.save(user);
+        authUserCache.invalidate(user.getId());
+        if (StringUtils.hasText(updateRequest.getPassword())) {
+            // A password change ends all other sessions once their access tokens expire
+            refreshTokenService.revokeAllForUser(user.getId());
+        }
         log.info("User profile updated successfully for user: {}", user.getUsername());
 
         return convertToDto(user);
@@ -215,6 +248,12 @@ public class AuthService {
             throw new ResourceNotFoundException("User not found with id: " + userId);
         }
         userRepository.updateUserStatus(userId, enabled);
+        // Access tokens stop working with the cache invalidation (the filter checks the account state);
+        // refresh tokens are revoked so the session cannot be extended after re-enabling either
+        authUserCache.invalidate(userId);
+        if (!Boolean.TRUE.equals(enabled)) {
+            refreshTokenService.revokeAllForUser(userId);
+        }
         log.info("User {} status updated to: {}", userId, enabled);
     }
 
@@ -224,11 +263,33 @@ public class AuthService {
 
         user.setRole(newRole);
         user = userRepository.save(user);
+        authUserCache.invalidate(userId);
 
         log.info("User {} role updated to: {}", user.getUsername(), newRole);
         return convertToDto(user);
     }
 
+    private AuthResponse createAuthResponse(User user, String refreshToken) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getId());
+        claims.put("role", user.getRole().name());
+        claims.put("email", user.getEmail());
+
+        String token = jwtUtil.generateToken(user, claims);
+
+        AuthResponse response = new AuthResponse(
+                token,
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getFullName(),
+                user.getRole()
+        );
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(jwtUtil.getExpirationTime() / 1000);
+        return response;
+    }
+
     private UserDto convertToDto(User user) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
@@ -240,7 +301,8 @@ public class AuthService {
         dto.setRole(user.getRole());
         dto.setEnabled(user.getEnabled());
         dto.setCreatedAt(user.getCreatedAt());
-        dto.setLastLogin(user.getLastLogin());
+        // A login that has not been flushed yet is newer than the stored value
+        dto.setLastLogin(lastLoginRecorder.pendingFor(user.getId()).orElse(user.getLastLogin()));
         return dto;
     }
 }
\ No newline at end of file
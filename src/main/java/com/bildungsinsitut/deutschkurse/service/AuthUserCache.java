@@ -0,0 +1,74 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.auth.AuthenticatedUser;
+import com.bildungsinsitut.deutschkurse.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of the user data needed to authenticate a request (role and account state),
+ * so JWT-authenticated requests do not query the users table. Entries are dropped on role,
+ * status and profile changes and otherwise expire after the TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuthUserCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.auth.user-cache-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.auth.user-cache-max-entries:10000}")
+    private int maxEntries;
+
+    // A null user marks an id that does not exist
+    private record Entry(AuthenticatedUser user, long expiresAt) {
+    }
+
+    private final Map<Integer, Entry> cache = new ConcurrentHashMap<>();
+
+    public Optional<AuthenticatedUser> get(Integer userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(userId);
+        if (entry != null && entry.expiresAt() > now) {
+            return Optional.ofNullable(entry.user());
+        }
+
+        AuthenticatedUser user = userRepository.findById(userId).map(AuthenticatedUser::from).orElse(null);
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(e -> e.expiresAt() <= now);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(userId, new Entry(user, now + ttlSeconds * 1000));
+        return Optional.ofNullable(user);
+    }
+
+    /**
+     * Drop a user now and again after the surrounding transaction commits, so a request
+     * racing with the change cannot re-cache the old state
+     */
+    public void invalidate(Integer userId) {
+        cache.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(userId);
+                }
+            });
+        }
+        log.debug("Invalidated cached principal for user {}", userId);
+    }
+}
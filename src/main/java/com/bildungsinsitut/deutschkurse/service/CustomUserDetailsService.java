@@ -5,6 +5,7 @@ import com.bildungsinsitut.deutschkurse.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,7 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -44,4 +45,17 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return user;
     }
-}
\ No newline at end of file
+
+    /**
+     * Store a re-hashed password after a successful login with an outdated hash strength
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        User user = (User) userDetails;
+        userRepository.updatePassword(user.getId(), newEncodedPassword);
+        user.setPassword(newEncodedPassword);
+        log.info("Upgraded password hash for user {}", user.getId());
+        return user;
+    }
+}
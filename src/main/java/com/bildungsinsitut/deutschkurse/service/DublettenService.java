@@ -0,0 +1,254 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.DublettenGrund;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.KursBelegungGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitSummaryRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepositoryCustom;
+import com.bildungsinsitut.deutschkurse.util.JaroWinkler;
+import com.bildungsinsitut.deutschkurse.util.KoelnerPhonetik;
+import com.bildungsinsitut.deutschkurse.util.Suchtext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds students registered more than once under spelling variants ("Mohammed"/"Muhammad") and
+ * merges them. Instead of comparing every pair, students are grouped by blocking keys - the
+ * Kölner Phonetik codes of both names, birth date plus either name's code, normalized email -
+ * and only pairs sharing a block are scored, block by block in parallel.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DublettenService {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final double PHONETISCH_GLEICH = 0.92;
+    private static final double NAME_AEHNLICH = 0.85;
+    private static final int MIN_TELEFON_ZIFFERN = 6;
+
+    private final TeilnehmerRepository teilnehmerRepository;
+    private final AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+    private final AttendanceMatrixService attendanceMatrixService;
+    private final KalenderFeedService kalenderFeedService;
+    private final FruehwarnungService fruehwarnungService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.dubletten.min-score:70}")
+    private int defaultMinScore;
+
+    @Value("${app.dubletten.max-block:500}")
+    private int maxBlock;
+
+    public record Person(Integer id, String vorname, String nachname, LocalDate geburtsdatum, String email) {
+    }
+
+    /** Two students that are probably the same person; score from 0 to 100 */
+    public record Kandidat(Person a, Person b, int score, List<DublettenGrund> gruende) {
+    }
+
+    /** A student with the normalized forms used for blocking and scoring */
+    private record Profil(Person person, String vorname, String nachname, String phonVorname, String phonNachname,
+                          String email, String telefon) {
+    }
+
+    /**
+     * Candidate pairs scoring at least minScore, best first
+     */
+    @Transactional(readOnly = true)
+    public List<Kandidat> findKandidaten(Integer minScore, Integer limit) {
+        int schwelle = minScore != null ? minScore : defaultMinScore;
+        if (schwelle < 0 || schwelle > 100) {
+            throw new IllegalArgumentException("minScore must be between 0 and 100");
+        }
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        Map<String, List<Profil>> bloecke = new HashMap<>();
+        for (TeilnehmerRepository.DublettenEintrag eintrag : teilnehmerRepository.findDublettenEintraege()) {
+            Profil profil = profil(eintrag);
+            for (String key : blockingKeys(profil)) {
+                bloecke.computeIfAbsent(key, k -> new ArrayList<>()).add(profil);
+            }
+        }
+        List<List<Profil>> zuVergleichen = new ArrayList<>();
+        int uebersprungen = 0;
+        for (List<Profil> block : bloecke.values()) {
+            if (block.size() > maxBlock) {
+                uebersprungen++;
+            } else if (block.size() > 1) {
+                zuVergleichen.add(block);
+            }
+        }
+        if (uebersprungen > 0) {
+            log.warn("Duplicate search skipped {} blocks with more than {} students", uebersprungen, maxBlock);
+        }
+
+        // A pair sharing several blocks is scored once
+        Set<Long> verglichen = ConcurrentHashMap.newKeySet();
+        return zuVergleichen.parallelStream()
+                .flatMap(block -> {
+                    List<Kandidat> treffer = new ArrayList<>();
+                    for (int i = 0; i < block.size(); i++) {
+                        for (int j = i + 1; j < block.size(); j++) {
+                            Profil a = block.get(i);
+                            Profil b = block.get(j);
+                            if (!verglichen.add(paar(a.person().id(), b.person().id()))) {
+                                continue;
+                            }
+                            Kandidat kandidat = bewerten(a, b);
+                            if (kandidat.score() >= schwelle) {
+                                treffer.add(kandidat);
+                            }
+                        }
+                    }
+                    return treffer.stream();
+                })
+                .sorted(Comparator.comparingInt(Kandidat::score).reversed()
+                        .thenComparing(k -> k.a().id())
+                        .thenComparing(k -> k.b().id()))
+                .limit(size)
+                .toList();
+    }
+
+    /**
+     * Merge the duplicate into the target student and deactivate the duplicate. Derived data
+     * (attendance counters, cached matrices and calendar feeds, the search index) is refreshed.
+     */
+    @Transactional
+    public TeilnehmerRepositoryCustom.MergeErgebnis merge(Integer duplikatId, Integer zielId) {
+        if (duplikatId.equals(zielId)) {
+            throw new IllegalArgumentException("A student cannot be merged into itself");
+        }
+        for (Integer id : List.of(duplikatId, zielId)) {
+            if (!teilnehmerRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Teilnehmer not found with id: " + id);
+            }
+        }
+
+        // Before the students are locked, in the same order as an early-warning run
+        fruehwarnungService.sperren();
+        TeilnehmerRepositoryCustom.MergeErgebnis ergebnis = teilnehmerRepository.mergeInto(duplikatId, zielId);
+        anwesenheitSummaryRepository.rebuildForTeilnehmer(List.of(duplikatId, zielId));
+        fruehwarnungService.neuBerechnen(zielId, ergebnis.kursIds());
+        ergebnis.kursIds().forEach(attendanceMatrixService::invalidateKurs);
+        kalenderFeedService.invalidateTeilnehmer(duplikatId);
+        kalenderFeedService.invalidateTeilnehmer(zielId);
+        eventPublisher.publishEvent(new StammdatenGeaendertEvent(SuchTyp.teilnehmer, List.of(duplikatId, zielId)));
+        // A seat held by both students was given back
+        eventPublisher.publishEvent(new KursBelegungGeaendertEvent(ergebnis.kursIds()));
+
+        log.info("Merged Teilnehmer {} into {}: {} enrollments, {} attendance records, {} test results, {} waitlist entries",
+                duplikatId, zielId, ergebnis.einschreibungen(), ergebnis.anwesenheiten(), ergebnis.bewertungen(),
+                ergebnis.wartelisten());
+        return ergebnis;
+    }
+
+    private static Profil profil(TeilnehmerRepository.DublettenEintrag eintrag) {
+        String email = eintrag.getEmail() != null ? eintrag.getEmail().trim().toLowerCase(Locale.ROOT) : "";
+        String telefon = eintrag.getTelefon() != null ? eintrag.getTelefon().replaceAll("\\D", "") : "";
+        return new Profil(
+                new Person(eintrag.getId(), eintrag.getVorname(), eintrag.getNachname(), eintrag.getGeburtsdatum(),
+                        eintrag.getEmail()),
+                Suchtext.normalize(Objects.toString(eintrag.getVorname(), "")).trim(),
+                Suchtext.normalize(Objects.toString(eintrag.getNachname(), "")).trim(),
+                KoelnerPhonetik.encode(eintrag.getVorname()),
+                KoelnerPhonetik.encode(eintrag.getNachname()),
+                email,
+                telefon);
+    }
+
+    private static List<String> blockingKeys(Profil p) {
+        List<String> keys = new ArrayList<>(4);
+        if (!p.phonVorname().isEmpty() && !p.phonNachname().isEmpty()) {
+            // Sorted, so swapped first and last names land in the same block
+            boolean vornameZuerst = p.phonVorname().compareTo(p.phonNachname()) <= 0;
+            keys.add("n|" + (vornameZuerst ? p.phonVorname() + "|" + p.phonNachname() : p.phonNachname() + "|" + p.phonVorname()));
+        }
+        LocalDate geburtsdatum = p.person().geburtsdatum();
+        if (geburtsdatum != null) {
+            // Either name may be misspelled beyond its phonetic code, e.g. after a marriage
+            keys.add("g|" + geburtsdatum + "|" + p.phonNachname());
+            keys.add("v|" + geburtsdatum + "|" + p.phonVorname());
+        }
+        if (!p.email().isEmpty()) {
+            keys.add("e|" + p.email());
+        }
+        return keys;
+    }
+
+    private static Kandidat bewerten(Profil a, Profil b) {
+        List<DublettenGrund> gruende = new ArrayList<>();
+        double direkt = (name(a.vorname(), b.vorname(), a.phonVorname(), b.phonVorname())
+                + name(a.nachname(), b.nachname(), a.phonNachname(), b.phonNachname())) / 2;
+        double vertauscht = (name(a.vorname(), b.nachname(), a.phonVorname(), b.phonNachname())
+                + name(a.nachname(), b.vorname(), a.phonNachname(), b.phonVorname())) / 2;
+        double name = Math.max(direkt, vertauscht);
+        if (vertauscht > direkt && vertauscht >= NAME_AEHNLICH) {
+            gruende.add(DublettenGrund.name_vertauscht);
+        } else if (name == 1.0) {
+            gruende.add(DublettenGrund.name_gleich);
+        } else if (name >= NAME_AEHNLICH) {
+            gruende.add(DublettenGrund.name_aehnlich);
+        }
+        double score = 60 * name;
+
+        LocalDate gebA = a.person().geburtsdatum();
+        LocalDate gebB = b.person().geburtsdatum();
+        if (gebA != null && gebB != null) {
+            if (gebA.equals(gebB)) {
+                score += 25;
+                gruende.add(DublettenGrund.geburtsdatum);
+            } else {
+                score -= 30;
+            }
+        }
+        if (!a.email().isEmpty() && !b.email().isEmpty()) {
+            if (a.email().equals(b.email())) {
+                score += 25;
+                gruende.add(DublettenGrund.email);
+            } else {
+                // People change addresses; a different one is weak evidence
+                score -= 5;
+            }
+        }
+        if (a.telefon().length() >= MIN_TELEFON_ZIFFERN && a.telefon().equals(b.telefon())) {
+            score += 10;
+            gruende.add(DublettenGrund.telefon);
+        }
+
+        Profil erster = a.person().id() < b.person().id() ? a : b;
+        Profil zweiter = erster == a ? b : a;
+        int gerundet = (int) Math.round(Math.max(0, Math.min(100, score)));
+        return new Kandidat(erster.person(), zweiter.person(), gerundet, gruende);
+    }
+
+    /**
+     * Similarity of two name parts; names with the same phonetic code count as nearly equal
+     */
+    private static double name(String a, String b, String phonA, String phonB) {
+        if (a.equals(b)) {
+            return a.isEmpty() ? 0.0 : 1.0;
+        }
+        double aehnlichkeit = JaroWinkler.similarity(a, b);
+        return !phonA.isEmpty() && phonA.equals(phonB) ? Math.max(aehnlichkeit, PHONETISCH_GLEICH) : aehnlichkeit;
+    }
+
+    private static long paar(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | (Math.max(a, b) & 0xffffffffL);
+    }
+}
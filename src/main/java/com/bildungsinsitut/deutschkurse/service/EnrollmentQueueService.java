@@ -0,0 +1,172 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.EnrollmentTicketDto;
+import com.bildungsinsitut.deutschkurse.enums.AnmeldungStatus;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registration-day front-end for enrollments. Requests are queued per course and drained in
+ * batches, so a popular course sees one row lock per batch instead of one per request.
+ * Clients receive a ticket and poll it for the outcome.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentQueueService {
+
+    private final TeilnehmerKursService teilnehmerKursService;
+    private final TaskExecutor enrollmentExecutor;
+
+    @Value("${app.enrollment.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.enrollment.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${app.enrollment.ticket-ttl-minutes:60}")
+    private long ticketTtlMinutes;
+
+    private final Map<Integer, Queue<Ticket>> queues = new ConcurrentHashMap<>();
+    private final Set<Integer> draining = ConcurrentHashMap.newKeySet();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Immutable ticket state; every transition replaces the map entry
+     */
+    private record Ticket(String id, Integer teilnehmerId, Integer kursId, AnmeldungStatus status,
+                          Integer enrollmentId, Integer wartelistePosition, String message,
+                          LocalDateTime eingereichtAm, LocalDateTime bearbeitetAm) {
+
+        Ticket complete(TeilnehmerKursService.EnrollmentResult result) {
+            return new Ticket(id, teilnehmerId, kursId, result.status(), result.enrollmentId(),
+                    result.wartelistePosition(), result.message(), eingereichtAm, LocalDateTime.now());
+        }
+
+        Ticket reject(String reason) {
+            return new Ticket(id, teilnehmerId, kursId, AnmeldungStatus.abgelehnt, null, null,
+                    reason, eingereichtAm, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Queue an enrollment request and return its ticket
+     */
+    public EnrollmentTicketDto submit(Integer teilnehmerId, Integer kursId) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new IllegalStateException("Enrollment queue is full, please retry later");
+        }
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), teilnehmerId, kursId,
+                AnmeldungStatus.eingereiht, null, null, "Enrollment request queued",
+                LocalDateTime.now(), null);
+        tickets.put(ticket.id(), ticket);
+        queues.computeIfAbsent(kursId, id -> new ConcurrentLinkedQueue<>()).add(ticket);
+        scheduleDrain(kursId);
+
+        return toDto(ticket);
+    }
+
+    /**
+     * Current state of a ticket
+     */
+    public EnrollmentTicketDto getTicket(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Enrollment ticket not found with id: " + ticketId);
+        }
+        return toDto(ticket);
+    }
+
+    /**
+     * Forget processed tickets once clients had time to poll them
+     */
+    @Scheduled(fixedDelayString = "${app.enrollment.ticket-cleanup-ms:300000}")
+    public void removeExpiredTickets() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMinutes(ticketTtlMinutes));
+        tickets.values().removeIf(t -> t.bearbeitetAm() != null && t.bearbeitetAm().isBefore(cutoff));
+    }
+
+    private void scheduleDrain(Integer kursId) {
+        // At most one drain per course: batches of the same course never compete for its row lock
+        if (draining.add(kursId)) {
+            enrollmentExecutor.execute(() -> drain(kursId));
+        }
+    }
+
+    private void drain(Integer kursId) {
+        Queue<Ticket> queue = queues.get(kursId);
+        try {
+            List<Ticket> batch;
+            while (!(batch = poll(queue)).isEmpty()) {
+                process(kursId, batch);
+            }
+        } finally {
+            draining.remove(kursId);
+            // A request may have been queued after the last poll but before the flag was cleared
+            if (!queue.isEmpty()) {
+                scheduleDrain(kursId);
+            }
+        }
+    }
+
+    private List<Ticket> poll(Queue<Ticket> queue) {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        Ticket ticket;
+        while (batch.size() < batchSize && (ticket = queue.poll()) != null) {
+            batch.add(ticket);
+        }
+        return batch;
+    }
+
+    private void process(Integer kursId, List<Ticket> batch) {
+        try {
+            List<TeilnehmerKursService.EnrollmentResult> results = teilnehmerKursService.enrollBatch(
+                    kursId, batch.stream().map(Ticket::teilnehmerId).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                Ticket ticket = batch.get(i);
+                tickets.put(ticket.id(), ticket.complete(results.get(i)));
+            }
+        } catch (ResourceNotFoundException e) {
+            batch.forEach(ticket -> tickets.put(ticket.id(), ticket.reject(e.getMessage())));
+        } catch (RuntimeException e) {
+            log.error("Enrollment batch for course {} failed", kursId, e);
+            batch.forEach(ticket -> tickets.put(ticket.id(), ticket.reject("Enrollment failed, please retry")));
+        } finally {
+            pending.addAndGet(-batch.size());
+        }
+    }
+
+    private EnrollmentTicketDto toDto(Ticket ticket) {
+        EnrollmentTicketDto dto = new EnrollmentTicketDto();
+        dto.setTicketId(ticket.id());
+        dto.setTeilnehmerId(ticket.teilnehmerId());
+        dto.setKursId(ticket.kursId());
+        dto.setStatus(ticket.status());
+        dto.setEnrollmentId(ticket.enrollmentId());
+        dto.setWartelistePosition(ticket.wartelistePosition());
+        dto.setMessage(ticket.message());
+        dto.setEingereichtAm(ticket.eingereichtAm());
+        dto.setBearbeitetAm(ticket.bearbeitetAm());
+        return dto;
+    }
+}
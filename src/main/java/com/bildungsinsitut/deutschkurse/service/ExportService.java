@@ -0,0 +1,129 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.ExportFormat;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitArchivRepository;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerKursRepository;
+import com.bildungsinsitut.deutschkurse.util.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Exports for funding bodies, streamed from a forward-only database cursor to the output stream
+ * row by row, so memory use does not depend on the size of the export
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final List<String> ANWESENHEIT_SPALTEN = List.of("id", "kursId", "kursName", "teilnehmerId",
+            "vorname", "nachname", "datum", "anwesend", "entschuldigt", "bemerkung");
+
+    private static final List<String> EINSCHREIBUNG_SPALTEN = List.of("id", "kursId", "kursName", "teilnehmerId",
+            "vorname", "nachname", "email", "status", "anmeldedatum", "abmeldedatum", "abschlussnote");
+
+    private static final Comparator<AnwesenheitRepository.ExportZeile> DATUM_ID = Comparator
+            .comparing(AnwesenheitRepository.ExportZeile::getDatum)
+            .thenComparing(AnwesenheitRepository.ExportZeile::getId);
+
+    private final AnwesenheitRepository anwesenheitRepository;
+    private final AnwesenheitArchivRepository anwesenheitArchivRepository;
+    private final TeilnehmerKursRepository teilnehmerKursRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Fail before anything is written, so the error can still be sent as a normal response
+     */
+    public void validateAnwesenheitExport(LocalDate von, LocalDate bis) {
+        if (von.isAfter(bis)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+    }
+
+    /**
+     * Write the attendance records of a date range, optionally of one course; returns the row count.
+     * Hot and archived records are read by two cursors and merged in (datum, id) order.
+     */
+    public long exportAnwesenheit(Integer kursId, LocalDate von, LocalDate bis, ExportFormat format,
+                                  OutputStream out) throws IOException {
+        validateAnwesenheitExport(von, bis);
+        long count = 0;
+        try (Stream<AnwesenheitRepository.ExportZeile> rows = anwesenheitRepository.streamExport(kursId, von, bis);
+             Stream<AnwesenheitRepository.ExportZeile> archiv =
+                     anwesenheitArchivRepository.streamExport(kursId, von, bis);
+             ExportWriter writer = ExportWriter.open(format, out, ANWESENHEIT_SPALTEN, objectMapper.getFactory())) {
+            for (Iterator<AnwesenheitRepository.ExportZeile> it = merge(rows.iterator(), archiv.iterator(), DATUM_ID);
+                 it.hasNext(); count++) {
+                AnwesenheitRepository.ExportZeile row = it.next();
+                writer.row(row.getId(), row.getKursId(), row.getKursName(), row.getTeilnehmerId(),
+                        row.getVorname(), row.getNachname(), row.getDatum(), row.getAnwesend(),
+                        row.getEntschuldigt(), row.getBemerkung());
+            }
+        }
+        log.info("Exported {} attendance records ({} to {}, Kurs {}) as {}", count, von, bis, kursId, format);
+        return count;
+    }
+
+    /**
+     * Write all enrollments, optionally of one course; returns the row count
+     */
+    public long exportEinschreibungen(Integer kursId, ExportFormat format, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<TeilnehmerKursRepository.ExportZeile> rows = teilnehmerKursRepository.streamExport(kursId);
+             ExportWriter writer = ExportWriter.open(format, out, EINSCHREIBUNG_SPALTEN, objectMapper.getFactory())) {
+            for (Iterator<TeilnehmerKursRepository.ExportZeile> it = rows.iterator(); it.hasNext(); count++) {
+                TeilnehmerKursRepository.ExportZeile row = it.next();
+                writer.row(row.getId(), row.getKursId(), row.getKursName(), row.getTeilnehmerId(),
+                        row.getVorname(), row.getNachname(), row.getEmail(), row.getStatus(),
+                        row.getAnmeldedatum(), row.getAbmeldedatum(), row.getAbschlussnote());
+            }
+        }
+        log.info("Exported {} enrollments (Kurs {}) as {}", count, kursId, format);
+        return count;
+    }
+
+    /**
+     * Merge two iterators that are each sorted by the comparator, without buffering either
+     */
+    private static <T> Iterator<T> merge(Iterator<T> a, Iterator<T> b, Comparator<? super T> order) {
+        return new Iterator<>() {
+            private T nextA = a.hasNext() ? a.next() : null;
+            private T nextB = b.hasNext() ? b.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextA != null || nextB != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result;
+                if (nextB == null || (nextA != null && order.compare(nextA, nextB) <= 0)) {
+                    result = nextA;
+                    nextA = a.hasNext() ? a.next() : null;
+                } else {
+                    result = nextB;
+                    nextB = b.hasNext() ? b.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+}
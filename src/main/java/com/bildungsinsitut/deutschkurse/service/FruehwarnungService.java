@@ -0,0 +1,317 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.FruehwarnungDto;
+import com.bildungsinsitut.deutschkurse.enums.RisikoGrund;
+import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import com.bildungsinsitut.deutschkurse.model.AnwesenheitSummary;
+import com.bildungsinsitut.deutschkurse.model.Fruehwarnung;
+import com.bildungsinsitut.deutschkurse.model.JobWatermark;
+import com.bildungsinsitut.deutschkurse.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Early-warning detector for students drifting away from a course. A scheduled job reads only the
+ * attendance records and test results changed since its last watermark, folds them into rolling
+ * features per enrollment (absence streak, unexcused ratio, failed-test streak, score trend) and
+ * flags enrollments that cross a threshold.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class FruehwarnungService {
+
+    static final String WATERMARK_ANWESENHEIT = "fruehwarnung.anwesenheit";
+    static final String WATERMARK_BEWERTUNGEN = "fruehwarnung.bewertungen";
+
+    private static final LocalDateTime ANFANG = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final Set<TeilnehmerKursStatus> OFFEN =
+            EnumSet.of(TeilnehmerKursStatus.angemeldet, TeilnehmerKursStatus.aktiv);
+
+    private final FruehwarnungRepository fruehwarnungRepository;
+    private final JobWatermarkRepository jobWatermarkRepository;
+    private final AnwesenheitRepository anwesenheitRepository;
+    private final AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+    private final BewertungRepository bewertungRepository;
+
+    @Value("${app.fruehwarnung.batch-size:5000}")
+    private int batchSize;
+
+    // Rows younger than this are left for the next run, so transactions still in flight are not skipped
+    @Value("${app.fruehwarnung.lag-seconds:60}")
+    private long lagSeconds;
+
+    @Value("${app.fruehwarnung.fehlserie:3}")
+    private int fehlserieSchwelle;
+
+    @Value("${app.fruehwarnung.unentschuldigt-quote:20}")
+    private double unentschuldigtSchwelle;
+
+    @Value("${app.fruehwarnung.min-sitzungen:5}")
+    private int minSitzungen;
+
+    @Value("${app.fruehwarnung.nicht-bestanden-serie:2}")
+    private int nichtBestandenSchwelle;
+
+    @Value("${app.fruehwarnung.punkte-trend:-10}")
+    private double punkteTrendSchwelle;
+
+    // Weight of the latest score change in the smoothed trend
+    @Value("${app.fruehwarnung.trend-gewicht:0.5}")
+    private double trendGewicht;
+
+    public record Lauf(int anwesenheiten, int bewertungen, int aktualisiert, int neuGefaehrdet) {
+    }
+
+    /**
+     * Open enrollments currently flagged as at risk, longest-flagged first
+     */
+    @Transactional(readOnly = true)
+    public List<FruehwarnungDto> getGefaehrdete(Integer kursId) {
+        return fruehwarnungRepository.findGefaehrdet(kursId, OFFEN).stream().map(FruehwarnungService::toDto).toList();
+    }
+
+    /**
+     * Process one batch per source past the watermarks; larger backlogs drain over several runs.
+     * The watermark rows stay locked until commit, so a concurrent run waits and then starts from
+     * where this one stopped.
+     */
+    @Scheduled(fixedDelayString = "${app.fruehwarnung.interval-ms:300000}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Lauf run() {
+        LocalDateTime bis = LocalDateTime.now().minusSeconds(lagSeconds);
+        JobWatermark anwesenheitStand = watermark(WATERMARK_ANWESENHEIT);
+        JobWatermark bewertungenStand = watermark(WATERMARK_BEWERTUNGEN);
+
+        List<AnwesenheitRepository.Aenderung> anwesenheiten = anwesenheitRepository.findGeaendertSeit(
+                anwesenheitStand.getZeitpunkt(), anwesenheitStand.getLetzteId(), bis, Limit.of(batchSize));
+        List<BewertungRepository.Neu> bewertungen = bewertungRepository.findErstelltSeit(
+                bewertungenStand.getZeitpunkt(), bewertungenStand.getLetzteId(), bis, Limit.of(batchSize));
+        if (anwesenheiten.isEmpty() && bewertungen.isEmpty()) {
+            return new Lauf(0, 0, 0, 0);
+        }
+
+        Set<Fruehwarnung.Id> ids = new HashSet<>();
+        anwesenheiten.forEach(a -> ids.add(new Fruehwarnung.Id(a.getKursId(), a.getTeilnehmerId())));
+        bewertungen.forEach(b -> ids.add(new Fruehwarnung.Id(b.getKursId(), b.getTeilnehmerId())));
+        Map<Fruehwarnung.Id, Fruehwarnung> features = new HashMap<>();
+        fruehwarnungRepository.findAllById(ids).forEach(f -> features.put(f.getId(), f));
+        ids.forEach(id -> features.computeIfAbsent(id, Fruehwarnung::new));
+
+        Set<Fruehwarnung.Id> anwesenheitGeaendert = new HashSet<>();
+        Set<Fruehwarnung.Id> neuBerechnen = new HashSet<>();
+        for (AnwesenheitRepository.Aenderung aenderung : anwesenheiten) {
+            Fruehwarnung.Id id = new Fruehwarnung.Id(aenderung.getKursId(), aenderung.getTeilnehmerId());
+            anwesenheitGeaendert.add(id);
+            Fruehwarnung f = features.get(id);
+            if (!neuBerechnen.contains(id)
+                    && (f.getLetzteDatum() == null || aenderung.getDatum().isAfter(f.getLetzteDatum()))) {
+                f.setFehlserie(Boolean.TRUE.equals(aenderung.getAnwesend()) ? 0 : f.getFehlserie() + 1);
+                f.setLetzteDatum(aenderung.getDatum());
+            } else {
+                // A correction of an earlier day: only this enrollment's history can tell the streak
+                neuBerechnen.add(id);
+            }
+        }
+        neuBerechnen.forEach(id -> fehlserieNeuBerechnen(features.get(id)));
+        anwesenheitSummaryRepository.findAllById(anwesenheitGeaendert.stream()
+                        .map(id -> new AnwesenheitSummary.Id(id.getKursId(), id.getTeilnehmerId()))
+                        .toList())
+                .forEach(summary -> fehlquote(features.get(new Fruehwarnung.Id(
+                        summary.getId().getKursId(), summary.getId().getTeilnehmerId())), summary));
+
+        for (BewertungRepository.Neu bewertung : bewertungen) {
+            bewertung(features.get(new Fruehwarnung.Id(bewertung.getKursId(), bewertung.getTeilnehmerId())), bewertung);
+        }
+
+        int neuGefaehrdet = 0;
+        for (Fruehwarnung f : features.values()) {
+            if (bewerten(f)) {
+                neuGefaehrdet++;
+            }
+        }
+        fruehwarnungRepository.saveAll(features.values());
+
+        if (!anwesenheiten.isEmpty()) {
+            AnwesenheitRepository.Aenderung letzte = anwesenheiten.get(anwesenheiten.size() - 1);
+            anwesenheitStand.setZeitpunkt(letzte.getGeaendertAm());
+            anwesenheitStand.setLetzteId(letzte.getId());
+            jobWatermarkRepository.save(anwesenheitStand);
+        }
+        if (!bewertungen.isEmpty()) {
+            BewertungRepository.Neu letzte = bewertungen.get(bewertungen.size() - 1);
+            bewertungenStand.setZeitpunkt(letzte.getErstelltAm());
+            bewertungenStand.setLetzteId(letzte.getId());
+            jobWatermarkRepository.save(bewertungenStand);
+        }
+
+        log.info("Early warning: {} attendance changes, {} test results, {} enrollments updated, {} newly at risk",
+                anwesenheiten.size(), bewertungen.size(), features.size(), neuGefaehrdet);
+        return new Lauf(anwesenheiten.size(), bewertungen.size(), features.size(), neuGefaehrdet);
+    }
+
+    /**
+     * Lock the job's watermarks for the rest of the caller's transaction, so no run works on
+     * enrollments the caller is about to rewrite. Callers that also lock students or records must
+     * call this first, since a run takes the watermarks before it writes features.
+     */
+    public void sperren() {
+        watermark(WATERMARK_ANWESENHEIT);
+        watermark(WATERMARK_BEWERTUNGEN);
+    }
+
+    /**
+     * Recompute the features of a student's enrollments in the given courses from their full
+     * history, e.g. after the records of a duplicate were moved to the student. Test results past
+     * the watermark are left to the next run, which would otherwise count them twice.
+     */
+    public void neuBerechnen(Integer teilnehmerId, Collection<Integer> kursIds) {
+        if (kursIds.isEmpty()) {
+            return;
+        }
+        watermark(WATERMARK_ANWESENHEIT);
+        JobWatermark bewertungenStand = watermark(WATERMARK_BEWERTUNGEN);
+
+        List<Fruehwarnung.Id> ids = kursIds.stream().map(kursId -> new Fruehwarnung.Id(kursId, teilnehmerId)).toList();
+        Map<Fruehwarnung.Id, Fruehwarnung> features = new HashMap<>();
+        fruehwarnungRepository.findAllById(ids).forEach(f -> features.put(f.getId(), f));
+        ids.forEach(id -> features.computeIfAbsent(id, Fruehwarnung::new));
+
+        for (Fruehwarnung f : features.values()) {
+            fehlserieNeuBerechnen(f);
+            f.setSitzungen(0);
+            f.setUnentschuldigtQuote(BigDecimal.ZERO);
+            f.setBewertungen(0);
+            f.setNichtBestandenSerie(0);
+            f.setLetztePunkteQuote(null);
+            f.setPunkteTrend(BigDecimal.ZERO);
+        }
+        anwesenheitSummaryRepository.findAllById(ids.stream()
+                        .map(id -> new AnwesenheitSummary.Id(id.getKursId(), id.getTeilnehmerId()))
+                        .toList())
+                .forEach(summary -> fehlquote(features.get(new Fruehwarnung.Id(
+                        summary.getId().getKursId(), summary.getId().getTeilnehmerId())), summary));
+        for (BewertungRepository.Neu bewertung : bewertungRepository.findVerlaufBis(teilnehmerId, kursIds,
+                bewertungenStand.getZeitpunkt(), bewertungenStand.getLetzteId())) {
+            bewertung(features.get(new Fruehwarnung.Id(bewertung.getKursId(), teilnehmerId)), bewertung);
+        }
+
+        features.values().forEach(this::bewerten);
+        fruehwarnungRepository.saveAll(features.values());
+    }
+
+    private JobWatermark watermark(String name) {
+        jobWatermarkRepository.insertIfAbsent(name, ANFANG);
+        return jobWatermarkRepository.findByNameForUpdate(name)
+                .orElseThrow(() -> new IllegalStateException("Watermark missing: " + name));
+    }
+
+    private void fehlserieNeuBerechnen(Fruehwarnung f) {
+        List<AnwesenheitRepository.MatrixEintrag> verlauf =
+                anwesenheitRepository.findVerlauf(f.getId().getTeilnehmerId(), f.getId().getKursId());
+        int serie = 0;
+        while (serie < verlauf.size() && !Boolean.TRUE.equals(verlauf.get(serie).getAnwesend())) {
+            serie++;
+        }
+        f.setFehlserie(serie);
+        f.setLetzteDatum(verlauf.isEmpty() ? null : verlauf.get(0).getDatum());
+    }
+
+    private static void fehlquote(Fruehwarnung f, AnwesenheitSummary summary) {
+        f.setSitzungen((int) summary.getTotal());
+        f.setUnentschuldigtQuote(summary.getTotal() > 0
+                ? prozent(BigDecimal.valueOf(summary.getUnexcused()), BigDecimal.valueOf(summary.getTotal()))
+                : BigDecimal.ZERO);
+    }
+
+    private void bewertung(Fruehwarnung f, BewertungRepository.Neu bewertung) {
+        f.setBewertungen(f.getBewertungen() + 1);
+        if (Boolean.FALSE.equals(bewertung.getBestanden())) {
+            f.setNichtBestandenSerie(f.getNichtBestandenSerie() + 1);
+        } else if (Boolean.TRUE.equals(bewertung.getBestanden())) {
+            f.setNichtBestandenSerie(0);
+        }
+
+        BigDecimal maximal = bewertung.getPunkteMaximal();
+        if (bewertung.getPunkteErreicht() == null || maximal == null || maximal.signum() <= 0) {
+            return;
+        }
+        BigDecimal quote = prozent(bewertung.getPunkteErreicht(), maximal);
+        if (f.getLetztePunkteQuote() != null) {
+            double trend = trendGewicht * quote.subtract(f.getLetztePunkteQuote()).doubleValue()
+                    + (1 - trendGewicht) * f.getPunkteTrend().doubleValue();
+            f.setPunkteTrend(BigDecimal.valueOf(trend).setScale(2, RoundingMode.HALF_UP));
+        }
+        f.setLetztePunkteQuote(quote);
+    }
+
+    /**
+     * Apply the thresholds; returns true if the enrollment has just become at risk
+     */
+    private boolean bewerten(Fruehwarnung f) {
+        List<RisikoGrund> gruende = new ArrayList<>();
+        if (f.getFehlserie() >= fehlserieSchwelle) {
+            gruende.add(RisikoGrund.fehlserie);
+        }
+        if (f.getSitzungen() >= minSitzungen && f.getUnentschuldigtQuote().doubleValue() >= unentschuldigtSchwelle) {
+            gruende.add(RisikoGrund.unentschuldigt);
+        }
+        if (f.getNichtBestandenSerie() >= nichtBestandenSchwelle) {
+            gruende.add(RisikoGrund.nicht_bestanden);
+        }
+        if (f.getBewertungen() >= 2 && f.getPunkteTrend().doubleValue() <= punkteTrendSchwelle) {
+            gruende.add(RisikoGrund.punkte_trend);
+        }
+
+        boolean warGefaehrdet = f.isGefaehrdet();
+        f.setGefaehrdet(!gruende.isEmpty());
+        f.setGruende(gruende.isEmpty() ? null
+                : gruende.stream().map(RisikoGrund::name).collect(Collectors.joining(",")));
+        if (!f.isGefaehrdet()) {
+            f.setGefaehrdetSeit(null);
+            return false;
+        }
+        if (!warGefaehrdet) {
+            f.setGefaehrdetSeit(LocalDateTime.now());
+            return true;
+        }
+        return false;
+    }
+
+    private static BigDecimal prozent(BigDecimal anteil, BigDecimal gesamt) {
+        return anteil.multiply(BigDecimal.valueOf(100)).divide(gesamt, 2, RoundingMode.HALF_UP);
+    }
+
+    private static FruehwarnungDto toDto(Fruehwarnung f) {
+        FruehwarnungDto dto = new FruehwarnungDto();
+        dto.setKursId(f.getId().getKursId());
+        dto.setKursName(f.getKurs().getKursName());
+        dto.setTeilnehmerId(f.getId().getTeilnehmerId());
+        dto.setTeilnehmerName(f.getTeilnehmer().getVorname() + " " + f.getTeilnehmer().getNachname());
+        dto.setGruende(f.getGruende() == null ? List.of()
+                : Arrays.stream(f.getGruende().split(",")).map(RisikoGrund::valueOf).toList());
+        dto.setGefaehrdetSeit(f.getGefaehrdetSeit());
+        dto.setFehlserie(f.getFehlserie());
+        dto.setLetzteDatum(f.getLetzteDatum());
+        dto.setSitzungen(f.getSitzungen());
+        dto.setUnentschuldigtQuote(f.getUnentschuldigtQuote());
+        dto.setBewertungen(f.getBewertungen());
+        dto.setNichtBestandenSerie(f.getNichtBestandenSerie());
+        dto.setLetztePunkteQuote(f.getLetztePunkteQuote());
+        dto.setPunkteTrend(f.getPunkteTrend());
+        return dto;
+    }
+}
@@ -0,0 +1,416 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.ImportJobDto;
+import com.bildungsinsitut.deutschkurse.dto.ImportJobDto.Zeilenfehler;
+import com.bildungsinsitut.deutschkurse.dto.TeilnehmerDto;
+import com.bildungsinsitut.deutschkurse.enums.GenderType;
+import com.bildungsinsitut.deutschkurse.enums.ImportStatus;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import com.bildungsinsitut.deutschkurse.util.CsvReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Imports students, and optionally their enrollments, from a CSV upload in the background.
+ * The file is read record by record in chunks; each chunk is validated in parallel, deduplicated
+ * by email against the file so far and the database, and written in one JDBC batch. Enrollments
+ * are collected per course and run through the batch enrollment path at the end, so capacity
+ * is checked under the course row lock and full courses overflow to the waitlist. Clients
+ * receive a job id and poll it for progress and per-row errors.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportService {
+
+    /** Recognized header names; vorname and nachname are required, unknown columns are ignored */
+    static final List<String> SPALTEN = List.of("vorname", "nachname", "email", "telefon", "geburtsdatum",
+            "geschlecht", "staatsangehoerigkeit", "muttersprache", "anmeldedatum", "kurs_id");
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final DateTimeFormatter DEUTSCHES_DATUM = DateTimeFormatter.ofPattern("d.M.yyyy");
+
+    private final TeilnehmerService teilnehmerService;
+    private final TeilnehmerKursService teilnehmerKursService;
+    private final TaskExecutor importExecutor;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.enrollment-batch-size:50}")
+    private int enrollmentBatchSize;
+
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${app.import.job-ttl-minutes:1440}")
+    private long jobTtlMinutes;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private record Rohzeile(long zeile, List<String> felder) {
+    }
+
+    /** A validated row: either a student (with optional target course) or an error message */
+    private record Pruefung(long zeile, TeilnehmerDto teilnehmer, Integer kursId, String fehler) {
+    }
+
+    private record Einschreibung(long zeile, String email, Integer teilnehmerId) {
+    }
+
+    /**
+     * Progress of one job; written by the worker thread only
+     */
+    private static final class Job {
+        final String id;
+        final String dateiname;
+        final LocalDateTime eingereichtAm = LocalDateTime.now();
+        final AtomicInteger zeilen = new AtomicInteger();
+        final AtomicInteger angelegt = new AtomicInteger();
+        final AtomicInteger vorhanden = new AtomicInteger();
+        final AtomicInteger doppelt = new AtomicInteger();
+        final AtomicInteger einschreibungenGesamt = new AtomicInteger();
+        final AtomicInteger einschreibungenVerarbeitet = new AtomicInteger();
+        final AtomicInteger eingeschrieben = new AtomicInteger();
+        final AtomicInteger warteliste = new AtomicInteger();
+        final AtomicInteger fehlerAnzahl = new AtomicInteger();
+        final List<Zeilenfehler> fehler = Collections.synchronizedList(new ArrayList<>());
+        volatile ImportStatus status = ImportStatus.eingereiht;
+        volatile String message = "Import queued";
+        volatile LocalDateTime abgeschlossenAm;
+
+        Job(String id, String dateiname) {
+            this.id = id;
+            this.dateiname = dateiname;
+        }
+    }
+
+    /**
+     * Store the upload and queue its import; the upload is copied because the request's
+     * multipart file is deleted once the request completes
+     */
+    public ImportJobDto submit(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        Path datei;
+        try {
+            datei = Files.createTempFile("teilnehmer-import-", ".csv");
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, datei, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store import file", e);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> run(job, datei));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            deleteQuietly(datei);
+            throw new IllegalStateException("Import queue is full, please retry later");
+        }
+        return toDto(job);
+    }
+
+    /**
+     * Current progress and row errors of a job
+     */
+    public ImportJobDto getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found with id: " + jobId);
+        }
+        return toDto(job);
+    }
+
+    /**
+     * Forget finished jobs once clients had time to fetch their report
+     */
+    @Scheduled(fixedDelayString = "${app.import.job-cleanup-ms:600000}")
+    public void removeExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMinutes(jobTtlMinutes));
+        jobs.values().removeIf(job -> job.abgeschlossenAm != null && job.abgeschlossenAm.isBefore(cutoff));
+    }
+
+    private void run(Job job, Path datei) {
+        try (CsvReader reader = new CsvReader(Files.newInputStream(datei))) {
+            job.status = ImportStatus.teilnehmer;
+            job.message = "Importing students";
+            Map<Integer, List<Einschreibung>> einschreibungen = importTeilnehmer(job, reader);
+
+            job.status = ImportStatus.einschreibungen;
+            job.message = "Enrolling students";
+            einschreibungen.forEach((kursId, liste) -> enroll(job, kursId, liste));
+
+            job.message = "Import completed";
+            job.status = ImportStatus.abgeschlossen;
+        } catch (IOException | IllegalArgumentException e) {
+            job.message = e.getMessage();
+            job.status = ImportStatus.fehlgeschlagen;
+        } catch (RuntimeException e) {
+            log.error("Import job {} failed", job.id, e);
+            job.message = "Import failed after " + job.zeilen.get() + " rows; rows up to the last completed chunk were saved";
+            job.status = ImportStatus.fehlgeschlagen;
+        } finally {
+            job.abgeschlossenAm = LocalDateTime.now();
+            deleteQuietly(datei);
+            log.info("Import job {} {}: {} rows, {} created, {} existing, {} duplicates, {} enrolled, {} waitlisted, {} errors",
+                    job.id, job.status, job.zeilen.get(), job.angelegt.get(), job.vorhanden.get(), job.doppelt.get(),
+                    job.eingeschrieben.get(), job.warteliste.get(), job.fehlerAnzahl.get());
+        }
+    }
+
+    /**
+     * Create the students chunk by chunk and return the requested enrollments grouped by course
+     */
+    private Map<Integer, List<Einschreibung>> importTeilnehmer(Job job, CsvReader reader) throws IOException {
+        int[] spalten = header(reader.next());
+        // Student id per lower-cased email of every row imported so far
+        Map<String, Integer> ids = new HashMap<>();
+        Map<Integer, List<Einschreibung>> einschreibungen = new LinkedHashMap<>();
+
+        List<Rohzeile> chunk = new ArrayList<>(chunkSize);
+        List<String> felder;
+        do {
+            felder = reader.next();
+            if (felder != null) {
+                chunk.add(new Rohzeile(reader.getRecord(), felder));
+            }
+            if (chunk.size() == chunkSize || (felder == null && !chunk.isEmpty())) {
+                importChunk(job, chunk, spalten, ids, einschreibungen);
+                chunk.clear();
+            }
+        } while (felder != null);
+        return einschreibungen;
+    }
+
+    private void importChunk(Job job, List<Rohzeile> chunk, int[] spalten, Map<String, Integer> ids,
+                             Map<Integer, List<Einschreibung>> einschreibungen) {
+        List<Pruefung> pruefungen = chunk.parallelStream()
+                .map(zeile -> validate(zeile, spalten))
+                .toList();
+
+        List<TeilnehmerDto> neu = new ArrayList<>();
+        Map<String, Integer> neuIndex = new HashMap<>();
+        // Per row: the id of a student imported by an earlier chunk, or the position in neu
+        Integer[] bekannt = new Integer[pruefungen.size()];
+        int[] position = new int[pruefungen.size()];
+        for (int i = 0; i < pruefungen.size(); i++) {
+            Pruefung pruefung = pruefungen.get(i);
+            if (pruefung.fehler() != null) {
+                fehler(job, pruefung.zeile(), pruefung.teilnehmer().getEmail(), pruefung.fehler());
+                continue;
+            }
+            String email = key(pruefung.teilnehmer().getEmail());
+            if (email != null && ids.containsKey(email)) {
+                // Same student as an earlier row; the row may still add another course
+                bekannt[i] = ids.get(email);
+                job.doppelt.incrementAndGet();
+            } else if (email != null && neuIndex.containsKey(email)) {
+                position[i] = neuIndex.get(email);
+                job.doppelt.incrementAndGet();
+            } else {
+                if (email != null) {
+                    neuIndex.put(email, neu.size());
+                }
+                position[i] = neu.size();
+                neu.add(pruefung.teilnehmer());
+            }
+        }
+
+        List<TeilnehmerService.ImportTreffer> treffer = teilnehmerService.importTeilnehmer(neu);
+        for (int j = 0; j < treffer.size(); j++) {
+            TeilnehmerService.ImportTreffer t = treffer.get(j);
+            (t.vorhanden() ? job.vorhanden : job.angelegt).incrementAndGet();
+            String email = key(neu.get(j).getEmail());
+            if (email != null) {
+                ids.put(email, t.id());
+            }
+        }
+
+        for (int i = 0; i < pruefungen.size(); i++) {
+            Pruefung pruefung = pruefungen.get(i);
+            if (pruefung.fehler() != null || pruefung.kursId() == null) {
+                continue;
+            }
+            Integer teilnehmerId = bekannt[i] != null ? bekannt[i] : treffer.get(position[i]).id();
+            einschreibungen.computeIfAbsent(pruefung.kursId(), id -> new ArrayList<>())
+                    .add(new Einschreibung(pruefung.zeile(), pruefung.teilnehmer().getEmail(), teilnehmerId));
+            job.einschreibungenGesamt.incrementAndGet();
+        }
+        job.zeilen.addAndGet(chunk.size());
+    }
+
+    private void enroll(Job job, Integer kursId, List<Einschreibung> einschreibungen) {
+        for (int von = 0; von < einschreibungen.size(); von += enrollmentBatchSize) {
+            List<Einschreibung> batch = einschreibungen.subList(von, Math.min(von + enrollmentBatchSize, einschreibungen.size()));
+            try {
+                List<TeilnehmerKursService.EnrollmentResult> results = teilnehmerKursService.enrollBatch(
+                        kursId, batch.stream().map(Einschreibung::teilnehmerId).toList());
+                for (int i = 0; i < batch.size(); i++) {
+                    TeilnehmerKursService.EnrollmentResult result = results.get(i);
+                    switch (result.status()) {
+                        case angemeldet -> job.eingeschrieben.incrementAndGet();
+                        case warteliste -> job.warteliste.incrementAndGet();
+                        default -> fehler(job, batch.get(i).zeile(), batch.get(i).email(), result.message());
+                    }
+                }
+            } catch (ResourceNotFoundException | IllegalStateException e) {
+                batch.forEach(einschreibung -> fehler(job, einschreibung.zeile(), einschreibung.email(), e.getMessage()));
+            } finally {
+                job.einschreibungenVerarbeitet.addAndGet(batch.size());
+            }
+        }
+    }
+
+    /**
+     * Column index per entry of {@link #SPALTEN}, -1 if the column is missing
+     */
+    private static int[] header(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("Import file has no header row");
+        }
+        int[] spalten = new int[SPALTEN.size()];
+        Arrays.fill(spalten, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+            int spalte = SPALTEN.indexOf(name);
+            if (spalte >= 0 && spalten[spalte] < 0) {
+                spalten[spalte] = i;
+            }
+        }
+        if (spalten[0] < 0 || spalten[1] < 0) {
+            throw new IllegalArgumentException("Import file must have the columns vorname and nachname");
+        }
+        return spalten;
+    }
+
+    private static Pruefung validate(Rohzeile zeile, int[] spalten) {
+        TeilnehmerDto dto = new TeilnehmerDto();
+        try {
+            dto.setVorname(text(zeile, spalten, 0, 100, true));
+            dto.setNachname(text(zeile, spalten, 1, 100, true));
+            dto.setEmail(text(zeile, spalten, 2, 255, false));
+            if (dto.getEmail() != null && !EMAIL.matcher(dto.getEmail()).matches()) {
+                throw new IllegalArgumentException("Invalid email: " + dto.getEmail());
+            }
+            dto.setTelefon(text(zeile, spalten, 3, 20, false));
+            dto.setGeburtsdatum(datum(text(zeile, spalten, 4, 10, false)));
+            if (dto.getGeburtsdatum() != null && dto.getGeburtsdatum().isAfter(LocalDate.now())) {
+                throw new IllegalArgumentException("geburtsdatum lies in the future");
+            }
+            String geschlecht = text(zeile, spalten, 5, 1, false);
+            if (geschlecht != null) {
+                try {
+                    dto.setGeschlecht(GenderType.valueOf(geschlecht.toLowerCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("geschlecht must be one of m, w, d");
+                }
+            }
+            dto.setStaatsangehoerigkeit(text(zeile, spalten, 6, 100, false));
+            dto.setMuttersprache(text(zeile, spalten, 7, 100, false));
+            dto.setAnmeldedatum(datum(text(zeile, spalten, 8, 10, false)));
+            dto.setAktiv(true);
+            String kursId = text(zeile, spalten, 9, 10, false);
+            try {
+                return new Pruefung(zeile.zeile(), dto, kursId != null ? Integer.valueOf(kursId) : null, null);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid kurs_id: " + kursId);
+            }
+        } catch (IllegalArgumentException e) {
+            return new Pruefung(zeile.zeile(), dto, null, e.getMessage());
+        }
+    }
+
+    private static String text(Rohzeile zeile, int[] spalten, int spalte, int maxLength, boolean required) {
+        int index = spalten[spalte];
+        String value = index >= 0 && index < zeile.felder().size() ? zeile.felder().get(index).trim() : "";
+        if (value.isEmpty()) {
+            if (required) {
+                throw new IllegalArgumentException(SPALTEN.get(spalte) + " is required");
+            }
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(SPALTEN.get(spalte) + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static LocalDate datum(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.contains(".") ? LocalDate.parse(value, DEUTSCHES_DATUM) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value + " (expected yyyy-MM-dd or dd.MM.yyyy)");
+        }
+    }
+
+    private static String key(String email) {
+        return email != null ? email.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private void fehler(Job job, long zeile, String email, String meldung) {
+        if (job.fehlerAnzahl.incrementAndGet() <= maxErrors) {
+            job.fehler.add(new Zeilenfehler(zeile, email, meldung));
+        }
+    }
+
+    private static void deleteQuietly(Path datei) {
+        try {
+            Files.deleteIfExists(datei);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", datei, e);
+        }
+    }
+
+    private ImportJobDto toDto(Job job) {
+        ImportJobDto dto = new ImportJobDto();
+        dto.setJobId(job.id);
+        dto.setDateiname(job.dateiname);
+        dto.setStatus(job.status);
+        dto.setMessage(job.message);
+        dto.setZeilen(job.zeilen.get());
+        dto.setAngelegt(job.angelegt.get());
+        dto.setVorhanden(job.vorhanden.get());
+        dto.setDoppelt(job.doppelt.get());
+        dto.setEinschreibungenGesamt(job.einschreibungenGesamt.get());
+        dto.setEinschreibungenVerarbeitet(job.einschreibungenVerarbeitet.get());
+        dto.setEingeschrieben(job.eingeschrieben.get());
+        dto.setWarteliste(job.warteliste.get());
+        dto.setFehlerAnzahl(job.fehlerAnzahl.get());
+        synchronized (job.fehler) {
+            dto.setFehler(List.copyOf(job.fehler));
+        }
+        dto.setEingereichtAm(job.eingereichtAm);
+        dto.setAbgeschlossenAm(job.abgeschlossenAm);
+        return dto;
+    }
+}
@@ -0,0 +1,334 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.KalenderTyp;
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Stundenplan;
+import com.bildungsinsitut.deutschkurse.repository.KursraumRepository;
+import com.bildungsinsitut.deutschkurse.repository.StundenplanRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerKursRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import com.bildungsinsitut.deutschkurse.util.IcsWriter;
+import com.bildungsinsitut.deutschkurse.util.Wochentage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * iCalendar feeds of the weekly schedule per trainer, room and student, one recurring event per
+ * Stundenplan entry. Rendered feeds are cached with a strong ETag (hash of the body) and dropped
+ * only when a schedule entry, course or enrollment they depend on changes, so polling calendar
+ * clients are answered from memory or with 304.
+ * <p>
+ * Not transactional: a cache hit must not take a database connection; the few reads of a rebuild
+ * run in their own repository transactions and fetch everything they print.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KalenderFeedService {
+
+    private static final List<TeilnehmerKursStatus> AKTIVE_ANMELDUNG =
+            List.of(TeilnehmerKursStatus.angemeldet, TeilnehmerKursStatus.aktiv);
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final StundenplanRepository stundenplanRepository;
+    private final TeilnehmerKursRepository teilnehmerKursRepository;
+    private final TrainerRepository trainerRepository;
+    private final KursraumRepository kursraumRepository;
+    private final TeilnehmerRepository teilnehmerRepository;
+
+    @Value("${app.kalender.zeitzone:Europe/Berlin}")
+    private String zeitzone;
+
+    @Value("${app.kalender.uid-domain:deutschkurse.local}")
+    private String uidDomain;
+
+    // Required and separate from the JWT key; see EnvironmentConfig
+    @Value("${app.kalender.feed-secret}")
+    private String feedSecret;
+
+    @Value("${app.kalender.max-entries:5000}")
+    private int maxEntries;
+
+    public record Feed(String body, String etag, Instant lastModified, Set<Integer> kursIds) {
+    }
+
+    private record Key(KalenderTyp typ, Integer id) {
+    }
+
+    private final Map<Key, Feed> cache = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Key>> feedsByKurs = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation; a feed built while it moved may show the old state and is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Feed of one subject; the token is the one handed out by {@link #feedToken}
+     */
+    public Feed getFeed(KalenderTyp typ, Integer id, String token) {
+        if (token == null || !MessageDigest.isEqual(
+                feedToken(typ, id).getBytes(StandardCharsets.US_ASCII), token.getBytes(StandardCharsets.US_ASCII))) {
+            // Same answer as for an unknown subject, so feed URLs cannot be probed
+            throw new ResourceNotFoundException("Calendar feed not found");
+        }
+        Key key = new Key(typ, id);
+        Feed feed = cache.get(key);
+        if (feed != null) {
+            return feed;
+        }
+
+        long vorher = generation.get();
+        feed = build(key);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+            feedsByKurs.clear();
+        }
+        cache.put(key, feed);
+        for (Integer kursId : feed.kursIds()) {
+            feedsByKurs.computeIfAbsent(kursId, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        if (generation.get() != vorher) {
+            evict(key, feed);
+        }
+        return feed;
+    }
+
+    /**
+     * Secret token for the subscription URL of a subject
+     */
+    public String feedToken(KalenderTyp typ, Integer id) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(feedSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] digest = mac.doFinal((typ.name() + ":" + id).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    /**
+     * Fail with ResourceNotFoundException if the subject of a feed does not exist
+     */
+    public void requireSubject(KalenderTyp typ, Integer id) {
+        boolean exists = switch (typ) {
+            case trainer -> trainerRepository.existsById(id);
+            case kursraum -> kursraumRepository.existsById(id);
+            case teilnehmer -> teilnehmerRepository.existsById(id);
+        };
+        if (!exists) {
+            throw new ResourceNotFoundException(typ.getDisplayName() + " not found with id: " + id);
+        }
+    }
+
+    /**
+     * A course or one of its schedule entries changed: drop every feed that shows the course,
+     * plus the feeds of its current room and trainer, which may not have shown it before
+     */
+    public void invalidateKurs(Kurs kurs) {
+        List<Key> keys = new ArrayList<>(2);
+        if (kurs.getKursraum() != null) {
+            keys.add(new Key(KalenderTyp.kursraum, kurs.getKursraum().getId()));
+        }
+        if (kurs.getTrainer() != null) {
+            keys.add(new Key(KalenderTyp.trainer, kurs.getTrainer().getId()));
+        }
+        invalidate(kurs.getId(), keys);
+    }
+
+    public void invalidateKurs(Integer kursId) {
+        invalidate(kursId, List.of());
+    }
+
+    /**
+     * An enrollment of the student changed
+     */
+    public void invalidateTeilnehmer(Integer teilnehmerId) {
+        invalidate(null, List.of(new Key(KalenderTyp.teilnehmer, teilnehmerId)));
+    }
+
+    /**
+     * Drop every feed, e.g. after rooms were renamed in the database
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+        feedsByKurs.clear();
+    }
+
+    /**
+     * Feeds print trainer names, and any feed may show a course of the trainer
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStammdatenGeaendert(StammdatenGeaendertEvent event) {
+        if (event.typ() == SuchTyp.trainer) {
+            invalidateAll();
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    // Dropped now and again after the surrounding transaction commits, so a request racing with
+    // the change cannot re-cache the old state
+    private void invalidate(Integer kursId, List<Key> keys) {
+        Runnable evict = () -> {
+            generation.incrementAndGet();
+            if (kursId != null) {
+                Set<Key> dependents = feedsByKurs.remove(kursId);
+                if (dependents != null) {
+                    dependents.forEach(this::evict);
+                }
+            }
+            keys.forEach(this::evict);
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private void evict(Key key) {
+        Feed feed = cache.remove(key);
+        if (feed != null) {
+            unindex(key, feed);
+        }
+    }
+
+    private void evict(Key key, Feed feed) {
+        if (cache.remove(key, feed)) {
+            unindex(key, feed);
+        }
+    }
+
+    private void unindex(Key key, Feed feed) {
+        for (Integer kursId : feed.kursIds()) {
+            Set<Key> dependents = feedsByKurs.get(kursId);
+            if (dependents != null) {
+                dependents.remove(key);
+            }
+        }
+    }
+
+    private Feed build(Key key) {
+        List<Stundenplan> eintraege = switch (key.typ()) {
+            case trainer -> stundenplanRepository.findByAktivTrueAndKursTrainerId(key.id());
+            case kursraum -> stundenplanRepository.findByAktivTrueAndKursKursraumId(key.id());
+            case teilnehmer -> {
+                List<Integer> kursIds = teilnehmerKursRepository.findKursIdsByTeilnehmerIdAndStatusIn(key.id(), AKTIVE_ANMELDUNG);
+                yield kursIds.isEmpty() ? List.of() : stundenplanRepository.findByAktivTrueAndKursIdIn(kursIds);
+            }
+        };
+
+        ZoneId zone = ZoneId.of(zeitzone);
+        IcsWriter ics = new IcsWriter()
+                .property("BEGIN", "VCALENDAR")
+                .property("VERSION", "2.0")
+                .property("PRODID", "-//Bildungsinstitut//Deutschkurse//DE")
+                .property("CALSCALE", "GREGORIAN")
+                .text("X-WR-CALNAME", "Stundenplan " + key.typ().getDisplayName() + " " + key.id())
+                .property("X-WR-TIMEZONE", zeitzone);
+
+        Set<Integer> kursIds = new HashSet<>();
+        Instant lastModified = Instant.EPOCH;
+        for (Stundenplan stundenplan : eintraege.stream().sorted(Comparator.comparing(Stundenplan::getId)).toList()) {
+            Kurs kurs = stundenplan.getKurs();
+            kursIds.add(kurs.getId());
+            if (kurs.getStartdatum() == null || kurs.getStatus() == KursStatusType.abgebrochen) {
+                continue;
+            }
+            // Stable timestamp, so rebuilding an unchanged feed yields the same body and ETag
+            Instant geaendert = latest(zone, stundenplan.getErstelltAm(), kurs.getGeaendertAm());
+            if (geaendert.isAfter(lastModified)) {
+                lastModified = geaendert;
+            }
+            writeEvent(ics, stundenplan, kurs, zone, geaendert);
+        }
+        ics.property("END", "VCALENDAR");
+
+        String body = ics.toString();
+        log.debug("Built calendar feed {} {} with {} entries", key.typ(), key.id(), eintraege.size());
+        return new Feed(body, etag(body), lastModified, Set.copyOf(kursIds));
+    }
+
+    private void writeEvent(IcsWriter ics, Stundenplan stundenplan, Kurs kurs, ZoneId zone, Instant stamp) {
+        LocalDate erster = kurs.getStartdatum()
+                .with(TemporalAdjusters.nextOrSame(Wochentage.parse(stundenplan.getWochentag())));
+        ics.property("BEGIN", "VEVENT")
+                .property("UID", "stundenplan-" + stundenplan.getId() + "@" + uidDomain)
+                .property("DTSTAMP", UTC.format(stamp))
+                .property("DTSTART;TZID=" + zeitzone, LOCAL.format(erster.atTime(stundenplan.getStartzeit())))
+                .property("DTEND;TZID=" + zeitzone, LOCAL.format(erster.atTime(stundenplan.getEndzeit())));
+        String rrule = "FREQ=WEEKLY";
+        if (kurs.getEnddatum() != null) {
+            // UNTIL must be in UTC when DTSTART carries a time zone
+            rrule += ";UNTIL=" + UTC.format(kurs.getEnddatum().atTime(stundenplan.getEndzeit()).atZone(zone));
+        }
+        ics.property("RRULE", rrule)
+                .text("SUMMARY", kurs.getKursName());
+        if (kurs.getKursraum() != null) {
+            ics.text("LOCATION", kurs.getKursraum().getRaumName());
+        }
+        StringBuilder beschreibung = new StringBuilder();
+        if (kurs.getTrainer() != null) {
+            beschreibung.append("Trainer: ").append(kurs.getTrainer().getVorname()).append(' ')
+                    .append(kurs.getTrainer().getNachname());
+        }
+        if (stundenplan.getBemerkungen() != null && !stundenplan.getBemerkungen().isBlank()) {
+            beschreibung.append(beschreibung.isEmpty() ? "" : "\n").append(stundenplan.getBemerkungen());
+        }
+        if (!beschreibung.isEmpty()) {
+            ics.text("DESCRIPTION", beschreibung.toString());
+        }
+        ics.property("END", "VEVENT");
+    }
+
+    private static Instant latest(ZoneId zone, LocalDateTime... zeitpunkte) {
+        Instant latest = Instant.EPOCH;
+        for (LocalDateTime zeitpunkt : zeitpunkte) {
+            if (zeitpunkt != null && zeitpunkt.atZone(zone).toInstant().isAfter(latest)) {
+                latest = zeitpunkt.atZone(zone).toInstant();
+            }
+        }
+        return latest;
+    }
+
+    private static String etag(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(body.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
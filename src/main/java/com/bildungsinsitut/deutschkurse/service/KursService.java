@@ -1,19 +1,32 @@
 package com.bildungsinsitut.deutschkurse.service;
 
+import com.bildungsinsitut.deutschkurse.dto.CursorPage;
 import com.bildungsinsitut.deutschkurse.dto.KursDto;
+import com.bildungsinsitut.deutschkurse.dto.KursFilter;
 import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.KursBelegungGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.mapper.KursMapper;
 import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Kursraum;
+import com.bildungsinsitut.deutschkurse.model.Kurstyp;
+import com.bildungsinsitut.deutschkurse.model.Trainer;
 import com.bildungsinsitut.deutschkurse.repository.KursRepository;
+import com.bildungsinsitut.deutschkurse.repository.ListSpecifications;
 import com.bildungsinsitut.deutschkurse.repository.KurstypRepository;
 import com.bildungsinsitut.deutschkurse.repository.KursraumRepository;
 import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import com.bildungsinsitut.deutschkurse.util.CursorCodec;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @Transactional
@@ -24,21 +37,48 @@ public class KursService {
     private final KurstypRepository kurstypRepository;
     private final KursraumRepository kursraumRepository;
     private final TrainerRepository trainerRepository;
+    private final ScheduleConflictIndex scheduleConflictIndex;
+    private final KursTerminService kursTerminService;
+    private final KalenderFeedService kalenderFeedService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenzdatenCache referenzdatenCache;
 
     public KursService(KursRepository kursRepository, KursMapper kursMapper,
                        KurstypRepository kurstypRepository, KursraumRepository kursraumRepository,
-                       TrainerRepository trainerRepository) {
+                       TrainerRepository trainerRepository, ScheduleConflictIndex scheduleConflictIndex,
+                       KursTerminService kursTerminService, KalenderFeedService kalenderFeedService,
+                       ApplicationEventPublisher eventPublisher, ReferenzdatenCache referenzdatenCache) {
         this.kursRepository = kursRepository;
         this.kursMapper = kursMapper;
         this.kurstypRepository = kurstypRepository;
         this.kursraumRepository = kursraumRepository;
         this.trainerRepository = trainerRepository;
+        this.scheduleConflictIndex = scheduleConflictIndex;
+        this.kursTerminService = kursTerminService;
+        this.kalenderFeedService = kalenderFeedService;
+        this.eventPublisher = eventPublisher;
+        this.referenzdatenCache = referenzdatenCache;
     }
 
     public List<KursDto> getAllKurse() {
         return kursMapper.toDtoList(kursRepository.findAll());
     }
 
+    /**
+     * Keyset-paginated, filterable course list ordered by id
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<KursDto> getKursePage(KursFilter filter, String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<Kurs> rows = kursRepository.findBy(
+                ListSpecifications.kurse(filter).and(ListSpecifications.idAfter(CursorCodec.decodeId(cursor))),
+                q -> q.project("kurstyp", "kursraum", "trainer")
+                        .sortBy(Sort.by("id"))
+                        .limit(pageSize + 1)
+                        .all());
+        return CursorPage.of(rows, pageSize, kursMapper::toDtoList, k -> CursorCodec.encodeId(k.getId()));
+    }
+
     public KursDto getKursById(Integer id) {
         Kurs kurs = kursRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + id));
@@ -64,6 +104,7 @@ public class KursService {
     /**
      * Get available courses (with available spots)
      */
+    @Transactional(readOnly = true)
     public List<KursDto> getVerfuegbareKurse() {
         return kursMapper.toDtoList(kursRepository.findVerfuegbareKurse());
     }
@@ -93,14 +134,12 @@ public class KursService {
         Kurs kurs = kursMapper.toEntity(kursDto);
 
         // Set relationships
-        kurs.setKurstyp(kurstypRepository.findById(kursDto.getKurstypId())
-                .orElseThrow(() -> new ResourceNotFoundException("Kurstyp not found with id: " + kursDto.getKurstypId())));
-        kurs.setKursraum(kursraumRepository.findById(kursDto.getKursraumId())
-                .orElseThrow(() -> new ResourceNotFoundException("Kursraum not found with id: " + kursDto.getKursraumId())));
-        kurs.setTrainer(trainerRepository.findById(kursDto.getTrainerId())
-                .orElseThrow(() -> new ResourceNotFoundException("Trainer not found with id: " + kursDto.getTrainerId())));
+        kurs.setKurstyp(kurstyp(kursDto.getKurstypId()));
+        kurs.setKursraum(kursraum(kursDto.getKursraumId()));
+        kurs.setTrainer(trainer(kursDto.getTrainerId()));
 
         kurs = kursRepository.save(kurs);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.kurs, kurs.getId()));
         return kursMapper.toDto(kurs);
     }
 
@@ -115,6 +154,12 @@ public class KursService {
             }
         }
 
+        Integer previousKursraumId = kurs.getKursraum().getId();
+        Integer previousTrainerId = kurs.getTrainer().getId();
+        LocalDate previousStartdatum = kurs.getStartdatum();
+        LocalDate previousEnddatum = kurs.getEnddatum();
+        KursStatusType previousStatus = kurs.getStatus();
+
         // Update fields
         kurs.setKursName(kursDto.getKursName());
         kurs.setStartdatum(kursDto.getStartdatum());
@@ -125,19 +170,34 @@ public class KursService {
 
         // Update relationships if provided
         if (kursDto.getKurstypId() != null) {
-            kurs.setKurstyp(kurstypRepository.findById(kursDto.getKurstypId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Kurstyp not found with id: " + kursDto.getKurstypId())));
+            kurs.setKurstyp(kurstyp(kursDto.getKurstypId()));
         }
         if (kursDto.getKursraumId() != null) {
-            kurs.setKursraum(kursraumRepository.findById(kursDto.getKursraumId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Kursraum not found with id: " + kursDto.getKursraumId())));
+            kurs.setKursraum(kursraum(kursDto.getKursraumId()));
         }
         if (kursDto.getTrainerId() != null) {
-            kurs.setTrainer(trainerRepository.findById(kursDto.getTrainerId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Trainer not found with id: " + kursDto.getTrainerId())));
+            kurs.setTrainer(trainer(kursDto.getTrainerId()));
+        }
+
+        boolean planGeaendert = !Objects.equals(kurs.getKursraum().getId(), previousKursraumId)
+                || !Objects.equals(kurs.getTrainer().getId(), previousTrainerId)
+                || !Objects.equals(kurs.getStartdatum(), previousStartdatum)
+                || !Objects.equals(kurs.getEnddatum(), previousEnddatum)
+                || kurs.getStatus() != previousStatus;
+
+        // The course's schedule moves with its room, trainer and dates and must not collide there
+        if (planGeaendert) {
+            scheduleConflictIndex.moveKurs(kurs);
         }
 
         kurs = kursRepository.save(kurs);
+
+        // Sessions copy dates, room and trainer of the course
+        if (planGeaendert) {
+            kursTerminService.regenerateForKurs(id);
+        }
+        kalenderFeedService.invalidateKurs(kurs);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.kurs, id));
         return kursMapper.toDto(kurs);
     }
 
@@ -148,8 +208,14 @@ public class KursService {
         Kurs kurs = kursRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + id));
 
+        KursStatusType previousStatus = kurs.getStatus();
         kurs.setStatus(status);
         kurs = kursRepository.save(kurs);
+        if (status != previousStatus) {
+            kursTerminService.regenerateForKurs(id);
+            kalenderFeedService.invalidateKurs(id);
+            eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.kurs, id));
+        }
         return kursMapper.toDto(kurs);
     }
 
@@ -157,32 +223,32 @@ public class KursService {
      * Add a participant to a course (increment current participants)
      */
     public KursDto addTeilnehmerToKurs(Integer kursId) {
-        Kurs kurs = kursRepository.findById(kursId)
-                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + kursId));
+        if (!kursRepository.existsById(kursId)) {
+            throw new ResourceNotFoundException("Kurs not found with id: " + kursId);
+        }
 
-        if (kurs.getAktuelleTeilnehmer() >= kurs.getMaxTeilnehmer()) {
+        if (kursRepository.reserveSeat(kursId) == 0) {
             throw new IllegalStateException("Course is already at maximum capacity");
         }
+        eventPublisher.publishEvent(KursBelegungGeaendertEvent.of(kursId));
 
-        kurs.setAktuelleTeilnehmer(kurs.getAktuelleTeilnehmer() + 1);
-        kurs = kursRepository.save(kurs);
-        return kursMapper.toDto(kurs);
+        return getKursById(kursId);
     }
 
     /**
      * Remove a participant from a course (decrement current participants)
      */
     public KursDto removeTeilnehmerFromKurs(Integer kursId) {
-        Kurs kurs = kursRepository.findById(kursId)
-                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + kursId));
+        if (!kursRepository.existsById(kursId)) {
+            throw new ResourceNotFoundException("Kurs not found with id: " + kursId);
+        }
 
-        if (kurs.getAktuelleTeilnehmer() <= 0) {
+        if (kursRepository.releaseSeat(kursId) == 0) {
             throw new IllegalStateException("Course has no participants to remove");
         }
+        eventPublisher.publishEvent(KursBelegungGeaendertEvent.of(kursId));
 
-        kurs.setAktuelleTeilnehmer(kurs.getAktuelleTeilnehmer() - 1);
-        kurs = kursRepository.save(kurs);
-        return kursMapper.toDto(kurs);
+        return getKursById(kursId);
     }
 
     public void deleteKurs(Integer id) {
@@ -190,5 +256,31 @@ public class KursService {
             throw new ResourceNotFoundException("Kurs not found with id: " + id);
         }
         kursRepository.deleteById(id);
+        scheduleConflictIndex.removeKurs(id);
+        kalenderFeedService.invalidateKurs(id);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.kurs, id));
+    }
+
+    // Existence is checked against the reference-data cache and the association is set to an
+    // uninitialized reference, so neither costs a query when the cache has the row
+    private Kurstyp kurstyp(Integer id) {
+        if (referenzdatenCache.getKurstyp(id).isEmpty()) {
+            throw new ResourceNotFoundException("Kurstyp not found with id: " + id);
+        }
+        return kurstypRepository.getReferenceById(id);
+    }
+
+    private Kursraum kursraum(Integer id) {
+        if (referenzdatenCache.getKursraum(id).isEmpty()) {
+            throw new ResourceNotFoundException("Kursraum not found with id: " + id);
+        }
+        return kursraumRepository.getReferenceById(id);
+    }
+
+    private Trainer trainer(Integer id) {
+        if (referenzdatenCache.getTrainer(id).isEmpty()) {
+            throw new ResourceNotFoundException("Trainer not found with id: " + id);
+        }
+        return trainerRepository.getReferenceById(id);
     }
-}
\ No newline at end of file
+}
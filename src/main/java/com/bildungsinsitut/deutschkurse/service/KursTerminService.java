@@ -0,0 +1,190 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.KursTerminDto;
+import com.bildungsinsitut.deutschkurse.dto.KursTerminFilter;
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.mapper.KursTerminMapper;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.KursTermin;
+import com.bildungsinsitut.deutschkurse.model.Stundenplan;
+import com.bildungsinsitut.deutschkurse.repository.KursTerminRepository;
+import com.bildungsinsitut.deutschkurse.repository.ListSpecifications;
+import com.bildungsinsitut.deutschkurse.repository.StundenplanRepository;
+import com.bildungsinsitut.deutschkurse.util.Wochentage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Calendar of dated sessions materialized from the weekly schedule. Regeneration is a diff against
+ * the stored sessions from today on: past sessions are history and stay untouched, unchanged future
+ * sessions keep their ids.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class KursTerminService {
+
+    private final KursTerminRepository kursTerminRepository;
+    private final StundenplanRepository stundenplanRepository;
+    private final KursTerminMapper kursTerminMapper;
+
+    @Value("${app.termine.horizon-weeks:26}")
+    private int horizonWeeks;
+
+    @Value("${app.termine.max-range-days:93}")
+    private int maxRangeDays;
+
+    public record Aenderungen(int neu, int geaendert, int entfernt) {
+
+        Aenderungen plus(Aenderungen other) {
+            return new Aenderungen(neu + other.neu, geaendert + other.geaendert, entfernt + other.entfernt);
+        }
+    }
+
+    /**
+     * Sessions in a date range, optionally restricted to a course, room or trainer
+     */
+    @Transactional(readOnly = true)
+    public List<KursTerminDto> getTermine(KursTerminFilter filter) {
+        if (filter.getVon() == null || filter.getBis() == null) {
+            throw new IllegalArgumentException("Both von and bis are required");
+        }
+        if (filter.getBis().isBefore(filter.getVon())) {
+            throw new IllegalArgumentException("bis must not be before von");
+        }
+        if (ChronoUnit.DAYS.between(filter.getVon(), filter.getBis()) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxRangeDays + " days");
+        }
+        List<KursTermin> termine = kursTerminRepository.findBy(ListSpecifications.termine(filter),
+                q -> q.project("kurs", "kursraum", "trainer")
+                        .sortBy(Sort.by("datum", "startzeit", "id"))
+                        .all());
+        return kursTerminMapper.toDtoList(termine);
+    }
+
+    @Transactional(readOnly = true)
+    public List<KursTerminDto> getTag(LocalDate datum, KursTerminFilter filter) {
+        filter.setVon(datum);
+        filter.setBis(datum);
+        return getTermine(filter);
+    }
+
+    /**
+     * Sessions of the week (Monday to Sunday) containing the given date
+     */
+    @Transactional(readOnly = true)
+    public List<KursTerminDto> getWoche(LocalDate datum, KursTerminFilter filter) {
+        LocalDate montag = datum.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        filter.setVon(montag);
+        filter.setBis(montag.plusDays(6));
+        return getTermine(filter);
+    }
+
+    /**
+     * Bring the future sessions of one schedule entry in line with the entry and its course
+     */
+    public Aenderungen regenerate(Stundenplan stundenplan) {
+        LocalDate heute = LocalDate.now();
+        Map<LocalDate, KursTermin> vorhanden = new HashMap<>();
+        for (KursTermin termin : kursTerminRepository.findByStundenplanIdAndDatumGreaterThanEqual(stundenplan.getId(), heute)) {
+            vorhanden.put(termin.getDatum(), termin);
+        }
+
+        Kurs kurs = stundenplan.getKurs();
+        List<KursTermin> neu = new ArrayList<>();
+        int geaendert = 0;
+        for (LocalDate datum : termine(stundenplan, heute)) {
+            KursTermin termin = vorhanden.remove(datum);
+            if (termin == null) {
+                termin = new KursTermin();
+                termin.setStundenplan(stundenplan);
+                termin.setDatum(datum);
+                neu.add(termin);
+            } else if (unchanged(termin, stundenplan)) {
+                continue;
+            } else {
+                geaendert++;
+            }
+            // Managed rows are written back by dirty checking
+            termin.setKurs(kurs);
+            termin.setKursraum(kurs.getKursraum());
+            termin.setTrainer(kurs.getTrainer());
+            termin.setStartzeit(stundenplan.getStartzeit());
+            termin.setEndzeit(stundenplan.getEndzeit());
+        }
+
+        kursTerminRepository.saveAll(neu);
+        if (!vorhanden.isEmpty()) {
+            kursTerminRepository.deleteAllInBatch(vorhanden.values());
+        }
+        Aenderungen aenderungen = new Aenderungen(neu.size(), geaendert, vorhanden.size());
+        log.debug("Regenerated sessions of Stundenplan {}: {}", stundenplan.getId(), aenderungen);
+        return aenderungen;
+    }
+
+    public Aenderungen regenerateForKurs(Integer kursId) {
+        Aenderungen summe = new Aenderungen(0, 0, 0);
+        for (Stundenplan stundenplan : stundenplanRepository.findByKursId(kursId)) {
+            summe = summe.plus(regenerate(stundenplan));
+        }
+        log.info("Regenerated sessions of Kurs {}: {}", kursId, summe);
+        return summe;
+    }
+
+    /**
+     * Regenerate every active schedule entry; also moves the horizon of open-ended courses forward
+     */
+    @Scheduled(cron = "${app.termine.regenerate-cron:0 15 2 * * *}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Aenderungen regenerateAll() {
+        Aenderungen summe = new Aenderungen(0, 0, 0);
+        for (Stundenplan stundenplan : stundenplanRepository.findByAktivTrue()) {
+            summe = summe.plus(regenerate(stundenplan));
+        }
+        log.info("Regenerated session calendar: {}", summe);
+        return summe;
+    }
+
+    /**
+     * Dates from today (or the course start) to the course end, or to the horizon for open-ended courses
+     */
+    private List<LocalDate> termine(Stundenplan stundenplan, LocalDate heute) {
+        Kurs kurs = stundenplan.getKurs();
+        if (!Boolean.TRUE.equals(stundenplan.getAktiv()) || kurs.getStartdatum() == null
+                || kurs.getStatus() == KursStatusType.abgebrochen
+                || kurs.getKursraum() == null || kurs.getTrainer() == null) {
+            return List.of();
+        }
+        LocalDate von = kurs.getStartdatum().isAfter(heute) ? kurs.getStartdatum() : heute;
+        LocalDate bis = kurs.getEnddatum() != null ? kurs.getEnddatum() : heute.plusWeeks(horizonWeeks);
+        List<LocalDate> daten = new ArrayList<>();
+        for (LocalDate datum = von.with(TemporalAdjusters.nextOrSame(Wochentage.parse(stundenplan.getWochentag())));
+             !datum.isAfter(bis); datum = datum.plusWeeks(1)) {
+            daten.add(datum);
+        }
+        return daten;
+    }
+
+    // Compares ids only, so lazy course, room and trainer proxies are not initialized
+    private static boolean unchanged(KursTermin termin, Stundenplan stundenplan) {
+        Kurs kurs = stundenplan.getKurs();
+        return Objects.equals(termin.getKurs().getId(), kurs.getId())
+                && Objects.equals(termin.getStartzeit(), stundenplan.getStartzeit())
+                && Objects.equals(termin.getEndzeit(), stundenplan.getEndzeit())
+                && Objects.equals(termin.getKursraum().getId(), kurs.getKursraum().getId())
+                && Objects.equals(termin.getTrainer().getId(), kurs.getTrainer().getId());
+    }
+}
@@ -0,0 +1,121 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.KursDto;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.KursBelegungGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The catalog of available courses (planned, with free seats) as a precomputed snapshot of the
+ * serialized JSON and its ETag, so a visit costs one volatile read. The snapshot is rebuilt in the
+ * background once a course or enrollment change has committed and swapped in as a whole; a burst
+ * of changes is coalesced into one rebuild. A periodic rebuild picks up changes made by other
+ * instances or directly in the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KurskatalogService {
+
+    private final KursService kursService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor katalogExecutor;
+
+    public record Snapshot(byte[] json, String etag, Instant stand, int kurse) {
+    }
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            return snapshot != null ? snapshot : rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKursBelegungGeaendert(KursBelegungGeaendertEvent event) {
+        scheduleRebuild();
+    }
+
+    /**
+     * Courses changed (status, capacity, dates) or a trainer shown in the catalog was renamed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStammdatenGeaendert(StammdatenGeaendertEvent event) {
+        if (event.typ() != SuchTyp.teilnehmer) {
+            scheduleRebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.katalog.refresh-ms:300000}", initialDelayString = "${app.katalog.refresh-ms:300000}")
+    public void refresh() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Queue a rebuild unless one is queued already; a rebuild that is running has started its
+     * read before this change committed, so it does not count
+     */
+    private void scheduleRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            katalogExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Rebuilding the course catalog failed, serving the previous snapshot", e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rebuildPending.set(false);
+            log.warn("Course catalog rebuild rejected: {}", e.getMessage());
+        }
+    }
+
+    private synchronized Snapshot rebuild() {
+        List<KursDto> kurse = kursService.getVerfuegbareKurse();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(kurse);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the course catalog", e);
+        }
+        Snapshot neu = new Snapshot(json, etag(json), Instant.now(), kurse.size());
+        snapshot = neu;
+        log.debug("Course catalog rebuilt: {} courses, {} bytes", neu.kurse(), json.length);
+        return neu;
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for last-login timestamps. Logins only record into a map; the pending
+ * values are written in one batched UPDATE on a fixed interval and on shutdown. Repeated logins
+ * of the same user between flushes collapse into a single row update.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginRecorder {
+
+    private final UserRepository userRepository;
+
+    private final Map<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(Integer userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /**
+     * Login time that has been recorded but not yet written, if any
+     */
+    public Optional<LocalDateTime> pendingFor(Integer userId) {
+        return Optional.ofNullable(pending.get(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.last-login-flush-interval-ms:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Take each entry out only if it was not replaced meanwhile; a newer login stays pending
+        Map<Integer, LocalDateTime> batch = new HashMap<>();
+        pending.forEach((userId, loginTime) -> {
+            if (pending.remove(userId, loginTime)) {
+                batch.put(userId, loginTime);
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            userRepository.updateLastLogins(batch);
+            log.debug("Flushed last login for {} users", batch.size());
+        } catch (Exception e) {
+            batch.forEach(this::record);
+            log.error("Failed to flush last login for {} users, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,131 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token-bucket throttling of login attempts per client IP and of failed logins per username.
+ * Checked before any password hashing, so throttled attempts cost no CPU. A username is only
+ * charged for wrong passwords, so logging in correctly cannot lock an account. Buckets that have
+ * refilled completely are evicted periodically.
+ */
+@Service
+@Slf4j
+public class LoginRateLimiter {
+
+    @Value("${app.auth.login-throttle.per-user-capacity:5}")
+    private int perUserCapacity;
+
+    @Value("${app.auth.login-throttle.per-user-refill-per-minute:5}")
+    private double perUserRefillPerMinute;
+
+    @Value("${app.auth.login-throttle.per-ip-capacity:30}")
+    private int perIpCapacity;
+
+    @Value("${app.auth.login-throttle.per-ip-refill-per-minute:30}")
+    private double perIpRefillPerMinute;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Check the username's budget of failed attempts and take one attempt from the IP bucket, or
+     * fail with the time until the next one is available. Nothing is taken if either is exhausted.
+     */
+    public void acquire(String username, String clientIp) {
+        long now = System.nanoTime();
+        if (username != null) {
+            String key = userKey(username);
+            Bucket bucket = buckets.get(key);
+            if (bucket != null) {
+                throttle(key, bucket.waitNanos(now));
+            }
+        }
+        if (clientIp != null) {
+            String key = "ip:" + clientIp;
+            throttle(key, bucket(key, perIpCapacity, perIpRefillPerMinute).tryConsume(now));
+        }
+    }
+
+    /**
+     * Charge a failed authentication to the username
+     */
+    public void recordFailure(String username) {
+        if (username != null) {
+            bucket(userKey(username), perUserCapacity, perUserRefillPerMinute).tryConsume(System.nanoTime());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.login-throttle.cleanup-interval-ms:300000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private Bucket bucket(String key, int capacity, double refillPerMinute) {
+        return buckets.computeIfAbsent(key, k -> new Bucket(capacity, refillPerMinute / 60_000_000_000.0));
+    }
+
+    private static String userKey(String username) {
+        return "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void throttle(String key, long waitNanos) {
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            log.warn("Login throttled for {} (retry after {}s)", key, retryAfterSeconds);
+            throw new TooManyRequestsException("Too many login attempts, please retry later", retryAfterSeconds);
+        }
+    }
+
+    private static final class Bucket {
+
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(int capacity, double refillPerNano) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Returns 0 if a token was taken, otherwise the nanoseconds until one is available
+         */
+        synchronized long tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerNano);
+        }
+
+        /**
+         * Returns 0 if a token is available, otherwise the nanoseconds until one is; takes nothing
+         */
+        synchronized long waitNanos(long now) {
+            refill(now);
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / refillPerNano);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
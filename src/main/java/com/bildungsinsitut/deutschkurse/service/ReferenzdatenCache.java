@@ -0,0 +1,200 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.ReferenzTyp;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.repository.AbteilungRepository;
+import com.bildungsinsitut.deutschkurse.repository.KursraumRepository;
+import com.bildungsinsitut.deutschkurse.repository.KurstypRepository;
+import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of course types, rooms, departments and trainer names as small immutable
+ * records. Rows are read through projections, so lookups never put entities into the persistence
+ * context. Trainers are dropped on {@link StammdatenGeaendertEvent}s; the other tables have no
+ * write path in the application and are edited by hand a few times a year, so their entries
+ * expire after a maximum age and can be dropped at once with {@link #invalidateAll()}.
+ */
+@Service
+@Slf4j
+public class ReferenzdatenCache {
+
+    public record KurstypInfo(Integer id, String code, String name, Integer levelOrder, boolean aktiv) {
+    }
+
+    public record KursraumInfo(Integer id, Integer abteilungId, String name, Integer kapazitaet, boolean verfuegbar) {
+    }
+
+    public record AbteilungInfo(Integer id, String name, boolean aktiv) {
+    }
+
+    public record TrainerInfo(Integer id, String name) {
+    }
+
+    public record Statistik(ReferenzTyp typ, int eintraege, long hits, long misses, long invalidierungen,
+                            double trefferquote) {
+    }
+
+    private final Bereich<KurstypInfo> kurstypen;
+    private final Bereich<KursraumInfo> kursraeume;
+    private final Bereich<AbteilungInfo> abteilungen;
+    private final Bereich<TrainerInfo> trainer;
+    private final Map<ReferenzTyp, Bereich<?>> bereiche;
+
+    @Value("${app.referenzdaten.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    public ReferenzdatenCache(KurstypRepository kurstypRepository, KursraumRepository kursraumRepository,
+                              AbteilungRepository abteilungRepository, TrainerRepository trainerRepository) {
+        this.kurstypen = new Bereich<>(ReferenzTyp.kurstyp, id -> kurstypRepository.findReferenzEintrag(id)
+                .map(k -> new KurstypInfo(k.getId(), k.getKurstypCode(), k.getKurstypName(), k.getLevelOrder(),
+                        !Boolean.FALSE.equals(k.getAktiv()))));
+        this.kursraeume = new Bereich<>(ReferenzTyp.kursraum, id -> kursraumRepository.findReferenzEintrag(id)
+                .map(r -> new KursraumInfo(r.getId(), r.getAbteilungId(), r.getRaumName(), r.getKapazitaet(),
+                        !Boolean.FALSE.equals(r.getVerfuegbar()))));
+        this.abteilungen = new Bereich<>(ReferenzTyp.abteilung, id -> abteilungRepository.findReferenzEintrag(id)
+                .map(a -> new AbteilungInfo(a.getId(), a.getAbteilungName(), !Boolean.FALSE.equals(a.getAktiv()))));
+        this.trainer = new Bereich<>(ReferenzTyp.trainer, id -> trainerRepository.findReferenzEintrag(id)
+                .map(t -> new TrainerInfo(t.getId(), t.getVorname() + " " + t.getNachname())));
+        this.bereiche = new EnumMap<>(Map.of(ReferenzTyp.kurstyp, kurstypen, ReferenzTyp.kursraum, kursraeume,
+                ReferenzTyp.abteilung, abteilungen, ReferenzTyp.trainer, trainer));
+    }
+
+    public Optional<KurstypInfo> getKurstyp(Integer id) {
+        return kurstypen.get(id, maxAgeMillis());
+    }
+
+    public Optional<KursraumInfo> getKursraum(Integer id) {
+        return kursraeume.get(id, maxAgeMillis());
+    }
+
+    public Optional<AbteilungInfo> getAbteilung(Integer id) {
+        return abteilungen.get(id, maxAgeMillis());
+    }
+
+    public Optional<TrainerInfo> getTrainer(Integer id) {
+        return trainer.get(id, maxAgeMillis());
+    }
+
+    /**
+     * Drop an entry now and again after the surrounding transaction commits, so a read racing
+     * with the change cannot re-cache the old state
+     */
+    public void invalidate(ReferenzTyp typ, Integer id) {
+        Bereich<?> bereich = bereiche.get(typ);
+        bereich.invalidate(id);
+        afterCommit(() -> bereich.invalidate(id));
+    }
+
+    public void invalidateAll() {
+        bereiche.values().forEach(Bereich::clear);
+        log.info("Reference data cache cleared");
+    }
+
+    public List<Statistik> getStatistik() {
+        return bereiche.values().stream().map(Bereich::statistik).toList();
+    }
+
+    /**
+     * Trainer names change with their master data
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStammdatenGeaendert(StammdatenGeaendertEvent event) {
+        if (event.typ() == SuchTyp.trainer) {
+            event.ids().forEach(trainer::invalidate);
+        }
+    }
+
+    private long maxAgeMillis() {
+        return maxAgeMinutes * 60_000;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Entries of one table with their counters. A load that overlaps an invalidation is returned
+     * but not kept, since it may have read the row before the change.
+     */
+    private static final class Bereich<T> {
+
+        private record Eintrag<T>(T wert, long geladenAm) {
+        }
+
+        private final ReferenzTyp typ;
+        private final Function<Integer, Optional<T>> loader;
+        private final Map<Integer, Eintrag<T>> eintraege = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder invalidierungen = new LongAdder();
+
+        Bereich(ReferenzTyp typ, Function<Integer, Optional<T>> loader) {
+            this.typ = typ;
+            this.loader = loader;
+        }
+
+        Optional<T> get(Integer id, long maxAgeMillis) {
+            if (id == null) {
+                return Optional.empty();
+            }
+            long now = System.currentTimeMillis();
+            Eintrag<T> eintrag = eintraege.get(id);
+            if (eintrag != null && now - eintrag.geladenAm() < maxAgeMillis) {
+                hits.increment();
+                return Optional.of(eintrag.wert());
+            }
+            misses.increment();
+            long vorher = generation.get();
+            Optional<T> wert = loader.apply(id);
+            // Unknown ids are not kept, so probing them cannot grow the cache
+            if (wert.isPresent()) {
+                Eintrag<T> neu = new Eintrag<>(wert.get(), now);
+                eintraege.put(id, neu);
+                if (generation.get() != vorher) {
+                    eintraege.remove(id, neu);
+                }
+            }
+            return wert;
+        }
+
+        void invalidate(Integer id) {
+            generation.incrementAndGet();
+            eintraege.remove(id);
+            invalidierungen.increment();
+        }
+
+        void clear() {
+            generation.incrementAndGet();
+            eintraege.clear();
+            invalidierungen.increment();
+        }
+
+        Statistik statistik() {
+            long h = hits.sum();
+            long m = misses.sum();
+            return new Statistik(typ, eintraege.size(), h, m, invalidierungen.sum(),
+                    h + m > 0 ? Math.round(1000.0 * h / (h + m)) / 10.0 : 0.0);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.model.RefreshToken;
+import com.bildungsinsitut.deutschkurse.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens. Each refresh consumes the presented token and issues a new one
+ * in the same family; presenting an already consumed token revokes the whole family, since either
+ * the client or an attacker holds a stolen copy.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.jwt.refresh-expiration-days:14}")
+    private long refreshExpirationDays;
+
+    public record Rotation(Integer userId, String refreshToken) {
+    }
+
+    /**
+     * Start a new token family for a fresh login
+     */
+    public String issue(Integer userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consume a refresh token and return its successor
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        // Conditional update, so two concurrent refreshes with the same token cannot both succeed
+        if (current.getRevokedAt() != null || refreshTokenRepository.revokeIfActive(current.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for user {} - revoked {} tokens of family {}",
+                    current.getUserId(), revoked, current.getFamilyId());
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new BadCredentialsException("Refresh token has expired");
+        }
+
+        return new Rotation(current.getUserId(), issue(current.getUserId(), current.getFamilyId()));
+    }
+
+    /**
+     * Revoke the family of the given token (logout); unknown tokens are ignored
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    public void revokeAllForUser(Integer userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+        log.info("Revoked {} refresh tokens of user {}", revoked, userId);
+    }
+
+    @Scheduled(cron = "${app.jwt.refresh-cleanup-cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        log.info("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private String issue(Integer userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setUserId(userId);
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setExpiresAt(LocalDateTime.now().plusDays(refreshExpirationDays));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
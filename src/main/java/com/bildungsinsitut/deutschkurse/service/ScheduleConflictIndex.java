@@ -0,0 +1,284 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.ScheduleConflictDto;
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.RessourceTyp;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Stundenplan;
+import com.bildungsinsitut.deutschkurse.repository.StundenplanRepository;
+import com.bildungsinsitut.deutschkurse.util.IntervalTree;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * In-memory index of active weekly schedule slots with one interval tree per course, room and
+ * trainer per weekday. Slots only collide if the date ranges of their courses intersect, so
+ * consecutive courses can use the same room at the same time; finished and cancelled courses are
+ * not indexed. Changes are checked and applied in one step under the index lock, so two
+ * concurrent requests cannot book the same room or trainer; if the surrounding transaction rolls
+ * back, the change is undone.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleConflictIndex {
+
+    private final StundenplanRepository stundenplanRepository;
+
+    /**
+     * @param enddatum last day of the course, or null if it has no end yet
+     */
+    public record Slot(Integer stundenplanId,
+                       Integer kursId,
+                       Integer kursraumId,
+                       Integer trainerId,
+                       LocalDate startdatum,
+                       LocalDate enddatum,
+                       String wochentag,
+                       LocalTime startzeit,
+                       LocalTime endzeit) {
+
+        public static Slot of(Stundenplan stundenplan) {
+            Kurs kurs = stundenplan.getKurs();
+            return new Slot(stundenplan.getId(), kurs.getId(),
+                    kurs.getKursraum() != null ? kurs.getKursraum().getId() : null,
+                    kurs.getTrainer() != null ? kurs.getTrainer().getId() : null,
+                    kurs.getStartdatum(), kurs.getEnddatum(),
+                    stundenplan.getWochentag(), stundenplan.getStartzeit(), stundenplan.getEndzeit());
+        }
+
+        boolean overlapsDates(Slot other) {
+            return overlaps(startdatum, enddatum, other.startdatum(), other.enddatum());
+        }
+    }
+
+    private record Key(RessourceTyp typ, Integer id, String wochentag) {
+    }
+
+    private final Map<Key, IntervalTree<Slot>> trees = new HashMap<>();
+    private final Map<Integer, Slot> slots = new HashMap<>();
+
+    @PostConstruct
+    synchronized void load() {
+        // Only ids of the course's room and trainer are read, so the lazy associations stay uninitialized
+        for (Stundenplan stundenplan : stundenplanRepository.findByAktivTrue()) {
+            if (occupies(stundenplan.getKurs())) {
+                add(Slot.of(stundenplan));
+            }
+        }
+        log.info("Schedule conflict index loaded with {} active slots", slots.size());
+    }
+
+    /**
+     * Courses that are over no longer occupy their room and trainer
+     */
+    public static boolean occupies(Kurs kurs) {
+        return kurs.getStatus() != KursStatusType.abgeschlossen && kurs.getStatus() != KursStatusType.abgebrochen;
+    }
+
+    /**
+     * Whether two course date ranges share a day; a missing start or end is open
+     */
+    public static boolean overlaps(LocalDate start, LocalDate ende, LocalDate otherStart, LocalDate otherEnde) {
+        return (ende == null || otherStart == null || !otherStart.isAfter(ende))
+                && (otherEnde == null || start == null || !start.isAfter(otherEnde));
+    }
+
+    /**
+     * Conflicts of a schedule entry as it would be stored; none if its course is over
+     */
+    public List<ScheduleConflictDto> findConflicts(Stundenplan stundenplan) {
+        return occupies(stundenplan.getKurs()) ? findConflicts(Slot.of(stundenplan)) : List.of();
+    }
+
+    /**
+     * Slots that would collide with the given one in its course, room or trainer (the slot's own id is ignored)
+     */
+    public synchronized List<ScheduleConflictDto> findConflicts(Slot slot) {
+        List<ScheduleConflictDto> conflicts = new ArrayList<>();
+        for (Key key : keys(slot)) {
+            IntervalTree<Slot> tree = trees.get(key);
+            if (tree == null) {
+                continue;
+            }
+            for (Slot other : tree.findOverlapping(seconds(slot.startzeit()), seconds(slot.endzeit()))) {
+                if (!other.stundenplanId().equals(slot.stundenplanId()) && other.overlapsDates(slot)) {
+                    conflicts.add(toConflict(key, other));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Index a saved schedule entry: inserted or replaced if it is active and its course is not
+     * over, removed otherwise
+     */
+    public void update(Stundenplan stundenplan) {
+        if (Boolean.TRUE.equals(stundenplan.getAktiv()) && occupies(stundenplan.getKurs())) {
+            put(Slot.of(stundenplan));
+        } else {
+            remove(stundenplan.getId());
+        }
+    }
+
+    /**
+     * Insert or replace a slot, failing with IllegalStateException if it collides with another one
+     */
+    public synchronized void put(Slot slot) {
+        Slot previous = slots.get(slot.stundenplanId());
+        if (previous != null) {
+            remove(previous);
+        }
+        List<ScheduleConflictDto> conflicts = findConflicts(slot);
+        if (!conflicts.isEmpty()) {
+            if (previous != null) {
+                add(previous);
+            }
+            throw new IllegalStateException(describe(conflicts.get(0)));
+        }
+        add(slot);
+        undoOnRollback(() -> {
+            remove(slot);
+            if (previous != null) {
+                add(previous);
+            }
+        });
+    }
+
+    public synchronized void remove(Integer stundenplanId) {
+        Slot previous = slots.get(stundenplanId);
+        if (previous != null) {
+            remove(previous);
+            undoOnRollback(() -> add(previous));
+        }
+    }
+
+    /**
+     * Re-index all slots of a course after its room, trainer, dates or status changed, failing if
+     * any of them collides in the new state. The course's schedule is read before the index lock
+     * is taken.
+     */
+    public void moveKurs(Kurs kurs) {
+        List<Slot> moved = !occupies(kurs) ? List.of() : stundenplanRepository.findByKursId(kurs.getId()).stream()
+                .filter(stundenplan -> Boolean.TRUE.equals(stundenplan.getAktiv()))
+                .map(Slot::of)
+                .toList();
+        replaceKurs(kurs.getId(), moved);
+    }
+
+    private synchronized void replaceKurs(Integer kursId, List<Slot> moved) {
+        List<Slot> previous = slots.values().stream().filter(s -> s.kursId().equals(kursId)).toList();
+        previous.forEach(this::remove);
+
+        List<Slot> added = new ArrayList<>();
+        for (Slot slot : moved) {
+            List<ScheduleConflictDto> conflicts = findConflicts(slot);
+            if (!conflicts.isEmpty()) {
+                added.forEach(this::remove);
+                previous.forEach(this::add);
+                throw new IllegalStateException(describe(conflicts.get(0)));
+            }
+            // Added one by one, so two slots of the moved course are also checked against each other
+            add(slot);
+            added.add(slot);
+        }
+        undoOnRollback(() -> {
+            moved.forEach(this::remove);
+            previous.forEach(this::add);
+        });
+    }
+
+    public synchronized void removeKurs(Integer kursId) {
+        List<Slot> previous = slots.values().stream().filter(s -> s.kursId().equals(kursId)).toList();
+        previous.forEach(this::remove);
+        undoOnRollback(() -> previous.forEach(this::add));
+    }
+
+    public synchronized List<Slot> activeSlots() {
+        return List.copyOf(slots.values());
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private void add(Slot slot) {
+        for (Key key : keys(slot)) {
+            trees.computeIfAbsent(key, k -> new IntervalTree<>())
+                    .insert(seconds(slot.startzeit()), seconds(slot.endzeit()), slot.stundenplanId(), slot);
+        }
+        slots.put(slot.stundenplanId(), slot);
+    }
+
+    private void remove(Slot slot) {
+        for (Key key : keys(slot)) {
+            IntervalTree<Slot> tree = trees.get(key);
+            if (tree != null) {
+                tree.remove(seconds(slot.startzeit()), slot.stundenplanId());
+                if (tree.isEmpty()) {
+                    trees.remove(key);
+                }
+            }
+        }
+        slots.remove(slot.stundenplanId());
+    }
+
+    private void undoOnRollback(Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        synchronized (ScheduleConflictIndex.this) {
+                            undo.run();
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private static List<Key> keys(Slot slot) {
+        String tag = slot.wochentag().trim().toLowerCase(Locale.ROOT);
+        List<Key> keys = new ArrayList<>(3);
+        keys.add(new Key(RessourceTyp.kurs, slot.kursId(), tag));
+        if (slot.kursraumId() != null) {
+            keys.add(new Key(RessourceTyp.kursraum, slot.kursraumId(), tag));
+        }
+        if (slot.trainerId() != null) {
+            keys.add(new Key(RessourceTyp.trainer, slot.trainerId(), tag));
+        }
+        return keys;
+    }
+
+    private static int seconds(LocalTime time) {
+        return time.toSecondOfDay();
+    }
+
+    private static ScheduleConflictDto toConflict(Key key, Slot other) {
+        ScheduleConflictDto dto = new ScheduleConflictDto();
+        dto.setRessource(key.typ());
+        dto.setRessourceId(key.id());
+        dto.setStundenplanId(other.stundenplanId());
+        dto.setKursId(other.kursId());
+        dto.setWochentag(other.wochentag());
+        dto.setStartzeit(other.startzeit());
+        dto.setEndzeit(other.endzeit());
+        return dto;
+    }
+
+    private static String describe(ScheduleConflictDto conflict) {
+        return String.format("%s %d is already booked on %s %s-%s (Stundenplan %d, Kurs %d)",
+                conflict.getRessource().getDisplayName(), conflict.getRessourceId(), conflict.getWochentag(),
+                conflict.getStartzeit(), conflict.getEndzeit(), conflict.getStundenplanId(), conflict.getKursId());
+    }
+}
@@ -1,5 +1,6 @@
 package com.bildungsinsitut.deutschkurse.service;
 
+import com.bildungsinsitut.deutschkurse.dto.ScheduleConflictDto;
 import com.bildungsinsitut.deutschkurse.dto.StundenplanDto;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.mapper.StundenplanMapper;
@@ -7,6 +8,7 @@ import com.bildungsinsitut.deutschkurse.model.Kurs;
 import com.bildungsinsitut.deutschkurse.model.Stundenplan;
 import com.bildungsinsitut.deutschkurse.repository.KursRepository;
 import com.bildungsinsitut.deutschkurse.repository.StundenplanRepository;
+import com.bildungsinsitut.deutschkurse.util.Wochentage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -23,6 +25,9 @@ public class StundenplanService {
     private final StundenplanRepository stundenplanRepository;
     private final KursRepository kursRepository;
     private final StundenplanMapper stundenplanMapper;
+    private final ScheduleConflictIndex scheduleConflictIndex;
+    private final KursTerminService kursTerminService;
+    private final KalenderFeedService kalenderFeedService;
 
     /**
      * Get all schedules
@@ -66,25 +71,21 @@ public class StundenplanService {
         if (!stundenplanDto.isValidTimeRange()) {
             throw new IllegalArgumentException("End time must be after start time");
         }
+        Wochentage.parse(stundenplanDto.getWochentag());
 
         // Check if course exists
         Kurs kurs = kursRepository.findById(stundenplanDto.getKursId())
                 .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + stundenplanDto.getKursId()));
 
-        // Check for scheduling conflicts
-        List<Stundenplan> existingSchedules = stundenplanRepository.findByKursId(stundenplanDto.getKursId());
-        for (Stundenplan existing : existingSchedules) {
-            if (existing.getWochentag().equals(stundenplanDto.getWochentag()) &&
-                    existing.getAktiv() &&
-                    hasTimeConflict(existing, stundenplanDto)) {
-                throw new IllegalStateException("Time conflict detected for this course on " + stundenplanDto.getWochentag());
-            }
-        }
-
         Stundenplan stundenplan = stundenplanMapper.toEntity(stundenplanDto);
         stundenplan.setKurs(kurs);
 
         stundenplan = stundenplanRepository.save(stundenplan);
+
+        // Course, room and trainer conflicts; rolls back the insert if the slot is taken
+        scheduleConflictIndex.update(stundenplan);
+        kursTerminService.regenerate(stundenplan);
+        kalenderFeedService.invalidateKurs(kurs);
         log.info("Created new Stundenplan with id: {} for Kurs: {}", stundenplan.getId(), kurs.getKursName());
 
         return stundenplanMapper.toDto(stundenplan);
@@ -101,6 +102,7 @@ public class StundenplanService {
         if (!stundenplanDto.isValidTimeRange()) {
             throw new IllegalArgumentException("End time must be after start time");
         }
+        Wochentage.parse(stundenplanDto.getWochentag());
 
         // Update fields
         stundenplan.setWochentag(stundenplanDto.getWochentag());
@@ -111,12 +113,17 @@ public class StundenplanService {
 
         // Update course if changed
         if (!stundenplan.getKurs().getId().equals(stundenplanDto.getKursId())) {
+            kalenderFeedService.invalidateKurs(stundenplan.getKurs().getId());
             Kurs kurs = kursRepository.findById(stundenplanDto.getKursId())
                     .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + stundenplanDto.getKursId()));
             stundenplan.setKurs(kurs);
         }
 
         stundenplan = stundenplanRepository.save(stundenplan);
+
+        scheduleConflictIndex.update(stundenplan);
+        kursTerminService.regenerate(stundenplan);
+        kalenderFeedService.invalidateKurs(stundenplan.getKurs());
         log.info("Updated Stundenplan with id: {}", id);
 
         return stundenplanMapper.toDto(stundenplan);
@@ -132,14 +139,26 @@ public class StundenplanService {
         // Soft delete - set aktiv to false
         stundenplan.setAktiv(false);
         stundenplanRepository.save(stundenplan);
+        scheduleConflictIndex.remove(id);
+        kursTerminService.regenerate(stundenplan);
+        kalenderFeedService.invalidateKurs(stundenplan.getKurs().getId());
         log.info("Soft deleted Stundenplan with id: {}", id);
     }
 
     /**
-     * Check if there's a time conflict between two schedule entries
+     * Find existing slots that would collide with the given one in its course, room or trainer
      */
-    private boolean hasTimeConflict(Stundenplan existing, StundenplanDto newSchedule) {
-        return !(newSchedule.getEndzeit().isBefore(existing.getStartzeit()) ||
-                newSchedule.getStartzeit().isAfter(existing.getEndzeit()));
+    @Transactional(readOnly = true)
+    public List<ScheduleConflictDto> findConflicts(StundenplanDto stundenplanDto) {
+        if (!stundenplanDto.isValidTimeRange()) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        Kurs kurs = kursRepository.findById(stundenplanDto.getKursId())
+                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + stundenplanDto.getKursId()));
+
+        Stundenplan candidate = stundenplanMapper.toEntity(stundenplanDto);
+        candidate.setId(stundenplanDto.getId() != null ? stundenplanDto.getId() : -1);
+        candidate.setKurs(kurs);
+        return scheduleConflictIndex.findConflicts(candidate);
     }
 }
\ No newline at end of file
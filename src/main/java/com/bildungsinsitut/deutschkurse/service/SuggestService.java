@@ -0,0 +1,188 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.repository.KursRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import com.bildungsinsitut.deutschkurse.util.Suchtext;
+import com.bildungsinsitut.deutschkurse.util.TypeaheadIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Suggestions for the global search box from an in-memory {@link TypeaheadIndex} over active
+ * students, active trainers and all courses. Loaded at startup and kept current by
+ * {@link StammdatenGeaendertEvent}s, which are applied after the publishing transaction commits.
+ * Entries are words of the name and email in search form (see {@link Suchtext}), so "mül"
+ * finds Müller and Mueller; every query word must prefix-match a word of the entry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestService {
+
+    private static final Pattern WORTGRENZE = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TOKENS = 8;
+    private static final int MAX_TOKEN_LENGTH = 32;
+    private static final int MAX_LABEL_LENGTH = 120;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    private static final SuchTyp[] TYPEN = SuchTyp.values();
+
+    private final TeilnehmerRepository teilnehmerRepository;
+    private final TrainerRepository trainerRepository;
+    private final KursRepository kursRepository;
+
+    @Value("${app.suggest.max-scan:5000}")
+    private int maxScan;
+
+    @Value("${app.suggest.merge-threshold:2000}")
+    private int mergeThreshold;
+
+    public record Vorschlag(SuchTyp typ, Integer id, String label, String detail) {
+    }
+
+    public record Statistik(int eintraege, long postingBytes) {
+    }
+
+    private record Eintrag(Vorschlag vorschlag, String[] tokens) {
+    }
+
+    private final Map<Long, Vorschlag> vorschlaege = new ConcurrentHashMap<>();
+    private TypeaheadIndex index;
+
+    @PostConstruct
+    void load() {
+        index = new TypeaheadIndex(mergeThreshold);
+        List<Eintrag> alle = new ArrayList<>();
+        teilnehmerRepository.findSuchEintraege().forEach(t -> alle.add(teilnehmer(t)));
+        trainerRepository.findSuchEintraege().forEach(t -> alle.add(trainer(t)));
+        kursRepository.findSuchEintraege().forEach(k -> alle.add(kurs(k)));
+        Map<Long, String[]> tokens = new HashMap<>();
+        for (Eintrag eintrag : alle) {
+            long key = key(eintrag.vorschlag().typ(), eintrag.vorschlag().id());
+            vorschlaege.put(key, eintrag.vorschlag());
+            tokens.put(key, eintrag.tokens());
+        }
+        index.load(tokens);
+        log.info("Typeahead index loaded with {} entries", alle.size());
+    }
+
+    /**
+     * Best suggestions for what has been typed so far, optionally restricted to some kinds
+     */
+    public List<Vorschlag> suggest(String text, Integer limit, Set<SuchTyp> typen) {
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        String[] query = tokenize(text != null ? text : "");
+        if (query.length == 0) {
+            return List.of();
+        }
+        Set<SuchTyp> erlaubt = typen == null || typen.isEmpty() ? EnumSet.allOf(SuchTyp.class) : EnumSet.copyOf(typen);
+        long[] keys = index.search(query, size, maxScan, key -> erlaubt.contains(typ(key)));
+        List<Vorschlag> result = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            Vorschlag vorschlag = vorschlaege.get(key);
+            if (vorschlag != null) {
+                result.add(vorschlag);
+            }
+        }
+        return result;
+    }
+
+    public Statistik getStatistik() {
+        return new Statistik(index.size(), index.postingBytes());
+    }
+
+    /**
+     * Reload changed entries once their transaction has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onStammdatenGeaendert(StammdatenGeaendertEvent event) {
+        if (event.ids().isEmpty()) {
+            return;
+        }
+        List<Eintrag> aktuell = switch (event.typ()) {
+            case teilnehmer -> teilnehmerRepository.findSuchEintraege(event.ids()).stream().map(SuggestService::teilnehmer).toList();
+            case trainer -> trainerRepository.findSuchEintraege(event.ids()).stream().map(SuggestService::trainer).toList();
+            case kurs -> kursRepository.findSuchEintraege(event.ids()).stream().map(SuggestService::kurs).toList();
+        };
+        Set<Integer> entfernt = new HashSet<>(event.ids());
+        for (Eintrag eintrag : aktuell) {
+            long key = key(eintrag.vorschlag().typ(), eintrag.vorschlag().id());
+            // Map first, then index: a search never returns a key without its entry
+            vorschlaege.put(key, eintrag.vorschlag());
+            index.put(key, eintrag.tokens());
+            entfernt.remove(eintrag.vorschlag().id());
+        }
+        for (Integer id : entfernt) {
+            long key = key(event.typ(), id);
+            index.remove(key);
+            vorschlaege.remove(key);
+        }
+    }
+
+    private static Eintrag teilnehmer(TeilnehmerRepository.SuchEintrag t) {
+        String name = t.getVorname() + " " + t.getNachname();
+        return new Eintrag(new Vorschlag(SuchTyp.teilnehmer, t.getId(), label(name), t.getEmail()),
+                tokenize(name + " " + Objects.toString(t.getEmail(), "")));
+    }
+
+    private static Eintrag trainer(TrainerRepository.SuchEintrag t) {
+        String name = t.getVorname() + " " + t.getNachname();
+        return new Eintrag(new Vorschlag(SuchTyp.trainer, t.getId(), label(name), t.getEmail()),
+                tokenize(name + " " + Objects.toString(t.getEmail(), "")));
+    }
+
+    private static Eintrag kurs(KursRepository.SuchEintrag k) {
+        StringJoiner detail = new StringJoiner(", ");
+        if (k.getKurstypCode() != null) {
+            detail.add(k.getKurstypCode());
+        }
+        if (k.getStatus() != null) {
+            detail.add(k.getStatus().name());
+        }
+        if (k.getStartdatum() != null) {
+            detail.add("ab " + k.getStartdatum());
+        }
+        // The course type code is searchable too, e.g. "b1"
+        return new Eintrag(new Vorschlag(SuchTyp.kurs, k.getId(), label(k.getKursName()), detail.toString()),
+                tokenize(k.getKursName() + " " + Objects.toString(k.getKurstypCode(), "")));
+    }
+
+    static String[] tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String wort : WORTGRENZE.split(Suchtext.normalize(text))) {
+            if (!wort.isEmpty() && tokens.size() < MAX_TOKENS) {
+                tokens.add(wort.length() > MAX_TOKEN_LENGTH ? wort.substring(0, MAX_TOKEN_LENGTH) : wort);
+            }
+        }
+        return tokens.toArray(String[]::new);
+    }
+
+    private static String label(String label) {
+        return label.length() > MAX_LABEL_LENGTH ? label.substring(0, MAX_LABEL_LENGTH) : label;
+    }
+
+    private static long key(SuchTyp typ, Integer id) {
+        return ((long) typ.ordinal() << 32) | (id & 0xffffffffL);
+    }
+
+    private static SuchTyp typ(long key) {
+        return TYPEN[(int) (key >>> 32)];
+    }
+}
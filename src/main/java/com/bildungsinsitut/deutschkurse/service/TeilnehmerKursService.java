@@ -2,7 +2,10 @@ package com.bildungsinsitut.deutschkurse.service;
 
 import com.bildungsinsitut.deutschkurse.dto.TeilnehmerDto;
 import com.bildungsinsitut.deutschkurse.dto.KursDto;
+import com.bildungsinsitut.deutschkurse.enums.AnmeldungStatus;
 import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import com.bildungsinsitut.deutschkurse.enums.WartelisteStatus;
+import com.bildungsinsitut.deutschkurse.event.KursBelegungGeaendertEvent;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.mapper.TeilnehmerMapper;
 import com.bildungsinsitut.deutschkurse.mapper.KursMapper;
@@ -10,12 +13,23 @@ import com.bildungsinsitut.deutschkurse.model.*;
 import com.bildungsinsitut.deutschkurse.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,8 +40,12 @@ public class TeilnehmerKursService {
     private final TeilnehmerKursRepository teilnehmerKursRepository;
     private final TeilnehmerRepository teilnehmerRepository;
     private final KursRepository kursRepository;
+    private final WartelisteRepository wartelisteRepository;
     private final TeilnehmerMapper teilnehmerMapper;
     private final KursMapper kursMapper;
+    private final KalenderFeedService kalenderFeedService;
+    private final AttendanceMatrixService attendanceMatrixService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Enroll a student in a course
@@ -51,8 +69,8 @@ public class TeilnehmerKursService {
             throw new IllegalStateException("Student is already enrolled in this course");
         }
 
-        // Check course capacity
-        if (kurs.getAktuelleTeilnehmer() >= kurs.getMaxTeilnehmer()) {
+        // Take a seat atomically - fails instead of overbooking when the course filled up concurrently
+        if (kursRepository.reserveSeat(kursId) == 0) {
             throw new IllegalStateException("Course is at maximum capacity");
         }
 
@@ -63,22 +81,123 @@ public class TeilnehmerKursService {
         teilnehmerKurs.setAnmeldedatum(LocalDate.now());
         teilnehmerKurs.setStatus(TeilnehmerKursStatus.angemeldet);
 
-        // Save enrollment
-        TeilnehmerKurs saved = teilnehmerKursRepository.save(teilnehmerKurs);
-
-        // Update course participant count
-        kurs.setAktuelleTeilnehmer(kurs.getAktuelleTeilnehmer() + 1);
-        kursRepository.save(kurs);
+        // Save enrollment; the unique constraint catches a concurrent duplicate and the
+        // rollback gives the reserved seat back
+        TeilnehmerKurs saved;
+        try {
+            saved = teilnehmerKursRepository.save(teilnehmerKurs);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Student is already enrolled in this course");
+        }
 
+        kalenderFeedService.invalidateTeilnehmer(teilnehmerId);
+        attendanceMatrixService.invalidateKurs(kursId);
+        eventPublisher.publishEvent(KursBelegungGeaendertEvent.of(kursId));
         log.info("Successfully enrolled student {} in course {}", teilnehmerId, kursId);
         return saved;
     }
 
+    /**
+     * Result of one entry of a batch enrollment
+     */
+    public record EnrollmentResult(Integer teilnehmerId, AnmeldungStatus status, Integer enrollmentId,
+                                   Integer wartelistePosition, String message) {
+    }
+
+    /**
+     * Enroll several students in one course with a single capacity check. The course row is
+     * locked once for the whole batch; requests beyond the free seats go to the waitlist.
+     * Results are returned in the order of the given IDs.
+     */
+    public List<EnrollmentResult> enrollBatch(Integer kursId, List<Integer> teilnehmerIds) {
+        Kurs kurs = kursRepository.findByIdForUpdate(kursId)
+                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + kursId));
+
+        Set<Integer> ids = teilnehmerIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Teilnehmer> teilnehmerById = teilnehmerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Teilnehmer::getId, Function.identity()));
+        Set<Integer> alreadyEnrolled = new HashSet<>(teilnehmerKursRepository.findEnrolledTeilnehmerIds(kursId, ids));
+        Set<Integer> alreadyWaiting = new HashSet<>(wartelisteRepository.findWartendeTeilnehmerIds(kursId, ids));
+
+        int freiePlaetze = Math.max(0, kurs.getMaxTeilnehmer() - kurs.getAktuelleTeilnehmer());
+        long wartende = wartelisteRepository.countByKursIdAndStatus(kursId, WartelisteStatus.wartend);
+
+        EnrollmentResult[] results = new EnrollmentResult[teilnehmerIds.size()];
+        List<Integer> enrolledIndexes = new ArrayList<>();
+        List<TeilnehmerKurs> enrollments = new ArrayList<>();
+        List<Integer> waitingIndexes = new ArrayList<>();
+        List<Warteliste> waiting = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+
+        for (int i = 0; i < teilnehmerIds.size(); i++) {
+            Integer teilnehmerId = teilnehmerIds.get(i);
+            Teilnehmer teilnehmer = teilnehmerId != null ? teilnehmerById.get(teilnehmerId) : null;
+
+            if (teilnehmer == null) {
+                results[i] = rejected(teilnehmerId, "Teilnehmer not found with id: " + teilnehmerId);
+            } else if (!seen.add(teilnehmerId)) {
+                results[i] = rejected(teilnehmerId, "Duplicate enrollment request");
+            } else if (alreadyEnrolled.contains(teilnehmerId)) {
+                results[i] = rejected(teilnehmerId, "Student is already enrolled in this course");
+            } else if (alreadyWaiting.contains(teilnehmerId)) {
+                results[i] = rejected(teilnehmerId, "Student is already on the waitlist for this course");
+            } else if (enrollments.size() < freiePlaetze) {
+                TeilnehmerKurs teilnehmerKurs = new TeilnehmerKurs();
+                teilnehmerKurs.setTeilnehmer(teilnehmer);
+                teilnehmerKurs.setKurs(kurs);
+                teilnehmerKurs.setAnmeldedatum(LocalDate.now());
+                teilnehmerKurs.setStatus(TeilnehmerKursStatus.angemeldet);
+                enrollments.add(teilnehmerKurs);
+                enrolledIndexes.add(i);
+            } else {
+                Warteliste warteliste = new Warteliste();
+                warteliste.setTeilnehmer(teilnehmer);
+                warteliste.setKurs(kurs);
+                warteliste.setStatus(WartelisteStatus.wartend);
+                waiting.add(warteliste);
+                waitingIndexes.add(i);
+            }
+        }
+
+        // The row lock is held, so this cannot fail unless the lock was bypassed
+        if (!enrollments.isEmpty() && kursRepository.reserveSeats(kursId, enrollments.size()) == 0) {
+            throw new IllegalStateException("Course is at maximum capacity");
+        }
+
+        List<TeilnehmerKurs> savedEnrollments = teilnehmerKursRepository.saveAll(enrollments);
+        for (int j = 0; j < savedEnrollments.size(); j++) {
+            int i = enrolledIndexes.get(j);
+            results[i] = new EnrollmentResult(teilnehmerIds.get(i), AnmeldungStatus.angemeldet,
+                    savedEnrollments.get(j).getId(), null, "Student successfully enrolled in course");
+            kalenderFeedService.invalidateTeilnehmer(teilnehmerIds.get(i));
+        }
+
+        if (!enrollments.isEmpty()) {
+            attendanceMatrixService.invalidateKurs(kursId);
+            eventPublisher.publishEvent(KursBelegungGeaendertEvent.of(kursId));
+        }
+
+        wartelisteRepository.saveAll(waiting);
+        for (int j = 0; j < waitingIndexes.size(); j++) {
+            int i = waitingIndexes.get(j);
+            results[i] = new EnrollmentResult(teilnehmerIds.get(i), AnmeldungStatus.warteliste,
+                    null, (int) wartende + j + 1, "Course is full, student added to the waitlist");
+        }
+
+        log.info("Batch enrollment for course {}: {} enrolled, {} waitlisted, {} rejected", kursId,
+                enrollments.size(), waiting.size(),
+                teilnehmerIds.size() - enrollments.size() - waiting.size());
+        return Arrays.asList(results);
+    }
+
     /**
      * Remove a student from a course
      */
     public void removeTeilnehmerFromKurs(Integer teilnehmerId, Integer kursId) {
         log.info("Removing student {} from course {}", teilnehmerId, kursId);
+        lockKurs(kursId);
 
         // Find the enrollment
         TeilnehmerKurs teilnehmerKurs = teilnehmerKursRepository
@@ -86,20 +205,21 @@ public class TeilnehmerKursService {
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Enrollment not found for student " + teilnehmerId + " in course " + kursId));
 
-        // Get the course to update participant count
-        Kurs kurs = teilnehmerKurs.getKurs();
+        boolean heldSeat = holdsSeat(teilnehmerKurs.getStatus());
 
         // Set withdrawal date and update status
         teilnehmerKurs.setAbmeldedatum(LocalDate.now());
         teilnehmerKurs.setStatus(TeilnehmerKursStatus.abgebrochen);
         teilnehmerKursRepository.save(teilnehmerKurs);
 
-        // Update course participant count
-        if (kurs.getAktuelleTeilnehmer() > 0) {
-            kurs.setAktuelleTeilnehmer(kurs.getAktuelleTeilnehmer() - 1);
-            kursRepository.save(kurs);
+        // Hand the seat to the next waitlisted student, or release it - only if this enrollment was still counted
+        if (heldSeat) {
+            releaseSeatOrPromote(kursId);
         }
 
+        kalenderFeedService.invalidateTeilnehmer(teilnehmerId);
+        // The roster changed, and a promoted student joined it
+        attendanceMatrixService.invalidateKurs(kursId);
         log.info("Successfully removed student {} from course {}", teilnehmerId, kursId);
     }
 
@@ -136,12 +256,28 @@ public class TeilnehmerKursService {
      */
     public TeilnehmerKurs updateEnrollmentStatus(Integer teilnehmerId, Integer kursId,
                                                  TeilnehmerKursStatus newStatus) {
+        lockKurs(kursId);
         TeilnehmerKurs teilnehmerKurs = teilnehmerKursRepository
                 .findByTeilnehmerIdAndKursId(teilnehmerId, kursId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Enrollment not found for student " + teilnehmerId + " in course " + kursId));
 
+        // Keep the course counter in step with the enrollments that hold a seat
+        boolean heldSeat = holdsSeat(teilnehmerKurs.getStatus());
+        boolean needsSeat = holdsSeat(newStatus);
+        if (needsSeat && !heldSeat) {
+            if (kursRepository.reserveSeat(kursId) == 0) {
+                throw new IllegalStateException("Course is at maximum capacity");
+            }
+            eventPublisher.publishEvent(KursBelegungGeaendertEvent.of(kursId));
+        }
+        if (heldSeat && !needsSeat) {
+            releaseSeatOrPromote(kursId);
+        }
+
         teilnehmerKurs.setStatus(newStatus);
+        kalenderFeedService.invalidateTeilnehmer(teilnehmerId);
+        attendanceMatrixService.invalidateKurs(kursId);
 
         // Set appropriate dates based on status
         if (newStatus == TeilnehmerKursStatus.abgeschlossen ||
@@ -174,4 +310,63 @@ public class TeilnehmerKursService {
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Enrollment not found for student " + teilnehmerId + " in course " + kursId));
     }
-}
\ No newline at end of file
+
+    /**
+     * Enrollments in these states occupy a seat in aktuelle_teilnehmer
+     */
+    private boolean holdsSeat(TeilnehmerKursStatus status) {
+        return status == TeilnehmerKursStatus.angemeldet || status == TeilnehmerKursStatus.aktiv;
+    }
+
+    /**
+     * Seat changes of a course are serialized on its row, like enrollBatch. Otherwise two concurrent
+     * withdrawals can both find the head of the waitlist taken by the other and release their seats
+     * while students are still waiting.
+     */
+    private void lockKurs(Integer kursId) {
+        kursRepository.findByIdForUpdate(kursId)
+                .orElseThrow(() -> new ResourceNotFoundException("Kurs not found with id: " + kursId));
+    }
+
+    /**
+     * A seat was freed: enroll the next waitlisted student in it, or give it back to the course.
+     * The seat changes hands without touching the counter. Callers hold the course row lock.
+     */
+    private void releaseSeatOrPromote(Integer kursId) {
+        Optional<Warteliste> next;
+        while ((next = wartelisteRepository.findFirstByKursIdAndStatusOrderByIdAsc(
+                kursId, WartelisteStatus.wartend)).isPresent()) {
+            Warteliste warteliste = next.get();
+            Integer teilnehmerId = warteliste.getTeilnehmer().getId();
+
+            if (teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId).isPresent()) {
+                // Enrolled through another path in the meantime
+                warteliste.setStatus(WartelisteStatus.storniert);
+                wartelisteRepository.save(warteliste);
+                continue;
+            }
+
+            TeilnehmerKurs teilnehmerKurs = new TeilnehmerKurs();
+            teilnehmerKurs.setTeilnehmer(warteliste.getTeilnehmer());
+            teilnehmerKurs.setKurs(warteliste.getKurs());
+            teilnehmerKurs.setAnmeldedatum(LocalDate.now());
+            teilnehmerKurs.setStatus(TeilnehmerKursStatus.angemeldet);
+            teilnehmerKursRepository.save(teilnehmerKurs);
+
+            warteliste.setStatus(WartelisteStatus.nachgerueckt);
+            warteliste.setNachgeruecktAm(LocalDateTime.now());
+            wartelisteRepository.save(warteliste);
+
+            kalenderFeedService.invalidateTeilnehmer(teilnehmerId);
+            log.info("Promoted student {} from the waitlist of course {}", teilnehmerId, kursId);
+            return;
+        }
+
+        kursRepository.releaseSeat(kursId);
+        eventPublisher.publishEvent(KursBelegungGeaendertEvent.of(kursId));
+    }
+
+    private EnrollmentResult rejected(Integer teilnehmerId, String message) {
+        return new EnrollmentResult(teilnehmerId, AnmeldungStatus.abgelehnt, null, null, message);
+    }
+}
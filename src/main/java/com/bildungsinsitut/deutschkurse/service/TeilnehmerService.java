@@ -1,16 +1,27 @@
 package com.bildungsinsitut.deutschkurse.service;
 
+import com.bildungsinsitut.deutschkurse.dto.CursorPage;
 import com.bildungsinsitut.deutschkurse.dto.TeilnehmerDto;
+import com.bildungsinsitut.deutschkurse.dto.TeilnehmerFilter;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.mapper.TeilnehmerMapper;
 import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
+import com.bildungsinsitut.deutschkurse.repository.ListSpecifications;
 import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import com.bildungsinsitut.deutschkurse.util.CursorCodec;
+import com.bildungsinsitut.deutschkurse.util.Suchtext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,14 +29,34 @@ import java.util.List;
 @Transactional
 public class TeilnehmerService {
 
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     private final TeilnehmerRepository teilnehmerRepository;
     private final TeilnehmerMapper teilnehmerMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Outcome of one imported student: the new id, or the id of the existing student with the same email */
+    public record ImportTreffer(Integer id, boolean vorhanden) {
+    }
 
     @Transactional(readOnly = true)
     public List<TeilnehmerDto> getAllTeilnehmer() {
         return teilnehmerMapper.toDtoList(teilnehmerRepository.findByAktivTrue());
     }
 
+    /**
+     * Keyset-paginated, filterable student list ordered by id
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TeilnehmerDto> getTeilnehmerPage(TeilnehmerFilter filter, String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<Teilnehmer> rows = teilnehmerRepository.findBy(
+                ListSpecifications.teilnehmer(filter).and(ListSpecifications.idAfter(CursorCodec.decodeId(cursor))),
+                q -> q.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        return CursorPage.of(rows, pageSize, teilnehmerMapper::toDtoList, t -> CursorCodec.encodeId(t.getId()));
+    }
+
     @Transactional(readOnly = true)
     public TeilnehmerDto getTeilnehmerById(Integer id) {
         Teilnehmer teilnehmer = teilnehmerRepository.findById(id)
@@ -37,9 +68,48 @@ public class TeilnehmerService {
         Teilnehmer teilnehmer = teilnehmerMapper.toEntity(teilnehmerDto);
         teilnehmer = teilnehmerRepository.save(teilnehmer);
         log.info("Created new Teilnehmer with id: {}", teilnehmer.getId());
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.teilnehmer, teilnehmer.getId()));
         return teilnehmerMapper.toDto(teilnehmer);
     }
 
+    /**
+     * Create students in JDBC batches. A student whose email (case-insensitive) already exists is
+     * not created again but matched to the existing record. Returns one result per input, in order.
+     */
+    public List<ImportTreffer> importTeilnehmer(List<TeilnehmerDto> teilnehmerDtos) {
+        Set<String> emails = teilnehmerDtos.stream()
+                .map(TeilnehmerDto::getEmail)
+                .filter(Objects::nonNull)
+                .map(email -> email.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        Map<String, Integer> vorhanden = emails.isEmpty() ? Map.of() : teilnehmerRepository.findIdsByEmailIn(emails)
+                .stream()
+                .collect(Collectors.toMap(TeilnehmerRepository.EmailTreffer::getEmail,
+                        TeilnehmerRepository.EmailTreffer::getId));
+
+        ImportTreffer[] result = new ImportTreffer[teilnehmerDtos.size()];
+        List<Teilnehmer> neu = new ArrayList<>();
+        List<Integer> neuIndexes = new ArrayList<>();
+        for (int i = 0; i < teilnehmerDtos.size(); i++) {
+            TeilnehmerDto dto = teilnehmerDtos.get(i);
+            Integer id = dto.getEmail() != null ? vorhanden.get(dto.getEmail().trim().toLowerCase(Locale.ROOT)) : null;
+            if (id != null) {
+                result[i] = new ImportTreffer(id, true);
+            } else {
+                neu.add(teilnehmerMapper.toEntity(dto));
+                neuIndexes.add(i);
+            }
+        }
+
+        List<Integer> ids = teilnehmerRepository.insertBatch(neu);
+        for (int j = 0; j < ids.size(); j++) {
+            result[neuIndexes.get(j)] = new ImportTreffer(ids.get(j), false);
+        }
+        eventPublisher.publishEvent(new StammdatenGeaendertEvent(SuchTyp.teilnehmer, ids));
+        log.info("Imported {} new Teilnehmer, matched {} existing", ids.size(), result.length - ids.size());
+        return Arrays.asList(result);
+    }
+
     public TeilnehmerDto updateTeilnehmer(Integer id, TeilnehmerDto teilnehmerDto) {
         Teilnehmer teilnehmer = teilnehmerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Teilnehmer not found with id: " + id));
@@ -58,6 +128,7 @@ public class TeilnehmerService {
 
         teilnehmer = teilnehmerRepository.save(teilnehmer);
         log.info("Updated Teilnehmer with id: {}", id);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.teilnehmer, id));
         return teilnehmerMapper.toDto(teilnehmer);
     }
 
@@ -69,18 +140,38 @@ public class TeilnehmerService {
         teilnehmer.setAktiv(false);
         teilnehmerRepository.save(teilnehmer);
         log.info("Soft deleted Teilnehmer with id: {}", id);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.teilnehmer, id));
     }
 
+    /**
+     * Students whose name is similar to the search text, best match first; tolerates typos and
+     * umlaut spellings (Müller, Mueller)
+     */
     @Transactional(readOnly = true)
-    public List<TeilnehmerDto> searchTeilnehmerByName(String name) {
-        List<Teilnehmer> teilnehmer = teilnehmerRepository
-                .findByVornameContainingIgnoreCaseOrNachnameContainingIgnoreCase(name, name);
-        return teilnehmerMapper.toDtoList(teilnehmer);
+    public List<TeilnehmerDto> searchTeilnehmerByName(String name, Integer limit) {
+        return search(name, limit, teilnehmerRepository::searchByName);
     }
 
+    /**
+     * Students whose email is similar to the search text, best match first
+     */
     @Transactional(readOnly = true)
-    public List<TeilnehmerDto> searchTeilnehmerByEmail(String email) {
-        List<Teilnehmer> teilnehmer = teilnehmerRepository.findByEmailContainingIgnoreCase(email);
-        return teilnehmerMapper.toDtoList(teilnehmer);
+    public List<TeilnehmerDto> searchTeilnehmerByEmail(String email, Integer limit) {
+        return search(email, limit, teilnehmerRepository::searchByEmail);
+    }
+
+    private List<TeilnehmerDto> search(String text, Integer limit, BiFunction<String, Integer, List<Integer>> suche) {
+        String suchtext = Suchtext.normalize(text != null ? text.trim() : "");
+        if (suchtext.isEmpty()) {
+            return List.of();
+        }
+        int size = limit != null ? limit : DEFAULT_SEARCH_LIMIT;
+        if (size < 1 || size > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        List<Integer> ids = suche.apply(suchtext, size);
+        Map<Integer, Teilnehmer> byId = teilnehmerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Teilnehmer::getId, t -> t));
+        return teilnehmerMapper.toDtoList(ids.stream().map(byId::get).filter(Objects::nonNull).toList());
     }
-}
\ No newline at end of file
+}
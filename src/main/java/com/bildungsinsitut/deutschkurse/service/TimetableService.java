@@ -0,0 +1,218 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.TimetableProposalDto;
+import com.bildungsinsitut.deutschkurse.dto.TimetableRequest;
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.RessourceTyp;
+import com.bildungsinsitut.deutschkurse.enums.TrainerStatus;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Kursraum;
+import com.bildungsinsitut.deutschkurse.model.Trainer;
+import com.bildungsinsitut.deutschkurse.repository.KursRepository;
+import com.bildungsinsitut.deutschkurse.repository.KursraumRepository;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Booking;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Course;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Placement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Proposes a weekly schedule for a set of courses. Only reads data: the proposal is applied
+ * through the regular Stundenplan endpoints, which re-check every slot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class TimetableService {
+
+    private final KursRepository kursRepository;
+    private final KursraumRepository kursraumRepository;
+    private final ScheduleConflictIndex scheduleConflictIndex;
+    private final TaskExecutor timetableExecutor;
+
+    @Value("${app.timetable.threads:0}")
+    private int threads;
+
+    @Value("${app.timetable.default-time-limit-seconds:5}")
+    private int defaultTimeLimitSeconds;
+
+    public TimetableProposalDto propose(TimetableRequest request) {
+        Grid grid = Grid.of(request);
+        TimetableProposalDto proposal = new TimetableProposalDto();
+
+        List<Integer> kursIds = request.getKurse().stream().map(TimetableRequest.KursBedarf::getKursId).toList();
+        if (new HashSet<>(kursIds).size() != kursIds.size()) {
+            throw new IllegalArgumentException("Each course may only be listed once");
+        }
+        Map<Integer, Kurs> kurse = kursRepository.findByIdIn(kursIds).stream()
+                .collect(Collectors.toMap(Kurs::getId, Function.identity()));
+        List<Kursraum> raeume = kursraumRepository.findByVerfuegbarTrue();
+
+        List<Course> courses = new ArrayList<>();
+        for (TimetableRequest.KursBedarf bedarf : request.getKurse()) {
+            Kurs kurs = kurse.get(bedarf.getKursId());
+            String problem = checkSchedulable(kurs, bedarf.getKursId());
+            int[] rooms = kurs == null ? new int[0] : raeume.stream()
+                    .filter(raum -> capacity(raum) >= Optional.ofNullable(kurs.getMaxTeilnehmer()).orElse(0))
+                    .mapToInt(Kursraum::getId)
+                    .toArray();
+            if (problem == null && rooms.length == 0) {
+                problem = "No available room with capacity for " + kurs.getMaxTeilnehmer() + " participants";
+            }
+            if (problem != null) {
+                proposal.getUnassigned().add(new TimetableProposalDto.Unassigned(bedarf.getKursId(), problem));
+                continue;
+            }
+            int sessions = (bedarf.getWochenstunden() * 60 + grid.blockMinutes() - 1) / grid.blockMinutes();
+            courses.add(new Course(kurs.getId(), kurs.getTrainer().getId(), sessions, grid.blockCells(), rooms,
+                    kurs.getKursraum() != null ? kurs.getKursraum().getId() : -1));
+        }
+        if (courses.isEmpty()) {
+            proposal.setFeasible(proposal.getUnassigned().isEmpty());
+            return proposal;
+        }
+
+        int runs = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int timeLimitSeconds = request.getTimeLimitSeconds() != null ? request.getTimeLimitSeconds() : defaultTimeLimitSeconds;
+        long start = System.currentTimeMillis();
+        TimetableSolver.Solution solution = TimetableSolver.solve(
+                new TimetableSolver.Problem(courses, grid.days().size(), grid.cellsPerDay(), bookings(grid, kurse)),
+                timetableExecutor, runs, timeLimitSeconds * 1000L, ThreadLocalRandom.current().nextLong());
+
+        proposal.setDurationMs(System.currentTimeMillis() - start);
+        proposal.setHardConflicts(solution.hardViolations());
+        proposal.setSoftPenalty(solution.softPenalty());
+        proposal.setFeasible(solution.feasible() && proposal.getUnassigned().isEmpty());
+        solution.placements().stream()
+                .sorted(Comparator.comparingInt(Placement::kursId)
+                        .thenComparingInt(Placement::day)
+                        .thenComparingInt(Placement::startCell))
+                .map(placement -> toAssignment(placement, kurse.get(placement.kursId()), grid))
+                .forEach(proposal.getAssignments()::add);
+
+        log.info("Timetable proposal for {} courses in {} ms: {} hard conflicts, soft penalty {}",
+                courses.size(), proposal.getDurationMs(), solution.hardViolations(), solution.softPenalty());
+        return proposal;
+    }
+
+    private String checkSchedulable(Kurs kurs, Integer kursId) {
+        if (kurs == null) {
+            return "Kurs not found with id: " + kursId;
+        }
+        if (kurs.getStatus() == KursStatusType.abgeschlossen || kurs.getStatus() == KursStatusType.abgebrochen) {
+            return "Course is " + kurs.getStatus();
+        }
+        Trainer trainer = kurs.getTrainer();
+        if (trainer == null || !Boolean.TRUE.equals(trainer.getAktiv()) || trainer.getStatus() == TrainerStatus.abwesend) {
+            return "Trainer is not available";
+        }
+        return null;
+    }
+
+    // Existing slots of other courses block their room and trainer if they run at the same time as
+    // one of the planned courses; slots of the planned courses are replaced. The index holds no
+    // slots of finished or cancelled courses.
+    private List<Booking> bookings(Grid grid, Map<Integer, Kurs> planned) {
+        List<Booking> bookings = new ArrayList<>();
+        for (ScheduleConflictIndex.Slot slot : scheduleConflictIndex.activeSlots()) {
+            int day = grid.dayIndex(slot.wochentag());
+            boolean concurrent = planned.values().stream().anyMatch(kurs -> ScheduleConflictIndex.overlaps(
+                    slot.startdatum(), slot.enddatum(), kurs.getStartdatum(), kurs.getEnddatum()));
+            if (day < 0 || planned.containsKey(slot.kursId()) || !concurrent) {
+                continue;
+            }
+            int from = grid.cellAtOrBefore(slot.startzeit());
+            int to = grid.cellAtOrAfter(slot.endzeit());
+            if (slot.kursraumId() != null) {
+                bookings.add(new Booking(RessourceTyp.kursraum, slot.kursraumId(), day, from, to));
+            }
+            if (slot.trainerId() != null) {
+                bookings.add(new Booking(RessourceTyp.trainer, slot.trainerId(), day, from, to));
+            }
+        }
+        return bookings;
+    }
+
+    private TimetableProposalDto.Assignment toAssignment(Placement placement, Kurs kurs, Grid grid) {
+        TimetableProposalDto.Assignment assignment = new TimetableProposalDto.Assignment();
+        assignment.setKursId(kurs.getId());
+        assignment.setKursName(kurs.getKursName());
+        assignment.setKursraumId(placement.roomId());
+        assignment.setKursraumGeaendert(kurs.getKursraum() == null || kurs.getKursraum().getId() != placement.roomId());
+        assignment.setTrainerId(kurs.getTrainer().getId());
+        assignment.setWochentag(grid.days().get(placement.day()));
+        assignment.setStartzeit(grid.timeOf(placement.startCell()));
+        assignment.setEndzeit(grid.timeOf(placement.startCell() + placement.length()));
+        return assignment;
+    }
+
+    private static int capacity(Kursraum raum) {
+        return raum.getKapazitaet() != null ? raum.getKapazitaet() : 0;
+    }
+
+    /**
+     * Time grid of the request: days, cells of rasterMinuten between tagesbeginn and tagesende
+     */
+    private record Grid(List<String> days, LocalTime dayStart, int cellMinutes, int cellsPerDay, int blockMinutes) {
+
+        static Grid of(TimetableRequest request) {
+            List<String> days = request.getWochentage();
+            if (days == null || days.isEmpty()) {
+                throw new IllegalArgumentException("At least one weekday is required");
+            }
+            int dayMinutes = (request.getTagesende().toSecondOfDay() - request.getTagesbeginn().toSecondOfDay()) / 60;
+            int cell = request.getRasterMinuten();
+            int block = request.getBlockMinuten();
+            if (dayMinutes <= 0) {
+                throw new IllegalArgumentException("End of day must be after start of day");
+            }
+            if (block % cell != 0 || dayMinutes % cell != 0) {
+                throw new IllegalArgumentException("Block length and day length must be multiples of the grid");
+            }
+            if (block > dayMinutes) {
+                throw new IllegalArgumentException("Block length must not exceed the length of the day");
+            }
+            return new Grid(List.copyOf(days), request.getTagesbeginn(), cell, dayMinutes / cell, block);
+        }
+
+        int blockCells() {
+            return blockMinutes / cellMinutes;
+        }
+
+        int dayIndex(String wochentag) {
+            for (int i = 0; i < days.size(); i++) {
+                if (days.get(i).trim().equalsIgnoreCase(wochentag.trim())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int cellAtOrBefore(LocalTime time) {
+            return Math.floorDiv(minutesFromStart(time), cellMinutes);
+        }
+
+        int cellAtOrAfter(LocalTime time) {
+            return Math.floorDiv(minutesFromStart(time) + cellMinutes - 1, cellMinutes);
+        }
+
+        LocalTime timeOf(int cell) {
+            return dayStart.plusMinutes((long) cell * cellMinutes);
+        }
+
+        private int minutesFromStart(LocalTime time) {
+            return (time.toSecondOfDay() - dayStart.toSecondOfDay()) / 60;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.RessourceTyp;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local-search timetable solver. Time is a grid of equal cells per weekday; every course needs a
+ * number of sessions of fixed length in one room. Hard constraints: no room, trainer or fixed
+ * booking is used twice in the same cell. Soft constraints: sessions of a course on different
+ * days, and keeping the course's current room. A greedy construction is improved with late
+ * acceptance hill climbing; several independent searches run in parallel and the best one wins.
+ */
+public final class TimetableSolver {
+
+    private static final int HARD_WEIGHT = 10_000;
+    private static final int ROOM_CHANGE_PENALTY = 2;
+    private static final int HISTORY_LENGTH = 2_000;
+    // A feasible search stops after this many iterations without a new best score
+    private static final long STAGNATION_LIMIT = 2_000_000L;
+
+    /**
+     * @param rooms ids of the rooms the course may use
+     * @param preferredRoom the course's current room id, or -1
+     */
+    public record Course(int kursId, int trainerId, int sessions, int length, int[] rooms, int preferredRoom) {
+    }
+
+    /**
+     * A fixed booking of a room or trainer in cells [fromCell, toCell) of a day
+     */
+    public record Booking(RessourceTyp typ, int ressourceId, int day, int fromCell, int toCell) {
+    }
+
+    public record Problem(List<Course> courses, int days, int cellsPerDay, List<Booking> bookings) {
+    }
+
+    public record Placement(int kursId, int roomId, int day, int startCell, int length) {
+    }
+
+    public record Solution(List<Placement> placements, int hardViolations, int softPenalty) {
+
+        public boolean feasible() {
+            return hardViolations == 0;
+        }
+
+        long score() {
+            return (long) hardViolations * HARD_WEIGHT + softPenalty;
+        }
+    }
+
+    private TimetableSolver() {
+    }
+
+    /**
+     * Run {@code runs} searches with different seeds on the executor and return the best result;
+     * each search gets the time limit from when it starts running, so time spent waiting in the
+     * executor's queue behind other proposals does not cut it short. Stops early once a search
+     * finds a solution without penalties.
+     */
+    public static Solution solve(Problem problem, Executor executor, int runs, long timeLimitMs, long seed) {
+        long timeLimitNanos = timeLimitMs * 1_000_000L;
+        AtomicBoolean perfect = new AtomicBoolean();
+
+        List<CompletableFuture<Solution>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, runs); i++) {
+            long runSeed = seed + i * 0x9E3779B97F4A7C15L;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> new Search(problem, runSeed, System.nanoTime() + timeLimitNanos, perfect).run(), executor));
+        }
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .min(Comparator.comparingLong(Solution::score))
+                .orElseThrow();
+    }
+
+    /**
+     * One single-threaded search over mutable occupancy arrays
+     */
+    private static final class Search {
+
+        private final Problem problem;
+        private final SplittableRandom random;
+        private final long deadline;
+        private final AtomicBoolean perfect;
+
+        private final int cells;
+        private final Course[] courses;
+        private final int[][] courseRoomCandidates;
+        private final int[] courseTrainer;
+        private final int[] coursePreferredRoom;
+        private final int[] roomIds;
+
+        // Occupancy counters per room / trainer and cell (day * cellsPerDay + cell)
+        private final int[][] roomOccupancy;
+        private final int[][] trainerOccupancy;
+        private final int[][] courseDays;
+
+        private final int[] sessionCourse;
+        private final int[] sessionDay;
+        private final int[] sessionStart;
+        private final int[][] courseSessions;
+        private final int[] courseRoom;
+
+        private int hard;
+        private int soft;
+
+        Search(Problem problem, long seed, long deadline, AtomicBoolean perfect) {
+            this.problem = problem;
+            this.random = new SplittableRandom(seed);
+            this.deadline = deadline;
+            this.perfect = perfect;
+            this.cells = problem.days() * problem.cellsPerDay();
+            this.courses = problem.courses().toArray(Course[]::new);
+
+            Map<Integer, Integer> roomIndex = new HashMap<>();
+            Map<Integer, Integer> trainerIndex = new HashMap<>();
+            courseRoomCandidates = new int[courses.length][];
+            courseTrainer = new int[courses.length];
+            coursePreferredRoom = new int[courses.length];
+            int sessionCount = 0;
+            for (int c = 0; c < courses.length; c++) {
+                Course course = courses[c];
+                if (course.rooms().length == 0 || course.length() > problem.cellsPerDay()) {
+                    throw new IllegalArgumentException("Kurs " + course.kursId() + " cannot be placed in any room or time slot");
+                }
+                courseRoomCandidates[c] = Arrays.stream(course.rooms())
+                        .map(id -> roomIndex.computeIfAbsent(id, k -> roomIndex.size()))
+                        .toArray();
+                courseTrainer[c] = trainerIndex.computeIfAbsent(course.trainerId(), k -> trainerIndex.size());
+                coursePreferredRoom[c] = course.preferredRoom() >= 0 && roomIndex.containsKey(course.preferredRoom())
+                        ? roomIndex.get(course.preferredRoom()) : -1;
+                sessionCount += course.sessions();
+            }
+            roomIds = new int[roomIndex.size()];
+            roomIndex.forEach((id, index) -> roomIds[index] = id);
+
+            roomOccupancy = new int[roomIndex.size()][cells];
+            trainerOccupancy = new int[trainerIndex.size()][cells];
+            courseDays = new int[courses.length][problem.days()];
+
+            sessionCourse = new int[sessionCount];
+            sessionDay = new int[sessionCount];
+            sessionStart = new int[sessionCount];
+            courseSessions = new int[courses.length][];
+            courseRoom = new int[courses.length];
+            Arrays.fill(courseRoom, -1);
+            int s = 0;
+            for (int c = 0; c < courses.length; c++) {
+                courseSessions[c] = new int[courses[c].sessions()];
+                for (int k = 0; k < courses[c].sessions(); k++) {
+                    sessionCourse[s] = c;
+                    courseSessions[c][k] = s++;
+                }
+            }
+
+            // Fixed bookings count as occupied cells; only rooms and trainers in the problem matter
+            for (Booking booking : problem.bookings()) {
+                Integer index = booking.typ() == RessourceTyp.kursraum
+                        ? roomIndex.get(booking.ressourceId())
+                        : booking.typ() == RessourceTyp.trainer ? trainerIndex.get(booking.ressourceId()) : null;
+                if (index == null) {
+                    continue;
+                }
+                int[] occupancy = booking.typ() == RessourceTyp.kursraum ? roomOccupancy[index] : trainerOccupancy[index];
+                int base = booking.day() * problem.cellsPerDay();
+                for (int cell = Math.max(0, booking.fromCell()); cell < Math.min(problem.cellsPerDay(), booking.toCell()); cell++) {
+                    occupancy[base + cell]++;
+                }
+            }
+        }
+
+        Solution run() {
+            construct();
+            return improve();
+        }
+
+        /**
+         * Greedy start: most constrained courses first, each into the room and slots that add the least penalty
+         */
+        private void construct() {
+            Integer[] order = new Integer[courses.length];
+            for (int c = 0; c < courses.length; c++) {
+                order[c] = c;
+            }
+            Arrays.sort(order, Comparator
+                    .comparingInt((Integer c) -> courseRoomCandidates[c].length)
+                    .thenComparing(c -> -courses[c].sessions() * courses[c].length()));
+
+            for (int c : order) {
+                int bestRoom = -1;
+                long bestScore = Long.MAX_VALUE;
+                for (int room : courseRoomCandidates[c]) {
+                    long before = score();
+                    setRoom(c, room);
+                    placeGreedily(c);
+                    long added = score() - before;
+                    unplace(c);
+                    if (added < bestScore || (added == bestScore && random.nextBoolean())) {
+                        bestScore = added;
+                        bestRoom = room;
+                    }
+                }
+                setRoom(c, bestRoom);
+                placeGreedily(c);
+            }
+        }
+
+        private void placeGreedily(int c) {
+            int length = courses[c].length();
+            int starts = problem.cellsPerDay() - length + 1;
+            int positions = problem.days() * starts;
+            for (int s : courseSessions[c]) {
+                int bestPosition = 0;
+                long bestScore = Long.MAX_VALUE;
+                int offset = random.nextInt(positions);
+                for (int i = 0; i < positions; i++) {
+                    int position = (offset + i) % positions;
+                    sessionDay[s] = position / starts;
+                    sessionStart[s] = position % starts;
+                    occupy(s, 1);
+                    long candidate = score();
+                    occupy(s, -1);
+                    if (candidate < bestScore) {
+                        bestScore = candidate;
+                        bestPosition = position;
+                    }
+                }
+                sessionDay[s] = bestPosition / starts;
+                sessionStart[s] = bestPosition % starts;
+                occupy(s, 1);
+            }
+        }
+
+        private void unplace(int c) {
+            for (int s : courseSessions[c]) {
+                occupy(s, -1);
+            }
+        }
+
+        /**
+         * Late acceptance hill climbing over "move a session" and "change a course's room" moves
+         */
+        private Solution improve() {
+            long current = score();
+            long best = current;
+            Solution bestSolution = snapshot();
+            long[] history = new long[HISTORY_LENGTH];
+            Arrays.fill(history, current);
+            long lastImprovement = 0;
+
+            for (long iteration = 0; ; iteration++) {
+                if ((iteration & 1023) == 0
+                        && (best == 0 || perfect.get() || System.nanoTime() >= deadline
+                        || (best < HARD_WEIGHT && iteration - lastImprovement > STAGNATION_LIMIT))) {
+                    break;
+                }
+                if (sessionCourse.length == 0) {
+                    break;
+                }
+
+                long candidate;
+                Runnable undo;
+                int c = -1;
+                if (random.nextInt(10) == 0) {
+                    c = random.nextInt(courses.length);
+                }
+                if (c >= 0 && courseRoomCandidates[c].length > 1) {
+                    int course = c;
+                    int previousRoom = courseRoom[course];
+                    int room = courseRoomCandidates[course][random.nextInt(courseRoomCandidates[course].length)];
+                    unplace(course);
+                    setRoom(course, room);
+                    replace(course);
+                    candidate = score();
+                    undo = () -> {
+                        unplace(course);
+                        setRoom(course, previousRoom);
+                        replace(course);
+                    };
+                } else {
+                    int s = pickSession();
+                    int previousDay = sessionDay[s];
+                    int previousStart = sessionStart[s];
+                    occupy(s, -1);
+                    sessionDay[s] = random.nextInt(problem.days());
+                    sessionStart[s] = random.nextInt(problem.cellsPerDay() - courses[sessionCourse[s]].length() + 1);
+                    occupy(s, 1);
+                    candidate = score();
+                    undo = () -> {
+                        occupy(s, -1);
+                        sessionDay[s] = previousDay;
+                        sessionStart[s] = previousStart;
+                        occupy(s, 1);
+                    };
+                }
+
+                int slot = (int) (iteration % HISTORY_LENGTH);
+                if (candidate <= current || candidate <= history[slot]) {
+                    current = candidate;
+                    if (current < best) {
+                        best = current;
+                        bestSolution = snapshot();
+                        lastImprovement = iteration;
+                    }
+                } else {
+                    undo.run();
+                }
+                history[slot] = current;
+            }
+
+            if (best == 0) {
+                perfect.set(true);
+            }
+            return bestSolution;
+        }
+
+        // Prefer sessions that are part of a conflict while there are any
+        private int pickSession() {
+            int s = random.nextInt(sessionCourse.length);
+            if (hard == 0) {
+                return s;
+            }
+            for (int attempt = 0; attempt < 16; attempt++) {
+                if (inConflict(s)) {
+                    return s;
+                }
+                s = random.nextInt(sessionCourse.length);
+            }
+            return s;
+        }
+
+        private boolean inConflict(int s) {
+            int c = sessionCourse[s];
+            int base = sessionDay[s] * problem.cellsPerDay() + sessionStart[s];
+            int[] room = roomOccupancy[courseRoom[c]];
+            int[] trainer = trainerOccupancy[courseTrainer[c]];
+            for (int k = 0; k < courses[c].length(); k++) {
+                if (room[base + k] > 1 || trainer[base + k] > 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void replace(int c) {
+            for (int s : courseSessions[c]) {
+                occupy(s, 1);
+            }
+        }
+
+        private void setRoom(int c, int room) {
+            int preferred = coursePreferredRoom[c];
+            if (preferred >= 0 && courseRoom[c] != preferred && courseRoom[c] >= 0) {
+                soft -= ROOM_CHANGE_PENALTY;
+            }
+            courseRoom[c] = room;
+            if (preferred >= 0 && room != preferred) {
+                soft += ROOM_CHANGE_PENALTY;
+            }
+        }
+
+        private void occupy(int s, int delta) {
+            int c = sessionCourse[s];
+            int base = sessionDay[s] * problem.cellsPerDay() + sessionStart[s];
+            int[] room = roomOccupancy[courseRoom[c]];
+            int[] trainer = trainerOccupancy[courseTrainer[c]];
+            for (int k = 0; k < courses[c].length(); k++) {
+                change(room, base + k, delta);
+                change(trainer, base + k, delta);
+            }
+            int[] days = courseDays[c];
+            if (delta > 0) {
+                if (days[sessionDay[s]]++ >= 1) {
+                    soft++;
+                }
+            } else if (--days[sessionDay[s]] >= 1) {
+                soft--;
+            }
+        }
+
+        // Violations per cell are max(0, count - 1)
+        private void change(int[] occupancy, int cell, int delta) {
+            if (delta > 0) {
+                if (occupancy[cell]++ >= 1) {
+                    hard++;
+                }
+            } else if (--occupancy[cell] >= 1) {
+                hard--;
+            }
+        }
+
+        private long score() {
+            return (long) hard * HARD_WEIGHT + soft;
+        }
+
+        private Solution snapshot() {
+            List<Placement> placements = new ArrayList<>(sessionCourse.length);
+            for (int s = 0; s < sessionCourse.length; s++) {
+                Course course = courses[sessionCourse[s]];
+                placements.add(new Placement(course.kursId(), roomIds[courseRoom[sessionCourse[s]]],
+                        sessionDay[s], sessionStart[s], course.length()));
+            }
+            return new Solution(placements, hard, soft);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory deny list of revoked access token ids (jti). A Bloom filter answers the common
+ * "not revoked" case without touching the exact map; hits are confirmed against the exact map.
+ * Entries are only kept until the revoked token would have expired anyway, so the size is bounded
+ * by revocations per access token lifetime.
+ */
+@Service
+@Slf4j
+public class TokenDenyList {
+
+    @Value("${app.auth.deny-list.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.auth.deny-list.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // jti -> expiry of the revoked token (epoch millis)
+    private final Map<String, Long> denied = new ConcurrentHashMap<>();
+
+    // Only ever replaced by a completely filled filter, so lookups never need the exact map for a miss
+    private volatile BloomFilter filter;
+
+    // Serializes writes with a rebuild, so no jti can land in a filter that is about to be replaced
+    private final Object writeLock = new Object();
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Deny a token id until the token's own expiry
+     */
+    public void deny(String jti, long expiresAtMillis) {
+        if (jti == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        // Map first, then filter: a lookup that sees the filter bit also sees the map entry
+        synchronized (writeLock) {
+            denied.put(jti, expiresAtMillis);
+            filter.add(jti);
+        }
+        if (denied.size() > expectedEntries) {
+            log.warn("Token deny list holds {} entries (sized for {}), false positive rate is degrading",
+                    denied.size(), expectedEntries);
+        }
+    }
+
+    public boolean isDenied(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (!filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = denied.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Drop entries of tokens that have expired and rebuild the filter without them
+     */
+    @Scheduled(fixedDelayString = "${app.auth.deny-list.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before;
+        int after;
+        synchronized (writeLock) {
+            before = denied.size();
+            denied.values().removeIf(expiresAt -> expiresAt <= now);
+            after = denied.size();
+            if (after == before) {
+                return;
+            }
+            BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+            denied.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+        }
+        log.debug("Purged {} expired entries from token deny list", before - after);
+    }
+
+    public int size() {
+        return denied.size();
+    }
+}
@@ -1,11 +1,19 @@
 package com.bildungsinsitut.deutschkurse.service;
 
+import com.bildungsinsitut.deutschkurse.dto.CursorPage;
 import com.bildungsinsitut.deutschkurse.dto.TrainerDto;
+import com.bildungsinsitut.deutschkurse.dto.TrainerFilter;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
 import com.bildungsinsitut.deutschkurse.enums.TrainerStatus;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.mapper.TrainerMapper;
 import com.bildungsinsitut.deutschkurse.model.Trainer;
+import com.bildungsinsitut.deutschkurse.repository.ListSpecifications;
 import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import com.bildungsinsitut.deutschkurse.util.CursorCodec;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,16 +25,34 @@ public class TrainerService {
 
     private final TrainerRepository trainerRepository;
     private final TrainerMapper trainerMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TrainerService(TrainerRepository trainerRepository, TrainerMapper trainerMapper) {
+    public TrainerService(TrainerRepository trainerRepository, TrainerMapper trainerMapper,
+                          ApplicationEventPublisher eventPublisher) {
         this.trainerRepository = trainerRepository;
         this.trainerMapper = trainerMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<TrainerDto> getAllTrainer() {
         return trainerMapper.toDtoList(trainerRepository.findByAktivTrue());
     }
 
+    /**
+     * Keyset-paginated, filterable trainer list ordered by id
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TrainerDto> getTrainerPage(TrainerFilter filter, String cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<Trainer> rows = trainerRepository.findBy(
+                ListSpecifications.trainer(filter).and(ListSpecifications.idAfter(CursorCodec.decodeId(cursor))),
+                q -> q.project("abteilung")
+                        .sortBy(Sort.by("id"))
+                        .limit(pageSize + 1)
+                        .all());
+        return CursorPage.of(rows, pageSize, trainerMapper::toDtoList, t -> CursorCodec.encodeId(t.getId()));
+    }
+
     public TrainerDto getTrainerById(Integer id) {
         Trainer trainer = trainerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Trainer not found with id: " + id));
@@ -41,6 +67,7 @@ public class TrainerService {
     public TrainerDto createTrainer(TrainerDto trainerDto) {
         Trainer trainer = trainerMapper.toEntity(trainerDto);
         trainer = trainerRepository.save(trainer);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.trainer, trainer.getId()));
         return trainerMapper.toDto(trainer);
     }
 
@@ -59,6 +86,7 @@ public class TrainerService {
         trainer.setAktiv(trainerDto.getAktiv());
 
         trainer = trainerRepository.save(trainer);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.trainer, id));
         return trainerMapper.toDto(trainer);
     }
 
@@ -67,6 +95,7 @@ public class TrainerService {
                 .orElseThrow(() -> new ResourceNotFoundException("Trainer not found with id: " + id));
         trainer.setAktiv(false);
         trainerRepository.save(trainer);
+        eventPublisher.publishEvent(StammdatenGeaendertEvent.of(SuchTyp.trainer, id));
     }
 
     // Keep this method for backward compatibility (returns entities)
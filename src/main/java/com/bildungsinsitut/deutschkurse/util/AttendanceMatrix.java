@@ -0,0 +1,250 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attendance of one course as bitsets: one row per student, one bit per calendar day since a base
+ * date. A student row holds three bitsets (recorded, present, excused) and the course keeps the
+ * union of recorded days as its session days. Streak queries walk the session bits backwards and
+ * do not allocate. Thread-safe; all methods synchronize on the matrix.
+ */
+public final class AttendanceMatrix {
+
+    /** Cell codes of {@link #raster}: present, excused, absent without excuse, no record */
+    public static final char ANWESEND = 'A';
+    public static final char ENTSCHULDIGT = 'E';
+    public static final char FEHLEND = 'F';
+    public static final char OFFEN = '.';
+
+    public record Zeile(Integer teilnehmerId, String zellen) {
+    }
+
+    public record Raster(List<LocalDate> daten, List<Zeile> zeilen) {
+    }
+
+    /** Current streak of a student: consecutive most recent sessions present or absent (one of them is 0) */
+    public record Serie(Integer teilnehmerId, int anwesendInFolge, int fehlendInFolge) {
+    }
+
+    private final LocalDate basis;
+    private final long basisTag;
+    private final Map<Integer, Integer> zeilen = new HashMap<>();
+    private int[] teilnehmerIds = new int[8];
+    private long[][] erfasst = new long[8][];
+    private long[][] anwesend = new long[8][];
+    private long[][] entschuldigt = new long[8][];
+    private long[] sitzungen;
+    private int anzahl;
+
+    public AttendanceMatrix(LocalDate basis, int tageKapazitaet) {
+        this.basis = basis;
+        this.basisTag = basis.toEpochDay();
+        this.sitzungen = new long[Math.max(1, (tageKapazitaet + 63) / 64)];
+    }
+
+    public LocalDate getBasis() {
+        return basis;
+    }
+
+    /**
+     * Add a student without records, e.g. a freshly loaded enrollment
+     */
+    public synchronized void addTeilnehmer(Integer teilnehmerId) {
+        zeile(teilnehmerId);
+    }
+
+    /**
+     * Store the attendance of one student on one day. Returns false if the day lies before the
+     * base date; the caller then has to rebuild the matrix with an earlier base.
+     */
+    public synchronized boolean set(Integer teilnehmerId, LocalDate datum, boolean istAnwesend, boolean istEntschuldigt) {
+        long tag = datum.toEpochDay() - basisTag;
+        if (tag < 0 || tag > Integer.MAX_VALUE - 64) {
+            return false;
+        }
+        int bit = (int) tag;
+        ensureTage(bit + 1);
+        int zeile = zeile(teilnehmerId);
+        int wort = bit >>> 6;
+        long maske = 1L << bit;
+        erfasst[zeile][wort] |= maske;
+        anwesend[zeile][wort] = istAnwesend ? anwesend[zeile][wort] | maske : anwesend[zeile][wort] & ~maske;
+        entschuldigt[zeile][wort] = istEntschuldigt
+                ? entschuldigt[zeile][wort] | maske : entschuldigt[zeile][wort] & ~maske;
+        sitzungen[wort] |= maske;
+        return true;
+    }
+
+    /**
+     * Remove the record of one student on one day; the day stops being a session day once no
+     * student has a record on it
+     */
+    public synchronized void clear(Integer teilnehmerId, LocalDate datum) {
+        Integer zeile = zeilen.get(teilnehmerId);
+        long tag = datum.toEpochDay() - basisTag;
+        if (zeile == null || tag < 0 || tag >= (long) sitzungen.length * 64) {
+            return;
+        }
+        int wort = (int) (tag >>> 6);
+        long maske = 1L << tag;
+        erfasst[zeile][wort] &= ~maske;
+        anwesend[zeile][wort] &= ~maske;
+        entschuldigt[zeile][wort] &= ~maske;
+        for (int i = 0; i < anzahl; i++) {
+            if ((erfasst[i][wort] & maske) != 0) {
+                return;
+            }
+        }
+        sitzungen[wort] &= ~maske;
+    }
+
+    /**
+     * Grid of all students over the session days between von and bis (inclusive), rows ordered by student id
+     */
+    public synchronized Raster raster(LocalDate von, LocalDate bis) {
+        int erster = (int) Math.max(0, von.toEpochDay() - basisTag);
+        long letzter = Math.min(bis.toEpochDay() - basisTag, (long) sitzungen.length * 64 - 1);
+        List<Integer> tage = new ArrayList<>();
+        for (int tag = erster; tag <= letzter; tag++) {
+            if ((sitzungen[tag >>> 6] & (1L << tag)) != 0) {
+                tage.add(tag);
+            }
+        }
+
+        int[] reihenfolge = Arrays.copyOf(teilnehmerIds, anzahl);
+        Arrays.sort(reihenfolge);
+        List<Zeile> result = new ArrayList<>(anzahl);
+        char[] zellen = new char[tage.size()];
+        for (int teilnehmerId : reihenfolge) {
+            int zeile = zeilen.get(teilnehmerId);
+            for (int i = 0; i < zellen.length; i++) {
+                zellen[i] = zelle(zeile, tage.get(i));
+            }
+            result.add(new Zeile(teilnehmerId, new String(zellen)));
+        }
+        return new Raster(tage.stream().map(basis::plusDays).toList(), result);
+    }
+
+    /**
+     * Current streaks of all students whose absence streak is at least minFehlend, ordered by student id
+     */
+    public synchronized List<Serie> serien(int minFehlend) {
+        List<Serie> result = new ArrayList<>();
+        for (int zeile = 0; zeile < anzahl; zeile++) {
+            int serie = serie(zeile);
+            int fehlend = serie < 0 ? -serie : 0;
+            if (fehlend >= minFehlend) {
+                result.add(new Serie(teilnehmerIds[zeile], Math.max(serie, 0), fehlend));
+            }
+        }
+        result.sort((a, b) -> Integer.compare(a.teilnehmerId(), b.teilnehmerId()));
+        return result;
+    }
+
+    /**
+     * Current streak of one student: positive for consecutive present sessions, negative for
+     * consecutive absences (excused or not), counted back from the latest session. Sessions
+     * without a record for the student are skipped.
+     */
+    public synchronized int serie(Integer teilnehmerId) {
+        Integer zeile = zeilen.get(teilnehmerId);
+        return zeile != null ? serie(zeile.intValue()) : 0;
+    }
+
+    public synchronized int getTeilnehmerAnzahl() {
+        return anzahl;
+    }
+
+    public synchronized int getSitzungsAnzahl() {
+        int count = 0;
+        for (long wort : sitzungen) {
+            count += Long.bitCount(wort);
+        }
+        return count;
+    }
+
+    /**
+     * Approximate heap usage in bytes (64-bit JVM with compressed references)
+     */
+    public synchronized long footprintBytes() {
+        long zeilenArrays = 3L * (16 + 4L * erfasst.length);
+        long bitsets = 3L * anzahl * (16 + 8L * sitzungen.length) + 16 + 8L * sitzungen.length;
+        long ids = 16 + 4L * teilnehmerIds.length;
+        // HashMap node plus boxed key and value, and the table slot
+        long index = 48 + anzahl * (32 + 16 + 16 + 4L);
+        return 64 + zeilenArrays + bitsets + ids + index;
+    }
+
+    private int serie(int zeile) {
+        long[] e = erfasst[zeile];
+        long[] a = anwesend[zeile];
+        int count = 0;
+        boolean richtung = false;
+        for (int wort = sitzungen.length - 1; wort >= 0; wort--) {
+            long bits = sitzungen[wort] & e[wort];
+            while (bits != 0) {
+                int bit = 63 - Long.numberOfLeadingZeros(bits);
+                bits &= ~(1L << bit);
+                boolean istAnwesend = (a[wort] & (1L << bit)) != 0;
+                if (count == 0) {
+                    richtung = istAnwesend;
+                } else if (istAnwesend != richtung) {
+                    return richtung ? count : -count;
+                }
+                count++;
+            }
+        }
+        return richtung ? count : -count;
+    }
+
+    private char zelle(int zeile, int tag) {
+        int wort = tag >>> 6;
+        long maske = 1L << tag;
+        if ((erfasst[zeile][wort] & maske) == 0) {
+            return OFFEN;
+        }
+        if ((anwesend[zeile][wort] & maske) != 0) {
+            return ANWESEND;
+        }
+        return (entschuldigt[zeile][wort] & maske) != 0 ? ENTSCHULDIGT : FEHLEND;
+    }
+
+    private int zeile(Integer teilnehmerId) {
+        Integer zeile = zeilen.get(teilnehmerId);
+        if (zeile != null) {
+            return zeile;
+        }
+        if (anzahl == teilnehmerIds.length) {
+            int kapazitaet = anzahl * 2;
+            teilnehmerIds = Arrays.copyOf(teilnehmerIds, kapazitaet);
+            erfasst = Arrays.copyOf(erfasst, kapazitaet);
+            anwesend = Arrays.copyOf(anwesend, kapazitaet);
+            entschuldigt = Arrays.copyOf(entschuldigt, kapazitaet);
+        }
+        teilnehmerIds[anzahl] = teilnehmerId;
+        erfasst[anzahl] = new long[sitzungen.length];
+        anwesend[anzahl] = new long[sitzungen.length];
+        entschuldigt[anzahl] = new long[sitzungen.length];
+        zeilen.put(teilnehmerId, anzahl);
+        return anzahl++;
+    }
+
+    private void ensureTage(int tage) {
+        int woerter = (tage + 63) / 64;
+        if (woerter <= sitzungen.length) {
+            return;
+        }
+        woerter = Math.max(woerter, sitzungen.length * 2);
+        sitzungen = Arrays.copyOf(sitzungen, woerter);
+        for (int i = 0; i < anzahl; i++) {
+            erfasst[i] = Arrays.copyOf(erfasst[i], woerter);
+            anwesend[i] = Arrays.copyOf(anwesend[i], woerter);
+            entschuldigt[i] = Arrays.copyOf(entschuldigt[i], woerter);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV records (RFC 4180) one at a time from a stream. Quoted fields may contain the
+ * delimiter, doubled quotes and line breaks. The delimiter is taken from the first line: a
+ * semicolon if it contains one and no comma (spreadsheet exports with German locale), a comma
+ * otherwise. A leading byte order mark is skipped.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final char delimiter;
+    private long record;
+
+    public CsvReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+        this.delimiter = detectDelimiter();
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * Number of the record last returned by {@link #next()}, starting at 1 for the header
+     */
+    public long getRecord() {
+        return record;
+    }
+
+    /**
+     * The next record, or null at the end of the input. Blank lines are skipped.
+     */
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    append(field, c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                empty = false;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                empty = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (empty && field.isEmpty()) {
+                    continue;
+                }
+                break;
+            } else {
+                append(field, c);
+                empty = false;
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field in record " + (record + 1));
+        }
+        if (c == -1 && empty && field.isEmpty()) {
+            return null;
+        }
+        fields.add(field.toString());
+        record++;
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void append(StringBuilder field, int c) throws IOException {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IOException("Field too long in record " + (record + 1));
+        }
+        field.append((char) c);
+    }
+
+    private char detectDelimiter() throws IOException {
+        reader.mark(8192);
+        boolean comma = false;
+        boolean semicolon = false;
+        int c;
+        for (int i = 0; i < 8192 && (c = reader.read()) != -1 && c != '\n' && c != '\r'; i++) {
+            comma |= c == ',';
+            semicolon |= c == ';';
+        }
+        reader.reset();
+        return semicolon && !comma ? ';' : ',';
+    }
+}
@@ -0,0 +1,67 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursor strings
+ */
+public final class CursorCodec {
+
+    /**
+     * Position in a list ordered by (datum, id)
+     */
+    public record DatumId(LocalDate datum, Integer id) {
+    }
+
+    private CursorCodec() {
+    }
+
+    public static String encodeId(Integer id) {
+        return encode(String.valueOf(id));
+    }
+
+    public static Integer decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static String encodeDatumId(LocalDate datum, Integer id) {
+        return encode(datum + ":" + id);
+    }
+
+    public static DatumId decodeDatumId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor).split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            return new DatumId(LocalDate.parse(parts[0]), Integer.valueOf(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
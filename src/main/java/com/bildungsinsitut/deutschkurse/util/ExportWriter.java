@@ -0,0 +1,119 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import com.bildungsinsitut.deutschkurse.enums.ExportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes rows of a fixed column list as CSV (RFC 4180, with header line) or NDJSON (one JSON
+ * object per line) straight to an output stream. Nothing but the current row is held in memory.
+ * Closing the writer flushes it but leaves the underlying stream open.
+ */
+public abstract class ExportWriter implements Closeable {
+
+    protected final List<String> columns;
+
+    private ExportWriter(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public static ExportWriter open(ExportFormat format, OutputStream out, List<String> columns,
+                                    JsonFactory jsonFactory) throws IOException {
+        return switch (format) {
+            case csv -> new Csv(out, columns);
+            case ndjson -> new Ndjson(out, columns, jsonFactory);
+        };
+    }
+
+    /**
+     * Write one row; values are given in column order
+     */
+    public abstract void row(Object... values) throws IOException;
+
+    private static final class Csv extends ExportWriter {
+
+        private final Writer writer;
+
+        Csv(OutputStream out, List<String> columns) throws IOException {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            row(columns.toArray());
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(cell(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String cell(Object value) {
+            if (value == null) {
+                return "";
+            }
+            String text = value.toString();
+            // Spreadsheet apps evaluate text starting like a formula; numbers are safe
+            if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class Ndjson extends ExportWriter {
+
+        private final JsonGenerator generator;
+
+        Ndjson(OutputStream out, List<String> columns, JsonFactory jsonFactory) throws IOException {
+            super(columns);
+            this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void row(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                generator.writeFieldName(columns.get(i));
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Integer number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof BigDecimal number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal RFC 5545 content-line writer: CRLF line endings, TEXT escaping and folding of lines
+ * longer than 75 octets
+ */
+public class IcsWriter {
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final StringBuilder out = new StringBuilder();
+
+    /**
+     * Property whose value is already in iCalendar syntax (dates, recurrence rules, parameters)
+     */
+    public IcsWriter property(String name, String value) {
+        fold(name + ":" + value);
+        return this;
+    }
+
+    /**
+     * Property of type TEXT; the value is escaped
+     */
+    public IcsWriter text(String name, String value) {
+        return property(name, escape(value));
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "");
+    }
+
+    private void fold(String line) {
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int length = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + length > MAX_LINE_OCTETS) {
+                // Continuation lines start with a space, which counts towards their length
+                out.append("\r\n ");
+                octets = 1;
+            }
+            out.appendCodePoint(codePoint);
+            octets += length;
+            i += Character.charCount(codePoint);
+        }
+        out.append("\r\n");
+    }
+}
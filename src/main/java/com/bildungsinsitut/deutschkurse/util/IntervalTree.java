@@ -0,0 +1,185 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AVL-balanced interval tree over half-open integer intervals [start, end). Each node stores the
+ * largest end in its subtree, so overlap queries skip subtrees that end before the query starts:
+ * insert and remove are O(log n), finding the k overlapping intervals is O(log n + k).
+ * Entries are identified by (start, id); not thread-safe.
+ */
+public class IntervalTree<V> {
+
+    private static final class Node<V> {
+        final int start;
+        final int end;
+        final int id;
+        final V value;
+        int maxEnd;
+        int height = 1;
+        Node<V> left;
+        Node<V> right;
+
+        Node(int start, int end, int id, V value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<V> root;
+    private int size;
+
+    public void insert(int start, int end, int id, V value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Interval end must be after start");
+        }
+        root = insert(root, new Node<>(start, end, id, value));
+        size++;
+    }
+
+    /**
+     * Remove the entry with the given start and id; returns false if there is none
+     */
+    public boolean remove(int start, int id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * All values whose interval overlaps [start, end); touching intervals do not overlap
+     */
+    public List<V> findOverlapping(int start, int end) {
+        List<V> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void collect(Node<V> node, int start, int end, List<V> result) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, result);
+        if (node.start < end) {
+            if (start < node.end) {
+                result.add(node.value);
+            }
+            // Right subtree starts at or after node.start, so it can only overlap if node.start < end
+            collect(node.right, start, end, result);
+        }
+    }
+
+    private Node<V> insert(Node<V> node, Node<V> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private Node<V> remove(Node<V> node, int start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    private Node<V> removeMin(Node<V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int compare(int start, int id, Node<?> node) {
+        int cmp = Integer.compare(start, node.start);
+        return cmp != 0 ? cmp : Integer.compare(id, node.id);
+    }
+
+    private Node<V> rebalance(Node<V> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<V> rotateRight(Node<V> node) {
+        Node<V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<V> rotateLeft(Node<V> node) {
+        Node<V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = Math.max(node.end, Math.max(maxEnd(node.left), maxEnd(node.right)));
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int maxEnd(Node<?> node) {
+        return node == null ? Integer.MIN_VALUE : node.maxEnd;
+    }
+}
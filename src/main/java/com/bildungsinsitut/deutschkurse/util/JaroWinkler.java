@@ -0,0 +1,61 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+/**
+ * Jaro-Winkler similarity of two strings, from 0 (nothing in common) to 1 (equal). Tolerant of
+ * single typos and transpositions and weighted towards a common prefix, which suits names.
+ */
+public final class JaroWinkler {
+
+    private JaroWinkler() {
+    }
+
+    public static double similarity(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        int fenster = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] treffenA = new boolean[a.length()];
+        boolean[] treffenB = new boolean[b.length()];
+        int treffer = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int von = Math.max(0, i - fenster);
+            int bis = Math.min(b.length() - 1, i + fenster);
+            for (int j = von; j <= bis; j++) {
+                if (!treffenB[j] && a.charAt(i) == b.charAt(j)) {
+                    treffenA[i] = true;
+                    treffenB[j] = true;
+                    treffer++;
+                    break;
+                }
+            }
+        }
+        if (treffer == 0) {
+            return 0.0;
+        }
+
+        int vertauscht = 0;
+        int j = 0;
+        for (int i = 0; i < a.length(); i++) {
+            if (treffenA[i]) {
+                while (!treffenB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    vertauscht++;
+                }
+                j++;
+            }
+        }
+        double m = treffer;
+        double jaro = (m / a.length() + m / b.length() + (m - vertauscht / 2.0) / m) / 3.0;
+
+        int praefix = 0;
+        while (praefix < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(praefix) == b.charAt(praefix)) {
+            praefix++;
+        }
+        return jaro + praefix * 0.1 * (1.0 - jaro);
+    }
+}
@@ -2,6 +2,7 @@ package com.bildungsinsitut.deutschkurse.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,6 +12,8 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
@@ -20,12 +23,22 @@ public class JwtUtil {
     @Value("${app.jwt.secret:mySecretKey12345678901234567890123456789012345678901234567890}")
     private String jwtSecret;
 
-    @Value("${app.jwt.expiration:86400000}") // 24 hours in milliseconds
+    @Value("${app.jwt.expiration:900000}") // 15 minutes in milliseconds; sessions are extended via refresh tokens
     private long jwtExpirationMs;
 
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        // Both are immutable and thread-safe - build them once instead of on every call
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -43,6 +56,7 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
@@ -65,39 +79,34 @@ public class JwtUtil {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (JwtException e) {
             log.error("JWT parsing error: {}", e.getMessage());
             throw e;
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verify signature and expiry in a single parse and return the claims, or empty if the token is invalid
+     */
+    public Optional<Claims> parseValidToken(String token) {
+        try {
+            return Optional.of(jwtParser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT rejected: {}", e.getMessage());
+            return Optional.empty();
+        }
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        } catch (JwtException e) {
-            log.error("JWT validation error: {}", e.getMessage());
-            return false;
-        }
+        // The parser already rejects expired tokens
+        return parseValidToken(token)
+                .map(claims -> userDetails.getUsername().equals(claims.getSubject()))
+                .orElse(false);
     }
 
     public Boolean validateToken(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (JwtException e) {
-            log.error("JWT validation error: {}", e.getMessage());
-            return false;
-        }
+        return parseValidToken(token).isPresent();
     }
 
     public long getExpirationTime() {
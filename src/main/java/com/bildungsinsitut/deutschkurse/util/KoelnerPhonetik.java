@@ -0,0 +1,73 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+/**
+ * Kölner Phonetik: a phonetic code for German names. Letters that sound alike map to the same
+ * digit, repeated digits collapse and vowels are dropped except at the start, so "Mohammed" and
+ * "Muhammad" both encode to "662", "Meier" and "Mayer" to "67".
+ */
+public final class KoelnerPhonetik {
+
+    private KoelnerPhonetik() {
+    }
+
+    public static String encode(String wert) {
+        if (wert == null) {
+            return "";
+        }
+        String text = Suchtext.normalize(wert);
+        StringBuilder roh = new StringBuilder(text.length() + 1);
+        char vorher = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 'a' || c > 'z') {
+                // Word boundary: the next letter is treated as initial again
+                vorher = 0;
+                continue;
+            }
+            char danach = i + 1 < text.length() ? text.charAt(i + 1) : 0;
+            String code = code(c, vorher, danach);
+            roh.append(code);
+            vorher = c;
+        }
+
+        StringBuilder result = new StringBuilder(roh.length());
+        char letzte = 0;
+        for (int i = 0; i < roh.length(); i++) {
+            char c = roh.charAt(i);
+            if (c != letzte && (c != '0' || result.isEmpty())) {
+                result.append(c);
+            }
+            letzte = c;
+        }
+        return result.toString();
+    }
+
+    private static String code(char c, char vorher, char danach) {
+        return switch (c) {
+            case 'a', 'e', 'i', 'j', 'o', 'u', 'y' -> "0";
+            case 'h' -> "";
+            case 'b' -> "1";
+            case 'p' -> danach == 'h' ? "3" : "1";
+            case 'd', 't' -> danach == 'c' || danach == 's' || danach == 'z' ? "8" : "2";
+            case 'f', 'v', 'w' -> "3";
+            case 'g', 'k', 'q' -> "4";
+            case 'c' -> c(vorher, danach);
+            case 'x' -> vorher == 'c' || vorher == 'k' || vorher == 'q' ? "8" : "48";
+            case 'l' -> "5";
+            case 'm', 'n' -> "6";
+            case 'r' -> "7";
+            case 's', 'z' -> "8";
+            default -> "";
+        };
+    }
+
+    private static String c(char vorher, char danach) {
+        if (vorher == 0) {
+            return "ahkloqrux".indexOf(danach) >= 0 ? "4" : "8";
+        }
+        if (vorher == 's' || vorher == 'z') {
+            return "8";
+        }
+        return "ahkoqux".indexOf(danach) >= 0 ? "4" : "8";
+    }
+}
@@ -0,0 +1,39 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.util.Locale;
+
+/**
+ * Search form of names and emails: lower case, umlauts and sharp s spelled out (ü → ue, ß → ss),
+ * common accents dropped. Mirrors the suchtext() SQL function behind the trigram indexes, so
+ * "Müller", "Mueller" and "MÜLLER" all search as "mueller".
+ */
+public final class Suchtext {
+
+    private static final String AKZENTE = "áàâãåéèêëíìîïóòôõúùûçñ";
+    private static final String OHNE_AKZENTE = "aaaaaeeeeiiiiooooouuucn";
+
+    private Suchtext() {
+    }
+
+    public static String normalize(String wert) {
+        if (wert == null) {
+            return null;
+        }
+        String lower = wert.toLowerCase(Locale.ROOT);
+        StringBuilder result = new StringBuilder(lower.length() + 4);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ä' -> result.append("ae");
+                case 'ö' -> result.append("oe");
+                case 'ü' -> result.append("ue");
+                case 'ß' -> result.append("ss");
+                default -> {
+                    int akzent = AKZENTE.indexOf(c);
+                    result.append(akzent >= 0 ? OHNE_AKZENTE.charAt(akzent) : c);
+                }
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,272 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Prefix index from word tokens to entry keys. The bulk of the postings lives in two parallel
+ * sorted arrays (token, key), searched by binary search; changes since the last merge sit in a
+ * small sorted overlay, and keys changed since then are masked in the arrays. Once the overlay
+ * reaches the merge threshold, both are merged into new arrays in one linear pass. A posting costs
+ * one reference and one long in the arrays; token strings are shared with the per-key token lists.
+ * Thread-safe; searches share a read lock.
+ */
+public final class TypeaheadIndex {
+
+    private static final String[] NO_TOKENS = new String[0];
+    private static final long[] NO_KEYS = new long[0];
+
+    private record Posting(String token, long key) implements Comparable<Posting> {
+
+        @Override
+        public int compareTo(Posting other) {
+            int cmp = token.compareTo(other.token);
+            return cmp != 0 ? cmp : Long.compare(key, other.key);
+        }
+    }
+
+    private final int mergeThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String[]> tokensByKey = new HashMap<>();
+    private final TreeSet<Posting> overlay = new TreeSet<>();
+    private final Set<Long> masked = new HashSet<>();
+    private String[] tokens = NO_TOKENS;
+    private long[] keys = NO_KEYS;
+
+    public TypeaheadIndex(int mergeThreshold) {
+        this.mergeThreshold = mergeThreshold;
+    }
+
+    /**
+     * Replace the whole index content
+     */
+    public void load(Map<Long, String[]> entries) {
+        List<Posting> postings = new ArrayList<>();
+        entries.forEach((key, entryTokens) -> {
+            for (String token : entryTokens) {
+                postings.add(new Posting(token, key));
+            }
+        });
+        postings.sort(null);
+        String[] newTokens = new String[postings.size()];
+        long[] newKeys = new long[postings.size()];
+        for (int i = 0; i < newTokens.length; i++) {
+            newTokens[i] = postings.get(i).token();
+            newKeys[i] = postings.get(i).key();
+        }
+
+        lock.writeLock().lock();
+        try {
+            tokensByKey.clear();
+            tokensByKey.putAll(entries);
+            overlay.clear();
+            masked.clear();
+            tokens = newTokens;
+            keys = newKeys;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert or replace the tokens of one entry
+     */
+    public void put(long key, String[] entryTokens) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            tokensByKey.put(key, entryTokens);
+            for (String token : entryTokens) {
+                overlay.add(new Posting(token, key));
+            }
+            if (overlay.size() >= mergeThreshold) {
+                merge();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit keys whose tokens start with every query token, in token order of the longest
+     * query token (exact word matches first), keeping only keys accepted by the filter. At most
+     * maxScan postings are looked at, which bounds the latency of very short queries.
+     */
+    public long[] search(String[] query, int limit, int maxScan, LongPredicate filter) {
+        if (query.length == 0 || limit <= 0) {
+            return NO_KEYS;
+        }
+        String prefix = query[0];
+        for (String token : query) {
+            if (token.length() > prefix.length()) {
+                prefix = token;
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] result = new long[limit];
+            int count = 0;
+            Set<Long> seen = new HashSet<>();
+            int i = lowerBound(prefix);
+            Iterator<Posting> delta = overlay.tailSet(new Posting(prefix, Long.MIN_VALUE), true).iterator();
+            Posting next = nextMatch(delta, prefix);
+
+            for (int scanned = 0; scanned < maxScan && count < limit; scanned++) {
+                boolean inArrays = i < tokens.length && tokens[i].startsWith(prefix);
+                if (!inArrays && next == null) {
+                    break;
+                }
+                long key;
+                if (inArrays && (next == null || tokens[i].compareTo(next.token()) <= 0)) {
+                    key = keys[i++];
+                    if (masked.contains(key)) {
+                        continue;
+                    }
+                } else {
+                    key = next.key();
+                    next = nextMatch(delta, prefix);
+                }
+                if (filter.test(key) && matchesAll(tokensByKey.get(key), query) && seen.add(key)) {
+                    result[count++] = key;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tokensByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap usage in bytes of the postings (arrays and overlay), without token strings
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            return 32 + 12L * tokens.length + 80L * overlay.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long key) {
+        String[] previous = tokensByKey.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous) {
+            overlay.remove(new Posting(token, key));
+        }
+        masked.add(key);
+    }
+
+    /**
+     * Merge the unmasked array postings with the overlay into new arrays
+     */
+    private void merge() {
+        int size = 0;
+        for (long key : keys) {
+            if (!masked.contains(key)) {
+                size++;
+            }
+        }
+        size += overlay.size();
+        String[] newTokens = new String[size];
+        long[] newKeys = new long[size];
+
+        int i = 0;
+        int n = 0;
+        for (Posting posting : overlay) {
+            while (i < tokens.length && compare(tokens[i], keys[i], posting) < 0) {
+                n = copy(i++, newTokens, newKeys, n);
+            }
+            newTokens[n] = posting.token();
+            newKeys[n++] = posting.key();
+        }
+        while (i < tokens.length) {
+            n = copy(i++, newTokens, newKeys, n);
+        }
+
+        tokens = newTokens;
+        keys = newKeys;
+        overlay.clear();
+        masked.clear();
+    }
+
+    private int copy(int i, String[] newTokens, long[] newKeys, int n) {
+        if (masked.contains(keys[i])) {
+            return n;
+        }
+        newTokens[n] = tokens[i];
+        newKeys[n] = keys[i];
+        return n + 1;
+    }
+
+    private static int compare(String token, long key, Posting posting) {
+        int cmp = token.compareTo(posting.token());
+        return cmp != 0 ? cmp : Long.compare(key, posting.key());
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Posting nextMatch(Iterator<Posting> delta, String prefix) {
+        if (delta.hasNext()) {
+            Posting posting = delta.next();
+            if (posting.token().startsWith(prefix)) {
+                return posting;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesAll(String[] entryTokens, String[] query) {
+        if (entryTokens == null) {
+            return false;
+        }
+        for (String wanted : query) {
+            boolean found = false;
+            for (String token : entryTokens) {
+                if (token.startsWith(wanted)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,37 @@
+package com.bildungsinsitut.deutschkurse.util;
+
+import java.time.DayOfWeek;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mapping between the German weekday names stored in Stundenplan.wochentag and {@link DayOfWeek}
+ */
+public final class Wochentage {
+
+    private static final Map<String, DayOfWeek> BY_NAME = Map.of(
+            "montag", DayOfWeek.MONDAY,
+            "dienstag", DayOfWeek.TUESDAY,
+            "mittwoch", DayOfWeek.WEDNESDAY,
+            "donnerstag", DayOfWeek.THURSDAY,
+            "freitag", DayOfWeek.FRIDAY,
+            "samstag", DayOfWeek.SATURDAY,
+            "sonntag", DayOfWeek.SUNDAY);
+
+    private static final String[] NAMES = {"Montag", "Dienstag", "Mittwoch", "Donnerstag", "Freitag", "Samstag", "Sonntag"};
+
+    private Wochentage() {
+    }
+
+    public static DayOfWeek parse(String wochentag) {
+        DayOfWeek day = wochentag == null ? null : BY_NAME.get(wochentag.trim().toLowerCase(Locale.GERMAN));
+        if (day == null) {
+            throw new IllegalArgumentException("Unknown weekday: " + wochentag);
+        }
+        return day;
+    }
+
+    public static String name(DayOfWeek day) {
+        return NAMES[day.getValue() - 1];
+    }
+}
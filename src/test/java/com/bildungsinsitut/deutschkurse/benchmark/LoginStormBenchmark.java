@@ -0,0 +1,126 @@
+package com.bildungsinsitut.deutschkurse.benchmark;
+
+import com.bildungsinsitut.deutschkurse.config.BoundedPasswordEncoder;
+import com.bildungsinsitut.deutschkurse.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures p99 latency of ordinary API work while a login storm hashes passwords, once with
+ * BCrypt on the request threads and once with {@link BoundedPasswordEncoder}.
+ * Run with: mvn test -Dtest=LoginStormBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoginStormBenchmark {
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final int LOGIN_THREADS = Math.max(8, CORES * 4);
+    private static final int API_THREADS = Math.max(2, CORES);
+    private static final int API_REQUESTS_PER_THREAD = 400;
+
+    @Test
+    void compareApiLatencyDuringLoginStorm() throws Exception {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(10);
+        String hash = bcrypt.encode("secret");
+
+        Result baseline = run("no login storm", null, hash);
+        Result unbounded = run("storm, BCrypt on request threads", bcrypt, hash);
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(bcrypt, Math.max(1, CORES / 2), 64, 5000);
+        try {
+            Result boundedResult = run("storm, bounded BCrypt pool", bounded, hash);
+            System.out.printf("%n%d cores, %d login threads, %d API threads%n", CORES, LOGIN_THREADS, API_THREADS);
+            System.out.printf("%-36s %10s %10s %10s %10s%n", "scenario", "api p50 ms", "api p99 ms", "logins/s", "rejected");
+            for (Result r : List.of(baseline, unbounded, boundedResult)) {
+                System.out.printf("%-36s %10.2f %10.2f %10.1f %10d%n", r.name, r.p50, r.p99, r.loginsPerSecond, r.rejected);
+            }
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    private Result run(String name, PasswordEncoder encoder, String hash) throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger logins = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService loginPool = Executors.newFixedThreadPool(LOGIN_THREADS);
+        if (encoder != null) {
+            for (int i = 0; i < LOGIN_THREADS; i++) {
+                loginPool.submit(() -> {
+                    while (!stop.get()) {
+                        try {
+                            encoder.matches("secret", hash);
+                            logins.incrementAndGet();
+                        } catch (TooManyRequestsException e) {
+                            rejected.incrementAndGet();
+                            sleep(5);
+                        }
+                    }
+                });
+            }
+            sleep(500); // let the storm build up
+        }
+
+        ExecutorService apiPool = Executors.newFixedThreadPool(API_THREADS);
+        List<Double> latencies = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < API_THREADS; t++) {
+            futures.add(apiPool.submit(() -> {
+                for (int i = 0; i < API_REQUESTS_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    simulateApiRequest();
+                    latencies.add((System.nanoTime() - begin) / 1_000_000.0);
+                    sleep(2);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        stop.set(true);
+        apiPool.shutdown();
+        loginPool.shutdown();
+        loginPool.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<Double> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(name, percentile(sorted, 0.50), percentile(sorted, 0.99), logins.get() / seconds, rejected.get());
+    }
+
+    // Roughly the CPU cost of mapping and serializing a small list response
+    private static void simulateApiRequest() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append(Integer.toHexString(i * 31));
+        }
+        if (sb.length() == 0) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static double percentile(List<Double> sorted, double p) {
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p * sorted.size()) - 1));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(String name, double p50, double p99, double loginsPerSecond, int rejected) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.bildungsinsitut.deutschkurse.benchmark;
+
+import com.bildungsinsitut.deutschkurse.enums.RessourceTyp;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Booking;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Course;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Solves synthetic institutes of growing size and prints runtime and remaining penalties.
+ * Run with: mvn test -Dtest=TimetableSolverBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TimetableSolverBenchmark {
+
+    private static final int DAYS = 5;
+    private static final int CELLS = 24; // 08:00-20:00 in 30 minute cells
+    private static final int BLOCK = 3;  // 90 minutes
+
+    @Test
+    void solveSyntheticInstitutes() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            System.out.printf("%n%d threads%n", threads);
+            System.out.printf("%8s %6s %9s %8s %10s %6s %6s%n", "courses", "rooms", "trainers", "sessions", "time ms", "hard", "soft");
+            for (int size : new int[]{100, 200, 300, 500}) {
+                TimetableSolver.Problem problem = institute(size, new SplittableRandom(size));
+                long start = System.nanoTime();
+                TimetableSolver.Solution solution = TimetableSolver.solve(problem, executor, threads, 10_000, 1);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                System.out.printf("%8d %6d %9d %8d %10d %6d %6d%n", size, rooms(size), trainers(size),
+                        solution.placements().size(), millis, solution.hardViolations(), solution.softPenalty());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Courses need 2-4 blocks a week; a fifth of the rooms are small, a tenth of the courses are
+     * large and only fit those with enough capacity; some trainers have fixed bookings
+     */
+    private static TimetableSolver.Problem institute(int size, SplittableRandom random) {
+        int rooms = rooms(size);
+        int trainers = trainers(size);
+        int smallRooms = rooms / 5;
+        List<Course> courses = new ArrayList<>();
+        for (int k = 0; k < size; k++) {
+            boolean large = random.nextInt(10) == 0;
+            int[] candidates = new int[large ? rooms - smallRooms - rooms / 2 : rooms - smallRooms];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = smallRooms + i;
+            }
+            int sessions = 2 + random.nextInt(3);
+            courses.add(new Course(k, random.nextInt(trainers), sessions, BLOCK, candidates,
+                    candidates[random.nextInt(candidates.length)]));
+        }
+        List<Booking> bookings = new ArrayList<>();
+        for (int t = 0; t < trainers; t += 4) {
+            int from = random.nextInt(CELLS - 4);
+            bookings.add(new Booking(RessourceTyp.trainer, t, random.nextInt(DAYS), from, from + 4));
+        }
+        return new TimetableSolver.Problem(courses, DAYS, CELLS, bookings);
+    }
+
+    private static int rooms(int size) {
+        return Math.max(5, size / 8);
+    }
+
+    private static int trainers(int size) {
+        return Math.max(5, size / 3);
+    }
+}
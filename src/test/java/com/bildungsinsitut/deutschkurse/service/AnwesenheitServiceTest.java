@@ -0,0 +1,282 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitDto;
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitFilter;
+import com.bildungsinsitut.deutschkurse.dto.BulkAnwesenheitDto;
+import com.bildungsinsitut.deutschkurse.dto.BulkAnwesenheitResultDto;
+import com.bildungsinsitut.deutschkurse.dto.CursorPage;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import com.bildungsinsitut.deutschkurse.mapper.AnwesenheitMapper;
+import com.bildungsinsitut.deutschkurse.model.Anwesenheit;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
+import com.bildungsinsitut.deutschkurse.model.TeilnehmerKurs;
+import com.bildungsinsitut.deutschkurse.repository.*;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepositoryCustom.AnwesenheitUpsert;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepositoryCustom.Vorzustand;
+import com.bildungsinsitut.deutschkurse.util.CursorCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnwesenheitServiceTest {
+
+    @Mock
+    private AnwesenheitRepository anwesenheitRepository;
+
+    @Mock
+    private TeilnehmerRepository teilnehmerRepository;
+
+    @Mock
+    private KursRepository kursRepository;
+
+    @Mock
+    private TeilnehmerKursRepository teilnehmerKursRepository;
+
+    @Mock
+    private AnwesenheitMapper anwesenheitMapper;
+
+    @Mock
+    private AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+
+    @Mock
+    private AnwesenheitSummaryService anwesenheitSummaryService;
+
+    @Mock
+    private AttendanceMatrixService attendanceMatrixService;
+
+    @Mock
+    private AnwesenheitArchivRepository anwesenheitArchivRepository;
+
+    @InjectMocks
+    private AnwesenheitService anwesenheitService;
+
+    @Captor
+    private ArgumentCaptor<List<AnwesenheitUpsert>> upsertCaptor;
+
+    private static final LocalDate DATUM = LocalDate.of(2026, 11, 3);
+
+    @Test
+    void shouldReturnCursorOfLastRowWhenMoreRowsExist() {
+        // Given - page size 2, repository returns the extra look-ahead row
+        List<Anwesenheit> rows = List.of(anwesenheit(10, DATUM), anwesenheit(11, DATUM), anwesenheit(12, DATUM.plusDays(1)));
+        when(anwesenheitRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+        when(anwesenheitMapper.toDtoList(anyList())).thenAnswer(invocation -> {
+            List<?> pageRows = invocation.getArgument(0);
+            assertThat(pageRows).hasSize(2);
+            return List.of(new AnwesenheitDto(), new AnwesenheitDto());
+        });
+
+        // When
+        CursorPage<AnwesenheitDto> page = anwesenheitService.getAnwesenheitPage(new AnwesenheitFilter(), null, 2);
+
+        // Then
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(CursorCodec.decodeDatumId(page.getNextCursor()))
+                .isEqualTo(new CursorCodec.DatumId(DATUM, 11));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> anwesenheitService.getAnwesenheitPage(new AnwesenheitFilter(), "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void shouldUpsertEnrolledStudentsInOneBatch() {
+        // Given
+        BulkAnwesenheitDto bulkDto = createBulkDto(1, 2, 3);
+        when(kursRepository.findById(1)).thenReturn(Optional.of(kurs(1)));
+        when(teilnehmerKursRepository.findEnrolledTeilnehmerIds(eq(1), anyCollection())).thenReturn(List.of(1, 2, 3));
+        when(anwesenheitRepository.findForBulkResult(eq(1), eq(DATUM), anyCollection()))
+                .thenReturn(List.of(new Anwesenheit(), new Anwesenheit(), new Anwesenheit()));
+        when(anwesenheitMapper.toDtoList(anyList()))
+                .thenReturn(List.of(new AnwesenheitDto(), new AnwesenheitDto(), new AnwesenheitDto()));
+
+        // When
+        BulkAnwesenheitResultDto result = anwesenheitService.createBulkAnwesenheit(bulkDto);
+
+        // Then
+        verify(anwesenheitRepository).upsertAll(upsertCaptor.capture());
+        assertThat(upsertCaptor.getValue())
+                .extracting(AnwesenheitUpsert::teilnehmerId)
+                .containsExactly(1, 2, 3);
+        assertThat(result.getSucceeded()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        verify(anwesenheitSummaryService).recordChanges(argThat(aenderungen -> aenderungen.size() == 3
+                && aenderungen.stream().allMatch(AnwesenheitSummaryService.Aenderung::neu)));
+
+        // No per-record lookups
+        verify(teilnehmerRepository, never()).findById(any());
+        verify(anwesenheitRepository, never()).findByTeilnehmerIdAndKursIdAndDatum(any(), any(), any());
+    }
+
+    @Test
+    void shouldTakePreviousStateFromTheUpsert() {
+        // Given - student 2 already had an unexcused absence that day
+        BulkAnwesenheitDto bulkDto = createBulkDto(1, 2);
+        when(kursRepository.findById(1)).thenReturn(Optional.of(kurs(1)));
+        when(teilnehmerKursRepository.findEnrolledTeilnehmerIds(eq(1), anyCollection())).thenReturn(List.of(1, 2));
+        when(anwesenheitRepository.upsertAll(anyList())).thenReturn(Map.of(2, new Vorzustand(false, false)));
+
+        // When
+        anwesenheitService.createBulkAnwesenheit(bulkDto);
+
+        // Then
+        verify(anwesenheitSummaryService).recordChanges(argThat(aenderungen -> aenderungen.size() == 2
+                && aenderungen.get(0).neu()
+                && !aenderungen.get(1).neu()
+                && Boolean.FALSE.equals(aenderungen.get(1).vorherAnwesend())
+                && Boolean.TRUE.equals(aenderungen.get(1).anwesend())));
+    }
+
+    @Test
+    void shouldReportNotEnrolledAndDuplicateRecordsAsFailures() {
+        // Given
+        BulkAnwesenheitDto bulkDto = createBulkDto(1, 2, 1);
+        when(kursRepository.findById(1)).thenReturn(Optional.of(kurs(1)));
+        when(teilnehmerKursRepository.findEnrolledTeilnehmerIds(eq(1), anyCollection())).thenReturn(List.of(1));
+        when(anwesenheitRepository.findForBulkResult(eq(1), eq(DATUM), anyCollection()))
+                .thenReturn(List.of(new Anwesenheit()));
+        when(anwesenheitMapper.toDtoList(anyList())).thenReturn(List.of(new AnwesenheitDto()));
+
+        // When
+        BulkAnwesenheitResultDto result = anwesenheitService.createBulkAnwesenheit(bulkDto);
+
+        // Then
+        verify(anwesenheitRepository).upsertAll(upsertCaptor.capture());
+        assertThat(upsertCaptor.getValue()).extracting(AnwesenheitUpsert::teilnehmerId).containsExactly(1);
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailures())
+                .extracting(BulkAnwesenheitResultDto.RecordFailure::getMessage)
+                .containsExactlyInAnyOrder("Duplicate attendance record in request",
+                        "Student is not enrolled in this course");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCourseNotFound() {
+        // Given
+        BulkAnwesenheitDto bulkDto = createBulkDto(1);
+        when(kursRepository.findById(1)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> anwesenheitService.createBulkAnwesenheit(bulkDto))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Kurs not found with id: 1");
+
+        verify(anwesenheitRepository, never()).upsertAll(any());
+    }
+
+    @Test
+    void shouldRejectDateOutsideCoursePeriod() {
+        // Given
+        BulkAnwesenheitDto bulkDto = createBulkDto(1);
+        Kurs kurs = kurs(1);
+        kurs.setEnddatum(DATUM.minusDays(1));
+        when(kursRepository.findById(1)).thenReturn(Optional.of(kurs));
+
+        // When & Then
+        assertThatThrownBy(() -> anwesenheitService.createBulkAnwesenheit(bulkDto))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Date " + DATUM + " is outside the course period");
+
+        verify(anwesenheitRepository, never()).upsertAll(any());
+    }
+
+    @Test
+    void shouldMergeHotAndArchivedHistoryByDate() {
+        // Given - the course's first month is already archived
+        Kurs kurs = kurs(1);
+        when(kursRepository.findById(1)).thenReturn(Optional.of(kurs));
+        when(anwesenheitArchivRepository.findByTeilnehmerIdAndKursIdOrderByDatum(5, 1)).thenReturn(List.of());
+        when(anwesenheitMapper.archivToDtoList(anyList())).thenReturn(List.of(dto(DATUM.minusDays(28))));
+        when(anwesenheitRepository.findByTeilnehmerIdAndKurs(5, kurs)).thenReturn(List.of());
+        when(anwesenheitMapper.toDtoList(anyList())).thenReturn(List.of(dto(DATUM), dto(DATUM.minusDays(7))));
+
+        // When
+        List<AnwesenheitDto> verlauf = anwesenheitService.getAnwesenheitByTeilnehmerAndKurs(5, 1);
+
+        // Then
+        assertThat(verlauf).extracting(AnwesenheitDto::getDatum)
+                .containsExactly(DATUM.minusDays(28), DATUM.minusDays(7), DATUM);
+    }
+
+    @Test
+    void shouldNotCountRecordInsertedConcurrently() {
+        // Given - no record yet, but another request inserts the same one first
+        Teilnehmer teilnehmer = new Teilnehmer();
+        teilnehmer.setId(5);
+        AnwesenheitDto dto = dto(DATUM);
+        dto.setTeilnehmerId(5);
+        dto.setKursId(1);
+        when(teilnehmerRepository.findById(5)).thenReturn(Optional.of(teilnehmer));
+        when(kursRepository.findById(1)).thenReturn(Optional.of(kurs(1)));
+        when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(5, 1)).thenReturn(Optional.of(new TeilnehmerKurs()));
+        when(anwesenheitRepository.findByTeilnehmerIdAndKursIdAndDatum(5, 1, DATUM)).thenReturn(Optional.empty());
+        when(anwesenheitMapper.toEntity(dto)).thenReturn(anwesenheit(null, DATUM));
+        when(anwesenheitRepository.save(any(Anwesenheit.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_anwesenheit"));
+
+        // When & Then
+        assertThatThrownBy(() -> anwesenheitService.createOrUpdateAnwesenheit(dto))
+                .isInstanceOf(IllegalStateException.class);
+        verify(anwesenheitSummaryService, never()).recordChange(any());
+        verifyNoInteractions(attendanceMatrixService);
+    }
+
+    // ============ TEST DATA CREATION METHODS ============
+
+    private Kurs kurs(Integer id) {
+        Kurs kurs = new Kurs();
+        kurs.setId(id);
+        kurs.setStartdatum(DATUM.minusMonths(1));
+        kurs.setEnddatum(DATUM.plusMonths(1));
+        return kurs;
+    }
+
+    private BulkAnwesenheitDto createBulkDto(Integer... teilnehmerIds) {
+        BulkAnwesenheitDto dto = new BulkAnwesenheitDto();
+        dto.setKursId(1);
+        dto.setDatum(DATUM);
+        List<BulkAnwesenheitDto.AttendanceRecord> records = new ArrayList<>();
+        for (Integer teilnehmerId : teilnehmerIds) {
+            BulkAnwesenheitDto.AttendanceRecord record = new BulkAnwesenheitDto.AttendanceRecord();
+            record.setTeilnehmerId(teilnehmerId);
+            records.add(record);
+        }
+        dto.setAttendanceRecords(records);
+        return dto;
+    }
+
+    private AnwesenheitDto dto(LocalDate datum) {
+        AnwesenheitDto dto = new AnwesenheitDto();
+        dto.setDatum(datum);
+        return dto;
+    }
+
+    private Anwesenheit anwesenheit(Integer id, LocalDate datum) {
+        Anwesenheit anwesenheit = new Anwesenheit();
+        anwesenheit.setId(id);
+        anwesenheit.setDatum(datum);
+        return anwesenheit;
+    }
+}
@@ -0,0 +1,81 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.model.Anwesenheit;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitSummaryRepository;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitSummaryRepositoryCustom.SummaryDelta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnwesenheitSummaryServiceTest {
+
+    private static final LocalDate DATUM = LocalDate.of(2026, 11, 3);
+
+    @Mock
+    private AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+
+    @InjectMocks
+    private AnwesenheitSummaryService anwesenheitSummaryService;
+
+    @Test
+    void shouldTranslateChangesIntoCounterDeltas() {
+        // Given
+        List<AnwesenheitSummaryService.Aenderung> aenderungen = List.of(
+                AnwesenheitSummaryService.Aenderung.neu(1, 10, DATUM, true, false),
+                AnwesenheitSummaryService.Aenderung.geaendert(anwesenheit(2, true, false), false, true),
+                AnwesenheitSummaryService.Aenderung.geaendert(anwesenheit(3, false, false), false, false));
+
+        // When
+        anwesenheitSummaryService.recordChanges(aenderungen);
+
+        // Then
+        List<SummaryDelta> deltas = captureDeltas();
+        assertThat(deltas).containsExactly(
+                new SummaryDelta(1, 10, 1, 1, 0, 0, DATUM),
+                new SummaryDelta(2, 10, 0, -1, 1, 0, null));
+    }
+
+    @Test
+    void shouldDecrementAndRefreshLastDatumOnRemoval() {
+        // When
+        anwesenheitSummaryService.recordRemoval(anwesenheit(4, false, false));
+
+        // Then
+        assertThat(captureDeltas()).containsExactly(new SummaryDelta(4, 10, -1, 0, 0, -1, null));
+        verify(anwesenheitSummaryRepository).refreshLastDatum(4, 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SummaryDelta> captureDeltas() {
+        ArgumentCaptor<List<SummaryDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(anwesenheitSummaryRepository).applyDeltas(deltas.capture());
+        return deltas.getValue();
+    }
+
+    private static Anwesenheit anwesenheit(Integer teilnehmerId, boolean anwesend, boolean entschuldigt) {
+        Teilnehmer teilnehmer = new Teilnehmer();
+        teilnehmer.setId(teilnehmerId);
+        Kurs kurs = new Kurs();
+        kurs.setId(10);
+
+        Anwesenheit anwesenheit = new Anwesenheit();
+        anwesenheit.setTeilnehmer(teilnehmer);
+        anwesenheit.setKurs(kurs);
+        anwesenheit.setDatum(DATUM);
+        anwesenheit.setAnwesend(anwesend);
+        anwesenheit.setEntschuldigt(entschuldigt);
+        return anwesenheit;
+    }
+}
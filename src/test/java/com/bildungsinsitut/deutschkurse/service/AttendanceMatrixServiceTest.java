@@ -0,0 +1,115 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitRepository;
+import com.bildungsinsitut.deutschkurse.repository.KursRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerKursRepository;
+import com.bildungsinsitut.deutschkurse.util.AttendanceMatrix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttendanceMatrixServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 3);
+
+    @Mock
+    private AnwesenheitRepository anwesenheitRepository;
+
+    @Mock
+    private TeilnehmerKursRepository teilnehmerKursRepository;
+
+    @Mock
+    private KursRepository kursRepository;
+
+    @InjectMocks
+    private AttendanceMatrixService attendanceMatrixService;
+
+    private final List<AnwesenheitRepository.MatrixEintrag> eintraege = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Kurs kurs = new Kurs();
+        kurs.setId(1);
+        kurs.setStatus(KursStatusType.laufend);
+        kurs.setStartdatum(START);
+        kurs.setEnddatum(START.plusMonths(3));
+        when(kursRepository.findById(1)).thenReturn(Optional.of(kurs));
+        when(anwesenheitRepository.findMatrixEintraege(kurs)).thenReturn(eintraege);
+        when(teilnehmerKursRepository.findTeilnehmerIdsByKursIdAndStatusIn(eq(1), any())).thenReturn(List.of(10, 20, 30));
+
+        // Sessions on Monday and Wednesday for three weeks; student 20 misses the last four
+        for (int woche = 0; woche < 3; woche++) {
+            for (int tag : new int[]{0, 2}) {
+                LocalDate datum = START.plusWeeks(woche).plusDays(tag);
+                eintraege.add(eintrag(10, datum, true, false));
+                eintraege.add(eintrag(20, datum, woche == 0, woche == 1 && tag == 0));
+            }
+        }
+    }
+
+    @Test
+    void shouldRenderGridOverSessionDaysOnly() {
+        AttendanceMatrix.Raster raster = attendanceMatrixService.getRaster(1, START, START.plusDays(9));
+
+        assertThat(raster.daten()).containsExactly(START, START.plusDays(2), START.plusDays(7), START.plusDays(9));
+        assertThat(raster.zeilen()).extracting(AttendanceMatrix.Zeile::zellen)
+                .containsExactly("AAAA", "AAEF", "....");
+    }
+
+    @Test
+    void shouldFindStudentsWhoMissedSessionsInARow() {
+        assertThat(attendanceMatrixService.getSerien(1, 3))
+                .containsExactly(new AttendanceMatrix.Serie(20, 0, 4));
+        assertThat(attendanceMatrixService.getSerien(1, 0)).contains(new AttendanceMatrix.Serie(10, 6, 0));
+    }
+
+    @Test
+    void shouldApplyWritesToCachedMatrixWithoutReloading() {
+        attendanceMatrixService.getSerien(1, 0);
+
+        attendanceMatrixService.recordAnwesenheit(20, 1, START.plusWeeks(3), true, false);
+        attendanceMatrixService.recordRemoval(10, 1, START.plusWeeks(2).plusDays(2));
+
+        assertThat(attendanceMatrixService.getSerien(1, 0))
+                .contains(new AttendanceMatrix.Serie(20, 1, 0), new AttendanceMatrix.Serie(10, 5, 0));
+        verify(anwesenheitRepository, times(1)).findMatrixEintraege(any(Kurs.class));
+        assertThat(attendanceMatrixService.getSpeicherbedarf()).singleElement()
+                .satisfies(s -> assertThat(s.sitzungen()).isEqualTo(7));
+    }
+
+    private static AnwesenheitRepository.MatrixEintrag eintrag(Integer teilnehmerId, LocalDate datum,
+                                                               boolean anwesend, boolean entschuldigt) {
+        return new AnwesenheitRepository.MatrixEintrag() {
+            public Integer getTeilnehmerId() {
+                return teilnehmerId;
+            }
+
+            public LocalDate getDatum() {
+                return datum;
+            }
+
+            public Boolean getAnwesend() {
+                return anwesend;
+            }
+
+            public Boolean getEntschuldigt() {
+                return entschuldigt;
+            }
+        };
+    }
+}
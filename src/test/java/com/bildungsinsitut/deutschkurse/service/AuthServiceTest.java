@@ -7,6 +7,8 @@ import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.model.User;
 import com.bildungsinsitut.deutschkurse.repository.UserRepository;
 import com.bildungsinsitut.deutschkurse.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +19,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -38,6 +41,21 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private AuthUserCache authUserCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenDenyList tokenDenyList;
+
+    @Mock
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
     @InjectMocks
     private AuthService authService;
 
@@ -75,6 +93,48 @@ class AuthServiceTest {
         verify(userRepository).existsByEmail("newemail@example.com");
         verify(passwordEncoder).encode("newpassword");
         verify(userRepository).save(testUser);
+        verify(authUserCache).invalidate(testUser.getId());
+    }
+
+    @Test
+    void shouldInvalidateCachedPrincipalOnRoleChange() {
+        // Given
+        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // When
+        authService.updateUserRole(1, Role.ADMIN);
+
+        // Then
+        verify(authUserCache).invalidate(1);
+    }
+
+    @Test
+    void shouldRevokeRefreshTokensWhenUserIsDisabled() {
+        // Given
+        when(userRepository.existsById(1)).thenReturn(true);
+
+        // When
+        authService.updateUserStatus(1, false);
+
+        // Then
+        verify(userRepository).updateUserStatus(1, false);
+        verify(authUserCache).invalidate(1);
+        verify(refreshTokenService).revokeAllForUser(1);
+    }
+
+    @Test
+    void shouldDenyAccessTokenOnLogout() {
+        // Given
+        Claims claims = Jwts.claims().id("jti-1").expiration(new Date(System.currentTimeMillis() + 60_000)).build();
+        when(jwtUtil.parseValidToken("access")).thenReturn(Optional.of(claims));
+
+        // When
+        authService.logout("access", "refresh");
+
+        // Then
+        verify(tokenDenyList).deny("jti-1", claims.getExpiration().getTime());
+        verify(refreshTokenService).revoke("refresh");
     }
 
     @Test
@@ -0,0 +1,85 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.auth.AuthenticatedUser;
+import com.bildungsinsitut.deutschkurse.enums.Role;
+import com.bildungsinsitut.deutschkurse.model.User;
+import com.bildungsinsitut.deutschkurse.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthUserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AuthUserCache authUserCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(authUserCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(authUserCache, "maxEntries", 100);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(userRepository.findById(1)).thenReturn(Optional.of(createUser(Role.USER)));
+
+        // When
+        authUserCache.get(1);
+        Optional<AuthenticatedUser> result = authUserCache.get(1);
+
+        // Then
+        assertThat(result).get().extracting(AuthenticatedUser::role).isEqualTo(Role.USER);
+        verify(userRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        // Given
+        when(userRepository.findById(1))
+                .thenReturn(Optional.of(createUser(Role.USER)))
+                .thenReturn(Optional.of(createUser(Role.ADMIN)));
+        authUserCache.get(1);
+
+        // When
+        authUserCache.invalidate(1);
+        Optional<AuthenticatedUser> result = authUserCache.get(1);
+
+        // Then
+        assertThat(result).get().extracting(AuthenticatedUser::role).isEqualTo(Role.ADMIN);
+        verify(userRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void shouldMarkDisabledUserInactive() {
+        // Given
+        User user = createUser(Role.USER);
+        user.setEnabled(false);
+        when(userRepository.findById(1)).thenReturn(Optional.of(user));
+
+        // When & Then
+        assertThat(authUserCache.get(1)).get().extracting(AuthenticatedUser::active).isEqualTo(false);
+    }
+
+    private User createUser(Role role) {
+        User user = new User();
+        user.setId(1);
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,125 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.DublettenGrund;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.repository.AnwesenheitSummaryRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepositoryCustom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DublettenServiceTest {
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+
+    @Mock
+    private TeilnehmerRepository teilnehmerRepository;
+
+    @Mock
+    private AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+
+    @Mock
+    private AttendanceMatrixService attendanceMatrixService;
+
+    @Mock
+    private KalenderFeedService kalenderFeedService;
+
+    @Mock
+    private FruehwarnungService fruehwarnungService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DublettenService dublettenService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dublettenService, "defaultMinScore", 70);
+        ReflectionTestUtils.setField(dublettenService, "maxBlock", 500);
+    }
+
+    @Test
+    void shouldFindSpellingVariantsWithoutComparingUnrelatedStudents() {
+        // Given
+        LocalDate geburtsdatum = LocalDate.of(1995, 3, 14);
+        when(teilnehmerRepository.findDublettenEintraege()).thenReturn(List.of(
+                eintrag(1, "Mohammed", "Al-Hassan", geburtsdatum, null),
+                eintrag(2, "Anna", "Schmidt", LocalDate.of(1990, 1, 1), "anna@example.com"),
+                eintrag(3, "Muhammad", "Alhassan", geburtsdatum, "m.alhassan@example.com"),
+                eintrag(4, "Schmidt", "Anna", null, "ANNA@example.com "),
+                eintrag(5, "Anna", "Schmitt", LocalDate.of(1988, 7, 2), null)));
+
+        // When
+        List<DublettenService.Kandidat> kandidaten = dublettenService.findKandidaten(null, null);
+
+        // Then
+        assertThat(kandidaten).extracting(k -> k.a().id() + "-" + k.b().id()).containsExactly("2-4", "1-3");
+        assertThat(kandidaten.get(0).gruende()).containsExactly(DublettenGrund.name_vertauscht, DublettenGrund.email);
+        assertThat(kandidaten.get(1).gruende()).containsExactly(DublettenGrund.name_aehnlich, DublettenGrund.geburtsdatum);
+        assertThat(kandidaten.get(1).score()).isGreaterThanOrEqualTo(70);
+    }
+
+    @Test
+    void shouldRejectMergeIntoItself() {
+        // When & Then
+        assertThatThrownBy(() -> dublettenService.merge(7, 7))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(teilnehmerRepository, never()).mergeInto(any(), any());
+    }
+
+    @Test
+    void shouldMergeAndRefreshDerivedData() {
+        // Given
+        when(teilnehmerRepository.existsById(any())).thenReturn(true);
+        when(teilnehmerRepository.mergeInto(3, 1))
+                .thenReturn(new TeilnehmerRepositoryCustom.MergeErgebnis(1, 12, 2, 0, Set.of(10, 11)));
+
+        // When
+        TeilnehmerRepositoryCustom.MergeErgebnis ergebnis = dublettenService.merge(3, 1);
+
+        // Then
+        assertThat(ergebnis.anwesenheiten()).isEqualTo(12);
+        InOrder order = inOrder(fruehwarnungService, teilnehmerRepository, anwesenheitSummaryRepository);
+        order.verify(fruehwarnungService).sperren();
+        order.verify(teilnehmerRepository).mergeInto(3, 1);
+        order.verify(anwesenheitSummaryRepository).rebuildForTeilnehmer(List.of(3, 1));
+        order.verify(fruehwarnungService).neuBerechnen(1, Set.of(10, 11));
+        verify(attendanceMatrixService).invalidateKurs(10);
+        verify(attendanceMatrixService).invalidateKurs(11);
+        verify(kalenderFeedService).invalidateTeilnehmer(3);
+        verify(kalenderFeedService).invalidateTeilnehmer(1);
+        verify(eventPublisher).publishEvent(any(StammdatenGeaendertEvent.class));
+    }
+
+    private TeilnehmerRepository.DublettenEintrag eintrag(Integer id, String vorname, String nachname,
+                                                         LocalDate geburtsdatum, String email) {
+        Map<String, Object> werte = new HashMap<>();
+        werte.put("id", id);
+        werte.put("vorname", vorname);
+        werte.put("nachname", nachname);
+        werte.put("geburtsdatum", geburtsdatum);
+        werte.put("email", email);
+        werte.put("telefon", null);
+        return projections.createProjection(TeilnehmerRepository.DublettenEintrag.class, werte);
+    }
+}
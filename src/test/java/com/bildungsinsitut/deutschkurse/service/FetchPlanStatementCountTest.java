@@ -0,0 +1,229 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.config.JacksonConfig;
+import com.bildungsinsitut.deutschkurse.dto.AnwesenheitFilter;
+import com.bildungsinsitut.deutschkurse.dto.KursDto;
+import com.bildungsinsitut.deutschkurse.dto.KursFilter;
+import com.bildungsinsitut.deutschkurse.enums.ExportFormat;
+import com.bildungsinsitut.deutschkurse.mapper.AnwesenheitMapperImpl;
+import com.bildungsinsitut.deutschkurse.mapper.KursMapperImpl;
+import com.bildungsinsitut.deutschkurse.mapper.KursTerminMapperImpl;
+import com.bildungsinsitut.deutschkurse.mapper.ReferenzNamenMapper;
+import com.bildungsinsitut.deutschkurse.mapper.TeilnehmerMapperImpl;
+import com.bildungsinsitut.deutschkurse.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * List endpoints must run a constant number of queries, independent of the number of rows mapped.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({KursService.class, AnwesenheitService.class, TeilnehmerKursService.class, ScheduleConflictIndex.class,
+        KursTerminService.class, KalenderFeedService.class, AnwesenheitSummaryService.class,
+        AttendanceMatrixService.class, ExportService.class, ReferenzdatenCache.class, JacksonConfig.class,
+        KursTerminMapperImpl.class, KursMapperImpl.class, ReferenzNamenMapper.class, AnwesenheitMapperImpl.class,
+        TeilnehmerMapperImpl.class})
+class FetchPlanStatementCountTest {
+
+    private static final int KURSE = 4;
+    private static final LocalDate DATUM = LocalDate.of(2026, 11, 3);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private KursService kursService;
+
+    @Autowired
+    private AnwesenheitService anwesenheitService;
+
+    @Autowired
+    private TeilnehmerKursService teilnehmerKursService;
+
+    @Autowired
+    private ExportService exportService;
+
+    private Statistics statistics;
+    private Teilnehmer teilnehmer;
+    private Kurs ersterKurs;
+
+    @BeforeEach
+    void setUp() {
+        Abteilung abteilung = new Abteilung();
+        abteilung.setAbteilungName("Sprachen");
+        entityManager.persist(abteilung);
+
+        teilnehmer = persistTeilnehmer("max@example.com");
+        Teilnehmer zweiter = persistTeilnehmer("erika@example.com");
+
+        for (int i = 0; i < KURSE; i++) {
+            Kurs kurs = persistKurs(abteilung, i);
+            if (ersterKurs == null) {
+                ersterKurs = kurs;
+            }
+            for (Teilnehmer t : List.of(teilnehmer, zweiter)) {
+                TeilnehmerKurs teilnehmerKurs = new TeilnehmerKurs();
+                teilnehmerKurs.setTeilnehmer(t);
+                teilnehmerKurs.setKurs(kurs);
+                entityManager.persist(teilnehmerKurs);
+
+                Anwesenheit anwesenheit = new Anwesenheit();
+                anwesenheit.setTeilnehmer(t);
+                anwesenheit.setKurs(kurs);
+                anwesenheit.setDatum(DATUM);
+                entityManager.persist(anwesenheit);
+
+                entityManager.persist(new AnwesenheitSummary(new AnwesenheitSummary.Id(kurs.getId(), t.getId()),
+                        1, 1, 0, 0, DATUM, null));
+            }
+        }
+
+        // Start from an empty persistence context so lazy associations really hit the database
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldLoadCourseListInOneQuery() {
+        assertThat(kursService.getAllKurse()).hasSize(KURSE)
+                .allSatisfy(k -> assertThat(k.getTrainerName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLoadCoursePageInOneQuery() {
+        assertThat(kursService.getKursePage(new KursFilter(), null, 10).getItems()).hasSize(KURSE)
+                .allSatisfy(k -> assertThat(k.getKurstypName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldResolveNamesOfSingleCourseFromReferenceDataCache() {
+        kursService.getKursById(ersterKurs.getId());
+        entityManager.clear();
+        statistics.clear();
+
+        KursDto kurs = kursService.getKursById(ersterKurs.getId());
+        assertThat(kurs.getKurstypName()).isEqualTo("Typ 0");
+        assertThat(kurs.getKursraumName()).isEqualTo("Raum 0");
+        assertThat(kurs.getTrainerName()).isEqualTo("Anna Trainer 0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLoadAttendanceListsInOneQueryEach() {
+        assertThat(anwesenheitService.getAllAnwesenheiten()).hasSize(2 * KURSE)
+                .allSatisfy(a -> assertThat(a.getTeilnehmerName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(anwesenheitService.getAnwesenheitPage(new AnwesenheitFilter(), null, 50).getItems())
+                .hasSize(2 * KURSE)
+                .allSatisfy(a -> assertThat(a.getKursName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldComputeCourseStatisticsInTwoQueries() {
+        List<Integer> kursIds = kursService.getAllKurse().stream().map(KursDto::getId).toList();
+        statistics.clear();
+
+        assertThat(anwesenheitService.getKursStatistik(kursIds)).hasSize(2 * KURSE)
+                .allSatisfy(s -> {
+                    assertThat(s.getTeilnehmerName()).isEqualTo("Max Mustermann");
+                    assertThat(s.getTotalDays()).isEqualTo(1);
+                    assertThat(s.getPresentDays()).isEqualTo(1);
+                    assertThat(s.getAttendanceRate()).isEqualTo(100.0);
+                    assertThat(s.isMindestquoteErreicht()).isTrue();
+                });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLoadEnrollmentListsInOneQueryEach() {
+        assertThat(teilnehmerKursService.getKurseForTeilnehmer(teilnehmer.getId())).hasSize(KURSE)
+                .allSatisfy(k -> assertThat(k.getKursraumName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(teilnehmerKursService.getTeilnehmerInKurs(ersterKurs.getId())).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStreamExportsInOneQueryEach() throws Exception {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertThat(exportService.exportAnwesenheit(null, DATUM, DATUM, ExportFormat.csv, csv)).isEqualTo(2 * KURSE);
+        // One cursor over anwesenheit, one over anwesenheit_archiv
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        List<String> lines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(1 + 2 * KURSE);
+        assertThat(lines.get(0)).isEqualTo("id,kursId,kursName,teilnehmerId,vorname,nachname,datum,anwesend,entschuldigt,bemerkung");
+        assertThat(lines.get(1)).contains(",Max,Mustermann," + DATUM + ",true,false,");
+
+        statistics.clear();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertThat(exportService.exportEinschreibungen(ersterKurs.getId(), ExportFormat.ndjson, ndjson)).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(ndjson.toString(StandardCharsets.UTF_8).lines())
+                .hasSize(2)
+                .allSatisfy(line -> assertThat(line).startsWith("{\"id\":").contains("\"status\":\"angemeldet\""));
+    }
+
+    // ============ TEST DATA CREATION METHODS ============
+
+    private Teilnehmer persistTeilnehmer(String email) {
+        Teilnehmer t = new Teilnehmer();
+        t.setVorname("Max");
+        t.setNachname("Mustermann");
+        t.setEmail(email);
+        return entityManager.persist(t);
+    }
+
+    private Kurs persistKurs(Abteilung abteilung, int index) {
+        Kurstyp kurstyp = new Kurstyp();
+        kurstyp.setKurstypCode("T" + index);
+        kurstyp.setKurstypName("Typ " + index);
+        entityManager.persist(kurstyp);
+
+        Kursraum kursraum = new Kursraum();
+        kursraum.setAbteilung(abteilung);
+        kursraum.setRaumName("Raum " + index);
+        entityManager.persist(kursraum);
+
+        Trainer trainer = new Trainer();
+        trainer.setVorname("Anna");
+        trainer.setNachname("Trainer " + index);
+        entityManager.persist(trainer);
+
+        Kurs kurs = new Kurs();
+        kurs.setKursName("Kurs " + index);
+        kurs.setKurstyp(kurstyp);
+        kurs.setKursraum(kursraum);
+        kurs.setTrainer(trainer);
+        kurs.setStartdatum(DATUM);
+        return entityManager.persist(kurs);
+    }
+}
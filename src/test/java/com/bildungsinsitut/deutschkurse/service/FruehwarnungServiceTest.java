@@ -0,0 +1,250 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.model.AnwesenheitSummary;
+import com.bildungsinsitut.deutschkurse.model.Fruehwarnung;
+import com.bildungsinsitut.deutschkurse.model.JobWatermark;
+import com.bildungsinsitut.deutschkurse.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FruehwarnungServiceTest {
+
+    private static final LocalDate MONTAG = LocalDate.of(2026, 11, 2);
+    private static final LocalDateTime STAND = LocalDateTime.of(2026, 11, 1, 8, 0);
+
+    @Mock
+    private FruehwarnungRepository fruehwarnungRepository;
+
+    @Mock
+    private JobWatermarkRepository jobWatermarkRepository;
+
+    @Mock
+    private AnwesenheitRepository anwesenheitRepository;
+
+    @Mock
+    private AnwesenheitSummaryRepository anwesenheitSummaryRepository;
+
+    @Mock
+    private BewertungRepository bewertungRepository;
+
+    @InjectMocks
+    private FruehwarnungService fruehwarnungService;
+
+    private final List<AnwesenheitRepository.Aenderung> anwesenheiten = new ArrayList<>();
+    private final List<BewertungRepository.Neu> bewertungen = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fruehwarnungService, "batchSize", 100);
+        ReflectionTestUtils.setField(fruehwarnungService, "lagSeconds", 60L);
+        ReflectionTestUtils.setField(fruehwarnungService, "fehlserieSchwelle", 3);
+        ReflectionTestUtils.setField(fruehwarnungService, "unentschuldigtSchwelle", 20.0);
+        ReflectionTestUtils.setField(fruehwarnungService, "minSitzungen", 5);
+        ReflectionTestUtils.setField(fruehwarnungService, "nichtBestandenSchwelle", 2);
+        ReflectionTestUtils.setField(fruehwarnungService, "punkteTrendSchwelle", -10.0);
+        ReflectionTestUtils.setField(fruehwarnungService, "trendGewicht", 0.5);
+
+        when(jobWatermarkRepository.findByNameForUpdate(FruehwarnungService.WATERMARK_ANWESENHEIT))
+                .thenReturn(Optional.of(new JobWatermark(FruehwarnungService.WATERMARK_ANWESENHEIT, STAND, 7)));
+        when(jobWatermarkRepository.findByNameForUpdate(FruehwarnungService.WATERMARK_BEWERTUNGEN)).thenReturn(
+                Optional.of(new JobWatermark(FruehwarnungService.WATERMARK_BEWERTUNGEN, LocalDateTime.of(1970, 1, 1, 0, 0), 0)));
+        lenient().when(anwesenheitRepository.findGeaendertSeit(eq(STAND), eq(7), any(), any())).thenReturn(anwesenheiten);
+        lenient().when(bewertungRepository.findErstelltSeit(any(), eq(0), any(), any())).thenReturn(bewertungen);
+    }
+
+    @Test
+    void shouldFlagAbsenceStreakFromNewRecordsOnly() {
+        // Given: an existing streak of one absence, three more come in
+        Fruehwarnung bestand = new Fruehwarnung(new Fruehwarnung.Id(1, 10));
+        bestand.setLetzteDatum(MONTAG.minusDays(7));
+        bestand.setFehlserie(1);
+        when(fruehwarnungRepository.findAllById(any())).thenReturn(List.of(bestand));
+        for (int i = 0; i < 3; i++) {
+            anwesenheiten.add(anwesenheit(20 + i, MONTAG.plusDays(i), i == 0));
+        }
+        anwesenheiten.add(anwesenheit(30, MONTAG.plusDays(3), false));
+        when(anwesenheitSummaryRepository.findAllById(any()))
+                .thenReturn(List.of(new AnwesenheitSummary(new AnwesenheitSummary.Id(1, 10), 10, 7, 0, 3, null, null)));
+
+        // When
+        FruehwarnungService.Lauf lauf = fruehwarnungService.run();
+
+        // Then
+        assertThat(lauf.neuGefaehrdet()).isEqualTo(1);
+        assertThat(bestand.getFehlserie()).isEqualTo(3);
+        assertThat(bestand.getUnentschuldigtQuote()).isEqualByComparingTo("30");
+        assertThat(bestand.getGruende()).isEqualTo("fehlserie,unentschuldigt");
+        assertThat(bestand.getGefaehrdetSeit()).isNotNull();
+        verify(anwesenheitRepository, never()).findVerlauf(any(), any());
+
+        ArgumentCaptor<JobWatermark> watermark = ArgumentCaptor.forClass(JobWatermark.class);
+        verify(jobWatermarkRepository).save(watermark.capture());
+        assertThat(watermark.getValue().getLetzteId()).isEqualTo(30);
+    }
+
+    @Test
+    void shouldRecomputeStreakWhenAnEarlierDayIsCorrected() {
+        // Given: the second-to-last absence is corrected to present
+        Fruehwarnung bestand = new Fruehwarnung(new Fruehwarnung.Id(1, 10));
+        bestand.setLetzteDatum(MONTAG.plusDays(2));
+        bestand.setFehlserie(3);
+        bestand.setGefaehrdet(true);
+        when(fruehwarnungRepository.findAllById(any())).thenReturn(List.of(bestand));
+        anwesenheiten.add(anwesenheit(40, MONTAG.plusDays(1), true));
+        when(anwesenheitRepository.findVerlauf(10, 1)).thenReturn(List.of(
+                verlauf(MONTAG.plusDays(2), false), verlauf(MONTAG.plusDays(1), true), verlauf(MONTAG, false)));
+
+        // When
+        fruehwarnungService.run();
+
+        // Then
+        assertThat(bestand.getFehlserie()).isEqualTo(1);
+        assertThat(bestand.isGefaehrdet()).isFalse();
+        assertThat(bestand.getGefaehrdetSeit()).isNull();
+    }
+
+    @Test
+    void shouldFlagFailedTestsAndFallingScores() {
+        // Given
+        when(fruehwarnungRepository.findAllById(any())).thenReturn(List.of());
+        bewertungen.add(bewertung(1, "80", true));
+        bewertungen.add(bewertung(2, "55", false));
+        bewertungen.add(bewertung(3, "40", false));
+
+        // When
+        fruehwarnungService.run();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Fruehwarnung>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(fruehwarnungRepository).saveAll(saved.capture());
+        Fruehwarnung f = saved.getValue().iterator().next();
+        assertThat(f.getNichtBestandenSerie()).isEqualTo(2);
+        assertThat(f.getLetztePunkteQuote()).isEqualByComparingTo("40");
+        // 0.5 * (55 - 80) = -12.5, then 0.5 * (40 - 55) + 0.5 * -12.5 = -13.75
+        assertThat(f.getPunkteTrend()).isEqualByComparingTo("-13.75");
+        assertThat(f.getGruende()).isEqualTo("nicht_bestanden,punkte_trend");
+    }
+
+    @Test
+    void shouldRecomputeTestFeaturesFromFullHistory() {
+        // Given: features counted twice, e.g. after a merge moved the results of a duplicate
+        Fruehwarnung bestand = new Fruehwarnung(new Fruehwarnung.Id(1, 10));
+        bestand.setBewertungen(5);
+        bestand.setNichtBestandenSerie(3);
+        bestand.setGefaehrdet(true);
+        when(fruehwarnungRepository.findAllById(any())).thenReturn(List.of(bestand));
+        when(bewertungRepository.findVerlaufBis(eq(10), eq(Set.of(1)), any(), eq(0)))
+                .thenReturn(List.of(bewertung(1, "80", true), bewertung(2, "55", false)));
+
+        // When
+        fruehwarnungService.neuBerechnen(10, Set.of(1));
+
+        // Then
+        assertThat(bestand.getBewertungen()).isEqualTo(2);
+        assertThat(bestand.getNichtBestandenSerie()).isEqualTo(1);
+        assertThat(bestand.getPunkteTrend()).isEqualByComparingTo("-12.5");
+        assertThat(bestand.getGruende()).isEqualTo("punkte_trend");
+        verify(fruehwarnungRepository).saveAll(any());
+    }
+
+    private static AnwesenheitRepository.Aenderung anwesenheit(int id, LocalDate datum, boolean anwesend) {
+        return new AnwesenheitRepository.Aenderung() {
+            public Integer getId() {
+                return id;
+            }
+
+            public Integer getTeilnehmerId() {
+                return 10;
+            }
+
+            public Integer getKursId() {
+                return 1;
+            }
+
+            public LocalDate getDatum() {
+                return datum;
+            }
+
+            public Boolean getAnwesend() {
+                return anwesend;
+            }
+
+            public LocalDateTime getGeaendertAm() {
+                return STAND.plusMinutes(id);
+            }
+        };
+    }
+
+    private static AnwesenheitRepository.MatrixEintrag verlauf(LocalDate datum, boolean anwesend) {
+        return new AnwesenheitRepository.MatrixEintrag() {
+            public Integer getTeilnehmerId() {
+                return 10;
+            }
+
+            public LocalDate getDatum() {
+                return datum;
+            }
+
+            public Boolean getAnwesend() {
+                return anwesend;
+            }
+
+            public Boolean getEntschuldigt() {
+                return false;
+            }
+        };
+    }
+
+    private static BewertungRepository.Neu bewertung(int id, String punkte, boolean bestanden) {
+        return new BewertungRepository.Neu() {
+            public Integer getId() {
+                return id;
+            }
+
+            public Integer getTeilnehmerId() {
+                return 10;
+            }
+
+            public Integer getKursId() {
+                return 1;
+            }
+
+            public BigDecimal getPunkteErreicht() {
+                return new BigDecimal(punkte);
+            }
+
+            public BigDecimal getPunkteMaximal() {
+                return BigDecimal.valueOf(100);
+            }
+
+            public Boolean getBestanden() {
+                return bestanden;
+            }
+
+            public LocalDateTime getErstelltAm() {
+                return STAND.plusMinutes(id);
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.ImportJobDto;
+import com.bildungsinsitut.deutschkurse.dto.TeilnehmerDto;
+import com.bildungsinsitut.deutschkurse.enums.AnmeldungStatus;
+import com.bildungsinsitut.deutschkurse.enums.ImportStatus;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    @Mock
+    private TeilnehmerService teilnehmerService;
+
+    @Mock
+    private TeilnehmerKursService teilnehmerKursService;
+
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ImportService(teilnehmerService, teilnehmerKursService, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "enrollmentBatchSize", 50);
+        ReflectionTestUtils.setField(importService, "maxErrors", 100);
+    }
+
+    @Test
+    void shouldImportDeduplicateAndEnrollAcrossChunks() {
+        // Given: Dora already exists; Anna appears twice, the second time in another chunk and course
+        String csv = """
+                vorname;nachname;email;geburtsdatum;kurs_id
+                Anna;Muster;anna@example.com;01.02.1990;7
+                Ben;;ben@example.com;;7
+                Carla;Neu;carla@example.com;;
+                Anna;Muster;ANNA@example.com;;8
+                Dora;Alt;dora@example.com;;7
+                """;
+        Map<String, TeilnehmerService.ImportTreffer> treffer = Map.of(
+                "anna@example.com", new TeilnehmerService.ImportTreffer(1, false),
+                "carla@example.com", new TeilnehmerService.ImportTreffer(2, false),
+                "dora@example.com", new TeilnehmerService.ImportTreffer(50, true));
+        when(teilnehmerService.importTeilnehmer(anyList())).thenAnswer(invocation -> {
+            List<TeilnehmerDto> neu = invocation.getArgument(0);
+            return neu.stream().map(dto -> treffer.get(dto.getEmail())).toList();
+        });
+        when(teilnehmerKursService.enrollBatch(7, List.of(1, 50))).thenReturn(List.of(
+                new TeilnehmerKursService.EnrollmentResult(1, AnmeldungStatus.angemeldet, 100, null, "Enrolled"),
+                new TeilnehmerKursService.EnrollmentResult(50, AnmeldungStatus.warteliste, null, 1, "Waitlisted")));
+        when(teilnehmerKursService.enrollBatch(8, List.of(1)))
+                .thenThrow(new ResourceNotFoundException("Kurs not found with id: 8"));
+
+        // When
+        ImportJobDto job = importService.submit(csvFile(csv));
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportStatus.abgeschlossen);
+        assertThat(job.getZeilen()).isEqualTo(5);
+        assertThat(job.getAngelegt()).isEqualTo(2);
+        assertThat(job.getVorhanden()).isEqualTo(1);
+        assertThat(job.getDoppelt()).isEqualTo(1);
+        assertThat(job.getEingeschrieben()).isEqualTo(1);
+        assertThat(job.getWarteliste()).isEqualTo(1);
+        assertThat(job.getEinschreibungenVerarbeitet()).isEqualTo(3);
+        assertThat(job.getFehler()).extracting(ImportJobDto.Zeilenfehler::zeile, ImportJobDto.Zeilenfehler::meldung)
+                .containsExactly(tuple(3L, "nachname is required"), tuple(5L, "Kurs not found with id: 8"));
+        verify(teilnehmerService, times(3)).importTeilnehmer(argThat(neu -> neu.size() == 1));
+        verify(teilnehmerService).importTeilnehmer(argThat(neu -> !neu.isEmpty()
+                && LocalDate.of(1990, 2, 1).equals(neu.get(0).getGeburtsdatum())));
+    }
+
+    @Test
+    void shouldFailJobWithoutRequiredColumns() {
+        // Given
+        String csv = "vorname,email\nAnna,anna@example.com\n";
+
+        // When
+        ImportJobDto job = importService.submit(csvFile(csv));
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportStatus.fehlgeschlagen);
+        assertThat(job.getMessage()).contains("vorname and nachname");
+        verifyNoInteractions(teilnehmerService, teilnehmerKursService);
+    }
+
+    private static MockMultipartFile csvFile(String csv) {
+        return new MockMultipartFile("file", "import.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
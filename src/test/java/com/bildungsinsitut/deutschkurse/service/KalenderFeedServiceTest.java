@@ -0,0 +1,187 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.KalenderTyp;
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Kursraum;
+import com.bildungsinsitut.deutschkurse.model.Stundenplan;
+import com.bildungsinsitut.deutschkurse.model.Trainer;
+import com.bildungsinsitut.deutschkurse.repository.KursraumRepository;
+import com.bildungsinsitut.deutschkurse.repository.StundenplanRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerKursRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KalenderFeedServiceTest {
+
+    @Mock
+    private StundenplanRepository stundenplanRepository;
+
+    @Mock
+    private TeilnehmerKursRepository teilnehmerKursRepository;
+
+    @Mock
+    private TrainerRepository trainerRepository;
+
+    @Mock
+    private KursraumRepository kursraumRepository;
+
+    @Mock
+    private TeilnehmerRepository teilnehmerRepository;
+
+    @InjectMocks
+    private KalenderFeedService kalenderFeedService;
+
+    private Kurs kurs;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(kalenderFeedService, "zeitzone", "Europe/Berlin");
+        ReflectionTestUtils.setField(kalenderFeedService, "uidDomain", "test.local");
+        ReflectionTestUtils.setField(kalenderFeedService, "feedSecret", "test-secret");
+        ReflectionTestUtils.setField(kalenderFeedService, "maxEntries", 100);
+
+        Kursraum raum = new Kursraum();
+        raum.setId(3);
+        raum.setRaumName("Raum 1, Erdgeschoss");
+        Trainer trainer = new Trainer();
+        trainer.setId(7);
+        trainer.setVorname("Anna");
+        trainer.setNachname("Berger");
+
+        kurs = new Kurs();
+        kurs.setId(1);
+        kurs.setKursName("Deutsch A1 - Abendkurs; Gruppe 2");
+        kurs.setStatus(KursStatusType.geplant);
+        kurs.setStartdatum(LocalDate.of(2025, 3, 3));
+        kurs.setEnddatum(LocalDate.of(2025, 6, 27));
+        kurs.setKursraum(raum);
+        kurs.setTrainer(trainer);
+        kurs.setGeaendertAm(LocalDateTime.of(2025, 2, 1, 12, 0));
+    }
+
+    @Test
+    void shouldRenderWeeklyEventWithUtcUntil() {
+        // Given
+        when(stundenplanRepository.findByAktivTrueAndKursTrainerId(7)).thenReturn(new ArrayList<>(List.of(
+                stundenplan(11, "Mittwoch"))));
+
+        // When
+        KalenderFeedService.Feed feed = kalenderFeedService.getFeed(KalenderTyp.trainer, 7, token(KalenderTyp.trainer, 7));
+
+        // Then
+        assertThat(feed.body())
+                .startsWith("BEGIN:VCALENDAR\r\n")
+                .contains("UID:stundenplan-11@test.local\r\n")
+                .contains("DTSTART;TZID=Europe/Berlin:20250305T180000\r\n")
+                .contains("RRULE:FREQ=WEEKLY;UNTIL=20250627T180000Z\r\n")
+                .contains("SUMMARY:Deutsch A1 - Abendkurs\\; Gruppe 2\r\n")
+                .contains("LOCATION:Raum 1\\, Erdgeschoss\r\n")
+                .endsWith("END:VCALENDAR\r\n");
+        assertThat(feed.body().lines()).allSatisfy(line -> assertThat(line.length()).isLessThanOrEqualTo(75));
+        assertThat(feed.etag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void shouldServeFromCacheUntilCourseChanges() {
+        // Given
+        when(stundenplanRepository.findByAktivTrueAndKursTrainerId(7))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(stundenplan(11, "Mittwoch"))));
+        String token = token(KalenderTyp.trainer, 7);
+        KalenderFeedService.Feed first = kalenderFeedService.getFeed(KalenderTyp.trainer, 7, token);
+
+        // When
+        KalenderFeedService.Feed cached = kalenderFeedService.getFeed(KalenderTyp.trainer, 7, token);
+        kalenderFeedService.invalidateTeilnehmer(99);
+        KalenderFeedService.Feed afterUnrelatedChange = kalenderFeedService.getFeed(KalenderTyp.trainer, 7, token);
+        kalenderFeedService.invalidateKurs(1);
+        KalenderFeedService.Feed rebuilt = kalenderFeedService.getFeed(KalenderTyp.trainer, 7, token);
+
+        // Then
+        assertThat(cached).isSameAs(first);
+        assertThat(afterUnrelatedChange).isSameAs(first);
+        assertThat(rebuilt).isNotSameAs(first);
+        assertThat(rebuilt.etag()).isEqualTo(first.etag());
+        verify(stundenplanRepository, times(2)).findByAktivTrueAndKursTrainerId(7);
+    }
+
+    @Test
+    void shouldNotKeepFeedBuiltWhileCourseChanged() {
+        // Given
+        when(stundenplanRepository.findByAktivTrueAndKursTrainerId(7)).thenAnswer(invocation -> {
+            kalenderFeedService.invalidateKurs(1);
+            return new ArrayList<>(List.of(stundenplan(11, "Mittwoch")));
+        });
+        String token = token(KalenderTyp.trainer, 7);
+
+        // When
+        KalenderFeedService.Feed feed = kalenderFeedService.getFeed(KalenderTyp.trainer, 7, token);
+
+        // Then
+        assertThat(feed.body()).contains("UID:stundenplan-11@test.local\r\n");
+        assertThat(kalenderFeedService.size()).isZero();
+    }
+
+    @Test
+    void shouldDropFeedsWhenTrainerChanges() {
+        // Given
+        when(stundenplanRepository.findByAktivTrueAndKursTrainerId(7))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(stundenplan(11, "Mittwoch"))));
+        String token = token(KalenderTyp.trainer, 7);
+        kalenderFeedService.getFeed(KalenderTyp.trainer, 7, token);
+
+        // When
+        kalenderFeedService.onStammdatenGeaendert(new StammdatenGeaendertEvent(SuchTyp.teilnehmer, List.of(5)));
+        int afterStudentChange = kalenderFeedService.size();
+        kalenderFeedService.onStammdatenGeaendert(new StammdatenGeaendertEvent(SuchTyp.trainer, List.of(7)));
+
+        // Then
+        assertThat(afterStudentChange).isEqualTo(1);
+        assertThat(kalenderFeedService.size()).isZero();
+    }
+
+    @Test
+    void shouldRejectWrongToken() {
+        assertThatThrownBy(() -> kalenderFeedService.getFeed(KalenderTyp.teilnehmer, 5, token(KalenderTyp.teilnehmer, 6)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(stundenplanRepository, teilnehmerKursRepository);
+    }
+
+    private String token(KalenderTyp typ, Integer id) {
+        return kalenderFeedService.feedToken(typ, id);
+    }
+
+    private Stundenplan stundenplan(Integer id, String wochentag) {
+        Stundenplan stundenplan = new Stundenplan();
+        stundenplan.setId(id);
+        stundenplan.setKurs(kurs);
+        stundenplan.setWochentag(wochentag);
+        stundenplan.setStartzeit(LocalTime.of(18, 0));
+        stundenplan.setEndzeit(LocalTime.of(20, 0));
+        stundenplan.setBemerkungen("Bitte Lehrbuch mitbringen, Kapitel 1 bis 3 wiederholen und die Hausaufgaben abgeben");
+        stundenplan.setAktiv(true);
+        stundenplan.setErstelltAm(LocalDateTime.of(2025, 1, 15, 9, 0));
+        return stundenplan;
+    }
+}
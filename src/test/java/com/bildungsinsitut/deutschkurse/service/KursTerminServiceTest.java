@@ -0,0 +1,187 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.KursTerminFilter;
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.mapper.KursTerminMapper;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.KursTermin;
+import com.bildungsinsitut.deutschkurse.model.Kursraum;
+import com.bildungsinsitut.deutschkurse.model.Stundenplan;
+import com.bildungsinsitut.deutschkurse.model.Trainer;
+import com.bildungsinsitut.deutschkurse.repository.KursTerminRepository;
+import com.bildungsinsitut.deutschkurse.repository.StundenplanRepository;
+import com.bildungsinsitut.deutschkurse.util.Wochentage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KursTerminServiceTest {
+
+    @Mock
+    private KursTerminRepository kursTerminRepository;
+
+    @Mock
+    private StundenplanRepository stundenplanRepository;
+
+    @Mock
+    private KursTerminMapper kursTerminMapper;
+
+    @InjectMocks
+    private KursTerminService kursTerminService;
+
+    private final LocalDate heute = LocalDate.now();
+    private Kurs kurs;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(kursTerminService, "horizonWeeks", 26);
+        ReflectionTestUtils.setField(kursTerminService, "maxRangeDays", 93);
+
+        kurs = new Kurs();
+        kurs.setId(1);
+        kurs.setStatus(KursStatusType.laufend);
+        kurs.setStartdatum(heute.minusWeeks(4));
+        kurs.setEnddatum(heute.plusWeeks(4));
+        kurs.setKursraum(raum(1));
+        kurs.setTrainer(trainer(1));
+    }
+
+    @Test
+    void shouldCreateOneSessionPerWeekUntilCourseEnd() {
+        // Given
+        Stundenplan montag = stundenplan("Montag", LocalTime.of(9, 0));
+        when(kursTerminRepository.findByStundenplanIdAndDatumGreaterThanEqual(10, heute)).thenReturn(List.of());
+
+        // When
+        KursTerminService.Aenderungen aenderungen = kursTerminService.regenerate(montag);
+
+        // Then
+        List<KursTermin> saved = captureSaved();
+        assertThat(aenderungen.neu()).isEqualTo(saved.size()).isBetween(4, 5);
+        assertThat(saved).allSatisfy(termin -> {
+            assertThat(termin.getDatum().getDayOfWeek()).isEqualTo(Wochentage.parse("Montag"));
+            assertThat(termin.getDatum()).isBetween(heute, kurs.getEnddatum());
+            assertThat(termin.getStartzeit()).isEqualTo(LocalTime.of(9, 0));
+            assertThat(termin.getKursraum().getId()).isEqualTo(1);
+        });
+        verify(kursTerminRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void shouldKeepUnchangedSessionsAndUpdateMovedOnes() {
+        // Given
+        Stundenplan montag = stundenplan("Montag", LocalTime.of(9, 0));
+        List<LocalDate> daten = montage();
+        KursTermin unveraendert = termin(montag, daten.get(0), LocalTime.of(9, 0), raum(1));
+        KursTermin alterRaum = termin(montag, daten.get(1), LocalTime.of(9, 0), raum(2));
+        when(kursTerminRepository.findByStundenplanIdAndDatumGreaterThanEqual(10, heute))
+                .thenReturn(List.of(unveraendert, alterRaum));
+
+        // When
+        KursTerminService.Aenderungen aenderungen = kursTerminService.regenerate(montag);
+
+        // Then
+        assertThat(aenderungen.geaendert()).isEqualTo(1);
+        assertThat(aenderungen.neu()).isEqualTo(daten.size() - 2);
+        assertThat(aenderungen.entfernt()).isZero();
+        assertThat(alterRaum.getKursraum().getId()).isEqualTo(1);
+        assertThat(captureSaved()).doesNotContain(unveraendert, alterRaum);
+    }
+
+    @Test
+    void shouldRemoveFutureSessionsOfInactiveEntry() {
+        // Given
+        Stundenplan montag = stundenplan("Montag", LocalTime.of(9, 0));
+        montag.setAktiv(false);
+        KursTermin kuenftig = termin(montag, montage().get(0), LocalTime.of(9, 0), raum(1));
+        when(kursTerminRepository.findByStundenplanIdAndDatumGreaterThanEqual(10, heute)).thenReturn(List.of(kuenftig));
+
+        // When
+        KursTerminService.Aenderungen aenderungen = kursTerminService.regenerate(montag);
+
+        // Then
+        assertThat(aenderungen.entfernt()).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<KursTermin>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(kursTerminRepository).deleteAllInBatch(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly(kuenftig);
+    }
+
+    @Test
+    void shouldRejectTooLongRange() {
+        KursTerminFilter filter = new KursTerminFilter();
+        filter.setVon(heute);
+        filter.setBis(heute.plusYears(1));
+
+        assertThatThrownBy(() -> kursTerminService.getTermine(filter))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<LocalDate> montage() {
+        List<LocalDate> daten = new ArrayList<>();
+        for (LocalDate datum = heute.with(TemporalAdjusters.nextOrSame(Wochentage.parse("Montag")));
+             !datum.isAfter(kurs.getEnddatum()); datum = datum.plusWeeks(1)) {
+            daten.add(datum);
+        }
+        return daten;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<KursTermin> captureSaved() {
+        ArgumentCaptor<List<KursTermin>> saved = ArgumentCaptor.forClass(List.class);
+        verify(kursTerminRepository).saveAll(saved.capture());
+        return saved.getValue();
+    }
+
+    private Stundenplan stundenplan(String wochentag, LocalTime start) {
+        Stundenplan stundenplan = new Stundenplan();
+        stundenplan.setId(10);
+        stundenplan.setKurs(kurs);
+        stundenplan.setWochentag(wochentag);
+        stundenplan.setStartzeit(start);
+        stundenplan.setEndzeit(start.plusMinutes(90));
+        stundenplan.setAktiv(true);
+        return stundenplan;
+    }
+
+    private KursTermin termin(Stundenplan stundenplan, LocalDate datum, LocalTime start, Kursraum raum) {
+        KursTermin termin = new KursTermin();
+        termin.setStundenplan(stundenplan);
+        termin.setKurs(kurs);
+        termin.setKursraum(raum);
+        termin.setTrainer(kurs.getTrainer());
+        termin.setDatum(datum);
+        termin.setStartzeit(start);
+        termin.setEndzeit(start.plusMinutes(90));
+        return termin;
+    }
+
+    private static Kursraum raum(int id) {
+        Kursraum raum = new Kursraum();
+        raum.setId(id);
+        return raum;
+    }
+
+    private static Trainer trainer(int id) {
+        Trainer trainer = new Trainer();
+        trainer.setId(id);
+        return trainer;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.KursDto;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.KursBelegungGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KurskatalogServiceTest {
+
+    @Mock
+    private KursService kursService;
+
+    @Test
+    void shouldServeSnapshotUntilAChangeCommits() {
+        // Given
+        KurskatalogService katalog = new KurskatalogService(kursService, new ObjectMapper(), Runnable::run);
+        when(kursService.getVerfuegbareKurse()).thenReturn(List.of(kurs(1, 11)), List.of(kurs(1, 12)));
+        KurskatalogService.Snapshot erster = katalog.get();
+
+        // When
+        KurskatalogService.Snapshot unveraendert = katalog.get();
+        katalog.onStammdatenGeaendert(StammdatenGeaendertEvent.of(SuchTyp.teilnehmer, 5));
+        KurskatalogService.Snapshot nochUnveraendert = katalog.get();
+        katalog.onKursBelegungGeaendert(KursBelegungGeaendertEvent.of(1));
+        KurskatalogService.Snapshot neu = katalog.get();
+
+        // Then
+        assertThat(unveraendert).isSameAs(erster);
+        assertThat(nochUnveraendert).isSameAs(erster);
+        assertThat(new String(neu.json(), StandardCharsets.UTF_8)).contains("\"aktuelleTeilnehmer\":12");
+        assertThat(neu.etag()).isNotEqualTo(erster.etag());
+        verify(kursService, times(2)).getVerfuegbareKurse();
+    }
+
+    @Test
+    void shouldCoalesceBurstOfChangesIntoOneRebuild() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        KurskatalogService katalog = new KurskatalogService(kursService, new ObjectMapper(), queued::add);
+        when(kursService.getVerfuegbareKurse()).thenReturn(List.of(kurs(1, 11)));
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            katalog.onKursBelegungGeaendert(KursBelegungGeaendertEvent.of(1));
+        }
+        queued.forEach(Runnable::run);
+        katalog.get();
+
+        // Then
+        assertThat(queued).hasSize(1);
+        verify(kursService, times(1)).getVerfuegbareKurse();
+    }
+
+    private KursDto kurs(Integer id, int aktuelleTeilnehmer) {
+        KursDto kurs = new KursDto();
+        kurs.setId(id);
+        kurs.setKursName("Deutsch B1");
+        kurs.setMaxTeilnehmer(12);
+        kurs.setAktuelleTeilnehmer(aktuelleTeilnehmer);
+        return kurs;
+    }
+}
@@ -0,0 +1,61 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastLoginRecorderTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 9, 1, 8, 0);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFlushLatestLoginPerUserInOneBatch() {
+        // Given
+        lastLoginRecorder.record(1, T0);
+        lastLoginRecorder.record(1, T0.plusMinutes(5));
+        lastLoginRecorder.record(1, T0.plusMinutes(2));
+        lastLoginRecorder.record(2, T0);
+
+        // When
+        lastLoginRecorder.flush();
+        lastLoginRecorder.flush();
+
+        // Then
+        ArgumentCaptor<Map<Integer, LocalDateTime>> batch = ArgumentCaptor.forClass(Map.class);
+        verify(userRepository, times(1)).updateLastLogins(batch.capture());
+        assertThat(batch.getValue()).containsExactlyInAnyOrderEntriesOf(Map.of(1, T0.plusMinutes(5), 2, T0));
+        assertThat(lastLoginRecorder.pendingFor(1)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepPendingValuesWhenFlushFails() {
+        // Given
+        lastLoginRecorder.record(1, T0);
+        doThrow(new RuntimeException("connection lost")).when(userRepository).updateLastLogins(anyMap());
+
+        // When
+        lastLoginRecorder.flush();
+
+        // Then
+        assertThat(lastLoginRecorder.pendingFor(1)).contains(T0);
+    }
+}
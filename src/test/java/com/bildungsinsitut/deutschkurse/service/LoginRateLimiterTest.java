@@ -0,0 +1,78 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        loginRateLimiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(loginRateLimiter, "perUserCapacity", 3);
+        ReflectionTestUtils.setField(loginRateLimiter, "perUserRefillPerMinute", 1.0);
+        ReflectionTestUtils.setField(loginRateLimiter, "perIpCapacity", 10);
+        ReflectionTestUtils.setField(loginRateLimiter, "perIpRefillPerMinute", 1.0);
+    }
+
+    @Test
+    void shouldThrottleUsernameAfterFailedAttempts() {
+        // Given - failure budget used up, case-insensitive per username
+        loginRateLimiter.recordFailure("anna");
+        loginRateLimiter.recordFailure("Anna");
+        loginRateLimiter.recordFailure("ANNA ");
+
+        // When & Then
+        assertThatThrownBy(() -> loginRateLimiter.acquire("anna", "10.0.0.4"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds()).isBetween(1L, 60L));
+
+        // Other accounts are unaffected
+        assertThatCode(() -> loginRateLimiter.acquire("ben", "10.0.0.4")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldNotChargeUsernameForSuccessfulLogins() {
+        // When & Then - successful logins from many addresses never exhaust the account
+        for (int i = 0; i < 5; i++) {
+            String ip = "10.0.1." + i;
+            assertThatCode(() -> loginRateLimiter.acquire("anna", ip)).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void shouldNotTakeIpTokenWhenUsernameIsThrottled() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.recordFailure("anna");
+        }
+
+        // When - rejected attempts for the locked account
+        for (int i = 0; i < 20; i++) {
+            assertThatThrownBy(() -> loginRateLimiter.acquire("anna", "10.0.0.7"))
+                    .isInstanceOf(TooManyRequestsException.class);
+        }
+
+        // Then - the address still has its full budget
+        for (int i = 0; i < 10; i++) {
+            loginRateLimiter.acquire("user" + i, "10.0.0.7");
+        }
+    }
+
+    @Test
+    void shouldThrottleIpAcrossUsernames() {
+        // Given - credential stuffing: one address, many accounts
+        for (int i = 0; i < 10; i++) {
+            loginRateLimiter.acquire("user" + i, "10.0.0.9");
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> loginRateLimiter.acquire("user10", "10.0.0.9"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.ReferenzTyp;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.repository.AbteilungRepository;
+import com.bildungsinsitut.deutschkurse.repository.KursraumRepository;
+import com.bildungsinsitut.deutschkurse.repository.KurstypRepository;
+import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenzdatenCacheTest {
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+
+    @Mock
+    private KurstypRepository kurstypRepository;
+
+    @Mock
+    private KursraumRepository kursraumRepository;
+
+    @Mock
+    private AbteilungRepository abteilungRepository;
+
+    @Mock
+    private TrainerRepository trainerRepository;
+
+    @InjectMocks
+    private ReferenzdatenCache referenzdatenCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(referenzdatenCache, "maxAgeMinutes", 60L);
+    }
+
+    @Test
+    void shouldLoadOnceAndCountHitsAndMisses() {
+        // Given
+        when(kurstypRepository.findReferenzEintrag(1)).thenReturn(Optional.of(projections.createProjection(
+                KurstypRepository.ReferenzEintrag.class,
+                Map.of("id", 1, "kurstypCode", "B1", "kurstypName", "Mittelstufe", "levelOrder", 3, "aktiv", true))));
+        when(kurstypRepository.findReferenzEintrag(9)).thenReturn(Optional.empty());
+
+        // When
+        referenzdatenCache.getKurstyp(1);
+        Optional<ReferenzdatenCache.KurstypInfo> kurstyp = referenzdatenCache.getKurstyp(1);
+        referenzdatenCache.getKurstyp(9);
+        referenzdatenCache.getKurstyp(9);
+
+        // Then
+        assertThat(kurstyp).contains(new ReferenzdatenCache.KurstypInfo(1, "B1", "Mittelstufe", 3, true));
+        verify(kurstypRepository, times(1)).findReferenzEintrag(1);
+        // Unknown ids are looked up every time and never cached
+        verify(kurstypRepository, times(2)).findReferenzEintrag(9);
+        assertThat(referenzdatenCache.getStatistik()).first()
+                .isEqualTo(new ReferenzdatenCache.Statistik(ReferenzTyp.kurstyp, 1, 1, 3, 0, 25.0));
+    }
+
+    @Test
+    void shouldReloadTrainerNameAfterChange() {
+        // Given
+        when(trainerRepository.findReferenzEintrag(4)).thenReturn(
+                Optional.of(trainer(4, "Petra", "Mühlberg")),
+                Optional.of(trainer(4, "Petra", "Schulz")));
+        assertThat(referenzdatenCache.getTrainer(4)).map(ReferenzdatenCache.TrainerInfo::name).contains("Petra Mühlberg");
+
+        // When
+        referenzdatenCache.onStammdatenGeaendert(StammdatenGeaendertEvent.of(SuchTyp.trainer, 4));
+
+        // Then
+        assertThat(referenzdatenCache.getTrainer(4)).map(ReferenzdatenCache.TrainerInfo::name).contains("Petra Schulz");
+        verify(trainerRepository, times(2)).findReferenzEintrag(4);
+    }
+
+    private TrainerRepository.ReferenzEintrag trainer(Integer id, String vorname, String nachname) {
+        return projections.createProjection(TrainerRepository.ReferenzEintrag.class,
+                Map.of("id", id, "vorname", vorname, "nachname", nachname));
+    }
+}
@@ -0,0 +1,90 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.model.RefreshToken;
+import com.bildungsinsitut.deutschkurse.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpirationDays", 14L);
+    }
+
+    @Test
+    void shouldRotateWithinSameFamily() {
+        // Given
+        RefreshToken current = createToken(null);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.revokeIfActive(eq(5L), any())).thenReturn(1);
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw-token");
+
+        // Then
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(rotation.userId()).isEqualTo(1);
+        assertThat(rotation.refreshToken()).isNotBlank().isNotEqualTo("raw-token");
+        assertThat(saved.getValue().getFamilyId()).isEqualTo("family-1");
+        assertThat(saved.getValue().getTokenHash()).hasSize(64).isNotEqualTo(rotation.refreshToken());
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+    }
+
+    @Test
+    void shouldRevokeFamilyWhenUsedTokenIsReplayed() {
+        // Given
+        RefreshToken used = createToken(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(used));
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("raw-token"))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token has already been used");
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldRejectUnknownToken() {
+        // Given
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("unknown"))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    private RefreshToken createToken(LocalDateTime revokedAt) {
+        RefreshToken token = new RefreshToken();
+        token.setId(5L);
+        token.setUserId(1);
+        token.setFamilyId("family-1");
+        token.setExpiresAt(LocalDateTime.now().plusDays(1));
+        token.setRevokedAt(revokedAt);
+        return token;
+    }
+}
@@ -0,0 +1,166 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.ScheduleConflictDto;
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.RessourceTyp;
+import com.bildungsinsitut.deutschkurse.model.Kurs;
+import com.bildungsinsitut.deutschkurse.model.Kursraum;
+import com.bildungsinsitut.deutschkurse.model.Stundenplan;
+import com.bildungsinsitut.deutschkurse.model.Trainer;
+import com.bildungsinsitut.deutschkurse.repository.StundenplanRepository;
+import com.bildungsinsitut.deutschkurse.service.ScheduleConflictIndex.Slot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleConflictIndexTest {
+
+    @Mock
+    private StundenplanRepository stundenplanRepository;
+
+    @InjectMocks
+    private ScheduleConflictIndex index;
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+    private static final LocalDate ENDE = LocalDate.of(2025, 3, 28);
+
+    @BeforeEach
+    void setUp() {
+        when(stundenplanRepository.findByAktivTrue()).thenReturn(List.of());
+        index.load();
+        // Kurs 1 in Raum 10 with Trainer 20, Montag 09:00-12:00
+        index.put(slot(1, 1, 10, 20, "Montag", "09:00", "12:00"));
+    }
+
+    @Test
+    void shouldDetectRoomConflictOfOtherCourse() {
+        // Given - other course, other trainer, same room
+        Slot candidate = slot(2, 2, 10, 21, "montag", "11:00", "13:00");
+
+        // When
+        List<ScheduleConflictDto> conflicts = index.findConflicts(candidate);
+
+        // Then
+        assertThat(conflicts).singleElement()
+                .extracting(ScheduleConflictDto::getRessource, ScheduleConflictDto::getStundenplanId)
+                .containsExactly(RessourceTyp.kursraum, 1);
+        assertThatThrownBy(() -> index.put(candidate))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Kursraum 10 is already booked on Montag");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDetectTrainerConflictInOtherRoom() {
+        assertThat(index.findConflicts(slot(2, 2, 11, 20, "Montag", "08:00", "09:30")))
+                .extracting(ScheduleConflictDto::getRessource)
+                .containsExactly(RessourceTyp.trainer);
+    }
+
+    @Test
+    void shouldAllowBackToBackAndOtherWeekdays() {
+        index.put(slot(2, 2, 10, 20, "Montag", "12:00", "13:30"));
+        index.put(slot(3, 3, 10, 20, "Dienstag", "09:00", "12:00"));
+
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReplaceSlotOnUpdateWithoutConflictingWithItself() {
+        // When - the slot is moved within its own time range
+        index.put(slot(1, 1, 10, 20, "Montag", "10:00", "13:00"));
+
+        // Then
+        assertThat(index.findConflicts(slot(2, 2, 11, 21, "Montag", "09:00", "10:00"))).isEmpty();
+        assertThat(index.findConflicts(slot(2, 2, 10, 21, "Montag", "12:30", "14:00"))).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectMovingCourseIntoBookedRoomAndKeepOldSlots() {
+        // Given - Kurs 2 uses Raum 11 at the same time
+        index.put(slot(2, 2, 11, 21, "Montag", "09:00", "12:00"));
+
+        Kurs kurs = kurs(1, 11, 20, START, ENDE, KursStatusType.laufend);
+        when(stundenplanRepository.findByKursId(1)).thenReturn(List.of(stundenplan(1, kurs, "Montag", "09:00", "12:00")));
+
+        // When & Then - Kurs 1 cannot move to Raum 11
+        assertThatThrownBy(() -> index.moveKurs(kurs))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(index.findConflicts(slot(3, 3, 10, 22, "Montag", "10:00", "11:00")))
+                .extracting(ScheduleConflictDto::getKursId)
+                .containsExactly(1);
+    }
+
+    @Test
+    void shouldAllowConsecutiveCoursesInSameRoomAndSlot() {
+        // Given - Kurs 2 follows Kurs 1 in the next term, same room, trainer and time
+        Slot folgekurs = new Slot(2, 2, 10, 20, ENDE.plusDays(3), ENDE.plusMonths(3), "Montag",
+                LocalTime.parse("09:00"), LocalTime.parse("12:00"));
+        Slot ueberlappend = new Slot(3, 3, 10, 21, ENDE, ENDE.plusMonths(3), "Montag",
+                LocalTime.parse("09:00"), LocalTime.parse("12:00"));
+
+        // When
+        index.put(folgekurs);
+
+        // Then - a course starting on the last day of Kurs 1 still collides
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.findConflicts(ueberlappend))
+                .extracting(ScheduleConflictDto::getKursId)
+                .containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void shouldFreeSlotsOfFinishedCourse() {
+        // Given
+        Kurs kurs = kurs(1, 10, 20, START, ENDE, KursStatusType.abgeschlossen);
+
+        // When
+        index.moveKurs(kurs);
+
+        // Then
+        assertThat(index.size()).isZero();
+        assertThat(index.findConflicts(slot(2, 2, 10, 20, "Montag", "09:00", "12:00"))).isEmpty();
+        verify(stundenplanRepository, never()).findByKursId(any());
+    }
+
+    private static Slot slot(int id, int kursId, int raumId, int trainerId, String tag, String start, String end) {
+        return new Slot(id, kursId, raumId, trainerId, START, ENDE, tag, LocalTime.parse(start), LocalTime.parse(end));
+    }
+
+    private static Kurs kurs(int id, int raumId, int trainerId, LocalDate start, LocalDate ende, KursStatusType status) {
+        Kursraum raum = new Kursraum();
+        raum.setId(raumId);
+        Trainer trainer = new Trainer();
+        trainer.setId(trainerId);
+        Kurs kurs = new Kurs();
+        kurs.setId(id);
+        kurs.setKursraum(raum);
+        kurs.setTrainer(trainer);
+        kurs.setStartdatum(start);
+        kurs.setEnddatum(ende);
+        kurs.setStatus(status);
+        return kurs;
+    }
+
+    private static Stundenplan stundenplan(int id, Kurs kurs, String tag, String start, String end) {
+        Stundenplan stundenplan = new Stundenplan();
+        stundenplan.setId(id);
+        stundenplan.setKurs(kurs);
+        stundenplan.setWochentag(tag);
+        stundenplan.setStartzeit(LocalTime.parse(start));
+        stundenplan.setEndzeit(LocalTime.parse(end));
+        stundenplan.setAktiv(true);
+        return stundenplan;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
+import com.bildungsinsitut.deutschkurse.enums.SuchTyp;
+import com.bildungsinsitut.deutschkurse.event.StammdatenGeaendertEvent;
+import com.bildungsinsitut.deutschkurse.repository.KursRepository;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import com.bildungsinsitut.deutschkurse.repository.TrainerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+
+    @Mock
+    private TeilnehmerRepository teilnehmerRepository;
+
+    @Mock
+    private TrainerRepository trainerRepository;
+
+    @Mock
+    private KursRepository kursRepository;
+
+    @InjectMocks
+    private SuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(suggestService, "maxScan", 1000);
+        // Small threshold, so the tests also exercise merging the overlay into the arrays
+        ReflectionTestUtils.setField(suggestService, "mergeThreshold", 4);
+        when(teilnehmerRepository.findSuchEintraege()).thenReturn(List.of(
+                teilnehmer(1, "Jürgen", "Müller", "j.mueller@example.com"),
+                teilnehmer(3, "Anna", "Schmidt", "anna@example.com")));
+        when(trainerRepository.findSuchEintraege()).thenReturn(List.of(
+                projections.createProjection(TrainerRepository.SuchEintrag.class,
+                        Map.of("id", 2, "vorname", "Petra", "nachname", "Mühlberg", "email", "petra@example.com"))));
+        when(kursRepository.findSuchEintraege()).thenReturn(List.of(kurs(5, "Deutsch Intensiv", "B1")));
+        suggestService.load();
+    }
+
+    @Test
+    void shouldSuggestAcrossTypesWithUmlautSpellings() {
+        // When
+        List<SuggestService.Vorschlag> mue = suggestService.suggest("Mü", null, null);
+        List<SuggestService.Vorschlag> mueller = suggestService.suggest("mueller jür", null, null);
+        List<SuggestService.Vorschlag> nurTrainer = suggestService.suggest("mu", null, Set.of(SuchTyp.trainer));
+        List<SuggestService.Vorschlag> kurs = suggestService.suggest("b1", null, null);
+
+        // Then
+        assertThat(mue).extracting(SuggestService.Vorschlag::typ, SuggestService.Vorschlag::id)
+                .containsExactly(tuple(SuchTyp.trainer, 2), tuple(SuchTyp.teilnehmer, 1));
+        assertThat(mueller).extracting(SuggestService.Vorschlag::id).containsExactly(1);
+        assertThat(nurTrainer).extracting(SuggestService.Vorschlag::id).containsExactly(2);
+        assertThat(kurs).singleElement().satisfies(v -> {
+            assertThat(v.typ()).isEqualTo(SuchTyp.kurs);
+            assertThat(v.detail()).isEqualTo("B1, laufend, ab 2026-09-07");
+        });
+    }
+
+    @Test
+    void shouldApplyChangeEvents() {
+        // Given: student 1 was renamed, student 3 deactivated, student 4 created
+        when(teilnehmerRepository.findSuchEintraege(List.of(1, 3, 4))).thenReturn(List.of(
+                teilnehmer(1, "Jürgen", "Schulz", null),
+                teilnehmer(4, "Anna", "Schubert", null)));
+
+        // When
+        suggestService.onStammdatenGeaendert(new StammdatenGeaendertEvent(SuchTyp.teilnehmer, List.of(1, 3, 4)));
+
+        // Then
+        assertThat(suggestService.suggest("müller", null, null)).isEmpty();
+        assertThat(suggestService.suggest("schu", null, null)).extracting(SuggestService.Vorschlag::label)
+                .containsExactly("Anna Schubert", "Jürgen Schulz");
+        assertThat(suggestService.suggest("anna", null, null)).extracting(SuggestService.Vorschlag::id)
+                .containsExactly(4);
+        assertThat(suggestService.getStatistik().eintraege()).isEqualTo(4);
+    }
+
+    private TeilnehmerRepository.SuchEintrag teilnehmer(Integer id, String vorname, String nachname, String email) {
+        Map<String, Object> werte = new HashMap<>(Map.of("id", id, "vorname", vorname, "nachname", nachname));
+        werte.put("email", email);
+        return projections.createProjection(TeilnehmerRepository.SuchEintrag.class, werte);
+    }
+
+    private KursRepository.SuchEintrag kurs(Integer id, String name, String code) {
+        return projections.createProjection(KursRepository.SuchEintrag.class, Map.of("id", id, "kursName", name,
+                "kurstypCode", code, "status", KursStatusType.laufend, "startdatum", LocalDate.of(2026, 9, 7)));
+    }
+}
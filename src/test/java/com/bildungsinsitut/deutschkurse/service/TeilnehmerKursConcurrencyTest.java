@@ -0,0 +1,158 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.mapper.KursMapperImpl;
+import com.bildungsinsitut.deutschkurse.mapper.ReferenzNamenMapper;
+import com.bildungsinsitut.deutschkurse.mapper.TeilnehmerMapperImpl;
+import com.bildungsinsitut.deutschkurse.model.*;
+import com.bildungsinsitut.deutschkurse.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs concurrent enrollments against a real database to verify that capacity is never exceeded.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({TeilnehmerKursService.class, KalenderFeedService.class, AttendanceMatrixService.class, ReferenzdatenCache.class,
+        TeilnehmerMapperImpl.class, KursMapperImpl.class, ReferenzNamenMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every thread must see committed data
+class TeilnehmerKursConcurrencyTest {
+
+    private static final int MAX_TEILNEHMER = 5;
+    private static final int BEWERBER = 20;
+
+    @Autowired
+    private TeilnehmerKursService teilnehmerKursService;
+
+    @Autowired
+    private TeilnehmerKursRepository teilnehmerKursRepository;
+
+    @Autowired
+    private TeilnehmerRepository teilnehmerRepository;
+
+    @Autowired
+    private KursRepository kursRepository;
+
+    @Autowired
+    private TrainerRepository trainerRepository;
+
+    @Autowired
+    private KursraumRepository kursraumRepository;
+
+    @Autowired
+    private KurstypRepository kurstypRepository;
+
+    @Autowired
+    private AbteilungRepository abteilungRepository;
+
+    @AfterEach
+    void tearDown() {
+        teilnehmerKursRepository.deleteAll();
+        kursRepository.deleteAll();
+        teilnehmerRepository.deleteAll();
+        trainerRepository.deleteAll();
+        kursraumRepository.deleteAll();
+        kurstypRepository.deleteAll();
+        abteilungRepository.deleteAll();
+    }
+
+    @Test
+    void shouldNeverOverbookUnderConcurrentEnrollment() throws Exception {
+        // Given
+        Integer kursId = createKurs().getId();
+        List<Integer> teilnehmerIds = new ArrayList<>();
+        for (int i = 0; i < BEWERBER; i++) {
+            teilnehmerIds.add(createTeilnehmer(i).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger enrolled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (Integer teilnehmerId : teilnehmerIds) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        teilnehmerKursService.enrollTeilnehmerInKurs(teilnehmerId, kursId);
+                        enrolled.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Then
+        assertThat(enrolled.get()).isEqualTo(MAX_TEILNEHMER);
+        assertThat(rejected.get()).isEqualTo(BEWERBER - MAX_TEILNEHMER);
+        assertThat(kursRepository.findById(kursId).orElseThrow().getAktuelleTeilnehmer())
+                .isEqualTo(MAX_TEILNEHMER);
+        assertThat(teilnehmerKursRepository.findByKursId(kursId)).hasSize(MAX_TEILNEHMER);
+    }
+
+    // ============ TEST DATA CREATION METHODS ============
+
+    private Kurs createKurs() {
+        Abteilung abteilung = new Abteilung();
+        abteilung.setAbteilungName("Sprachen");
+        abteilung = abteilungRepository.save(abteilung);
+
+        Kursraum kursraum = new Kursraum();
+        kursraum.setAbteilung(abteilung);
+        kursraum.setRaumName("Raum 1");
+        kursraum = kursraumRepository.save(kursraum);
+
+        Kurstyp kurstyp = new Kurstyp();
+        kurstyp.setKurstypCode("A1");
+        kurstyp.setKurstypName("Deutsch A1");
+        kurstyp = kurstypRepository.save(kurstyp);
+
+        Trainer trainer = new Trainer();
+        trainer.setVorname("Anna");
+        trainer.setNachname("Schmidt");
+        trainer = trainerRepository.save(trainer);
+
+        Kurs kurs = new Kurs();
+        kurs.setKursName("Deutsch A1 - Anfänger");
+        kurs.setKurstyp(kurstyp);
+        kurs.setKursraum(kursraum);
+        kurs.setTrainer(trainer);
+        kurs.setStartdatum(LocalDate.now().plusDays(7));
+        kurs.setMaxTeilnehmer(MAX_TEILNEHMER);
+        return kursRepository.save(kurs);
+    }
+
+    private Teilnehmer createTeilnehmer(int index) {
+        Teilnehmer teilnehmer = new Teilnehmer();
+        teilnehmer.setVorname("Max" + index);
+        teilnehmer.setNachname("Mustermann");
+        teilnehmer.setEmail("max" + index + "@example.com");
+        return teilnehmerRepository.save(teilnehmer);
+    }
+}
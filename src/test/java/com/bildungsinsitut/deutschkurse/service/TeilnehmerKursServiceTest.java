@@ -2,8 +2,10 @@ package com.bildungsinsitut.deutschkurse.service;
 
 import com.bildungsinsitut.deutschkurse.dto.KursDto;
 import com.bildungsinsitut.deutschkurse.dto.TeilnehmerDto;
+import com.bildungsinsitut.deutschkurse.enums.AnmeldungStatus;
 import com.bildungsinsitut.deutschkurse.enums.KursStatusType;
 import com.bildungsinsitut.deutschkurse.enums.TeilnehmerKursStatus;
+import com.bildungsinsitut.deutschkurse.enums.WartelisteStatus;
 import com.bildungsinsitut.deutschkurse.exception.ResourceNotFoundException;
 import com.bildungsinsitut.deutschkurse.mapper.KursMapper;
 import com.bildungsinsitut.deutschkurse.mapper.TeilnehmerMapper;
@@ -15,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -36,12 +39,24 @@ class TeilnehmerKursServiceTest {
     @Mock
     private KursRepository kursRepository;
 
+    @Mock
+    private WartelisteRepository wartelisteRepository;
+
     @Mock
     private TeilnehmerMapper teilnehmerMapper;
 
     @Mock
     private KursMapper kursMapper;
 
+    @Mock
+    private KalenderFeedService kalenderFeedService;
+
+    @Mock
+    private AttendanceMatrixService attendanceMatrixService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TeilnehmerKursService teilnehmerKursService;
 
@@ -71,8 +86,8 @@ class TeilnehmerKursServiceTest {
         when(kursRepository.findById(kursId)).thenReturn(Optional.of(kurs));
         when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId))
                 .thenReturn(Optional.empty());
+        when(kursRepository.reserveSeat(kursId)).thenReturn(1);
         when(teilnehmerKursRepository.save(any(TeilnehmerKurs.class))).thenReturn(teilnehmerKurs);
-        when(kursRepository.save(any(Kurs.class))).thenReturn(kurs);
 
         // When
         TeilnehmerKurs result = teilnehmerKursService.enrollTeilnehmerInKurs(teilnehmerId, kursId);
@@ -83,10 +98,9 @@ class TeilnehmerKursServiceTest {
         assertThat(result.getAnmeldedatum()).isEqualTo(LocalDate.now());
 
         verify(teilnehmerKursRepository).save(any(TeilnehmerKurs.class));
-        verify(kursRepository).save(kursCaptor.capture());
-
-        Kurs savedKurs = kursCaptor.getValue();
-        assertThat(savedKurs.getAktuelleTeilnehmer()).isEqualTo(6); // 5 + 1
+        verify(kursRepository).reserveSeat(kursId);
+        verify(kursRepository, never()).save(any());
+        verify(attendanceMatrixService).invalidateKurs(kursId);
     }
 
     @Test
@@ -94,12 +108,12 @@ class TeilnehmerKursServiceTest {
         // Given
         Integer teilnehmerId = 1;
         Integer kursId = 1;
-        kurs.setAktuelleTeilnehmer(12); // At max capacity
 
         when(teilnehmerRepository.findById(teilnehmerId)).thenReturn(Optional.of(teilnehmer));
         when(kursRepository.findById(kursId)).thenReturn(Optional.of(kurs));
         when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId))
                 .thenReturn(Optional.empty());
+        when(kursRepository.reserveSeat(kursId)).thenReturn(0); // No free seat left
 
         // When & Then
         assertThatThrownBy(() -> teilnehmerKursService.enrollTeilnehmerInKurs(teilnehmerId, kursId))
@@ -164,24 +178,102 @@ class TeilnehmerKursServiceTest {
         Integer teilnehmerId = 1;
         Integer kursId = 1;
 
+        when(kursRepository.findByIdForUpdate(kursId)).thenReturn(Optional.of(kurs));
         when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId))
                 .thenReturn(Optional.of(teilnehmerKurs));
         when(teilnehmerKursRepository.save(any(TeilnehmerKurs.class))).thenReturn(teilnehmerKurs);
-        when(kursRepository.save(any(Kurs.class))).thenReturn(kurs);
 
         // When
         teilnehmerKursService.removeTeilnehmerFromKurs(teilnehmerId, kursId);
 
         // Then
         verify(teilnehmerKursRepository).save(teilnehmerKursCaptor.capture());
-        verify(kursRepository).save(kursCaptor.capture());
+        verify(kursRepository).releaseSeat(kursId);
+        verify(attendanceMatrixService).invalidateKurs(kursId);
 
         TeilnehmerKurs savedEnrollment = teilnehmerKursCaptor.getValue();
         assertThat(savedEnrollment.getAbmeldedatum()).isEqualTo(LocalDate.now());
         assertThat(savedEnrollment.getStatus()).isEqualTo(TeilnehmerKursStatus.abgebrochen);
+    }
+
+    @Test
+    void shouldNotReleaseSeatTwiceForWithdrawnStudent() {
+        // Given
+        Integer teilnehmerId = 1;
+        Integer kursId = 1;
+        teilnehmerKurs.setStatus(TeilnehmerKursStatus.abgebrochen);
+
+        when(kursRepository.findByIdForUpdate(kursId)).thenReturn(Optional.of(kurs));
+        when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId))
+                .thenReturn(Optional.of(teilnehmerKurs));
+
+        // When
+        teilnehmerKursService.removeTeilnehmerFromKurs(teilnehmerId, kursId);
 
-        Kurs savedKurs = kursCaptor.getValue();
-        assertThat(savedKurs.getAktuelleTeilnehmer()).isEqualTo(4); // 5 - 1
+        // Then
+        verify(kursRepository, never()).releaseSeat(any());
+    }
+
+    @Test
+    void shouldPromoteNextWaitlistedStudentOnWithdrawal() {
+        // Given
+        Integer teilnehmerId = 1;
+        Integer kursId = 1;
+        Teilnehmer wartender = createTestTeilnehmer();
+        wartender.setId(2);
+        Warteliste warteliste = new Warteliste();
+        warteliste.setTeilnehmer(wartender);
+        warteliste.setKurs(kurs);
+        warteliste.setStatus(WartelisteStatus.wartend);
+
+        when(kursRepository.findByIdForUpdate(kursId)).thenReturn(Optional.of(kurs));
+        when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId))
+                .thenReturn(Optional.of(teilnehmerKurs));
+        when(wartelisteRepository.findFirstByKursIdAndStatusOrderByIdAsc(kursId, WartelisteStatus.wartend))
+                .thenReturn(Optional.of(warteliste));
+        when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(2, kursId)).thenReturn(Optional.empty());
+
+        // When
+        teilnehmerKursService.removeTeilnehmerFromKurs(teilnehmerId, kursId);
+
+        // Then
+        verify(teilnehmerKursRepository, times(2)).save(teilnehmerKursCaptor.capture());
+        TeilnehmerKurs promoted = teilnehmerKursCaptor.getAllValues().get(1);
+        assertThat(promoted.getTeilnehmer()).isEqualTo(wartender);
+        assertThat(promoted.getStatus()).isEqualTo(TeilnehmerKursStatus.angemeldet);
+        assertThat(warteliste.getStatus()).isEqualTo(WartelisteStatus.nachgerueckt);
+
+        // The freed seat goes straight to the promoted student
+        verify(kursRepository, never()).releaseSeat(any());
+    }
+
+    @Test
+    void shouldOverflowBatchToWaitlistWhenCourseIsFull() {
+        // Given
+        Integer kursId = 1;
+        kurs.setMaxTeilnehmer(6); // 5 enrolled, one seat left
+        Teilnehmer zweiter = createTestTeilnehmer();
+        zweiter.setId(2);
+
+        when(kursRepository.findByIdForUpdate(kursId)).thenReturn(Optional.of(kurs));
+        when(teilnehmerRepository.findAllById(anyCollection())).thenReturn(List.of(teilnehmer, zweiter));
+        when(teilnehmerKursRepository.findEnrolledTeilnehmerIds(eq(kursId), anyCollection())).thenReturn(List.of());
+        when(wartelisteRepository.findWartendeTeilnehmerIds(eq(kursId), anyCollection())).thenReturn(List.of());
+        when(wartelisteRepository.countByKursIdAndStatus(kursId, WartelisteStatus.wartend)).thenReturn(3L);
+        when(kursRepository.reserveSeats(kursId, 1)).thenReturn(1);
+        when(teilnehmerKursRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<TeilnehmerKursService.EnrollmentResult> results =
+                teilnehmerKursService.enrollBatch(kursId, List.of(1, 2, 1, 999));
+
+        // Then
+        assertThat(results).extracting(TeilnehmerKursService.EnrollmentResult::status).containsExactly(
+                AnmeldungStatus.angemeldet, AnmeldungStatus.warteliste,
+                AnmeldungStatus.abgelehnt, AnmeldungStatus.abgelehnt);
+        assertThat(results.get(1).wartelistePosition()).isEqualTo(4);
+        assertThat(results.get(3).message()).isEqualTo("Teilnehmer not found with id: 999");
+        verify(wartelisteRepository).saveAll(argThat(list -> ((List<?>) list).size() == 1));
     }
 
     @Test
@@ -191,6 +283,7 @@ class TeilnehmerKursServiceTest {
         Integer kursId = 1;
         TeilnehmerKursStatus newStatus = TeilnehmerKursStatus.aktiv;
 
+        when(kursRepository.findByIdForUpdate(kursId)).thenReturn(Optional.of(kurs));
         when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId))
                 .thenReturn(Optional.of(teilnehmerKurs));
         when(teilnehmerKursRepository.save(any(TeilnehmerKurs.class))).thenReturn(teilnehmerKurs);
@@ -204,6 +297,10 @@ class TeilnehmerKursServiceTest {
 
         TeilnehmerKurs savedEnrollment = teilnehmerKursCaptor.getValue();
         assertThat(savedEnrollment.getStatus()).isEqualTo(TeilnehmerKursStatus.aktiv);
+        // angemeldet -> aktiv keeps the seat, the cached roster is reloaded anyway
+        verify(kursRepository, never()).reserveSeat(any());
+        verify(kursRepository, never()).releaseSeat(any());
+        verify(attendanceMatrixService).invalidateKurs(kursId);
     }
 
     @Test
@@ -213,6 +310,7 @@ class TeilnehmerKursServiceTest {
         Integer kursId = 1;
         TeilnehmerKursStatus newStatus = TeilnehmerKursStatus.abgeschlossen;
 
+        when(kursRepository.findByIdForUpdate(kursId)).thenReturn(Optional.of(kurs));
         when(teilnehmerKursRepository.findByTeilnehmerIdAndKursId(teilnehmerId, kursId))
                 .thenReturn(Optional.of(teilnehmerKurs));
         when(teilnehmerKursRepository.save(any(TeilnehmerKurs.class))).thenReturn(teilnehmerKurs);
@@ -226,6 +324,7 @@ class TeilnehmerKursServiceTest {
         TeilnehmerKurs savedEnrollment = teilnehmerKursCaptor.getValue();
         assertThat(savedEnrollment.getStatus()).isEqualTo(TeilnehmerKursStatus.abgeschlossen);
         assertThat(savedEnrollment.getAbmeldedatum()).isEqualTo(LocalDate.now());
+        verify(kursRepository).releaseSeat(kursId);
     }
 
     @Test
@@ -354,7 +453,4 @@ class TeilnehmerKursServiceTest {
 
     @org.mockito.Captor
     private org.mockito.ArgumentCaptor<TeilnehmerKurs> teilnehmerKursCaptor;
-
-    @org.mockito.Captor
-    private org.mockito.ArgumentCaptor<Kurs> kursCaptor;
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.dto.TeilnehmerDto;
+import com.bildungsinsitut.deutschkurse.mapper.TeilnehmerMapper;
+import com.bildungsinsitut.deutschkurse.model.Teilnehmer;
+import com.bildungsinsitut.deutschkurse.repository.TeilnehmerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TeilnehmerServiceTest {
+
+    @Mock
+    private TeilnehmerRepository teilnehmerRepository;
+
+    @Mock
+    private TeilnehmerMapper teilnehmerMapper;
+
+    @InjectMocks
+    private TeilnehmerService teilnehmerService;
+
+    @Test
+    void shouldSearchInSearchFormAndKeepRanking() {
+        // Given
+        when(teilnehmerRepository.searchByName("juergen mueller", 20)).thenReturn(List.of(7, 3));
+        when(teilnehmerRepository.findAllById(List.of(7, 3))).thenReturn(List.of(teilnehmer(3), teilnehmer(7)));
+        when(teilnehmerMapper.toDtoList(anyList())).thenAnswer(invocation -> {
+            List<Teilnehmer> rows = invocation.getArgument(0);
+            return rows.stream().map(t -> {
+                TeilnehmerDto dto = new TeilnehmerDto();
+                dto.setId(t.getId());
+                return dto;
+            }).toList();
+        });
+
+        // When
+        List<TeilnehmerDto> result = teilnehmerService.searchTeilnehmerByName("  Jürgen MÜLLER ", null);
+
+        // Then
+        assertThat(result).extracting(TeilnehmerDto::getId).containsExactly(7, 3);
+    }
+
+    @Test
+    void shouldNotQueryForBlankSearchText() {
+        // When
+        List<TeilnehmerDto> result = teilnehmerService.searchTeilnehmerByEmail("   ", null);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(teilnehmerRepository);
+    }
+
+    @Test
+    void shouldRejectOversizedLimit() {
+        // When & Then
+        assertThatThrownBy(() -> teilnehmerService.searchTeilnehmerByName("anna", 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Teilnehmer teilnehmer(Integer id) {
+        Teilnehmer teilnehmer = new Teilnehmer();
+        teilnehmer.setId(id);
+        return teilnehmer;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import com.bildungsinsitut.deutschkurse.enums.RessourceTyp;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Booking;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Course;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Placement;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Problem;
+import com.bildungsinsitut.deutschkurse.service.TimetableSolver.Solution;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimetableSolverTest {
+
+    private static final int DAYS = 5;
+    private static final int CELLS = 24; // 08:00-20:00 in 30 minute cells
+
+    @Test
+    void shouldFindConflictFreeScheduleRespectingBookings() {
+        // Given - 30 courses, 6 rooms, 10 trainers; room 1 is blocked on Monday morning
+        List<Course> courses = new ArrayList<>();
+        for (int k = 1; k <= 30; k++) {
+            int[] rooms = k % 3 == 0 ? new int[]{1, 2} : new int[]{1, 2, 3, 4, 5, 6};
+            courses.add(new Course(k, 100 + k % 10, 3, 3, rooms, 1 + k % 6));
+        }
+        List<Booking> bookings = List.of(new Booking(RessourceTyp.kursraum, 1, 0, 0, 8));
+
+        // When
+        Solution solution = TimetableSolver.solve(new Problem(courses, DAYS, CELLS, bookings), Runnable::run, 2, 5000, 42);
+
+        // Then
+        assertThat(solution.feasible()).isTrue();
+        assertThat(solution.placements()).hasSize(90);
+        assertNoDoubleBooking(solution, courses);
+        assertThat(solution.placements())
+                .filteredOn(p -> p.roomId() == 1 && p.day() == 0)
+                .allSatisfy(p -> assertThat(p.startCell()).isGreaterThanOrEqualTo(8));
+        assertThat(solution.placements())
+                .filteredOn(p -> p.kursId() % 3 == 0)
+                .allSatisfy(p -> assertThat(p.roomId()).isIn(1, 2));
+    }
+
+    @Test
+    void shouldReportRemainingConflictsWhenOverbooked() {
+        // Given - one trainer needs more 90 minute blocks than the week has
+        List<Course> courses = new ArrayList<>();
+        for (int k = 1; k <= 12; k++) {
+            courses.add(new Course(k, 100, 4, 3, new int[]{k}, k));
+        }
+
+        // When
+        Solution solution = TimetableSolver.solve(new Problem(courses, DAYS, CELLS, List.of()), Runnable::run, 1, 300, 7);
+
+        // Then
+        assertThat(solution.feasible()).isFalse();
+        assertThat(solution.hardViolations()).isPositive();
+    }
+
+    private static void assertNoDoubleBooking(Solution solution, List<Course> courses) {
+        Map<Integer, Integer> trainerOf = new HashMap<>();
+        courses.forEach(c -> trainerOf.put(c.kursId(), c.trainerId()));
+        Set<String> rooms = new HashSet<>();
+        Set<String> trainers = new HashSet<>();
+        for (Placement p : solution.placements()) {
+            for (int cell = p.startCell(); cell < p.startCell() + p.length(); cell++) {
+                assertThat(rooms.add(p.roomId() + "/" + p.day() + "/" + cell)).isTrue();
+                assertThat(trainers.add(trainerOf.get(p.kursId()) + "/" + p.day() + "/" + cell)).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bildungsinsitut.deutschkurse.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TokenDenyListTest {
+
+    private TokenDenyList tokenDenyList;
+
+    @BeforeEach
+    void setUp() {
+        tokenDenyList = new TokenDenyList();
+        ReflectionTestUtils.setField(tokenDenyList, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(tokenDenyList, "falsePositiveRate", 0.01);
+        tokenDenyList.init();
+    }
+
+    @Test
+    void shouldDenyRevokedTokenIdsOnly() {
+        // Given
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        IntStream.range(0, 500).forEach(i -> tokenDenyList.deny("revoked-" + i, expiresAt));
+
+        // Then
+        assertThat(IntStream.range(0, 500).allMatch(i -> tokenDenyList.isDenied("revoked-" + i))).isTrue();
+        assertThat(IntStream.range(0, 500).noneMatch(i -> tokenDenyList.isDenied("valid-" + i))).isTrue();
+        assertThat(tokenDenyList.isDenied(null)).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreAlreadyExpiredTokens() {
+        // When
+        tokenDenyList.deny("expired", System.currentTimeMillis() - 1);
+
+        // Then
+        assertThat(tokenDenyList.isDenied("expired")).isFalse();
+        assertThat(tokenDenyList.size()).isZero();
+    }
+
+    @Test
+    void shouldKeepLiveEntriesWhenPurging() {
+        // Given
+        tokenDenyList.deny("live", System.currentTimeMillis() + 60_000);
+        tokenDenyList.deny("short", System.currentTimeMillis() + 20);
+
+        // When
+        await(50);
+        tokenDenyList.purgeExpired();
+
+        // Then
+        assertThat(tokenDenyList.size()).isEqualTo(1);
+        assertThat(tokenDenyList.isDenied("live")).isTrue();
+        assertThat(tokenDenyList.isDenied("short")).isFalse();
+    }
+
+    @Test
+    void shouldNeverMissRevokedTokenWhilePurging() throws Exception {
+        // Given - short-lived entries keep every purge busy rebuilding the filter
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger missed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?> purger = executor.submit(() -> {
+            while (running.get()) {
+                tokenDenyList.deny("short-" + System.nanoTime(), System.currentTimeMillis() + 1);
+                tokenDenyList.purgeExpired();
+            }
+        });
+
+        // When
+        List<Future<?>> writers = IntStream.range(0, 3).<Future<?>>mapToObj(w -> executor.submit(() -> {
+            for (int i = 0; i < 2000; i++) {
+                String jti = "revoked-" + w + "-" + i;
+                tokenDenyList.deny(jti, System.currentTimeMillis() + 60_000);
+                if (!tokenDenyList.isDenied(jti)) {
+                    missed.incrementAndGet();
+                }
+            }
+        })).toList();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        purger.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        assertThat(missed.get()).isZero();
+        assertThat(IntStream.range(0, 3).allMatch(w -> IntStream.range(0, 2000)
+                .allMatch(i -> tokenDenyList.isDenied("revoked-" + w + "-" + i)))).isTrue();
+    }
+
+    private static void await(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}